@@ -0,0 +1,346 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.dataset;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.io.ResourceLocator;
+import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
+import com.opengamma.strata.market.curve.CurveGroupName;
+import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
+
+/**
+ * Registry of the curve configurations in the curve-config resources.
+ * <p>
+ * The configuration folder is indexed once, when the registry is created. In each sub-folder, the files are
+ * named {@code <prefix>-group.csv}, {@code <prefix>-settings[-<variant>].csv} and
+ * {@code <prefix>-nodes[-<variant>].csv}; the variant is empty when absent.
+ * <p>
+ * The group definitions are loaded lazily, on first request, and only once for each combination of folder,
+ * prefix, settings variant and nodes variant. The definitions in files given explicitly, possibly outside the
+ * root folder, are also loaded only once for each combination of files. The registry is thread-safe.
+ *
+ * @author Marc Henrard
+ */
+public final class CurveConfigRegistry {
+
+  /** The default root of the curve configurations. */
+  public static final String PATH_CONFIG = "src/analysis/resources/curve-config/";
+
+  private static final String CSV = ".csv";
+  private static final String GROUP_STR = "-group";
+  private static final String SETTINGS_STR = "-settings";
+  private static final String NODES_STR = "-nodes";
+
+  /** The root folder. */
+  private final String root;
+  /** The index of the files by folder and prefix. */
+  private final ImmutableSortedMap<String, ImmutableSortedMap<String, ConfigFiles>> index;
+  /** The loaded definitions, by folder, prefix, settings variant and nodes variant. */
+  private final Map<List<String>, RatesCurveGroupDefinition> definitions = new ConcurrentHashMap<>();
+  /** The loaded definitions of files given explicitly, by group, settings and nodes locators. */
+  private final Map<List<String>, ImmutableMap<CurveGroupName, RatesCurveGroupDefinition>> definitionsByFiles =
+      new ConcurrentHashMap<>();
+
+  /** Holder for the lazy creation of the standard registry. */
+  private static final class Holder {
+    private static final CurveConfigRegistry STANDARD = of(PATH_CONFIG);
+  }
+
+  private CurveConfigRegistry(String root, ImmutableSortedMap<String, ImmutableSortedMap<String, ConfigFiles>> index) {
+    this.root = root;
+    this.index = index;
+  }
+
+  /**
+   * Returns the registry of the standard curve-config resources.
+   *
+   * @return the registry
+   */
+  public static CurveConfigRegistry standard() {
+    return Holder.STANDARD;
+  }
+
+  /**
+   * Creates a registry by indexing a root folder.
+   *
+   * @param root  the root folder
+   * @return the registry
+   */
+  public static CurveConfigRegistry of(String root) {
+    String rootPath = root.endsWith("/") ? root : root + "/";
+    File rootFolder = new File(rootPath);
+    ArgChecker.isTrue(rootFolder.isDirectory(), "config {} need to be a directory", rootPath);
+    Map<String, ImmutableSortedMap<String, ConfigFiles>> index = new TreeMap<>();
+    File[] folders = rootFolder.listFiles(File::isDirectory);
+    for (File folder : folders) {
+      Map<String, ConfigFiles.Builder> byPrefix = new TreeMap<>();
+      File[] files = folder.listFiles(File::isFile);
+      for (File file : files) {
+        String name = file.getName();
+        if (!name.endsWith(CSV)) {
+          continue;
+        }
+        String base = name.substring(0, name.length() - CSV.length());
+        String path = rootPath + folder.getName() + "/" + name;
+        int position;
+        if (base.endsWith(GROUP_STR)) {
+          String prefix = base.substring(0, base.length() - GROUP_STR.length());
+          byPrefix.computeIfAbsent(prefix, k -> new ConfigFiles.Builder()).group = path;
+        } else if ((position = base.indexOf(SETTINGS_STR)) > 0) {
+          byPrefix.computeIfAbsent(base.substring(0, position), k -> new ConfigFiles.Builder())
+              .settings.put(variant(base, position + SETTINGS_STR.length()), path);
+        } else if ((position = base.indexOf(NODES_STR)) > 0) {
+          byPrefix.computeIfAbsent(base.substring(0, position), k -> new ConfigFiles.Builder())
+              .nodes.put(variant(base, position + NODES_STR.length()), path);
+        }
+      }
+      ImmutableSortedMap.Builder<String, ConfigFiles> folderIndex = ImmutableSortedMap.naturalOrder();
+      for (Map.Entry<String, ConfigFiles.Builder> entry : byPrefix.entrySet()) {
+        if (entry.getValue().isComplete()) {
+          folderIndex.put(entry.getKey(), entry.getValue().build());
+        }
+      }
+      index.put(folder.getName(), folderIndex.build());
+    }
+    return new CurveConfigRegistry(rootPath, ImmutableSortedMap.copyOf(index));
+  }
+
+  private static String variant(String base, int start) {
+    String variant = base.substring(start);
+    return variant.startsWith("-") ? variant.substring(1) : variant;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the root folder.
+   *
+   * @return the root
+   */
+  public String getRoot() {
+    return root;
+  }
+
+  /**
+   * Returns the indexed folders.
+   *
+   * @return the folder names
+   */
+  public ImmutableList<String> getFolders() {
+    return index.keySet().asList();
+  }
+
+  /**
+   * Returns the group prefixes in a folder.
+   *
+   * @param folder  the folder name
+   * @return the prefixes
+   */
+  public ImmutableList<String> getPrefixes(String folder) {
+    return folder(folder).keySet().asList();
+  }
+
+  /**
+   * Returns the settings variants for the unique group of a folder.
+   *
+   * @param folder  the folder name
+   * @return the variants
+   */
+  public ImmutableList<String> getSettingsVariants(String folder) {
+    return files(folder, uniquePrefix(folder)).settings.keySet().asList();
+  }
+
+  /**
+   * Returns the nodes variants for the unique group of a folder.
+   *
+   * @param folder  the folder name
+   * @return the variants
+   */
+  public ImmutableList<String> getNodesVariants(String folder) {
+    return files(folder, uniquePrefix(folder)).nodes.keySet().asList();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the group definition of a folder with its default settings and nodes.
+   * <p>
+   * The folder must contain only one group. The default variant is the one without variant name if present,
+   * otherwise the first one in alphabetical order.
+   *
+   * @param folder  the folder name
+   * @return the definition
+   */
+  public RatesCurveGroupDefinition definition(String folder) {
+    String prefix = uniquePrefix(folder);
+    ConfigFiles files = files(folder, prefix);
+    return definition(folder, prefix, files.defaultSettings(), files.defaultNodes());
+  }
+
+  /**
+   * Returns the group definition of a folder for given settings and nodes variants.
+   * <p>
+   * The folder must contain only one group.
+   *
+   * @param folder  the folder name
+   * @param settingsVariant  the settings variant, empty for the file without variant
+   * @param nodesVariant  the nodes variant, empty for the file without variant
+   * @return the definition
+   */
+  public RatesCurveGroupDefinition definition(String folder, String settingsVariant, String nodesVariant) {
+    return definition(folder, uniquePrefix(folder), settingsVariant, nodesVariant);
+  }
+
+  /**
+   * Returns the group definition of a folder for a given group prefix and given settings and nodes variants.
+   *
+   * @param folder  the folder name
+   * @param prefix  the group prefix in the file names
+   * @param settingsVariant  the settings variant, empty for the file without variant
+   * @param nodesVariant  the nodes variant, empty for the file without variant
+   * @return the definition
+   */
+  public RatesCurveGroupDefinition definition(
+      String folder,
+      String prefix,
+      String settingsVariant,
+      String nodesVariant) {
+
+    List<String> key = Arrays.asList(folder, prefix, settingsVariant, nodesVariant);
+    return definitions.computeIfAbsent(key, k -> {
+      List<ResourceLocator> locators = resources(folder, prefix, settingsVariant, nodesVariant);
+      ImmutableMap<CurveGroupName, RatesCurveGroupDefinition> defns =
+          RatesCalibrationCsvLoader.load(locators.get(0), locators.get(1), locators.get(2));
+      return defns.values().iterator().next();
+    });
+  }
+
+  /**
+   * Returns a group definition from given group, settings and nodes files.
+   * <p>
+   * The files do not need to be in the root folder. They are loaded on first request and the definitions of all
+   * the groups they contain are kept for the next requests with the same files.
+   *
+   * @param curveGroupName  the curve group name
+   * @param groupFile  the file with the group definition
+   * @param settingsFile  the file with the settings
+   * @param nodesFile  the file with the curves' nodes
+   * @return the definition
+   */
+  public RatesCurveGroupDefinition definition(
+      CurveGroupName curveGroupName,
+      ResourceLocator groupFile,
+      ResourceLocator settingsFile,
+      ResourceLocator nodesFile) {
+
+    List<String> key = Arrays.asList(groupFile.getLocator(), settingsFile.getLocator(), nodesFile.getLocator());
+    ImmutableMap<CurveGroupName, RatesCurveGroupDefinition> defns = definitionsByFiles.computeIfAbsent(key,
+        k -> RatesCalibrationCsvLoader.load(groupFile, settingsFile, nodesFile));
+    RatesCurveGroupDefinition definition = defns.get(curveGroupName);
+    ArgChecker.isTrue(definition != null, "group {} not found in {}", curveGroupName, groupFile);
+    return definition;
+  }
+
+  /**
+   * Returns the group, settings and nodes files of a configuration.
+   *
+   * @param folder  the folder name
+   * @param prefix  the group prefix in the file names
+   * @param settingsVariant  the settings variant, empty for the file without variant
+   * @param nodesVariant  the nodes variant, empty for the file without variant
+   * @return the group, settings and nodes files
+   */
+  public ImmutableList<ResourceLocator> resources(
+      String folder,
+      String prefix,
+      String settingsVariant,
+      String nodesVariant) {
+
+    ConfigFiles files = files(folder, prefix);
+    String settings = files.settings.get(settingsVariant);
+    String nodes = files.nodes.get(nodesVariant);
+    ArgChecker.isTrue(settings != null, "settings variant '{}' not found in {}", settingsVariant, folder);
+    ArgChecker.isTrue(nodes != null, "nodes variant '{}' not found in {}", nodesVariant, folder);
+    return ImmutableList.of(ResourceLocator.of(files.group), ResourceLocator.of(settings), ResourceLocator.of(nodes));
+  }
+
+  /**
+   * Returns the group, settings and nodes files of the default configuration of a folder.
+   * <p>
+   * See {@link #definition(String)} for the default.
+   *
+   * @param folder  the folder name
+   * @return the group, settings and nodes files
+   */
+  public ImmutableList<ResourceLocator> resources(String folder) {
+    String prefix = uniquePrefix(folder);
+    ConfigFiles files = files(folder, prefix);
+    return resources(folder, prefix, files.defaultSettings(), files.defaultNodes());
+  }
+
+  private ImmutableSortedMap<String, ConfigFiles> folder(String folder) {
+    ImmutableSortedMap<String, ConfigFiles> folderIndex = index.get(folder);
+    ArgChecker.isTrue(folderIndex != null, "config {} not found in {}", folder, root);
+    return folderIndex;
+  }
+
+  private String uniquePrefix(String folder) {
+    ImmutableSortedMap<String, ConfigFiles> folderIndex = folder(folder);
+    ArgChecker.isTrue(folderIndex.size() == 1,
+        "config {} should contain exactly one group, found {}", folder, folderIndex.keySet());
+    return folderIndex.firstKey();
+  }
+
+  private ConfigFiles files(String folder, String prefix) {
+    ConfigFiles files = folder(folder).get(prefix);
+    ArgChecker.isTrue(files != null, "group {} not found in {}", prefix, folder);
+    return files;
+  }
+
+  //-------------------------------------------------------------------------
+  /* The files of one group: group file and settings and nodes files by variant. */
+  private static final class ConfigFiles {
+    private final String group;
+    private final ImmutableSortedMap<String, String> settings;
+    private final ImmutableSortedMap<String, String> nodes;
+
+    private ConfigFiles(String group, ImmutableSortedMap<String, String> settings,
+        ImmutableSortedMap<String, String> nodes) {
+      this.group = group;
+      this.settings = settings;
+      this.nodes = nodes;
+    }
+
+    private String defaultSettings() {
+      return settings.firstKey(); // the empty variant is first if present
+    }
+
+    private String defaultNodes() {
+      return nodes.firstKey();
+    }
+
+    private static final class Builder {
+      private String group;
+      private final Map<String, String> settings = new TreeMap<>();
+      private final Map<String, String> nodes = new TreeMap<>();
+
+      private boolean isComplete() {
+        return group != null && !settings.isEmpty() && !nodes.isEmpty();
+      }
+
+      private ConfigFiles build() {
+        return new ConfigFiles(group, ImmutableSortedMap.copyOf(settings), ImmutableSortedMap.copyOf(nodes));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.dataset;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableSortedSet;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Registry of the data sets shared by the analysis, like calibrated multi-curves.
+ * <p>
+ * The data sets are registered by name and computed lazily, see {@link LazyDataSet}. A data set requested twice
+ * with the same name is computed once and shared by all the consumers. Independent data sets can be prewarmed
+ * together; they are then computed in parallel on a background pool.
+ * <p>
+ * The registry only knows the data sets which have been registered, i.e. whose owning class has been loaded.
+ *
+ * @author Marc Henrard
+ */
+public final class DataSetRegistry {
+
+  /** The background pool. The threads are daemon threads and waiting on a data set inside the pool is managed. */
+  private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+  /** The registered data sets, by name. */
+  private static final Map<String, LazyDataSet<?>> DATA_SETS = new ConcurrentHashMap<>();
+
+  /** Private constructor. */
+  private DataSetRegistry() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the lazy data set with the given name, registering it with the loader if not present.
+   * <p>
+   * If a data set with the same name is already registered, it is returned and the loader is ignored.
+   * The name must then uniquely describe the data set.
+   *
+   * @param <T>  the type of the data set
+   * @param name  the name of the data set
+   * @param loader  the loader computing the data set
+   * @return the lazy data set
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> LazyDataSet<T> lazy(String name, Supplier<T> loader) {
+    ArgChecker.notEmpty(name, "name");
+    ArgChecker.notNull(loader, "loader");
+    return (LazyDataSet<T>) DATA_SETS.computeIfAbsent(name, k -> new LazyDataSet<>(name, loader, POOL));
+  }
+
+  /**
+   * Finds a registered data set by name.
+   *
+   * @param name  the name of the data set
+   * @return the data set, empty if not registered
+   */
+  public static Optional<LazyDataSet<?>> find(String name) {
+    return Optional.ofNullable(DATA_SETS.get(name));
+  }
+
+  /**
+   * Returns the names of the registered data sets.
+   *
+   * @return the names
+   */
+  public static ImmutableSortedSet<String> names() {
+    return ImmutableSortedSet.copyOf(DATA_SETS.keySet());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Starts the computation of data sets in parallel.
+   *
+   * @param dataSets  the data sets
+   * @return the future completed when all the data sets are computed
+   */
+  public static CompletableFuture<Void> prewarm(LazyDataSet<?>... dataSets) {
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[dataSets.length];
+    for (int loopds = 0; loopds < dataSets.length; loopds++) {
+      futures[loopds] = dataSets[loopds].prewarm();
+    }
+    return CompletableFuture.allOf(futures);
+  }
+
+  /**
+   * Starts the computation of registered data sets in parallel.
+   *
+   * @param names  the names of the data sets
+   * @return the future completed when all the data sets are computed
+   */
+  public static CompletableFuture<Void> prewarm(String... names) {
+    LazyDataSet<?>[] dataSets = new LazyDataSet<?>[names.length];
+    for (int loopds = 0; loopds < names.length; loopds++) {
+      String name = names[loopds];
+      dataSets[loopds] = find(name)
+          .orElseThrow(() -> new IllegalArgumentException("data set " + name + " not registered"));
+    }
+    return prewarm(dataSets);
+  }
+
+  /**
+   * Starts the computation of all the registered data sets in parallel.
+   *
+   * @return the future completed when all the data sets are computed
+   */
+  public static CompletableFuture<Void> prewarmAll() {
+    return prewarm(DATA_SETS.values().toArray(new LazyDataSet<?>[0]));
+  }
+
+}
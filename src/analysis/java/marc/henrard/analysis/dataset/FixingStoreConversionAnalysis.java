@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.dataset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.io.ResourceLocator;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.loader.csv.FixingSeriesCsvLoader;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+
+import marc.henrard.analysis.data.timeseries.FixingStore;
+import marc.henrard.analysis.data.timeseries.FixingStoreWriter;
+
+/**
+ * Conversion of the csv fixing files to the binary fixing store and comparison of the loading times.
+ * <p>
+ * All the csv files of the fixing resources are converted, each one in a binary file with the same name in the
+ * fixing-binary resources. Several csv files contain fixings of the same index, e.g. "USD-SOFR.csv" and
+ * "USD-SOFR-2.csv" or the compounded rates with and without offset, so the files are loaded and converted one by one.
+ *
+ * @author Marc Henrard
+ */
+public class FixingStoreConversionAnalysis {
+
+  private static final String FIXING_PATH = "src/analysis/resources/fixing/";
+  private static final String BINARY_PATH = "src/analysis/resources/fixing-binary/";
+  private static final String CSV_EXTENSION = ".csv";
+  private static final String BINARY_EXTENSION = ".bin";
+  private static final int NB_REP = 20;
+
+  /**
+   * Converts the csv files to binary files and checks that the binary files load to the same fixings.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void convert() throws IOException {
+    long start, end;
+    List<String> csvFileNames = csvFileNames();
+    List<LocalDateDoubleTimeSeries> fixingsCsv = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    for (String csvFileName : csvFileNames) {
+      Map<ObservableId, LocalDateDoubleTimeSeries> fixings =
+          FixingSeriesCsvLoader.load(ResourceLocator.of(FIXING_PATH + csvFileName));
+      ArgChecker.isTrue(fixings.size() == 1, "file {} must contain one series", csvFileName);
+      ObservableId id = fixings.keySet().iterator().next();
+      ArgChecker.isTrue(id instanceof IndexQuoteId, "file {} must contain fixings of an index", csvFileName);
+      names.add(((IndexQuoteId) id).getIndex().getName());
+      fixingsCsv.add(fixings.get(id));
+    }
+    Files.createDirectories(Paths.get(BINARY_PATH));
+    start = System.currentTimeMillis();
+    for (int loopfile = 0; loopfile < csvFileNames.size(); loopfile++) {
+      FixingStoreWriter.write(
+          names.get(loopfile), fixingsCsv.get(loopfile), binaryFileName(csvFileNames.get(loopfile)));
+    }
+    end = System.currentTimeMillis();
+    System.out.println("Conversion of " + csvFileNames.size() + " files in " + (end - start) + " ms.");
+    for (int loopfile = 0; loopfile < csvFileNames.size(); loopfile++) {
+      FixingStore store = FixingStore.of(binaryFileName(csvFileNames.get(loopfile)));
+      ArgChecker.isTrue(store.getName().equals(names.get(loopfile)) &&
+          store.timeSeries().equals(fixingsCsv.get(loopfile)),
+          "fixings of {} different after conversion", csvFileNames.get(loopfile));
+    }
+  }
+
+  /**
+   * Compares the loading times of the csv files and of the binary files.
+   * <p>
+   * The binary files are created by {@link #convert()}.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void loading_time() throws IOException {
+    long start, end;
+    List<String> csvFileNames = csvFileNames();
+    List<ResourceLocator> resources = csvFileNames.stream()
+        .map(f -> ResourceLocator.of(FIXING_PATH + f))
+        .collect(ImmutableList.toImmutableList());
+    List<String> fileNames = csvFileNames.stream()
+        .map(FixingStoreConversionAnalysis::binaryFileName)
+        .collect(ImmutableList.toImmutableList());
+    int nbFixings = 0;
+    start = System.currentTimeMillis();
+    for (int looprep = 0; looprep < NB_REP; looprep++) {
+      nbFixings = 0;
+      for (ResourceLocator resource : resources) {
+        nbFixings += FixingSeriesCsvLoader.load(resource).values().stream()
+            .mapToInt(LocalDateDoubleTimeSeries::size).sum();
+      }
+    }
+    end = System.currentTimeMillis();
+    System.out.println("Csv load: " + nbFixings + " fixings in " + (end - start) / NB_REP + " ms.");
+    start = System.currentTimeMillis();
+    for (int looprep = 0; looprep < NB_REP; looprep++) {
+      nbFixings = 0;
+      for (String fileName : fileNames) {
+        nbFixings += FixingStore.of(fileName).series().countPresent();
+      }
+    }
+    end = System.currentTimeMillis();
+    System.out.println("Binary mapped load: " + nbFixings + " fixings in " + (end - start) / NB_REP + " ms.");
+    start = System.currentTimeMillis();
+    for (int looprep = 0; looprep < NB_REP; looprep++) {
+      nbFixings = 0;
+      for (String fileName : fileNames) {
+        nbFixings += FixingStore.of(fileName).timeSeries().size();
+      }
+    }
+    end = System.currentTimeMillis();
+    System.out.println("Binary load to time series: " + nbFixings + " fixings in " + (end - start) / NB_REP + " ms.");
+  }
+
+  /* The names of all the csv files in the fixing folder, sorted. */
+  private static List<String> csvFileNames() throws IOException {
+    try (Stream<Path> paths = Files.list(Paths.get(FIXING_PATH))) {
+      return paths.map(p -> p.getFileName().toString()).filter(f -> f.endsWith(CSV_EXTENSION)).sorted()
+          .collect(ImmutableList.toImmutableList());
+    }
+  }
+
+  private static String binaryFileName(String csvFileName) {
+    String name = csvFileName.substring(0, csvFileName.length() - CSV_EXTENSION.length());
+    return BINARY_PATH + name + BINARY_EXTENSION;
+  }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.dataset;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Data set computed once, on first request or when prewarmed.
+ * <p>
+ * The data set is computed at most once and the result, or the failure, is shared by all the consumers.
+ * When prewarmed, the computation runs on the executor of the registry; when requested with {@link #get()} before
+ * being prewarmed, the computation runs in the calling thread.
+ * <p>
+ * Instances are created by {@link DataSetRegistry#lazy(String, Supplier)}.
+ *
+ * @param <T>  the type of the data set
+ * @author Marc Henrard
+ */
+public final class LazyDataSet<T> implements Supplier<T> {
+
+  /** The name of the data set. */
+  private final String name;
+  /** The loader, computing the data set. */
+  private final Supplier<T> loader;
+  /** The executor for the asynchronous computation. */
+  private final Executor executor;
+  /** The result, null until the computation is started. */
+  private final AtomicReference<CompletableFuture<T>> result = new AtomicReference<>();
+
+  LazyDataSet(String name, Supplier<T> loader, Executor executor) {
+    this.name = name;
+    this.loader = loader;
+    this.executor = executor;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the name of the data set.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns true if the computation has been started, by a request or a prewarm.
+   *
+   * @return true if started
+   */
+  public boolean isStarted() {
+    return result.get() != null;
+  }
+
+  /**
+   * Starts the computation in the background, if not already started.
+   *
+   * @return the future result
+   */
+  public CompletableFuture<T> prewarm() {
+    CompletableFuture<T> current = result.get();
+    if (current != null) {
+      return current;
+    }
+    CompletableFuture<T> created = new CompletableFuture<>();
+    if (!result.compareAndSet(null, created)) {
+      return result.get();
+    }
+    executor.execute(() -> load(created));
+    return created;
+  }
+
+  /**
+   * Returns the data set, computing it in the calling thread if it has not been started.
+   * <p>
+   * If the computation is running in another thread, waits for its result.
+   *
+   * @return the data set
+   * @throws RuntimeException  if the computation failed
+   */
+  @Override
+  public T get() {
+    CompletableFuture<T> current = result.get();
+    if (current == null) {
+      CompletableFuture<T> created = new CompletableFuture<>();
+      if (result.compareAndSet(null, created)) {
+        load(created);
+      }
+      current = result.get();
+    }
+    try {
+      return current.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  private void load(CompletableFuture<T> target) {
+    try {
+      target.complete(loader.get());
+    } catch (Throwable e) {
+      target.completeExceptionally(e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "LazyDataSet[" + name + "]";
+  }
+
+}
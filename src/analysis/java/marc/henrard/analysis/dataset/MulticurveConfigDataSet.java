@@ -3,40 +3,38 @@
  */
 package marc.henrard.analysis.dataset;
 
-import java.io.File;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 
-import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.ReferenceData;
-import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
-import com.opengamma.strata.pricer.curve.RatesCurveCalibrator;
 import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 
 /**
  * Generate a multi-curve with market quotes and curve configurations from csv files.
+ * <p>
+ * The calibrated multi-curves are cached on disk, in {@code target/curve-cache}, with a key depending on the
+ * content of the files, the calibration date, the calibrator settings and the reference data. Calling the methods
+ * again with the same inputs rebuilds the multi-curve from the cache without calibration.
  * 
  * @author Marc Henrard
  */
 public class MulticurveConfigDataSet {
 
-  private static final String PATH_CONFIG = "src/analysis/resources/curve-config/";
   private static final String PATH_QUOTES = "src/analysis/resources/quotes/";
-  
-  private static final String GROUP_STR = "-group";
-  private static final String SETTINGS_STR = "-settings";
-  private static final String NODES_STR = "-nodes";
-
-  private static final RatesCurveCalibrator CALIBRATOR = RatesCurveCalibrator.standard();
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
+  private static final MulticurveDiskCache CACHE = MulticurveDiskCache.standard(Paths.get("target/curve-cache"));
 
   /**
-   * 
-   * Only one group, setting and nodes file should be present in the configuration folder.
+   * Returns a multi-curve provider calibrated using the curve group of a configuration folder.
+   * <p>
+   * Only one group should be present in the configuration folder. When several settings or nodes files are
+   * present, the default one is used, see {@link CurveConfigRegistry#definition(String)}.
    * 
    * @param calibrationDate  the calibration date
    * @param marketQuotesFile  the name of the file with the market quotes
@@ -50,37 +48,20 @@ public class MulticurveConfigDataSet {
       String configFolder,
       ReferenceData refData) {
     
-    /* Search for the config and load */
-    String folderPathConfig = PATH_CONFIG + configFolder;
-    String group = null;
-    String settings = null;
-    String nodes = null;
-    File folder = new File(folderPathConfig);
-    ArgChecker.isTrue(folder.isDirectory(), "config " + folderPathConfig + " need to be a directory");
-    File[] files = folder.listFiles();
-    for (int i = 0; i < files.length; i++) {
-      if (files[i].getName().contains(GROUP_STR)) {
-        group = folderPathConfig + "/" + files[i].getName();
-      }
-      if (files[i].getName().contains(SETTINGS_STR)) {
-        settings = folderPathConfig + "/" + files[i].getName();
-      }
-      if (files[i].getName().contains(NODES_STR)) {
-        nodes = folderPathConfig + "/" + files[i].getName();
-      }
-    }
-    ImmutableMap<CurveGroupName, RatesCurveGroupDefinition> defns = RatesCalibrationCsvLoader
-        .load(ResourceLocator.of(group), ResourceLocator.of(settings), ResourceLocator.of(nodes));
-    RatesCurveGroupDefinition curveGroupDefinition = defns.entrySet().iterator().next().getValue();
+    /* Config from the registry */
+    RatesCurveGroupDefinition curveGroupDefinition = REGISTRY.definition(configFolder);
     /* Load market data and calibrates */
-    String filePathQuotes = PATH_QUOTES + marketQuotesFile;
+    ResourceLocator quotes = ResourceLocator.of(PATH_QUOTES + marketQuotesFile);
     MarketData marketData = MarketData
-        .of(calibrationDate, QuotesCsvLoader.load(calibrationDate, ResourceLocator.of(filePathQuotes)));
-    return CALIBRATOR.calibrate(curveGroupDefinition, marketData, refData);
+        .of(calibrationDate, QuotesCsvLoader.load(calibrationDate, quotes));
+    return CACHE.multicurve(curveGroupDefinition, marketData, refData, ImmutableList.<ResourceLocator>builder()
+        .addAll(REGISTRY.resources(configFolder)).add(quotes).build());
   }
 
   /**
    * Returns a multi-curve provider calibrated using a given curve group defined in given resources.
+   * <p>
+   * The group definition is loaded through the registry, only once for the same resources.
    * 
    * @param calibrationDate  the calibration date
    * @param curveGroupName  the curve group name
@@ -99,11 +80,13 @@ public class MulticurveConfigDataSet {
       String fileQuotes,
       ReferenceData refData) {
 
-    RatesCurveGroupDefinition groupDefinition = RatesCalibrationCsvLoader
-        .load(groupFile, settingsFile, nodesFile).get(curveGroupName);
+    RatesCurveGroupDefinition groupDefinition =
+        REGISTRY.definition(curveGroupName, groupFile, settingsFile, nodesFile);
+    ResourceLocator quotes = ResourceLocator.of(fileQuotes);
     MarketData marketData = MarketData
-        .of(calibrationDate, QuotesCsvLoader.load(calibrationDate, ResourceLocator.of(fileQuotes)));
-    return CALIBRATOR.calibrate(groupDefinition, marketData, refData);
+        .of(calibrationDate, QuotesCsvLoader.load(calibrationDate, quotes));
+    return CACHE.multicurve(groupDefinition, marketData, refData, 
+        ImmutableList.of(groupFile, settingsFile, nodesFile, quotes));
   }
 
 }
@@ -0,0 +1,340 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.dataset;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.index.Index;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.collect.io.ResourceLocator;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.MarketDataFxRateProvider;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveDefinition;
+import com.opengamma.strata.market.curve.CurveInfoType;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.CurveParameterSize;
+import com.opengamma.strata.market.curve.JacobianCalibrationMatrix;
+import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
+import com.opengamma.strata.market.curve.RatesCurveGroupEntry;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+import com.opengamma.strata.pricer.curve.ImmutableRatesProviderGenerator;
+import com.opengamma.strata.pricer.curve.RatesCurveCalibrator;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.product.ResolvedTrade;
+
+/**
+ * On-disk cache of calibrated multi-curves.
+ * <p>
+ * The cache is content-addressed: the key is a SHA-256 hash of the content of the configuration and quote files,
+ * the valuation date, the calibrator settings and the reference data. The calibrator is created by the cache from
+ * its settings, so that the key cannot differ from the calibrator used. The reference data is part of the key
+ * through the trades resolved from the curve nodes, which contain all the dates adjusted with the holiday
+ * calendars and the other reference data used by the calibration. Any change in one of the inputs produces
+ * a new key. The calibrated parameters, the Jacobian matrices and the PV sensitivities to market quotes are
+ * stored in a compact binary file. On a cache hit, the multi-curve is rebuilt from those values with the same
+ * generator as the one used by the calibrator, without any calibration.
+ * <p>
+ * Unreadable or inconsistent cache files are ignored and replaced by a new calibration. A failure to write a cache
+ * file is an error, reported as {@link UncheckedIOException}; the previous cache file, if any, is unchanged.
+ *
+ * @author Marc Henrard
+ */
+public final class MulticurveDiskCache {
+
+  /** The magic number at the start of the cache files: "MHMC". */
+  private static final int MAGIC = 0x4D484D43;
+  /** The version of the cache file format. */
+  private static final int VERSION = 1;
+  /** The cache file extension. */
+  private static final String EXTENSION = ".mcc";
+
+  /** The absolute tolerance of the standard calibrator. */
+  private static final double STANDARD_TOLERANCE_ABS = 1.0E-9;
+  /** The relative tolerance of the standard calibrator. */
+  private static final double STANDARD_TOLERANCE_REL = 1.0E-9;
+  /** The maximum number of steps of the standard calibrator. */
+  private static final int STANDARD_STEP_MAXIMUM = 1000;
+
+  /** The cache folder. */
+  private final Path folder;
+  /** The calibrator, created from the settings below. */
+  private final RatesCurveCalibrator calibrator;
+  /** The description of the calibrator settings, part of the key. */
+  private final String calibratorSettings;
+
+  private MulticurveDiskCache(Path folder, double toleranceAbs, double toleranceRel, int stepMaximum) {
+    this.folder = folder;
+    this.calibrator = RatesCurveCalibrator.of(toleranceAbs, toleranceRel, stepMaximum);
+    this.calibratorSettings = "RatesCurveCalibrator[" + toleranceAbs + ", " + toleranceRel + ", " + stepMaximum + "]";
+  }
+
+  /**
+   * Creates a cache with a calibrator with the given settings and the standard calibration measures.
+   *
+   * @param folder  the cache folder, created if necessary
+   * @param toleranceAbs  the absolute tolerance of the calibrator
+   * @param toleranceRel  the relative tolerance of the calibrator
+   * @param stepMaximum  the maximum number of steps of the calibrator
+   * @return the cache
+   */
+  public static MulticurveDiskCache of(Path folder, double toleranceAbs, double toleranceRel, int stepMaximum) {
+    return new MulticurveDiskCache(folder, toleranceAbs, toleranceRel, stepMaximum);
+  }
+
+  /**
+   * Creates a cache with the settings of {@link RatesCurveCalibrator#standard()}.
+   *
+   * @param folder  the cache folder, created if necessary
+   * @return the cache
+   */
+  public static MulticurveDiskCache standard(Path folder) {
+    return new MulticurveDiskCache(folder, STANDARD_TOLERANCE_ABS, STANDARD_TOLERANCE_REL, STANDARD_STEP_MAXIMUM);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the calibrated multi-curve, from the cache if available.
+   * <p>
+   * The key files are the files from which the group definition and the market data are loaded.
+   * On a cache miss, the calibrated multi-curve is written in the cache.
+   *
+   * @param groupDefinition  the curve group definition
+   * @param marketData  the market data
+   * @param refData  the reference data
+   * @param keyFiles  the group, settings, nodes and quote files
+   * @return the calibrated multi-curve
+   * @throws UncheckedIOException  if the cache file cannot be written
+   */
+  public ImmutableRatesProvider multicurve(
+      RatesCurveGroupDefinition groupDefinition,
+      MarketData marketData,
+      ReferenceData refData,
+      List<ResourceLocator> keyFiles) {
+
+    String key = key(groupDefinition, marketData, refData, keyFiles);
+    Path file = folder.resolve(key + EXTENSION);
+    ImmutableRatesProviderGenerator generator = generator(groupDefinition, marketData, refData);
+    if (Files.isRegularFile(file)) {
+      Optional<ImmutableRatesProvider> cached = read(file, generator, groupDefinition);
+      if (cached.isPresent()) {
+        return cached.get();
+      }
+    }
+    ImmutableRatesProvider multicurve = calibrator.calibrate(groupDefinition, marketData, refData);
+    write(file, multicurve, groupDefinition);
+    return multicurve;
+  }
+
+  /* The generator used by the calibrator, with the same known data. */
+  private static ImmutableRatesProviderGenerator generator(
+      RatesCurveGroupDefinition groupDefinition,
+      MarketData marketData,
+      ReferenceData refData) {
+
+    LocalDate valuationDate = marketData.getValuationDate();
+    Map<Index, LocalDateDoubleTimeSeries> timeSeries = new HashMap<>();
+    for (RatesCurveGroupEntry entry : groupDefinition.getEntries()) {
+      for (Index index : entry.getIndices()) {
+        timeSeries.put(index, marketData.getTimeSeries(IndexQuoteId.of(index)));
+      }
+    }
+    ImmutableRatesProvider knownData = ImmutableRatesProvider.builder(valuationDate)
+        .fxRateProvider(MarketDataFxRateProvider.of(marketData))
+        .timeSeries(timeSeries)
+        .build();
+    return ImmutableRatesProviderGenerator.of(
+        knownData, groupDefinition.bindTimeSeries(valuationDate, timeSeries), refData);
+  }
+
+  /* The hash of the inputs. The reference data enters through the trades resolved as in the calibration. */
+  private String key(
+      RatesCurveGroupDefinition groupDefinition,
+      MarketData marketData,
+      ReferenceData refData,
+      List<ResourceLocator> files) {
+
+    LocalDate valuationDate = marketData.getValuationDate();
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      update(digest, Integer.toString(VERSION).getBytes(StandardCharsets.UTF_8));
+      update(digest, groupDefinition.getName().getName().getBytes(StandardCharsets.UTF_8));
+      update(digest, valuationDate.toString().getBytes(StandardCharsets.UTF_8));
+      update(digest, calibratorSettings.getBytes(StandardCharsets.UTF_8));
+      for (ResourceLocator file : files) {
+        update(digest, file.getByteSource().read());
+      }
+      for (ResolvedTrade trade : groupDefinition.filtered(valuationDate, refData).resolvedTrades(marketData, refData)) {
+        update(digest, trade.toString().getBytes(StandardCharsets.UTF_8));
+      }
+      StringBuilder key = new StringBuilder();
+      for (byte b : digest.digest()) {
+        key.append(String.format("%02x", b));
+      }
+      return key.toString();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /* Each input is preceded by its length, to avoid ambiguities between inputs. */
+  private static void update(MessageDigest digest, byte[] bytes) {
+    int length = bytes.length;
+    digest.update(new byte[] {(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+    digest.update(bytes);
+  }
+
+  //-------------------------------------------------------------------------
+  /* Stores the parameters, Jacobians and sensitivities; written in a temporary file then moved, removed on failure. */
+  private void write(Path file, ImmutableRatesProvider multicurve, RatesCurveGroupDefinition groupDefinition) {
+    try {
+      Files.createDirectories(folder);
+      Path temp = Files.createTempFile(folder, "curve", ".tmp");
+      try {
+        try (OutputStream os = Files.newOutputStream(temp);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+          List<Curve> curves = new ArrayList<>();
+          for (CurveDefinition definition : groupDefinition.getCurveDefinitions()) {
+            curves.add(multicurve.getCurves().get(definition.getName()));
+          }
+          out.writeInt(MAGIC);
+          out.writeInt(VERSION);
+          out.writeInt(curves.size());
+          for (Curve curve : curves) {
+            out.writeUTF(curve.getName().getName());
+            out.writeInt(curve.getParameterCount());
+            for (int loopparam = 0; loopparam < curve.getParameterCount(); loopparam++) {
+              out.writeDouble(curve.getParameter(loopparam));
+            }
+            Optional<JacobianCalibrationMatrix> jacobian = curve.getMetadata().findInfo(CurveInfoType.JACOBIAN);
+            out.writeBoolean(jacobian.isPresent());
+            if (jacobian.isPresent()) {
+              List<CurveParameterSize> order = jacobian.get().getOrder();
+              out.writeInt(order.size());
+              for (CurveParameterSize size : order) {
+                out.writeUTF(size.getName().getName());
+                out.writeInt(size.getParameterCount());
+              }
+              DoubleMatrix matrix = jacobian.get().getJacobianMatrix();
+              out.writeInt(matrix.rowCount());
+              out.writeInt(matrix.columnCount());
+              for (int looprow = 0; looprow < matrix.rowCount(); looprow++) {
+                for (int loopcol = 0; loopcol < matrix.columnCount(); loopcol++) {
+                  out.writeDouble(matrix.get(looprow, loopcol));
+                }
+              }
+            }
+            Optional<DoubleArray> sensitivity =
+                curve.getMetadata().findInfo(CurveInfoType.PV_SENSITIVITY_TO_MARKET_QUOTE);
+            out.writeBoolean(sensitivity.isPresent());
+            if (sensitivity.isPresent()) {
+              writeArray(out, sensitivity.get());
+            }
+          }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Multi-curve cache not written: " + file, e);
+    }
+  }
+
+  /* Rebuilds the multi-curve; empty if the file cannot be used. */
+  private static Optional<ImmutableRatesProvider> read(
+      Path file,
+      ImmutableRatesProviderGenerator generator,
+      RatesCurveGroupDefinition groupDefinition) {
+
+    try (InputStream is = Files.newInputStream(file);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return Optional.empty();
+      }
+      int nbCurves = in.readInt();
+      List<CurveDefinition> definitions = groupDefinition.getCurveDefinitions();
+      if (nbCurves != definitions.size()) {
+        return Optional.empty();
+      }
+      List<Double> parameters = new ArrayList<>();
+      Map<CurveName, JacobianCalibrationMatrix> jacobians = new LinkedHashMap<>();
+      Map<CurveName, DoubleArray> sensitivities = new LinkedHashMap<>();
+      for (int loopcurve = 0; loopcurve < nbCurves; loopcurve++) {
+        CurveName name = CurveName.of(in.readUTF());
+        int nbParameters = in.readInt();
+        if (!name.equals(definitions.get(loopcurve).getName()) ||
+            nbParameters != definitions.get(loopcurve).getParameterCount()) {
+          return Optional.empty();
+        }
+        for (int loopparam = 0; loopparam < nbParameters; loopparam++) {
+          parameters.add(in.readDouble());
+        }
+        if (in.readBoolean()) {
+          int orderSize = in.readInt();
+          List<CurveParameterSize> order = new ArrayList<>(orderSize);
+          for (int looporder = 0; looporder < orderSize; looporder++) {
+            order.add(CurveParameterSize.of(CurveName.of(in.readUTF()), in.readInt()));
+          }
+          int nbRows = in.readInt();
+          int nbColumns = in.readInt();
+          double[][] matrix = new double[nbRows][nbColumns];
+          for (int looprow = 0; looprow < nbRows; looprow++) {
+            for (int loopcol = 0; loopcol < nbColumns; loopcol++) {
+              matrix[looprow][loopcol] = in.readDouble();
+            }
+          }
+          jacobians.put(name, JacobianCalibrationMatrix.of(order, DoubleMatrix.ofUnsafe(matrix)));
+        }
+        if (in.readBoolean()) {
+          sensitivities.put(name, readArray(in));
+        }
+      }
+      return Optional.of(generator.generate(DoubleArray.copyOf(parameters), jacobians, sensitivities));
+    } catch (IOException | RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static void writeArray(DataOutputStream out, DoubleArray array) throws IOException {
+    out.writeInt(array.size());
+    for (int loopi = 0; loopi < array.size(); loopi++) {
+      out.writeDouble(array.get(loopi));
+    }
+  }
+
+  private static DoubleArray readArray(DataInputStream in) throws IOException {
+    double[] array = new double[in.readInt()];
+    for (int loopi = 0; loopi < array.length; loopi++) {
+      array[loopi] = in.readDouble();
+    }
+    return DoubleArray.ofUnsafe(array);
+  }
+
+}
@@ -10,7 +10,6 @@ import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.data.ImmutableMarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.CurveName;
 import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
@@ -22,6 +21,9 @@ import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 /**
  * Load data and calibrate curves in EUR as of 2015-11-20.
  * Used for tests.
+ * <p>
+ * The curves are not calibrated when the class is loaded but on first request; the two calibrations are
+ * independent and can be prewarmed in parallel with {@link DataSetRegistry#prewarm(LazyDataSet...)}.
  * 
  * @author Marc Henrard
  */
@@ -42,27 +44,31 @@ public class MulticurveEur20151120DataSet {
       ResourceLocator.of(ResourceLocator.FILE_URL_PREFIX + PATH_CONFIG + "nodes-eur.csv");
   private static final ResourceLocator NODES_RESOURCE_FRTB =
       ResourceLocator.of(ResourceLocator.FILE_URL_PREFIX + PATH_CONFIG + "nodes-eur-frtb.csv");
-  private static final ImmutableMap<CurveGroupName, RatesCurveGroupDefinition> GROUPS_CONFIG =
-      RatesCalibrationCsvLoader.load(GROUPS_RESOURCE, SETTINGS_RESOURCE, NODES_RESOURCE);
-  private static final ImmutableMap<CurveGroupName, RatesCurveGroupDefinition> GROUPS_CONFIG_FRTB =
-      RatesCalibrationCsvLoader.load(GROUPS_RESOURCE, SETTINGS_RESOURCE, NODES_RESOURCE_FRTB);
+  private static final CurveGroupName GROUP_NAME = CurveGroupName.of("EUR-DSCONOIS-EURIBOR3MIRS-EURIBOR6MIRS");
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION =
+      REGISTRY.definition(GROUP_NAME, GROUPS_RESOURCE, SETTINGS_RESOURCE, NODES_RESOURCE);
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_FRTB =
+      REGISTRY.definition(GROUP_NAME, GROUPS_RESOURCE, SETTINGS_RESOURCE, NODES_RESOURCE_FRTB);
 
   private static final ImmutableMap<QuoteId, Double> QUOTES = QuotesCsvLoader.load(VALUATION_DATE, ResourceLocator.of(FILE_QUOTES));
   private static final ImmutableMarketData MARKET_DATA = ImmutableMarketData.builder(VALUATION_DATE)
 		  .addValueMap(QUOTES).build();
   private static final RatesCurveCalibrator CALIBRATOR = RatesCurveCalibrator.standard();
-  private static final CurveGroupName GROUP_NAME = CurveGroupName.of("EUR-DSCONOIS-EURIBOR3MIRS-EURIBOR6MIRS");
-  public static final ImmutableRatesProvider MULTICURVE = 
-      CALIBRATOR.calibrate(GROUPS_CONFIG.get(GROUP_NAME), MARKET_DATA, REF_DATA);
-  
-  public static final ImmutableRatesProvider MULTICURVE_FRTB = 
-      CALIBRATOR.calibrate(GROUPS_CONFIG_FRTB.get(GROUP_NAME), MARKET_DATA, REF_DATA);
+  /** The multi-curve, calibrated on first request or when prewarmed. */
+  public static final LazyDataSet<ImmutableRatesProvider> MULTICURVE = DataSetRegistry.lazy(
+      "MulticurveEur20151120",
+      () -> CALIBRATOR.calibrate(GROUP_DEFINITION, MARKET_DATA, REF_DATA));
+  /** The multi-curve with the FRTB nodes, calibrated on first request or when prewarmed. */
+  public static final LazyDataSet<ImmutableRatesProvider> MULTICURVE_FRTB = DataSetRegistry.lazy(
+      "MulticurveEur20151120-FRTB",
+      () -> CALIBRATOR.calibrate(GROUP_DEFINITION_FRTB, MARKET_DATA, REF_DATA));
   
-  private static final int NB_CURVES = GROUPS_CONFIG.get(GROUP_NAME).getCurveDefinitions().size();
+  private static final int NB_CURVES = GROUP_DEFINITION.getCurveDefinitions().size();
   public static final CurveName[] CURVE_NAMES = new CurveName[NB_CURVES];
   static{
     for(int i = 0; i<NB_CURVES; i++){
-      CURVE_NAMES[i] = GROUPS_CONFIG.get(GROUP_NAME).getCurveDefinitions().get(i).getName();
+      CURVE_NAMES[i] = GROUP_DEFINITION.getCurveDefinitions().get(i).getName();
     }
   }
 
@@ -5,17 +5,25 @@ package marc.henrard.analysis.dataset;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
+import com.google.common.collect.ImmutableSortedMap;
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.basics.date.HolidayCalendarIds;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
 import com.opengamma.strata.pricer.curve.RatesCurveCalibrator;
 import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 
+import marc.henrard.analysis.market.curve.HistoricalCurveCalibrator;
+import marc.henrard.analysis.market.quote.QuoteStore;
+
 /**
  * Generate a multi-curve in GBP with standard configuration and quotes from csv file.
  * 
@@ -23,8 +31,11 @@ import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
  */
 public class MulticurveStandardGbpDataSet {
 
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
   private static final String PATH_CONFIG = "src/analysis/resources/curve-config/";
   private static final String PATH_QUOTES = "src/analysis/resources/quotes/";
+  private static final String QUOTES_PREFIX = "MARKET-QUOTES-STANDARD-";
+  private static final LazyDataSet<QuoteStore> QUOTE_STORE = QuoteStoreDataSet.lazyStore(QUOTES_PREFIX);
 
   private static final String CURVE_GROUP_STD_NAME_STR = "GBP-DSCONOIS-L6MIRS";
   private static final CurveGroupName CURVE_GROUP_STD_NAME = CurveGroupName.of(CURVE_GROUP_STD_NAME_STR);
@@ -34,17 +45,67 @@ public class MulticurveStandardGbpDataSet {
       PATH_CONFIG + CURVE_GROUP_STD_NAME_STR +"/" + CURVE_GROUP_STD_NAME_STR + "-settings-linear.csv");
   private static final ResourceLocator NODES_STD_FILE =ResourceLocator.of( 
       PATH_CONFIG + CURVE_GROUP_STD_NAME_STR +"/" + CURVE_GROUP_STD_NAME_STR + "-nodes-std.csv");
-  private static final RatesCurveGroupDefinition GROUP_STD_DEFINITION = RatesCalibrationCsvLoader
-      .load(GROUPS_STD_FILE, SETTINGS_STD_FILE, NODES_STD_FILE).get(CURVE_GROUP_STD_NAME);
+  private static final RatesCurveGroupDefinition GROUP_STD_DEFINITION = REGISTRY
+      .definition(CURVE_GROUP_STD_NAME, GROUPS_STD_FILE, SETTINGS_STD_FILE, NODES_STD_FILE);
 
   private static final RatesCurveCalibrator CALIBRATOR = RatesCurveCalibrator.standard();
+  private static final HistoricalCurveCalibrator CALIBRATOR_HISTORICAL = HistoricalCurveCalibrator.of(CALIBRATOR, 20);
 
   public static ImmutableRatesProvider multicurve(LocalDate calibrationDate, ReferenceData refData) {
-    String fileQuotes = PATH_QUOTES + "MARKET-QUOTES-STANDARD-" 
-        + calibrationDate.format(DateTimeFormatter.ISO_DATE) + ".csv";
-    MarketData marketData = MarketData
-        .of(calibrationDate, QuotesCsvLoader.load(calibrationDate, ResourceLocator.of(fileQuotes)));
-    return CALIBRATOR.calibrate(GROUP_STD_DEFINITION, marketData, refData);
+    return CALIBRATOR.calibrate(GROUP_STD_DEFINITION, marketData(calibrationDate), refData);
+  }
+
+  /**
+   * Calibrates the multi-curves on all the GBLO business days of a range with a quote file.
+   * <p>
+   * The quotes of all the dates are read from the quote store of the quote files, see {@link QuoteStoreDataSet}.
+   * The business days without quote file, typically the days without market, are skipped and are not in the result.
+   * The dates are calibrated in parallel chunks; within a chunk, each date starts from the curves of the
+   * previous date. See {@link HistoricalCurveCalibrator}.
+   * 
+   * @param startDate  the first date, inclusive
+   * @param endDate  the last date, inclusive
+   * @param refData  the reference data
+   * @return the multi-curves, by date
+   */
+  public static ImmutableSortedMap<LocalDate, ImmutableRatesProvider> multicurves(
+      LocalDate startDate,
+      LocalDate endDate,
+      ReferenceData refData) {
+
+    ArgChecker.inOrderOrEqual(startDate, endDate, "startDate", "endDate");
+    HolidayCalendar calendar = refData.getValue(HolidayCalendarIds.GBLO);
+    QuoteStore store = QUOTE_STORE.get();
+    List<LocalDate> dates = new ArrayList<>();
+    for (LocalDate date = calendar.nextOrSame(startDate); !date.isAfter(endDate); date = calendar.next(date)) {
+      if (store.row(date) >= 0) {
+        dates.add(date);
+      }
+    }
+    return CALIBRATOR_HISTORICAL.calibrate(GROUP_STD_DEFINITION, dates, store::marketData, refData);
+  }
+
+  private static MarketData marketData(LocalDate calibrationDate) {
+    return MarketData
+        .of(calibrationDate, QuotesCsvLoader.load(calibrationDate, ResourceLocator.of(fileQuotes(calibrationDate))));
+  }
+
+  private static String fileQuotes(LocalDate calibrationDate) {
+    return PATH_QUOTES + QUOTES_PREFIX + calibrationDate.format(DateTimeFormatter.ISO_DATE) + ".csv";
+  }
+
+  /**
+   * Returns the lazy multi-curve calibrated with the standard reference data, shared through the registry.
+   * <p>
+   * The curves are calibrated on first request or when prewarmed, see {@link DataSetRegistry}.
+   * 
+   * @param calibrationDate  the calibration date
+   * @return the lazy multi-curve
+   */
+  public static LazyDataSet<ImmutableRatesProvider> lazyMulticurve(LocalDate calibrationDate) {
+    return DataSetRegistry.lazy(
+        "MulticurveStandardGbp-" + calibrationDate.toString(),
+        () -> multicurve(calibrationDate, ReferenceData.standard()));
   }
 
 }
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.dataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import marc.henrard.analysis.market.quote.QuoteStore;
+import marc.henrard.analysis.market.quote.QuoteStoreWriter;
+
+/**
+ * Multi-date quote stores of the quotes files of the analysis, see {@link QuoteStore}.
+ * <p>
+ * The quotes files of a family, with a common prefix, are converted into one store file in
+ * {@code target/quote-store}. The store is converted again only when a quotes file is more recent than the store.
+ * The stores are shared through the {@link DataSetRegistry}.
+ *
+ * @author Marc Henrard
+ */
+public final class QuoteStoreDataSet {
+
+  private static final String PATH_QUOTES = "src/analysis/resources/quotes/";
+  private static final String PATH_STORE = "target/quote-store/";
+
+  /** Private constructor. */
+  private QuoteStoreDataSet() {
+  }
+
+  /**
+   * Returns the lazy store of the quotes files starting with a prefix.
+   *
+   * @param prefix  the prefix of the quotes file names
+   * @return the lazy store
+   */
+  public static LazyDataSet<QuoteStore> lazyStore(String prefix) {
+    return DataSetRegistry.lazy("QuoteStore-" + prefix, () -> store(prefix));
+  }
+
+  /* Opens the store, converting the quotes files if the store is missing or older than one of them. */
+  private static QuoteStore store(String prefix) {
+    try {
+      Path storeFile = Paths.get(PATH_STORE + prefix + "store.bin");
+      long lastModified = 0L;
+      for (File file : QuoteStoreWriter.files(PATH_QUOTES, prefix)) {
+        lastModified = Math.max(lastModified, file.lastModified());
+      }
+      if (!Files.exists(storeFile) || Files.getLastModifiedTime(storeFile).toMillis() < lastModified) {
+        Files.createDirectories(storeFile.getParent());
+        QuoteStoreWriter.convertFolder(PATH_QUOTES, prefix, storeFile.toString());
+      }
+      return QuoteStore.of(storeFile.toString());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
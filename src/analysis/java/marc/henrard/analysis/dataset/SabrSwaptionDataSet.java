@@ -7,18 +7,29 @@ import java.time.LocalTime;
 import java.time.Period;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.date.DayCounts;
 import com.opengamma.strata.basics.date.Tenor;
+import com.opengamma.strata.collect.Guavate;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.tuple.Pair;
 import com.opengamma.strata.market.ValueType;
 import com.opengamma.strata.market.curve.interpolator.CurveExtrapolators;
 import com.opengamma.strata.market.curve.interpolator.CurveInterpolators;
+import com.opengamma.strata.market.param.ParameterMetadata;
 import com.opengamma.strata.market.surface.ConstantSurface;
 import com.opengamma.strata.market.surface.DefaultSurfaceMetadata;
 import com.opengamma.strata.market.surface.InterpolatedNodalSurface;
+import com.opengamma.strata.market.surface.NodalSurface;
 import com.opengamma.strata.market.surface.Surface;
 import com.opengamma.strata.market.surface.SurfaceMetadata;
 import com.opengamma.strata.market.surface.Surfaces;
@@ -102,42 +113,148 @@ public class SabrSwaptionDataSet {
   
   private static final SabrSwaptionCalibrator CALIBRATOR_SABR = SabrSwaptionCalibrator.DEFAULT;
 
+  /* Calibrated parameters, by multicurve (compared by identity, weakly referenced) and by convention and time. */
+  private static final Cache<RatesProvider, Map<List<Object>, SabrParametersSwaptionVolatilities>> CACHE =
+      CacheBuilder.newBuilder().weakKeys().build();
+
   /**
    * Returns the SABR parameters for EUR swaptions v EURIBOR-6M. Calibrated to ATM vol using given multicurve.
+   * <p>
+   * The grid points are calibrated sequentially. The result is cached for the multicurve instance.
    * 
+   * @param multicurve  the multicurve
    * @return the SABR parameters
    */
   public static SabrParametersSwaptionVolatilities sabrParametersEur(RatesProvider multicurve) {
-    ZonedDateTime valuationDateTime = multicurve.getValuationDate().atTime(VALUATION_TIME).atZone(VALUATION_ZONE);
-    SabrParametersSwaptionVolatilities STARTING_SABR = 
-        SabrParametersSwaptionVolatilities.of(SwaptionVolatilitiesName.of("SABR"), CONVENTION_EUR, 
-            valuationDateTime, STARTING_SABR_PARAMETERS);
-    SwaptionVolatilities ATM_SWPT = NormalSwaptionExpiryTenorVolatilities
-        .of(CONVENTION_EUR, valuationDateTime, ATM);
-    SabrParametersSwaptionVolatilities sabrCalibrated =
-        CALIBRATOR_SABR.calibrateAlphaWithAtm(SwaptionVolatilitiesName.of("SABR-cal"),
-            STARTING_SABR, multicurve, ATM_SWPT,
-            TENORS_PERIOD, EXPIRIES_PERIOD, INTERPOLATOR_2D);
-    return sabrCalibrated;
+    return sabrParameters(multicurve, CONVENTION_EUR, false);
+  }
+
+  /**
+   * Returns the SABR parameters for EUR swaptions v EURIBOR-6M. Calibrated to ATM vol using given multicurve.
+   * <p>
+   * The result is cached for the multicurve instance.
+   * 
+   * @param multicurve  the multicurve
+   * @param parallel  whether the grid points are calibrated concurrently
+   * @return the SABR parameters
+   */
+  public static SabrParametersSwaptionVolatilities sabrParametersEur(RatesProvider multicurve, boolean parallel) {
+    return sabrParameters(multicurve, CONVENTION_EUR, parallel);
   }
 
   /**
    * Returns the SABR parameters for GBP swaptions v LIBOR-6M. Calibrated to ATM vol using given multicurve.
+   * <p>
+   * The grid points are calibrated sequentially. The result is cached for the multicurve instance.
    * 
+   * @param multicurve  the multicurve
    * @return the SABR parameters
    */
   public static SabrParametersSwaptionVolatilities sabrParametersGbp(RatesProvider multicurve) {
+    return sabrParameters(multicurve, CONVENTION_GBP, false);
+  }
+
+  /**
+   * Returns the SABR parameters for GBP swaptions v LIBOR-6M. Calibrated to ATM vol using given multicurve.
+   * <p>
+   * The result is cached for the multicurve instance.
+   * 
+   * @param multicurve  the multicurve
+   * @param parallel  whether the grid points are calibrated concurrently
+   * @return the SABR parameters
+   */
+  public static SabrParametersSwaptionVolatilities sabrParametersGbp(RatesProvider multicurve, boolean parallel) {
+    return sabrParameters(multicurve, CONVENTION_GBP, parallel);
+  }
+
+  private static SabrParametersSwaptionVolatilities sabrParameters(
+      RatesProvider multicurve,
+      FixedIborSwapConvention convention,
+      boolean parallel) {
+
     ZonedDateTime valuationDateTime = multicurve.getValuationDate().atTime(VALUATION_TIME).atZone(VALUATION_ZONE);
-    SabrParametersSwaptionVolatilities STARTING_SABR = 
-        SabrParametersSwaptionVolatilities.of(SwaptionVolatilitiesName.of("SABR"), CONVENTION_GBP, 
+    Map<List<Object>, SabrParametersSwaptionVolatilities> cached =
+        CACHE.asMap().computeIfAbsent(multicurve, k -> new ConcurrentHashMap<>());
+    return cached.computeIfAbsent(Arrays.asList(convention, valuationDateTime),
+        k -> calibrate(multicurve, convention, valuationDateTime, parallel));
+  }
+
+  private static SabrParametersSwaptionVolatilities calibrate(
+      RatesProvider multicurve,
+      FixedIborSwapConvention convention,
+      ZonedDateTime valuationDateTime,
+      boolean parallel) {
+
+    SabrParametersSwaptionVolatilities startingSabr = 
+        SabrParametersSwaptionVolatilities.of(SwaptionVolatilitiesName.of("SABR"), convention, 
             valuationDateTime, STARTING_SABR_PARAMETERS);
-    SwaptionVolatilities ATM_SWPT = NormalSwaptionExpiryTenorVolatilities
-        .of(CONVENTION_GBP, valuationDateTime, ATM);
-    SabrParametersSwaptionVolatilities sabrCalibrated =
-        CALIBRATOR_SABR.calibrateAlphaWithAtm(SwaptionVolatilitiesName.of("SABR-cal"),
-            STARTING_SABR, multicurve, ATM_SWPT,
-            TENORS_PERIOD, EXPIRIES_PERIOD, INTERPOLATOR_2D);
-    return sabrCalibrated;
+    SwaptionVolatilities atmSwpt = NormalSwaptionExpiryTenorVolatilities
+        .of(convention, valuationDateTime, ATM);
+    SwaptionVolatilitiesName name = SwaptionVolatilitiesName.of("SABR-cal");
+    if (!parallel) {
+      return CALIBRATOR_SABR.calibrateAlphaWithAtm(name,
+          startingSabr, multicurve, atmSwpt,
+          TENORS_PERIOD, EXPIRIES_PERIOD, INTERPOLATOR_2D);
+    }
+    /* Each alpha is calibrated independently; the grid is split in blocks of at least 2x2 points, as required
+     * by the interpolator, and the blocks are calibrated concurrently. */
+    List<Pair<List<Tenor>, List<Period>>> blocks = new ArrayList<>();
+    for (List<Tenor> tenors : blocks(TENORS_PERIOD)) {
+      for (List<Period> expiries : blocks(EXPIRIES_PERIOD)) {
+        blocks.add(Pair.of(tenors, expiries));
+      }
+    }
+    List<NodalSurface> alphas = blocks.parallelStream()
+        .map(block -> (NodalSurface) CALIBRATOR_SABR.calibrateAlphaWithAtm(name,
+            startingSabr, multicurve, atmSwpt,
+            block.getFirst(), block.getSecond(), INTERPOLATOR_2D).getParameters().getAlphaSurface())
+        .collect(Guavate.toImmutableList());
+    /* Merge the blocks, sorted by expiry then tenor */
+    Map<Pair<Double, Double>, Pair<Double, ParameterMetadata>> nodes = new TreeMap<>();
+    for (NodalSurface alpha : alphas) {
+      for (int loopnode = 0; loopnode < alpha.getParameterCount(); loopnode++) {
+        nodes.put(Pair.of(alpha.getXValues().get(loopnode), alpha.getYValues().get(loopnode)),
+            Pair.of(alpha.getZValues().get(loopnode), alpha.getParameterMetadata(loopnode)));
+      }
+    }
+    int nbNodes = nodes.size();
+    double[] expiryTimes = new double[nbNodes];
+    double[] tenorTimes = new double[nbNodes];
+    double[] alphaValues = new double[nbNodes];
+    List<ParameterMetadata> parameterMetadata = new ArrayList<>();
+    int loopnode = 0;
+    for (Map.Entry<Pair<Double, Double>, Pair<Double, ParameterMetadata>> node : nodes.entrySet()) {
+      expiryTimes[loopnode] = node.getKey().getFirst();
+      tenorTimes[loopnode] = node.getKey().getSecond();
+      alphaValues[loopnode] = node.getValue().getFirst();
+      parameterMetadata.add(node.getValue().getSecond());
+      loopnode++;
+    }
+    Surface alphaSurface = InterpolatedNodalSurface.of(
+        alphas.get(0).getMetadata().withParameterMetadata(parameterMetadata),
+        DoubleArray.ofUnsafe(expiryTimes), DoubleArray.ofUnsafe(tenorTimes), DoubleArray.ofUnsafe(alphaValues),
+        INTERPOLATOR_2D);
+    SabrInterestRateParameters startingParameters = startingSabr.getParameters();
+    SabrInterestRateParameters parameters = SabrInterestRateParameters.of(
+        alphaSurface,
+        startingParameters.getBetaSurface(),
+        startingParameters.getRhoSurface(),
+        startingParameters.getNuSurface(),
+        startingParameters.getShiftSurface(),
+        startingParameters.getSabrVolatilityFormula());
+    return SabrParametersSwaptionVolatilities.of(name, convention, valuationDateTime, parameters);
+  }
+
+  /* Splits a list in consecutive blocks of 2 elements, the last block taking the remaining element if any. */
+  private static <T> List<List<T>> blocks(List<T> list) {
+    List<List<T>> blocks = new ArrayList<>();
+    int start = 0;
+    while (list.size() - start >= 4) {
+      blocks.add(list.subList(start, start + 2));
+      start += 2;
+    }
+    blocks.add(list.subList(start, list.size()));
+    return blocks;
   }
 
 }
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.fallback;
+
+import static marc.henrard.analysis.market.fixing.CompoundingConvention.FIXING_SHIFT;
+import static marc.henrard.analysis.market.fixing.CompoundingConvention.FORWARD_PERIOD;
+import static marc.henrard.analysis.market.fixing.CompoundingConvention.IN_ARREARS;
+import static marc.henrard.analysis.market.fixing.CompoundingConvention.LOCKOUT;
+import static marc.henrard.analysis.market.fixing.CompoundingConvention.LOOKBACK;
+import static marc.henrard.analysis.market.fixing.CompoundingConvention.OBSERVATION_SHIFT;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.IborIndices;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.basics.index.OvernightIndices;
+import com.opengamma.strata.collect.io.ResourceLocator;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.loader.csv.FixingSeriesCsvLoader;
+
+import marc.henrard.analysis.data.export.CompoundedRateCsvExport;
+import marc.henrard.analysis.market.fixing.CompoundedRatePipeline;
+import marc.henrard.analysis.market.fixing.CompoundedRateSeries;
+import marc.henrard.analysis.market.fixing.CompoundedRateSpecification;
+import marc.henrard.analysis.market.fixing.CompoundingConvention;
+
+/**
+ * Load historical overnight time series and generate IBOR period compounded rates in arrears.
+ * <p>
+ * All the overnight indices, IBOR tenors and conventions are computed in one pass: the fixings are loaded once,
+ * the series computed in parallel and exported in csv files, e.g. "USD-SOFRCMP-3M.csv" for the ON rates
+ * compounded on the LIBOR periods and "USD-SOFRCMP-OFFSET2-3M.csv" for the ON rates compounded on the periods
+ * corresponding to LIBOR tenor and offset by 2 business days (ISDA-designed historical spread adjustment).
+ * <p>
+ * The offset periods start 2 business days before the IBOR fixing date for USD and EUR and 2 business days before
+ * the IBOR effective date for GBP and CHF. The EUR offset files have no "OFFSET2" in their name. The reference in
+ * the offset files is the name of the compounded index, e.g. "USD-SOFRCMP-3M".
+ *
+ * @author Marc Henrard
+ */
+public class FallbackCompoundedInArrearsTimeSeriesAnalysis {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  // The start and end IBOR fixing dates for which the compounded rates are computed, restricted to the fixings
+  private static final LocalDate START_DATE = LocalDate.of(2000, 1, 3);
+  private static final LocalDate END_DATE = LocalDate.of(2021, 10, 1);
+  private static final int OFFSET_DAYS = 2;
+
+  /* Fixings */
+  private static final List<ResourceLocator> FIXING_RESOURCES = ImmutableList.of(
+      ResourceLocator.of("src/analysis/resources/fixing/USD-SOFR-2.csv"),
+      ResourceLocator.of("src/analysis/resources/fixing/USD-FED-FUND.csv"),
+      ResourceLocator.of("src/analysis/resources/fixing/EUR-ESTR-PRE.csv"),
+      ResourceLocator.of("src/analysis/resources/fixing/GBP-SONIA.csv"),
+      ResourceLocator.of("src/analysis/resources/fixing/CHF-SARON.csv"));
+  private static final Map<ObservableId, LocalDateDoubleTimeSeries> TIME_SERIES =
+      FixingSeriesCsvLoader.load(FIXING_RESOURCES);
+
+  /* Series */
+  private static final List<IborIndex> USD_LIBOR = ImmutableList.of(
+      IborIndices.USD_LIBOR_1M, IborIndices.USD_LIBOR_3M, IborIndices.USD_LIBOR_6M, IborIndices.USD_LIBOR_12M);
+  private static final List<IborIndex> EUR_EURIBOR = ImmutableList.of(
+      IborIndices.EUR_EURIBOR_1M, IborIndices.EUR_EURIBOR_3M, IborIndices.EUR_EURIBOR_6M);
+  private static final List<IborIndex> GBP_LIBOR = ImmutableList.of(
+      IborIndices.GBP_LIBOR_1M, IborIndices.GBP_LIBOR_3M, IborIndices.GBP_LIBOR_6M);
+  private static final List<IborIndex> CHF_LIBOR = ImmutableList.of(
+      IborIndices.CHF_LIBOR_1M, IborIndices.CHF_LIBOR_3M, IborIndices.CHF_LIBOR_6M);
+
+  private static final CompoundedRatePipeline PIPELINE = CompoundedRatePipeline.of(REF_DATA);
+  private static final String EXPORT_FOLDER = "src/analysis/resources/output";
+
+  /* Computes the ISDA-designed historical spread adjustment periods for all currencies and
+   * the IBOR periods for USD. */
+  @Test
+  public void on_compounded() throws IOException {
+    Map<CompoundedRateSpecification, String> fileNames = new LinkedHashMap<>();
+    add(fileNames, OvernightIndices.USD_SOFR, USD_LIBOR, FIXING_SHIFT, true);
+    add(fileNames, OvernightIndices.EUR_ESTR, EUR_EURIBOR, FIXING_SHIFT, false);
+    add(fileNames, OvernightIndices.GBP_SONIA, GBP_LIBOR, OBSERVATION_SHIFT, true);
+    add(fileNames, OvernightIndices.CHF_SARON, CHF_LIBOR, OBSERVATION_SHIFT, true);
+    for (IborIndex ibor : USD_LIBOR) {
+      for (OvernightIndex overnightIndex : ImmutableList.of(OvernightIndices.USD_SOFR, OvernightIndices.USD_FED_FUND)) {
+        CompoundedRateSpecification specification = CompoundedRateSpecification.of(overnightIndex, ibor, IN_ARREARS);
+        fileNames.put(specification, specification.getName());
+      }
+    }
+    long start = System.currentTimeMillis();
+    Map<CompoundedRateSpecification, CompoundedRateSeries> series =
+        PIPELINE.compute(TIME_SERIES, ImmutableList.copyOf(fileNames.keySet()), START_DATE, END_DATE);
+    long end = System.currentTimeMillis();
+    System.out.println("Computation of " + series.size() + " series in " + (end - start) + " ms.");
+    for (Map.Entry<CompoundedRateSpecification, String> entry : fileNames.entrySet()) {
+      CompoundedRateCsvExport.export(series.get(entry.getKey()), EXPORT_FOLDER, entry.getValue());
+    }
+  }
+
+  /* Computes the alternative conventions for SOFR 3M. */
+  @Test
+  public void on_compounded_conventions() throws IOException {
+    List<CompoundedRateSpecification> specifications = ImmutableList.of(
+        CompoundedRateSpecification.of(OvernightIndices.USD_SOFR, IborIndices.USD_LIBOR_3M, LOOKBACK, OFFSET_DAYS),
+        CompoundedRateSpecification.of(OvernightIndices.USD_SOFR, IborIndices.USD_LIBOR_3M, LOCKOUT, OFFSET_DAYS),
+        CompoundedRateSpecification.of(OvernightIndices.USD_SOFR, IborIndices.USD_LIBOR_3M, FORWARD_PERIOD));
+    Map<CompoundedRateSpecification, CompoundedRateSeries> series =
+        PIPELINE.compute(TIME_SERIES, specifications, START_DATE, END_DATE);
+    CompoundedRateCsvExport.export(series.values(), EXPORT_FOLDER);
+  }
+
+  /* Adds the ISDA-designed specifications (offset by 2 business days) for an overnight index and IBOR tenors,
+   * with their file names: "<ON>CMP-OFFSET2-<tenor>" or "<ON>CMP-<tenor>" without the offset in the name. */
+  private static void add(
+      Map<CompoundedRateSpecification, String> fileNames,
+      OvernightIndex overnightIndex,
+      List<IborIndex> iborIndices,
+      CompoundingConvention convention,
+      boolean offsetInFileName) {
+
+    for (IborIndex ibor : iborIndices) {
+      CompoundedRateSpecification specification =
+          CompoundedRateSpecification.of(overnightIndex, ibor, convention, OFFSET_DAYS);
+      String offsetCode = offsetInFileName ? "CMP-OFFSET" + OFFSET_DAYS + "-" : "CMP-";
+      fileNames.put(specification, overnightIndex.toString() + offsetCode + ibor.getTenor().toString());
+    }
+  }
+
+}
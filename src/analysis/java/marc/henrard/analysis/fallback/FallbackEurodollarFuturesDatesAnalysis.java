@@ -14,9 +14,9 @@ import java.util.List;
 import org.testng.annotations.Test;
 
 import com.opengamma.strata.basics.ReferenceData;
-import com.opengamma.strata.basics.date.DaysAdjustment;
-import com.opengamma.strata.basics.date.HolidayCalendarIds;
 
+import marc.henrard.analysis.basics.date.BusinessDayIndex;
+import marc.henrard.analysis.basics.date.BusinessDayIndices;
 import marc.henrard.murisq.basics.data.export.ExportUtils;
 
 /**
@@ -32,6 +32,7 @@ public class FallbackEurodollarFuturesDatesAnalysis {
   private static final ReferenceData REF_DATA = ReferenceData.standard();
   private static final LocalDate ANALYSIS_DATE = LocalDate.of(2019, 11, 15);
   private static final LocalDate FINAL_DATE = LocalDate.of(2032, 1, 1);
+  private static final BusinessDayIndex BUSINESS_DAYS = BusinessDayIndices.USGS;
   
   private static final String EXPORT_PATH = "src/analysis/resources/output/";
 
@@ -45,16 +46,15 @@ public class FallbackEurodollarFuturesDatesAnalysis {
     List<LocalDate> srEnd = new ArrayList<>();
     List<LocalDate> otcStart = new ArrayList<>();
     List<LocalDate> otcEnd = new ArrayList<>();
-    DaysAdjustment t2 = DaysAdjustment.ofBusinessDays(-2, HolidayCalendarIds.USGS);
     LocalDate currentImmDate = MONTHLY_IMM.next(ANALYSIS_DATE);
     while (currentImmDate.isBefore(FINAL_DATE)) {
       edStart.add(currentImmDate);
       srStart.add(currentImmDate);
-      otcStart.add(t2.adjust(currentImmDate, REF_DATA));
+      otcStart.add(BUSINESS_DAYS.shift(currentImmDate, -2));
       LocalDate end3M = USD_LIBOR_3M.calculateMaturityFromEffective(currentImmDate, REF_DATA);
       edEnd.add(end3M);
       srEnd.add(MONTHLY_IMM.nth(currentImmDate, 3));
-      otcEnd.add(t2.adjust(end3M, REF_DATA));
+      otcEnd.add(BUSINESS_DAYS.shift(end3M, -2));
       currentImmDate = MONTHLY_IMM.next(currentImmDate);
     }
     // Export differences
@@ -5,16 +5,18 @@ package marc.henrard.analysis.fallback;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.Period;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.math.Quantiles;
 import com.opengamma.strata.basics.ReferenceData;
-import com.opengamma.strata.basics.date.HolidayCalendar;
 import com.opengamma.strata.basics.index.IborIndex;
 import com.opengamma.strata.basics.index.IborIndices;
 import com.opengamma.strata.collect.io.ResourceLocator;
@@ -24,6 +26,10 @@ import com.opengamma.strata.data.ObservableId;
 import com.opengamma.strata.loader.csv.FixingSeriesCsvLoader;
 import com.opengamma.strata.market.observable.IndexQuoteId;
 
+import marc.henrard.analysis.basics.date.BusinessDayIndex;
+import marc.henrard.analysis.basics.date.BusinessDayIndices;
+import marc.henrard.analysis.statistics.ExpandingWindowStatistics;
+import marc.henrard.analysis.statistics.FutureMeanBands;
 import marc.henrard.murisq.basics.data.export.ExportUtils;
 import marc.henrard.murisq.basics.index.ComplementIborIndices;
 
@@ -39,7 +45,7 @@ public class FallbackHistoricalTimeSeriesGbpAnalysis {
   private static final LocalDate ANALYSIS_DATE = LocalDate.of(2021, 1, 4);
   private static final IborIndex IBOR_INDEX = IborIndices.GBP_LIBOR_1M;
   private static final IborIndex ONCMP_INDEX = ComplementIborIndices.GBP_SONIACMP_1M;
-  private static final HolidayCalendar CALENDAR = REF_DATA.getValue(IBOR_INDEX.getFixingCalendar());
+  private static final BusinessDayIndex BUSINESS_DAYS = BusinessDayIndices.of(IBOR_INDEX.getFixingCalendar());
   private static final List<ResourceLocator> FIXING_RESOURCES = ImmutableList.of(
       ResourceLocator.of("src/analysis/resources/fixing/" + IBOR_INDEX.toString() + ".csv"),
       ResourceLocator.of("src/analysis/resources/fixing/GBP-SONIACMP-"
@@ -53,7 +59,7 @@ public class FallbackHistoricalTimeSeriesGbpAnalysis {
       LocalDate.of(2022, 1, 1));
   private static final int NB_ANNOUNCEMENT_DATES = ANNOUNCEMENT_DATES.size();
   private static final int[] LOOKBACK_PERIODS_STARTDATE = {5, 7, 10, 15};
-  private static final int STD_DEV_FUT = 1;
+  private static final int[] SIGMA_LEVELS = {1, 0, -1}; // Future mean bands, in standard deviations
   
   private static final String EXPORT_PATH = "src/analysis/resources/output/";
 
@@ -73,30 +79,23 @@ public class FallbackHistoricalTimeSeriesGbpAnalysis {
     LocalDateDoubleTimeSeries tsOnCmp = TIME_SERIES.get(idOnCmp);
     LocalDateDoubleTimeSeries tsSpread = tsLibor.intersection(tsOnCmp, (l, o) -> l - o);
     System.out.println("Spread for " + tsSpread.getLatestDate() + " is " + tsSpread.getLatestValue());
+    List<LocalDate> startDates = new ArrayList<>();
+    for (int looplookback = 0; looplookback < LOOKBACK_PERIODS_STARTDATE.length; looplookback++) {
+      for (int loopdate = 0; loopdate < NB_ANNOUNCEMENT_DATES; loopdate++) {
+        startDates.add(ANNOUNCEMENT_DATES.get(loopdate).minusYears(LOOKBACK_PERIODS_STARTDATE[looplookback]));
+      }
+    }
+    // The first month of mean is almost meaningless
+    List<ExpandingWindowStatistics.Result> statistics =
+        ExpandingWindowStatistics.compute(tsSpread, startDates, Period.ofMonths(1), ANALYSIS_DATE, 10);
+    UnaryOperator<LocalDate> maturity = date -> IBOR_INDEX.calculateMaturityFromEffective(date, REF_DATA);
     for (int looplookback = 0; looplookback < LOOKBACK_PERIODS_STARTDATE.length; looplookback++) {
       List<LocalDateDoubleTimeSeries> tsRunningMean = new ArrayList<>();
       List<LocalDateDoubleTimeSeries> tsRunningMedian = new ArrayList<>();
       for (int loopdate = 0; loopdate < NB_ANNOUNCEMENT_DATES; loopdate++) {
-        LocalDate startDate = ANNOUNCEMENT_DATES.get(loopdate).minusYears(LOOKBACK_PERIODS_STARTDATE[looplookback]);
-        LocalDateDoubleTimeSeriesBuilder tsMean = LocalDateDoubleTimeSeries.builder();
-        LocalDateDoubleTimeSeriesBuilder tsMedian = LocalDateDoubleTimeSeries.builder();
-        LocalDate currentDate = startDate.plusMonths(1); // The first month of mean is almost meaningless
-        while (currentDate.isBefore(ANALYSIS_DATE)) {
-          if (tsSpread.containsDate(currentDate)) {
-            LocalDate maturityDate = IBOR_INDEX.calculateMaturityFromEffective(currentDate, REF_DATA);
-            LocalDateDoubleTimeSeries tsSpreadLookback = tsSpread.subSeries(startDate, currentDate);
-            if (tsSpreadLookback.size() > 10) {
-              tsMean.put(maturityDate,
-                  tsSpreadLookback.stream().mapToDouble(pt -> pt.getValue()).average().getAsDouble());
-              tsMedian.put(maturityDate,
-                  Quantiles.median().compute(tsSpreadLookback.stream().mapToDouble(pt -> pt.getValue()).toArray()));
-            }
-          }
-          currentDate = currentDate.plusDays(1);
-        }
-        LocalDateDoubleTimeSeries tsMeanBuild = tsMean.build();
-        tsRunningMean.add(tsMeanBuild);
-        tsRunningMedian.add(tsMedian.build());
+        ExpandingWindowStatistics.Result statistic = statistics.get(looplookback * NB_ANNOUNCEMENT_DATES + loopdate);
+        tsRunningMean.add(statistic.means(maturity));
+        tsRunningMedian.add(statistic.medians(maturity));
       }
       /* Export */
       for (int loopdate = 0; loopdate < NB_ANNOUNCEMENT_DATES; loopdate++) {
@@ -143,69 +142,64 @@ public class FallbackHistoricalTimeSeriesGbpAnalysis {
     /* Future */ 
     /* Note: with respect to paper: nbLookback = n; loopdays = i - (n+1)*/
     LocalDate startDateFuture = tsSpread.getLatestDate();
+    LocalDate lastAnnouncementDate = Collections.max(ANNOUNCEMENT_DATES);
+    List<LocalDate> futureDates = BUSINESS_DAYS.businessDays(startDateFuture, lastAnnouncementDate);
+    int nbScenarios = LOOKBACK_PERIODS_STARTDATE.length * NB_ANNOUNCEMENT_DATES;
+    int[] nbLookback = new int[nbScenarios];
+    double[] currentMeanSpreads = new double[nbScenarios];
+    double[] currentSpreads = new double[nbScenarios];
+    int[] nbDays = new int[nbScenarios];
     for (int looplookback = 0; looplookback < LOOKBACK_PERIODS_STARTDATE.length; looplookback++) {
-      List<LocalDateDoubleTimeSeries> tsFutureMeanPlus = new ArrayList<>();
-      List<LocalDateDoubleTimeSeries> tsFutureMeanMinus = new ArrayList<>();
-      List<LocalDateDoubleTimeSeries> tsFutureMean0 = new ArrayList<>();
       for (int loopdate = 0; loopdate < NB_ANNOUNCEMENT_DATES; loopdate++) {
+        int scenario = looplookback * NB_ANNOUNCEMENT_DATES + loopdate;
         LocalDate startDatePast = ANNOUNCEMENT_DATES.get(loopdate).minusYears(LOOKBACK_PERIODS_STARTDATE[looplookback]);
-        LocalDate currentDate = startDateFuture;
         LocalDateDoubleTimeSeries tsSpreadLookback =
-            tsSpread.subSeries(startDatePast, currentDate);
-        double currentSpread = tsSpreadLookback.getLatestValue();
-        double currentMeanSpread =
+            tsSpread.subSeries(startDatePast, startDateFuture);
+        currentSpreads[scenario] = tsSpreadLookback.getLatestValue();
+        currentMeanSpreads[scenario] =
             tsSpreadLookback.stream().mapToDouble(pt -> pt.getValue()).average().getAsDouble();
-        int nbLookback = tsSpreadLookback.size();
-        double loopdays = 0;
-        LocalDateDoubleTimeSeriesBuilder tsFuturePlus = LocalDateDoubleTimeSeries.builder();
-        LocalDateDoubleTimeSeriesBuilder tsFutureMinus = LocalDateDoubleTimeSeries.builder();
-        LocalDateDoubleTimeSeriesBuilder tsFuture0 = LocalDateDoubleTimeSeries.builder();
-        while (currentDate.isBefore(ANNOUNCEMENT_DATES.get(loopdate))) {
-          double spreadPart1 = nbLookback * currentMeanSpread + (loopdays + 1) * currentSpread;
-          double i = nbLookback + (loopdays + 1);
-          double var = 0.0; // Variance of the running mean
-          for (int l = 0; l <= loopdays; l++) {
-            var += (loopdays - l + 1) * (loopdays - l + 1);
-          }
-          double spreadPlus =
-              (spreadPart1 + Math.sqrt(var) * STD_DEV_FUT * stdDeviationDaily) / i;
-          tsFuturePlus.put(currentDate, spreadPlus);
-          double spreadMinus =
-              (spreadPart1 - Math.sqrt(var) * STD_DEV_FUT * stdDeviationDaily) / i;
-          tsFutureMinus.put(currentDate, spreadMinus);
-          double spread0 = spreadPart1 / i;
-          tsFuture0.put(currentDate, spread0);
-          currentDate = CALENDAR.next(currentDate);
-          loopdays++;
-        }
-        tsFutureMeanPlus.add(tsFuturePlus.build());
-        tsFutureMeanMinus.add(tsFutureMinus.build());
-        tsFutureMean0.add(tsFuture0.build());
-        System.out.println("Current spread, " + LOOKBACK_PERIODS_STARTDATE[looplookback] + ", " + ANNOUNCEMENT_DATES.get(loopdate) + ", " + currentSpread);
-        System.out.println("Current mean spread, " + LOOKBACK_PERIODS_STARTDATE[looplookback] + ", " + ANNOUNCEMENT_DATES.get(loopdate) + ", " + currentMeanSpread);
+        nbLookback[scenario] = tsSpreadLookback.size();
+        nbDays[scenario] = BUSINESS_DAYS.daysBetween(startDateFuture, ANNOUNCEMENT_DATES.get(loopdate));
+        System.out.println("Current spread, " + LOOKBACK_PERIODS_STARTDATE[looplookback] + ", " +
+            ANNOUNCEMENT_DATES.get(loopdate) + ", " + currentSpreads[scenario]);
+        System.out.println("Current mean spread, " + LOOKBACK_PERIODS_STARTDATE[looplookback] + ", " +
+            ANNOUNCEMENT_DATES.get(loopdate) + ", " + currentMeanSpreads[scenario]);
       }
-      System.out.println("Daily standard deviation: " + stdDeviationDaily);
-      /* Export */
+    }
+    System.out.println("Daily standard deviation: " + stdDeviationDaily);
+    double[][][] bands = FutureMeanBands.compute(nbLookback, currentMeanSpreads, currentSpreads, nbDays,
+        stdDeviationDaily, Arrays.stream(SIGMA_LEVELS).asDoubleStream().toArray());
+    /* Export */
+    for (int looplookback = 0; looplookback < LOOKBACK_PERIODS_STARTDATE.length; looplookback++) {
       for (int loopdate = 0; loopdate < NB_ANNOUNCEMENT_DATES; loopdate++) {
-        StringBuilder tsExportPlus = new StringBuilder();
-        String namePlus = IBOR_INDEX.toString() + "SONIACMP-FUTURE-MEAN-P" + STD_DEV_FUT + "STD-" + ANNOUNCEMENT_DATES.get(loopdate).toString() + "-" +
-            LOOKBACK_PERIODS_STARTDATE[looplookback] + "-" + IBOR_INDEX.getTenor().toString();
-        ExportUtils.exportTimeSeries(namePlus, tsFutureMeanPlus.get(loopdate), tsExportPlus);
-        ExportUtils.exportString(tsExportPlus.toString(), EXPORT_PATH + namePlus + ".csv");
-        StringBuilder tsExportMinus = new StringBuilder();
-        String nameMinus = IBOR_INDEX.toString() + "SONIACMP-FUTURE-MEAN-M" + STD_DEV_FUT + "STD-" + ANNOUNCEMENT_DATES.get(loopdate).toString() + "-" +
-            LOOKBACK_PERIODS_STARTDATE[looplookback] + "-" + IBOR_INDEX.getTenor().toString();
-        ExportUtils.exportTimeSeries(nameMinus, tsFutureMeanMinus.get(loopdate), tsExportMinus);
-        ExportUtils.exportString(tsExportMinus.toString(), EXPORT_PATH + nameMinus + ".csv");
-        StringBuilder tsExport0 = new StringBuilder();
-        String name0 = IBOR_INDEX.toString() + "SONIACMP-FUTURE-MEAN-0-" + ANNOUNCEMENT_DATES.get(loopdate).toString() + "-" +
-            LOOKBACK_PERIODS_STARTDATE[looplookback] + "-" + IBOR_INDEX.getTenor().toString();
-        ExportUtils.exportTimeSeries(name0, tsFutureMean0.get(loopdate), tsExport0);
-        ExportUtils.exportString(tsExport0.toString(), EXPORT_PATH + name0 + ".csv");
+        int scenario = looplookback * NB_ANNOUNCEMENT_DATES + loopdate;
+        for (int looplevel = 0; looplevel < SIGMA_LEVELS.length; looplevel++) {
+          LocalDateDoubleTimeSeriesBuilder tsFuture = LocalDateDoubleTimeSeries.builder();
+          for (int loopday = 0; loopday < nbDays[scenario]; loopday++) {
+            tsFuture.put(futureDates.get(loopday), bands[scenario][looplevel][loopday]);
+          }
+          StringBuilder tsExport = new StringBuilder();
+          String name = IBOR_INDEX.toString() + "SONIACMP-FUTURE-MEAN-" + levelCode(SIGMA_LEVELS[looplevel]) +
+              ANNOUNCEMENT_DATES.get(loopdate).toString() + "-" +
+              LOOKBACK_PERIODS_STARTDATE[looplookback] + "-" + IBOR_INDEX.getTenor().toString();
+          ExportUtils.exportTimeSeries(name, tsFuture.build(), tsExport);
+          ExportUtils.exportString(tsExport.toString(), EXPORT_PATH + name + ".csv");
+        }
       }
     }
     end = System.currentTimeMillis();
     System.out.println("Computation in " + (end - start) + " ms.");
   }
 
+  /* The code of a sigma level in the export names: P1STD-, 0-, M1STD-. */
+  private static String levelCode(int level) {
+    if (level > 0) {
+      return "P" + level + "STD-";
+    }
+    if (level < 0) {
+      return "M" + (-level) + "STD-";
+    }
+    return "0-";
+  }
+
 }
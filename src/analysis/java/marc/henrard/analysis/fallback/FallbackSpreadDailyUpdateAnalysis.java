@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.fallback;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.IborIndices;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.basics.index.OvernightIndices;
+import com.opengamma.strata.collect.io.ResourceLocator;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.loader.csv.FixingSeriesCsvLoader;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+
+import marc.henrard.analysis.market.fixing.CompoundedRateSpecification;
+import marc.henrard.analysis.market.fixing.CompoundingConvention;
+import marc.henrard.analysis.market.fixing.FallbackSpreadState;
+
+/**
+ * Daily update of the USD LIBOR fallback spread with the new fixings.
+ * <p>
+ * The first run ingests the full history and persists the state; the following runs read the state, ingest only
+ * the fixings after the last ones already ingested and append the new spreads and statistics to the csv file.
+ * <p>
+ * The state is written before the csv file, so that a failure never leads to the same fixings being ingested and
+ * exported twice. Both files are written in a temporary file moved in place of the previous one.
+ *
+ * @author Marc Henrard
+ */
+public class FallbackSpreadDailyUpdateAnalysis {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final OvernightIndex ON_INDEX = OvernightIndices.USD_SOFR;
+  private static final IborIndex IBOR_INDEX = IborIndices.USD_LIBOR_3M;
+  private static final CompoundedRateSpecification SPECIFICATION =
+      CompoundedRateSpecification.of(ON_INDEX, IBOR_INDEX, CompoundingConvention.OBSERVATION_SHIFT, 2);
+  private static final Period LOOKBACK = Period.ofYears(5);
+  private static final List<LocalDate> STATISTICS_START_DATES = ImmutableList.of(
+      LocalDate.of(2016, 3, 5),
+      LocalDate.of(2018, 4, 3));
+  private static final List<ResourceLocator> FIXING_RESOURCES = ImmutableList.of(
+      ResourceLocator.of("src/analysis/resources/fixing/USD-SOFR-2.csv"),
+      ResourceLocator.of("src/analysis/resources/fixing/USD-LIBOR-3M.csv"));
+
+  private static final String EXPORT_PATH = "src/analysis/resources/output/";
+  private static final String NAME = IBOR_INDEX.toString() + "-" + SPECIFICATION.getName() + "-FALLBACK-DAILY";
+  private static final String STATE_FILE = EXPORT_PATH + NAME + ".bin";
+  private static final String EXPORT_FILE = EXPORT_PATH + NAME + ".csv";
+
+  /**
+   * Ingests the full history in a new state and exports all the spreads and statistics.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void initial_load() throws IOException {
+    long start, end;
+    start = System.currentTimeMillis();
+    Map<ObservableId, LocalDateDoubleTimeSeries> fixings = FixingSeriesCsvLoader.load(FIXING_RESOURCES);
+    FallbackSpreadState state = FallbackSpreadState.of(SPECIFICATION, LOOKBACK, STATISTICS_START_DATES);
+    FallbackSpreadState.Update update = state.update(
+        fixings.get(IndexQuoteId.of(ON_INDEX)), fixings.get(IndexQuoteId.of(IBOR_INDEX)), REF_DATA);
+    StringBuilder builder = new StringBuilder("Fixing date, Compounded rate, Spread, Lookback median");
+    for (LocalDate startDate : STATISTICS_START_DATES) {
+      builder.append(", Mean " + startDate + ", Median " + startDate);
+    }
+    builder.append("\n");
+    appendRows(update, builder);
+    state.write(STATE_FILE);
+    writeExport(builder.toString(), false);
+    end = System.currentTimeMillis();
+    System.out.println("Initial load: " + update.size() + " spreads in " + (end - start) + " ms.");
+  }
+
+  /**
+   * Updates the persisted state with the fixings not yet ingested and appends the new rows to the export.
+   * <p>
+   * The time includes the load of the fixing files; only the fixings after the last ones in the state are passed
+   * to the update.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void daily_update() throws IOException {
+    Path statePath = Paths.get(STATE_FILE);
+    if (!Files.exists(statePath)) {
+      initial_load();
+      return;
+    }
+    long start, end;
+    start = System.currentTimeMillis();
+    FallbackSpreadState state = FallbackSpreadState.read(STATE_FILE);
+    Map<ObservableId, LocalDateDoubleTimeSeries> fixings = FixingSeriesCsvLoader.load(FIXING_RESOURCES);
+    LocalDateDoubleTimeSeries newOvernightFixings =
+        after(fixings.get(IndexQuoteId.of(ON_INDEX)), state.getLastOvernightFixingDate());
+    LocalDateDoubleTimeSeries newIborFixings =
+        after(fixings.get(IndexQuoteId.of(IBOR_INDEX)), state.getLastIborFixingDate());
+    FallbackSpreadState.Update update = state.update(newOvernightFixings, newIborFixings, REF_DATA);
+    StringBuilder builder = new StringBuilder();
+    appendRows(update, builder);
+    state.write(STATE_FILE);
+    writeExport(builder.toString(), true);
+    end = System.currentTimeMillis();
+    System.out.println("Daily update: " + newOvernightFixings.size() + " overnight and " + newIborFixings.size() +
+        " IBOR new fixings, " + update.size() + " new spreads, " + state.getPendingIborFixingCount() +
+        " IBOR fixings pending, in " + (end - start) + " ms.");
+  }
+
+  /* The part of the time series strictly after the last date, all of it if there is no last date. */
+  private static LocalDateDoubleTimeSeries after(LocalDateDoubleTimeSeries ts, Optional<LocalDate> lastDate) {
+    if (!lastDate.isPresent()) {
+      return ts;
+    }
+    LocalDate startDate = lastDate.get().plusDays(1);
+    if (ts.isEmpty() || ts.getLatestDate().isBefore(startDate)) {
+      return LocalDateDoubleTimeSeries.empty();
+    }
+    return ts.subSeries(startDate, ts.getLatestDate().plusDays(1));
+  }
+
+  /* Writes the rows, after the existing ones if append, in a temporary file moved in place of the export file. */
+  private static void writeExport(String rows, boolean append) throws IOException {
+    Path file = Paths.get(EXPORT_FILE).toAbsolutePath();
+    Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      if (append && Files.exists(file)) {
+        Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+      }
+      Files.write(temp, rows.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static void appendRows(FallbackSpreadState.Update update, StringBuilder builder) {
+    for (int loopdate = 0; loopdate < update.size(); loopdate++) {
+      builder.append(update.getFixingDate(loopdate).toString())
+          .append(", ").append(update.getCompoundedRate(loopdate))
+          .append(", ").append(update.getSpread(loopdate))
+          .append(", ").append(update.getLookbackMedian(loopdate));
+      for (int loopstart = 0; loopstart < STATISTICS_START_DATES.size(); loopstart++) {
+        builder.append(", ").append(update.getMean(loopstart, loopdate))
+            .append(", ").append(update.getMedian(loopstart, loopdate));
+      }
+      builder.append("\n");
+    }
+  }
+
+}
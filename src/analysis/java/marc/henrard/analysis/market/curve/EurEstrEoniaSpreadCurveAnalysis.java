@@ -26,7 +26,6 @@ import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
 import com.opengamma.strata.data.ImmutableMarketData;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.market.curve.CurveDefinition;
 import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.CurveName;
@@ -43,6 +42,7 @@ import com.opengamma.strata.product.swap.ResolvedSwapTrade;
 import com.opengamma.strata.product.swap.SwapLegType;
 import com.opengamma.strata.product.swap.SwapPaymentPeriod;
 
+import marc.henrard.analysis.dataset.CurveConfigRegistry;
 import marc.henrard.murisq.basics.data.export.ExportUtils;
 
 /**
@@ -65,6 +65,7 @@ import marc.henrard.murisq.basics.data.export.ExportUtils;
  */
 public class EurEstrEoniaSpreadCurveAnalysis {
   
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
   private static final ReferenceData REF_DATA = ReferenceData.standard();
   private static final LocalDate VALUATION_DATE = LocalDate.of(2020, 12, 10);
   private static final double SPREAD = 0.00085;
@@ -83,10 +84,10 @@ public class EurEstrEoniaSpreadCurveAnalysis {
       ResourceLocator.of(PATH_CONFIG_MARKET_ESTR + GROUP_NAME_MKT_ESTR_STR + "-settings-zrlinear.csv");
 //  private static final ResourceLocator FILE_SETTINGS_MKT_ESTR_ZRNCS =
 //      ResourceLocator.of(PATH_CONFIG_MARKET_ESTR + GROUP_NAME_MKT_ESTR_STR + "-settings-zrncs.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_ESTR_ZRLIN = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_MKT_ESTR, FILE_SETTINGS_MKT_ESTR_ZRLIN, FILE_NODES_MKT_ESTR).get(GROUP_NAME_MKT_ESTR);
-//  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_ESTR_ZRNCS = RatesCalibrationCsvLoader
-//      .load(FILE_GROUP_MKT_ESTR, FILE_SETTINGS_MKT_ESTR_ZRNCS, FILE_NODES_MKT_ESTR).get(GROUP_NAME_MKT_ESTR)
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_ESTR_ZRLIN = REGISTRY
+      .definition(GROUP_NAME_MKT_ESTR, FILE_GROUP_MKT_ESTR, FILE_SETTINGS_MKT_ESTR_ZRLIN, FILE_NODES_MKT_ESTR);
+//  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_ESTR_ZRNCS = REGISTRY
+//      .definition(GROUP_NAME_MKT_ESTR, FILE_GROUP_MKT_ESTR, FILE_SETTINGS_MKT_ESTR_ZRNCS, FILE_NODES_MKT_ESTR)
 //      .toBuilder().computePvSensitivityToMarketQuote(true).build();
   
 
@@ -99,8 +100,8 @@ public class EurEstrEoniaSpreadCurveAnalysis {
       ResourceLocator.of(PATH_CONFIG_MARKET_EONIA + GROUP_NAME_MKT_EONIA_STR + "-nodes.csv");
   private static final ResourceLocator FILE_SETTINGS_MKT_EONIA_ZRLIN =
       ResourceLocator.of(PATH_CONFIG_MARKET_EONIA + GROUP_NAME_MKT_EONIA_STR + "-settings-zrlinear.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_EONIA_ZRLIN = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_MKT_EONIA, FILE_SETTINGS_MKT_EONIA_ZRLIN, FILE_NODES_MKT_EONIA).get(GROUP_NAME_MKT_EONIA);
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_EONIA_ZRLIN = REGISTRY
+      .definition(GROUP_NAME_MKT_EONIA, FILE_GROUP_MKT_EONIA, FILE_SETTINGS_MKT_EONIA_ZRLIN, FILE_NODES_MKT_EONIA);
   
   private static final String FILE_QUOTES = 
       "src/analysis/resources/quotes/MARKET-DATA-" + VALUATION_DATE.toString() + ".csv";
@@ -198,15 +199,20 @@ public class EurEstrEoniaSpreadCurveAnalysis {
     start = System.currentTimeMillis();
     LocalDate startDateExport = VALUATION_DATE;
     LocalDate endDateExport = VALUATION_DATE.plus(exportPeriod);
-    LocalDate currentDate = startDateExport;
+    int nbExportDates = calendarEstr.daysBetween(startDateExport, endDateExport);
+    ObservationGrid<OvernightIndexObservation> gridEstr =
+        ObservationGrid.ofOvernight(EUR_ESTR, startDateExport, nbExportDates, REF_DATA);
+    ObservationGrid<OvernightIndexObservation> gridEonia =
+        ObservationGrid.ofOvernight(EUR_EONIA, startDateExport, nbExportDates, REF_DATA);
+    double[] forwardsEstr =
+        ForwardRatesBatchUtils.overnightForwards(multicurveEstrEonia.overnightIndexRates(EUR_ESTR), gridEstr);
+    double[] forwardsEonia =
+        ForwardRatesBatchUtils.overnightForwards(multicurveEstrEonia.overnightIndexRates(EUR_EONIA), gridEonia);
     LocalDateDoubleTimeSeriesBuilder tsEstrBuilder = LocalDateDoubleTimeSeries.builder();
     LocalDateDoubleTimeSeriesBuilder tsEoniaBuilder = LocalDateDoubleTimeSeries.builder();
-    while (currentDate.isBefore(endDateExport)) {
-      OvernightIndexObservation obsEstr = OvernightIndexObservation.of(EUR_ESTR, currentDate, REF_DATA);
-      OvernightIndexObservation obsEonia = OvernightIndexObservation.of(EUR_EONIA, currentDate, REF_DATA);
-      tsEstrBuilder.put(currentDate, multicurveEstrEonia.overnightIndexRates(EUR_ESTR).rate(obsEstr));
-      tsEoniaBuilder.put(currentDate, multicurveEstrEonia.overnightIndexRates(EUR_EONIA).rate(obsEonia));
-      currentDate = calendarEstr.next(currentDate);
+    for (int loopdate = 0; loopdate < nbExportDates; loopdate++) {
+      tsEstrBuilder.put(gridEstr.getDate(loopdate), forwardsEstr[loopdate]);
+      tsEoniaBuilder.put(gridEonia.getDate(loopdate), forwardsEonia[loopdate]);
     }
     LocalDateDoubleTimeSeries tsEstr = tsEstrBuilder.build();
     LocalDateDoubleTimeSeries tsEonia = tsEoniaBuilder.build();
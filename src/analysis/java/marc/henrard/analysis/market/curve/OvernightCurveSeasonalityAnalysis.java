@@ -20,7 +20,6 @@ import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.market.curve.CurveDefinition;
 import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
@@ -28,6 +27,7 @@ import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
 import com.opengamma.strata.pricer.curve.RatesCurveCalibrator;
 import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 
+import marc.henrard.analysis.dataset.CurveConfigRegistry;
 import marc.henrard.analysis.dataset.MulticurveConfigDataSet;
 import marc.henrard.murisq.market.curve.description.MultiplyFixedCurveDefinition;
 
@@ -38,6 +38,7 @@ import marc.henrard.murisq.market.curve.description.MultiplyFixedCurveDefinition
  */
 public class OvernightCurveSeasonalityAnalysis {
   
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
   private static final ReferenceData REF_DATA = ReferenceData.standard();
   private static final LocalDate VALUATION_DATE = LocalDate.of(2019, 6, 21);
   private static final HolidayCalendarId CALENDAR_ID = HolidayCalendarIds.USNY;
@@ -94,8 +95,8 @@ public class OvernightCurveSeasonalityAnalysis {
     InterpolatedNodalCurve seasonCurve = SeasonalAdjustmentUtils.seasonalityAdjustment(
         DoubleArray.of(JUMP_LEVEL_FIRST, JUMP_LEVEL_2ND,JUMP_LEVEL_15, JUMP_LEVEL_MONTH_END), 
         VALUATION_DATE, CALENDAR, DayCounts.ACT_365F, nbMonths);
-    RatesCurveGroupDefinition groupDefinitionLoad = RatesCalibrationCsvLoader
-        .load(FILE_GROUP, FILE_SETTINGS, FILE_NODES).get(GROUP_NAME);
+    RatesCurveGroupDefinition groupDefinitionLoad = REGISTRY
+        .definition(GROUP_NAME, FILE_GROUP, FILE_SETTINGS, FILE_NODES);
     CurveDefinition curveDefLoad = groupDefinitionLoad.getCurveDefinitions().get(0);
     MultiplyFixedCurveDefinition curveDefAdjusted = MultiplyFixedCurveDefinition.builder()
         .fixedCurve(seasonCurve)
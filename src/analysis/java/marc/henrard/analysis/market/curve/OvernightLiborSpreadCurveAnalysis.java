@@ -25,7 +25,6 @@ import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.market.curve.AddFixedCurve;
 import com.opengamma.strata.market.curve.CombinedCurve;
 import com.opengamma.strata.market.curve.Curve;
@@ -53,6 +52,7 @@ import com.opengamma.strata.product.common.BuySell;
 import com.opengamma.strata.product.swap.ResolvedSwapTrade;
 import com.opengamma.strata.product.swap.type.FixedIborSwapConventions;
 
+import marc.henrard.analysis.dataset.CurveConfigRegistry;
 import marc.henrard.analysis.dataset.MulticurveConfigDataSet;
 import marc.henrard.murisq.basics.data.export.ExcelExportUtil;
 import marc.henrard.murisq.market.curve.description.AddFixedCurveDefinition;
@@ -66,6 +66,7 @@ import marc.henrard.murisq.pricer.curve.CalibrationSplitMeasures;
  */
 public class OvernightLiborSpreadCurveAnalysis {
   
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
   private static final ReferenceData REF_DATA = ReferenceData.standard();
   private static final LocalDate VALUATION_DATE = LocalDate.of(2019, 6, 21);
   
@@ -146,8 +147,8 @@ public class OvernightLiborSpreadCurveAnalysis {
             FILE_QUOTES, REF_DATA);
     Curve curveOn = multicurveOnZrProdLin.getCurves().get(ON_CURVE_NAME);
     /* IBOR Curve definition */
-    RatesCurveGroupDefinition groupOutrightDefinition = RatesCalibrationCsvLoader
-        .load(FILE_GROUP_IBOR, FILE_SETTINGS_IBOR_ZRPRODLIN, FILE_NODES_IBOR).get(GROUP_NAME_IBOR);
+    RatesCurveGroupDefinition groupOutrightDefinition = REGISTRY
+        .definition(GROUP_NAME_IBOR, FILE_GROUP_IBOR, FILE_SETTINGS_IBOR_ZRPRODLIN, FILE_NODES_IBOR);
     List<CurveDefinition> listCurveDefIbor = groupOutrightDefinition.getCurveDefinitions();
     List<CurveDefinition> addDefinitionList = new ArrayList<>();
     CurveDefinition iborCurveDefinition = null;
@@ -205,8 +206,8 @@ public class OvernightLiborSpreadCurveAnalysis {
             FILE_QUOTES, REF_DATA);
     Curve curveOn = multicurveOnZrProdLin.getCurves().get(ON_CURVE_NAME);
     /* IBOR Curve definition */
-    RatesCurveGroupDefinition groupOutrightDefinition = RatesCalibrationCsvLoader
-        .load(FILE_GROUP_IBOR, FILE_SETTINGS_IBOR_ZRPRODLIN, FILE_NODES_IBOR).get(GROUP_NAME_IBOR);
+    RatesCurveGroupDefinition groupOutrightDefinition = REGISTRY
+        .definition(GROUP_NAME_IBOR, FILE_GROUP_IBOR, FILE_SETTINGS_IBOR_ZRPRODLIN, FILE_NODES_IBOR);
     List<CurveDefinition> listCurveDefIbor = groupOutrightDefinition.getCurveDefinitions();
     List<CurveDefinition> addDefinitionList = new ArrayList<>();
     CurveDefinition iborCurveDefinition = null;
@@ -34,7 +34,6 @@ import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.data.ObservableId;
 import com.opengamma.strata.loader.csv.FixingSeriesCsvLoader;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.market.curve.CurveDefinition;
 import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.CurveName;
@@ -58,6 +57,7 @@ import com.opengamma.strata.product.swap.type.FixedRateSwapLegConvention;
 import com.opengamma.strata.product.swap.type.IborRateSwapLegConvention;
 import com.opengamma.strata.product.swap.type.ImmutableFixedIborSwapConvention;
 
+import marc.henrard.analysis.dataset.CurveConfigRegistry;
 import marc.henrard.murisq.basics.data.export.ExcelExportUtil;
 import marc.henrard.murisq.market.curve.description.MultiplyFixedCurveDefinition;
 
@@ -68,6 +68,7 @@ import marc.henrard.murisq.market.curve.description.MultiplyFixedCurveDefinition
  */
 public class OvernightSeasonalityCompensationImpactAnalysis {
   
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
   private static final ReferenceData REF_DATA = ReferenceData.standard();
   private static final LocalDate VALUATION_DATE = LocalDate.of(2019, 6, 21);
   private static final HolidayCalendarId CALENDAR_ID = HolidayCalendarIds.USNY;
@@ -208,8 +209,8 @@ public class OvernightSeasonalityCompensationImpactAnalysis {
     InterpolatedNodalCurve seasonCurve = SeasonalAdjustmentUtils.seasonalityAdjustment(
         DoubleArray.of(JUMP_LEVEL_FIRST, JUMP_LEVEL_2ND, JUMP_LEVEL_15, JUMP_LEVEL_MONTH_END),
         VALUATION_DATE, CALENDAR, DayCounts.ACT_365F, nbMonths);
-    RatesCurveGroupDefinition groupDefinitionNotAdjusted = RatesCalibrationCsvLoader
-        .load(FILE_GROUP, FILE_SETTINGS, FILE_NODES).get(GROUP_NAME).toBuilder()
+    RatesCurveGroupDefinition groupDefinitionNotAdjusted = REGISTRY
+        .definition(GROUP_NAME, FILE_GROUP, FILE_SETTINGS, FILE_NODES).toBuilder()
         .computePvSensitivityToMarketQuote(true).build();
     CurveDefinition curveDefDscOn = groupDefinitionNotAdjusted.findCurveDefinition(CURVE_DSC).get();
     MultiplyFixedCurveDefinition curveDefAdjusted = MultiplyFixedCurveDefinition.builder()
@@ -9,6 +9,7 @@ import static com.opengamma.strata.basics.index.IborIndices.EUR_EURIBOR_6M;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.Period;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,15 +17,16 @@ import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.index.IborIndices;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.collect.result.ValueWithFailures;
+import com.opengamma.strata.collect.tuple.Pair;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.loader.csv.TradeCsvLoader;
-import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.CurveInfoType;
 import com.opengamma.strata.market.curve.JacobianCalibrationMatrix;
 import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
@@ -39,6 +41,9 @@ import com.opengamma.strata.product.Trade;
 import com.opengamma.strata.product.swap.ResolvedSwapTrade;
 import com.opengamma.strata.product.swap.SwapTrade;
 
+import marc.henrard.analysis.dataset.CurveConfigRegistry;
+import marc.henrard.analysis.market.quote.QuoteIndex;
+import marc.henrard.analysis.market.quote.QuoteVectorMarketData;
 import marc.henrard.murisq.basics.data.export.ExcelExportUtil;
 
 /**
@@ -53,45 +58,18 @@ public class PV01ReportsEurAnalysis {
   private static final LocalDate VALUATION_DATE = LocalDate.of(2020, 10, 28);
   
   /* Load curve descriptions */
-  private static final String PATH_CONFIG_MARKET_BS = "src/analysis/resources/curve-config/EUR-DSCESTROIS-E3MBS-E6MIRS/";
-  private static final CurveGroupName GROUP_NAME_MKT_BS = CurveGroupName.of("EUR-DSCESTROIS-E3MBS-E6MIRS");
-  private static final ResourceLocator FILE_GROUP_MKT_BS = 
-      ResourceLocator.of(PATH_CONFIG_MARKET_BS + "EUR-DSCESTROIS-E3MBS-E6MIRS-group.csv");
-  private static final ResourceLocator FILE_NODES_MKT_BS =
-      ResourceLocator.of(PATH_CONFIG_MARKET_BS + "EUR-DSCESTROIS-E3MBS-E6MIRS-nodes.csv");
-  private static final ResourceLocator FILE_SETTINGS_MKT_BS_ZRLIN =
-      ResourceLocator.of(PATH_CONFIG_MARKET_BS + "EUR-DSCESTROIS-E3MBS-E6MIRS-settings-zrlinear.csv");
-  private static final ResourceLocator FILE_SETTINGS_MKT_BS_ZRNCS =
-      ResourceLocator.of(PATH_CONFIG_MARKET_BS + "EUR-DSCESTROIS-E3MBS-E6MIRS-settings-zrncs.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_BS_ZRLIN = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_MKT_BS, FILE_SETTINGS_MKT_BS_ZRLIN, FILE_NODES_MKT_BS).get(GROUP_NAME_MKT_BS)
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_BS_ZRLIN = REGISTRY
+      .definition("EUR-DSCESTROIS-E3MBS-E6MIRS", "zrlinear", "")
       .toBuilder().computePvSensitivityToMarketQuote(true).build();
-  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_BS_ZRNCS = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_MKT_BS, FILE_SETTINGS_MKT_BS_ZRNCS, FILE_NODES_MKT_BS).get(GROUP_NAME_MKT_BS)
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_BS_ZRNCS = REGISTRY
+      .definition("EUR-DSCESTROIS-E3MBS-E6MIRS", "zrncs", "")
       .toBuilder().computePvSensitivityToMarketQuote(true).build();
-
-  private static final String PATH_CONFIG_MARKET_FUT = "src/analysis/resources/curve-config/EUR-DSCESTROIS-E3MFUTBS-E6MIRS/";
-  private static final CurveGroupName GROUP_NAME_MKT_FUT = CurveGroupName.of("EUR-DSCESTROIS-E3MFUTBS-E6MIRS");
-  private static final ResourceLocator FILE_GROUP_MKT_FUT = 
-      ResourceLocator.of(PATH_CONFIG_MARKET_FUT + "EUR-DSCESTROIS-E3MFUTBS-E6MIRS-group.csv");
-  private static final ResourceLocator FILE_NODES_MKT_FUT =
-      ResourceLocator.of(PATH_CONFIG_MARKET_FUT + "EUR-DSCESTROIS-E3MFUTBS-E6MIRS-nodes.csv");
-  private static final ResourceLocator FILE_SETTINGS_MKT_FUT_ZRLIN =
-      ResourceLocator.of(PATH_CONFIG_MARKET_FUT + "EUR-DSCESTROIS-E3MFUTBS-E6MIRS-settings-zrlinear.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_FUT_ZRLIN = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_MKT_FUT, FILE_SETTINGS_MKT_FUT_ZRLIN, FILE_NODES_MKT_FUT).get(GROUP_NAME_MKT_FUT)
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_FUT_ZRLIN = REGISTRY
+      .definition("EUR-DSCESTROIS-E3MFUTBS-E6MIRS", "zrlinear", "")
       .toBuilder().computePvSensitivityToMarketQuote(true).build();
-  
-  private static final String PATH_CONFIG_MARKET_IRS = "src/analysis/resources/curve-config/EUR-DSCESTROIS-E3MIRS-E6MIRS/";
-  private static final CurveGroupName GROUP_NAME_MKT_IRS = CurveGroupName.of("EUR-DSCESTROIS-E3MIRS-E6MIRS");
-  private static final ResourceLocator FILE_GROUP_MKT_IRS = 
-      ResourceLocator.of(PATH_CONFIG_MARKET_IRS + "EUR-DSCESTROIS-E3MIRS-E6MIRS-group.csv");
-  private static final ResourceLocator FILE_NODES_MKT_IRS =
-      ResourceLocator.of(PATH_CONFIG_MARKET_IRS + "EUR-DSCESTROIS-E3MIRS-E6MIRS-nodes.csv");
-  private static final ResourceLocator FILE_SETTINGS_MKT_IRS_ZRLIN =
-      ResourceLocator.of(PATH_CONFIG_MARKET_IRS + "EUR-DSCESTROIS-E3MIRS-E6MIRS-settings-zrlinear.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_IRS_ZRLIN = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_MKT_IRS, FILE_SETTINGS_MKT_IRS_ZRLIN, FILE_NODES_MKT_IRS).get(GROUP_NAME_MKT_IRS)
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_MKT_IRS_ZRLIN = REGISTRY
+      .definition("EUR-DSCESTROIS-E3MIRS-E6MIRS", "zrlinear", "")
       .toBuilder().computePvSensitivityToMarketQuote(true).build();
   
   private static final List<RatesCurveGroupDefinition> GROUP_DEFINITIONS_MKT = new ArrayList<>();
@@ -101,16 +79,8 @@ public class PV01ReportsEurAnalysis {
     GROUP_DEFINITIONS_MKT.add(GROUP_DEFINITION_MKT_IRS_ZRLIN);
   }
 
-  private static final String PATH_CONFIG_STD = "src/analysis/resources/curve-config/EUR-DSCESTROIS-E3MIRS-E6MIRS-STD/";
-  private static final CurveGroupName GROUP_NAME_STD = CurveGroupName.of("EUR-DSCESTROIS-E3MIRS-E6MIRS-STD");
-  private static final ResourceLocator FILE_GROUP_STD = 
-      ResourceLocator.of(PATH_CONFIG_STD + "EUR-DSCESTROIS-E3MIRS-E6MIRS-STD-group.csv");
-  private static final ResourceLocator FILE_SETTINGS_STD =
-      ResourceLocator.of(PATH_CONFIG_STD + "EUR-DSCESTROIS-E3MIRS-E6MIRS-STD-settings-zrlinear.csv");
-  private static final ResourceLocator FILE_NODES_STD =
-      ResourceLocator.of(PATH_CONFIG_STD + "EUR-DSCESTROIS-E3MIRS-E6MIRS-STD-nodes-standard.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEFINITION_STD = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_STD, FILE_SETTINGS_STD, FILE_NODES_STD).get(GROUP_NAME_STD);
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_STD = REGISTRY
+      .definition("EUR-DSCESTROIS-E3MIRS-E6MIRS-STD", "zrlinear", "standard");
   
   private static final String FILE_QUOTES = 
       "src/analysis/resources/quotes/MARKET-DATA-" + VALUATION_DATE.toString() + "-STD.csv";
@@ -121,6 +91,8 @@ public class PV01ReportsEurAnalysis {
   
   private static final RatesCurveCalibrator CALIBRATOR = RatesCurveCalibrator.standard();
   private static final SyntheticRatesCurveCalibrator CALIBRATOR_SYNTHETIC = SyntheticRatesCurveCalibrator.standard();
+  private static final ForwardNodesSequentialCalibrator CALIBRATOR_SEQUENTIAL = 
+      ForwardNodesSequentialCalibrator.DEFAULT;
   
   private static final DiscountingSwapTradePricer PRICER_SWAP = DiscountingSwapTradePricer.DEFAULT;
   private static final MarketQuoteSensitivityCalculator MQSC = MarketQuoteSensitivityCalculator.DEFAULT;
@@ -128,6 +100,11 @@ public class PV01ReportsEurAnalysis {
   
   private static final String PATH_EXPORT = "src/analysis/resources/output/";
   private static final double BP1 = 1.0E-4;
+  private static final int NB_FORWARD_DATES = 7000;
+  /** The tolerance on the market quote sensitivities, relative to the largest one. */
+  private static final double TOLERANCE_PV01_RELATIVE = 1.0E-6;
+  /** The tolerance on the bump and recalibrate PV01, relative to the sum of the absolute bucketed PV01. */
+  private static final double TOLERANCE_PV01_BUMP_RELATIVE = 1.0E-4;
 
   @Test
   public void pv01_synthetic_forward() throws IOException {
@@ -187,6 +164,166 @@ public class PV01ReportsEurAnalysis {
     System.out.println("Done!");
   }
 
+  @Test
+  public void pv01_synthetic_forward_quarterly() throws IOException {
+
+    long start, end;
+    
+    /* Portfolio */
+    TradeCsvLoader loader = TradeCsvLoader.of(REF_DATA);
+    List<Trade> trades = loader.load(ResourceLocator.of(PORTFOLIO)).getValue();
+
+    /* Curves: quarterly forwards up to 30 years, calibrated node by node */
+    start = System.currentTimeMillis();
+    ImmutableRatesProvider multicurveMarket =
+        CALIBRATOR.calibrate(GROUP_DEFINITION_MKT_BS_ZRLIN, MARKET_DATA, REF_DATA);
+    RatesCurveGroupDefinition groupDefinitionForward = ForwardRatesCurveGroupDefinitions
+        .createForwardCurveDefinition(Period.ofMonths(3), Period.ofYears(30), 
+            EUR_ESTR, ImmutableList.of(EUR_EURIBOR_3M, EUR_EURIBOR_6M));
+    MarketData marketDataForward = 
+        CALIBRATOR_SYNTHETIC.marketData(groupDefinitionForward, multicurveMarket, REF_DATA);
+    Pair<ImmutableRatesProvider, LowerTriangularJacobian> calibrated = 
+        CALIBRATOR_SEQUENTIAL.calibrateWithJacobian(groupDefinitionForward, marketDataForward, REF_DATA);
+    ImmutableRatesProvider multicurveForward = calibrated.getFirst();
+    LowerTriangularJacobian jacobian = calibrated.getSecond();
+    end = System.currentTimeMillis();
+    System.out.println("Curves calibrated in: " + (end - start) + " ms. Jacobian with " + 
+        jacobian.size() + " rows and " + jacobian.nbNonZero() + " non-zero elements.");
+    
+    /* Forwards: all the indices on the same fixing dates */
+    start = System.currentTimeMillis();
+    IborForwardSurface forwards = IborForwardSurface
+        .of(multicurveForward, ImmutableList.of(EUR_EURIBOR_3M, EUR_EURIBOR_6M), NB_FORWARD_DATES, REF_DATA);
+    end = System.currentTimeMillis();
+    System.out.println("Forwards computed in: " + (end - start) + " ms.");
+    
+    /* Sensitivity */
+    start = System.currentTimeMillis();
+    CurrencyParameterSensitivities pv01TotalForward = CurrencyParameterSensitivities.empty();
+    for (Trade trade : trades) {
+      ResolvedSwapTrade swap = ((SwapTrade) trade).resolve(REF_DATA);
+      pv01TotalForward = pv01TotalForward.combinedWith(
+          multicurveForward.parameterSensitivity(PRICER_SWAP.presentValueSensitivity(swap, multicurveForward)));
+    }
+    CurrencyParameterSensitivities mqForward = jacobian.marketQuoteSensitivity(pv01TotalForward);
+    end = System.currentTimeMillis();  
+    System.out.println("PV01 computed in: " + (end-start) + " ms."); 
+    
+    /* Export */
+    ExcelExportUtil.export(ImmutableList.of(), ImmutableList.of(), ImmutableList.of(), 
+        mqForward.multipliedBy(BP1), PATH_EXPORT + "pv01-forward-quarterly.xlsx");
+    forwards.export(PATH_EXPORT + "ibor-forwards-quarterly.csv");
+    
+    System.out.println("Done!");
+  }
+
+  /**
+   * Compares the market quote sensitivities computed with the sequential calibration Jacobian to the ones of the
+   * standard calibration on quarterly forwards. The EURIBOR 6M instruments depend on the next 3M node, the
+   * Jacobian is not lower triangular but banded.
+   */
+  @Test
+  public void pv01_sequential_versus_standard_quarterly() {
+
+    long start, end;
+    TradeCsvLoader loader = TradeCsvLoader.of(REF_DATA);
+    List<Trade> trades = loader.load(ResourceLocator.of(PORTFOLIO)).getValue();
+    ImmutableRatesProvider multicurveMarket =
+        CALIBRATOR.calibrate(GROUP_DEFINITION_MKT_BS_ZRLIN, MARKET_DATA, REF_DATA);
+    RatesCurveGroupDefinition groupDefinitionForward = ForwardRatesCurveGroupDefinitions
+        .createForwardCurveDefinition(Period.ofMonths(3), Period.ofYears(10),
+            EUR_ESTR, ImmutableList.of(EUR_EURIBOR_3M, EUR_EURIBOR_6M));
+    MarketData marketDataForward =
+        CALIBRATOR_SYNTHETIC.marketData(groupDefinitionForward, multicurveMarket, REF_DATA);
+    start = System.currentTimeMillis();
+    Pair<ImmutableRatesProvider, LowerTriangularJacobian> calibrated =
+        CALIBRATOR_SEQUENTIAL.calibrateWithJacobian(groupDefinitionForward, marketDataForward, REF_DATA);
+    end = System.currentTimeMillis();
+    System.out.println("Sequential calibration in: " + (end - start) + " ms. Jacobian lower triangular: " +
+        calibrated.getSecond().isLowerTriangular() + ", banded: " + calibrated.getSecond().isBanded());
+    start = System.currentTimeMillis();
+    ImmutableRatesProvider multicurveStandard =
+        CALIBRATOR.calibrate(groupDefinitionForward, marketDataForward, REF_DATA);
+    end = System.currentTimeMillis();
+    System.out.println("Standard calibration in: " + (end - start) + " ms.");
+    ImmutableRatesProvider multicurveSequential = calibrated.getFirst();
+    CurrencyParameterSensitivities pv01Sequential = CurrencyParameterSensitivities.empty();
+    CurrencyParameterSensitivities pv01Standard = CurrencyParameterSensitivities.empty();
+    for (Trade trade : trades) {
+      ResolvedSwapTrade swap = ((SwapTrade) trade).resolve(REF_DATA);
+      pv01Sequential = pv01Sequential.combinedWith(multicurveSequential
+          .parameterSensitivity(PRICER_SWAP.presentValueSensitivity(swap, multicurveSequential)));
+      pv01Standard = pv01Standard.combinedWith(multicurveStandard
+          .parameterSensitivity(PRICER_SWAP.presentValueSensitivity(swap, multicurveStandard)));
+    }
+    CurrencyParameterSensitivities mqSequential = calibrated.getSecond().marketQuoteSensitivity(pv01Sequential);
+    CurrencyParameterSensitivities mqStandard = MQSC.sensitivity(pv01Standard, multicurveStandard);
+    double maxDifference = mqSequential.combinedWith(mqStandard.multipliedBy(-1.0d)).getSensitivities().stream()
+        .mapToDouble(s -> s.getSensitivity().map(Math::abs).max())
+        .max().orElse(0.0d);
+    double maxStandard = mqStandard.getSensitivities().stream()
+        .mapToDouble(s -> s.getSensitivity().map(Math::abs).max())
+        .max().orElse(0.0d);
+    System.out.println("Maximum difference of market quote sensitivities: " + maxDifference * BP1);
+    ArgChecker.isTrue(maxDifference <= TOLERANCE_PV01_RELATIVE * maxStandard,
+        "sequential and standard market quote sensitivities differ by {}", maxDifference * BP1);
+  }
+
+  /**
+   * Computes the bucketed PV01 by bump and recalibrate, each quote being bumped in the array backing the market
+   * data, without rebuilding the market data. The total is compared to the one of the market quote sensitivities.
+   */
+  @Test
+  public void pv01_bump_and_recalibrate() {
+
+    long start, end;
+    TradeCsvLoader loader = TradeCsvLoader.of(REF_DATA);
+    List<ResolvedSwapTrade> swaps = new ArrayList<>();
+    for (Trade trade : loader.load(ResourceLocator.of(PORTFOLIO)).getValue()) {
+      swaps.add(((SwapTrade) trade).resolve(REF_DATA));
+    }
+    ImmutableRatesProvider multicurve = CALIBRATOR.calibrate(GROUP_DEFINITION_MKT_BS_ZRLIN, MARKET_DATA, REF_DATA);
+    CurrencyParameterSensitivities pv01 = CurrencyParameterSensitivities.empty();
+    for (ResolvedSwapTrade swap : swaps) {
+      pv01 = pv01.combinedWith(MQSC.sensitivity(
+          multicurve.parameterSensitivity(PRICER_SWAP.presentValueSensitivity(swap, multicurve)), multicurve));
+    }
+    double pv01Total = pv01.total().getAmount(Currency.EUR).getAmount() * BP1;
+    start = System.currentTimeMillis();
+    QuoteIndex quoteIndex = QuoteIndex.of(GROUP_DEFINITION_MKT_BS_ZRLIN);
+    QuoteVectorMarketData marketData = quoteIndex.marketData(MARKET_DATA);
+    double[] pv01Bump = new double[quoteIndex.size()];
+    for (int loopslot = 0; loopslot < quoteIndex.size(); loopslot++) {
+      marketData.shiftValue(loopslot, BP1);
+      double pvUp = presentValue(swaps, CALIBRATOR.calibrate(GROUP_DEFINITION_MKT_BS_ZRLIN, marketData, REF_DATA));
+      marketData.shiftValue(loopslot, -2 * BP1);
+      double pvDown = presentValue(swaps, CALIBRATOR.calibrate(GROUP_DEFINITION_MKT_BS_ZRLIN, marketData, REF_DATA));
+      marketData.shiftValue(loopslot, BP1);
+      pv01Bump[loopslot] = 0.5 * (pvUp - pvDown);
+    }
+    end = System.currentTimeMillis();
+    System.out.println("Bump and recalibrate PV01 for " + quoteIndex.size() + " quotes in " + (end - start) + " ms.");
+    double pv01BumpTotal = 0.0d;
+    double pv01BumpAbsolute = 0.0d;
+    for (int loopslot = 0; loopslot < quoteIndex.size(); loopslot++) {
+      System.out.println(quoteIndex.getQuoteIds().get(loopslot) + ", " + pv01Bump[loopslot]);
+      pv01BumpTotal += pv01Bump[loopslot];
+      pv01BumpAbsolute += Math.abs(pv01Bump[loopslot]);
+    }
+    System.out.println("Total PV01, bump: " + pv01BumpTotal + ", market quote sensitivity: " + pv01Total);
+    ArgChecker.isTrue(Math.abs(pv01BumpTotal - pv01Total) <= TOLERANCE_PV01_BUMP_RELATIVE * pv01BumpAbsolute,
+        "bump and market quote sensitivity PV01 differ by {}", pv01BumpTotal - pv01Total);
+  }
+
+  /* The present value of the swaps in EUR. */
+  private static double presentValue(List<ResolvedSwapTrade> swaps, ImmutableRatesProvider multicurve) {
+    double pv = 0.0d;
+    for (ResolvedSwapTrade swap : swaps) {
+      pv += PRICER_SWAP.presentValue(swap, multicurve).getAmount(Currency.EUR).getAmount();
+    }
+    return pv;
+  }
+
   @Test
   public void pv01_interpolation_matrix() throws IOException {
 
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.DayCount;
+import com.opengamma.strata.basics.date.DayCounts;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.basics.date.HolidayCalendarIds;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Checks the intra-month seasonal adjustment grid against the original list-based algorithm, node by node.
+ *
+ * @author Marc Henrard
+ */
+public class SeasonalAdjustmentGridAnalysis {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final List<HolidayCalendar> CALENDARS = ImmutableList.of(
+      REF_DATA.getValue(HolidayCalendarIds.USNY),
+      REF_DATA.getValue(HolidayCalendarIds.EUTA),
+      REF_DATA.getValue(HolidayCalendarIds.GBLO));
+  private static final List<LocalDate> CALIBRATION_DATES = ImmutableList.of(
+      LocalDate.of(2019, 6, 21),
+      LocalDate.of(2019, 7, 1),
+      LocalDate.of(2019, 7, 2),
+      LocalDate.of(2020, 2, 14),
+      LocalDate.of(2020, 12, 31));
+  private static final DayCount DAY_COUNT = DayCounts.ACT_365F;
+  private static final int NB_MONTHS = 24;
+  private static final DoubleArray ADJUSTMENTS = DoubleArray.of(0.0008d, 0.00045d, 0.0004d, 0.00135d);
+  private static final double TOLERANCE = 1.0E-15;
+
+  /**
+   * Compares the nodes of the grid with the ones of the list-based algorithm.
+   */
+  @Test
+  public void grid_versus_list() {
+    int nbNodes = 0;
+    for (HolidayCalendar calendar : CALENDARS) {
+      for (LocalDate calibrationDate : CALIBRATION_DATES) {
+        SeasonalAdjustmentGrid grid = SeasonalAdjustmentGrid.of(calibrationDate, calendar, DAY_COUNT, NB_MONTHS);
+        double[] discountFactors = grid.discountFactors(ADJUSTMENTS.toArray());
+        List<Double> xValuesList = new ArrayList<>();
+        List<Double> yValuesList = new ArrayList<>();
+        seasonalityAdjustmentList(calibrationDate, calendar, xValuesList, yValuesList);
+        ArgChecker.isTrue(grid.size() == xValuesList.size(),
+            "number of nodes different for {} on {}", calendar, calibrationDate);
+        for (int loopnode = 0; loopnode < grid.size(); loopnode++) {
+          ArgChecker.isTrue(Math.abs(grid.getXValues().get(loopnode) - xValuesList.get(loopnode)) < TOLERANCE,
+              "x-value {} different for {} on {}", loopnode, calendar, calibrationDate);
+          ArgChecker.isTrue(Math.abs(discountFactors[loopnode] - yValuesList.get(loopnode)) < TOLERANCE,
+              "discount factor {} different for {} on {}", loopnode, calendar, calibrationDate);
+        }
+        nbNodes += grid.size();
+      }
+    }
+    System.out.println("Grid and list algorithm identical on " + nbNodes + " nodes.");
+  }
+
+  /* The original algorithm of SeasonalAdjustmentUtils.seasonalityAdjustment, building the nodes in lists. */
+  private static void seasonalityAdjustmentList(
+      LocalDate calibrationDate,
+      HolidayCalendar calendar,
+      List<Double> xValues,
+      List<Double> yValues) {
+
+    double jump1st = ADJUSTMENTS.get(0);
+    double jump2nd = ADJUSTMENTS.get(1);
+    double jump15th = ADJUSTMENTS.get(2);
+    double jumpLast = ADJUSTMENTS.get(3);
+    LocalDate current1stMonth = calendar.nextOrSame(calibrationDate.withDayOfMonth(1));
+    double currentDiscountFactor = 1.0;
+    for (int loopmonth = 0; loopmonth < NB_MONTHS; loopmonth++) {
+      LocalDate current2ndMonth = calendar.next(current1stMonth);
+      if (!current1stMonth.isBefore(calibrationDate)) {
+        xValues.add(DAY_COUNT.relativeYearFraction(calibrationDate, current1stMonth));
+        yValues.add(currentDiscountFactor);
+        currentDiscountFactor *= 1.0d /
+            (1.0d + DAY_COUNT.relativeYearFraction(current1stMonth, current2ndMonth) * jump1st);
+      }
+      LocalDate current3rdMonth = calendar.next(current2ndMonth);
+      if (!current2ndMonth.isBefore(calibrationDate)) {
+        xValues.add(DAY_COUNT.relativeYearFraction(calibrationDate, current2ndMonth));
+        yValues.add(currentDiscountFactor);
+        currentDiscountFactor *= 1.0d /
+            (1.0d + DAY_COUNT.relativeYearFraction(current2ndMonth, current3rdMonth) * jump2nd);
+        xValues.add(DAY_COUNT.relativeYearFraction(calibrationDate, current3rdMonth));
+        yValues.add(currentDiscountFactor);
+      }
+      LocalDate current15thMonth = calendar.nextOrSame(current1stMonth.withDayOfMonth(15));
+      LocalDate current16thMonth = calendar.next(current15thMonth);
+      if (!current2ndMonth.isBefore(calibrationDate)) {
+        xValues.add(DAY_COUNT.relativeYearFraction(calibrationDate, current15thMonth));
+        yValues.add(currentDiscountFactor);
+        currentDiscountFactor *= 1.0d /
+            (1.0d + DAY_COUNT.relativeYearFraction(current15thMonth, current16thMonth) * jump15th);
+        xValues.add(DAY_COUNT.relativeYearFraction(calibrationDate, current16thMonth));
+        yValues.add(currentDiscountFactor);
+      }
+      LocalDate currentLastMonth =
+          calendar.previousOrSame(current1stMonth.plusMonths(1).withDayOfMonth(1).minusDays(1));
+      xValues.add(DAY_COUNT.relativeYearFraction(calibrationDate, currentLastMonth));
+      yValues.add(currentDiscountFactor);
+      current1stMonth = calendar.nextOrSame(current1stMonth.plusMonths(1).withDayOfMonth(1));
+      currentDiscountFactor *= 1.0d /
+          (1.0d + DAY_COUNT.relativeYearFraction(currentLastMonth, current1stMonth) * jumpLast);
+    }
+  }
+
+}
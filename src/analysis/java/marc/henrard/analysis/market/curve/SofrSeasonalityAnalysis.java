@@ -3,23 +3,33 @@
  */
 package marc.henrard.analysis.market.curve;
 
+import static com.opengamma.strata.basics.index.OvernightIndices.CHF_SARON;
+import static com.opengamma.strata.basics.index.OvernightIndices.EUR_ESTR;
+import static com.opengamma.strata.basics.index.OvernightIndices.GBP_SONIA;
 import static com.opengamma.strata.basics.index.OvernightIndices.USD_FED_FUND;
 import static com.opengamma.strata.basics.index.OvernightIndices.USD_SOFR;
 
-import java.time.LocalDate;
-import java.util.OptionalDouble;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
-import com.opengamma.strata.basics.ReferenceData;
-import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.date.HolidayCalendarId;
 import com.opengamma.strata.basics.date.HolidayCalendarIds;
+import com.opengamma.strata.basics.index.OvernightIndex;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.ObservableId;
 import com.opengamma.strata.loader.csv.FixingSeriesCsvLoader;
 import com.opengamma.strata.market.observable.IndexQuoteId;
 
+import marc.henrard.analysis.basics.date.BusinessDayIndex;
+import marc.henrard.analysis.basics.date.BusinessDayIndices;
+import marc.henrard.analysis.data.timeseries.DenseDoubleTimeSeries;
+import marc.henrard.analysis.statistics.DayOfMonthBucket;
+import marc.henrard.analysis.statistics.DayOfMonthSeasonality;
+
 /**
  * Estimate intra-month seasonality for SOFR.
  * 
@@ -35,14 +45,42 @@ public class SofrSeasonalityAnalysis {
       ResourceLocator.of("src/analysis/resources/fixing/USD-FED-FUND.csv");
   private static final LocalDateDoubleTimeSeries TS_EFFR = FixingSeriesCsvLoader.load(EFFR_LOCATOR)
       .get(IndexQuoteId.of(USD_FED_FUND));
+  private static final DenseDoubleTimeSeries TS_SPREAD =
+      DenseDoubleTimeSeries.of(TS_SOFR).combine(DenseDoubleTimeSeries.of(TS_EFFR), (s, e) -> s - e);
 
-  private static final ReferenceData REF_DATA = ReferenceData.standard();
   private static final HolidayCalendarId CALENDAR_ID = HolidayCalendarIds.USGS;
-  private static final HolidayCalendar CALENDAR = REF_DATA.getValue(CALENDAR_ID);
+  private static final BusinessDayIndex BUSINESS_DAYS = BusinessDayIndices.of(CALENDAR_ID);
   
+  private static final List<DayOfMonthBucket> BUCKETS = ImmutableList.of(
+      DayOfMonthBucket.FIRST,
+      DayOfMonthBucket.SECOND,
+      DayOfMonthBucket.MID_MONTH,
+      DayOfMonthBucket.SECOND_LAST,
+      DayOfMonthBucket.LAST,
+      DayOfMonthBucket.OTHER,
+      DayOfMonthBucket.ALL);
+  private static final List<DayOfMonthBucket> BUCKETS_OVERNIGHT = ImmutableList.of(
+      DayOfMonthBucket.FIRST,
+      DayOfMonthBucket.MID_MONTH,
+      DayOfMonthBucket.LAST,
+      DayOfMonthBucket.QUARTER_END,
+      DayOfMonthBucket.YEAR_END,
+      DayOfMonthBucket.OTHER,
+      DayOfMonthBucket.ALL);
+  private static final List<OvernightIndex> OVERNIGHT_INDICES = ImmutableList.of(
+      USD_SOFR, USD_FED_FUND, GBP_SONIA, EUR_ESTR, CHF_SARON);
+  private static final Map<ObservableId, LocalDateDoubleTimeSeries> TS_OVERNIGHT = FixingSeriesCsvLoader.load(
+      ImmutableList.of(
+          ResourceLocator.of("src/analysis/resources/fixing/USD-SOFR-2.csv"),
+          ResourceLocator.of("src/analysis/resources/fixing/USD-FED-FUND.csv"),
+          ResourceLocator.of("src/analysis/resources/fixing/GBP-SONIA.csv"),
+          ResourceLocator.of("src/analysis/resources/fixing/EUR-ESTR-PRE.csv"),
+          ResourceLocator.of("src/analysis/resources/fixing/CHF-SARON.csv")));
+
   /**
    * Analyzes SOFR seasonality. Divide monthly data is several buckets (all buckets in business days):
    * - First day of month
+   * - Second day of month
    * - First day on or after 15 month
    * - Second last day of the month
    * - Last month
@@ -50,114 +88,44 @@ public class SofrSeasonalityAnalysis {
    */
   @Test
   public void seasonality() {
-    LocalDate startDate = TS_SOFR.getEarliestDate();
-    LocalDate endDate = TS_SOFR.getLatestDate();
+    DayOfMonthSeasonality.Result result = DayOfMonthSeasonality.of(BUCKETS, false)
+        .compute(TS_SPREAD, BUSINESS_DAYS);
+    System.out.println("Start full months: " + result.getStartDate());
+    System.out.println("End full months: " + result.getEndDate());
+    for (DayOfMonthBucket bucket : BUCKETS) {
+      System.out.println("Average " + bucket + ": " + result.mean(bucket) +
+          " (std dev: " + result.standardDeviation(bucket) + ", nb days: " + result.count(bucket) + ")");
+    }
+  }
 
-    LocalDate startFullMonths = startDate.equals(CALENDAR.nextOrSame(startDate.withDayOfMonth(1))) 
-        ? startDate 
-        : CALENDAR.nextOrSame(startDate.plusMonths(1).withDayOfMonth(1));
-    System.out.println("Start full months: " + startFullMonths);
-    LocalDate endFullMonths = CALENDAR.previous(endDate.withDayOfMonth(1));
-    System.out.println("End full months: " + endFullMonths);
-    LocalDate currentStartMonth = startFullMonths;
-    double monthStartSpreadAverage = 0.0d;
-    int nbMonthsStart = 0;
-    double monthStart2SpreadAverage = 0.0d;
-    int nbMonthsStart2 = 0;
-    double month15SpreadAverage = 0.0d;
-    int nbMonths15 = 0;
-    double month2LastSpreadAverage = 0.0d;
-    int nbMonths2Last = 0;
-    double monthLastSpreadAverage = 0.0d;
-    int nbMonthsLast = 0;
-    double monthOtherSpreadAverage = 0.0d;
-    int nbDaysOther = 0;
-    double monthAllSpreadAverage = 0.0d;
-    int nbDaysAll = 0;
-    while (currentStartMonth.isBefore(endFullMonths)) {
-      LocalDate currentStart2 = CALENDAR.next(currentStartMonth);
-      LocalDate current15 = CALENDAR.nextOrSame(currentStartMonth.withDayOfMonth(15));
-      LocalDate currentLast = CALENDAR.previous(currentStartMonth.plusMonths(1).withDayOfMonth(1));
-      LocalDate current2Last = CALENDAR.previous(currentLast);
-      // First of month
-      OptionalDouble effrStart = TS_EFFR.get(currentStartMonth);
-      OptionalDouble sofrStart = TS_SOFR.get(currentStartMonth);
-      if (effrStart.isPresent()) {
-        double startMonthSpread = sofrStart.getAsDouble() - effrStart.getAsDouble();
-        monthStartSpreadAverage += startMonthSpread;
-        nbMonthsStart++;
-      }
-      // Secong of month
-      OptionalDouble effrStart2 = TS_EFFR.get(currentStart2);
-      OptionalDouble sofrStart2 = TS_SOFR.get(currentStart2);
-      if (effrStart2.isPresent()) {
-        double monthStart2Spread = sofrStart2.getAsDouble() - effrStart2.getAsDouble();
-        monthStart2SpreadAverage += monthStart2Spread;
-        nbMonthsStart2++;
-      }
-      // 15 of month
-      OptionalDouble effr15 = TS_EFFR.get(current15);
-      OptionalDouble sofr15 = TS_SOFR.get(current15);
-      if (effr15.isPresent()) {
-        double month15Spread = sofr15.getAsDouble() - effr15.getAsDouble();
-        month15SpreadAverage += month15Spread;
-        nbMonths15++;
-      }
-      // Second last of month
-      OptionalDouble effr2Last = TS_EFFR.get(current2Last);
-      OptionalDouble sofr2Last = TS_SOFR.get(current2Last);
-      if (effr2Last.isPresent()) {
-        double month2LastSpread = sofr2Last.getAsDouble() - effr2Last.getAsDouble();
-        month2LastSpreadAverage += month2LastSpread;
-        nbMonths2Last++;
-      }
-      // Last of month
-      OptionalDouble effrLast = TS_EFFR.get(currentLast);
-      OptionalDouble sofrLast = TS_SOFR.get(currentLast);
-      if (effrLast.isPresent()) {
-        double monthLastSpread = sofrLast.getAsDouble() - effrLast.getAsDouble();
-        monthLastSpreadAverage += monthLastSpread;
-        nbMonthsLast++;
-      }
-      // Others and all
-      LocalDate currentOther = CALENDAR.next(currentStartMonth);
-      while (currentOther.getMonth().equals(currentStartMonth.getMonth())) {
-        if (!currentOther.equals(currentStartMonth) && !currentOther.equals(currentStart2) &&
-            !currentOther.equals(current15) && !currentOther.equals(current2Last) &&
-            !currentOther.equals(currentLast)) {
-          OptionalDouble effrOther = TS_EFFR.get(currentOther);
-          OptionalDouble sofrOther = TS_SOFR.get(currentOther);
-          if (effrOther.isPresent()) {
-            double monthOtherSpread = sofrOther.getAsDouble() - effrOther.getAsDouble();
-            monthOtherSpreadAverage += monthOtherSpread;
-            nbDaysOther++;
-          }
-        }
-        OptionalDouble effrAll = TS_EFFR.get(currentOther);
-        OptionalDouble sofrAll = TS_SOFR.get(currentOther);
-        if (effrAll.isPresent()) {
-          double monthAllSpread = sofrAll.getAsDouble() - effrAll.getAsDouble();
-          monthAllSpreadAverage += monthAllSpread;
-          nbDaysAll++;
-        }
-        currentOther = CALENDAR.next(currentOther);
+  /**
+   * Analyzes the intra-month seasonality of several overnight indices, each with its own calendar. 
+   * The values are relative to the average of the index on the month, to remove the level of the rates.
+   * The indices are processed in parallel.
+   */
+  @Test
+  public void seasonality_overnight() {
+    long start, end;
+    start = System.currentTimeMillis();
+    List<DenseDoubleTimeSeries> series = OVERNIGHT_INDICES.stream()
+        .map(index -> DenseDoubleTimeSeries.of(TS_OVERNIGHT.get(IndexQuoteId.of(index))))
+        .collect(ImmutableList.toImmutableList());
+    List<BusinessDayIndex> calendars = OVERNIGHT_INDICES.stream()
+        .map(index -> BusinessDayIndices.of(index.getFixingCalendar()))
+        .collect(ImmutableList.toImmutableList());
+    List<DayOfMonthSeasonality.Result> results = DayOfMonthSeasonality.of(BUCKETS_OVERNIGHT, true)
+        .compute(series, calendars);
+    end = System.currentTimeMillis();
+    System.out.println("Computation time: " + (end - start) + " ms.");
+    for (int loopindex = 0; loopindex < OVERNIGHT_INDICES.size(); loopindex++) {
+      DayOfMonthSeasonality.Result result = results.get(loopindex);
+      System.out.println(OVERNIGHT_INDICES.get(loopindex) + 
+          " from " + result.getStartDate() + " to " + result.getEndDate());
+      for (DayOfMonthBucket bucket : BUCKETS_OVERNIGHT) {
+        System.out.println("  " + bucket + ": " + result.mean(bucket) +
+            " (std dev: " + result.standardDeviation(bucket) + ", nb days: " + result.count(bucket) + ")");
       }
-      currentStartMonth = CALENDAR.nextOrSame(currentStartMonth.plusMonths(1).withDayOfMonth(1));
     }
-    monthStartSpreadAverage /= nbMonthsStart;
-    System.out.println("Average first day month: " + monthStartSpreadAverage);
-    monthStart2SpreadAverage /= nbMonthsStart2;
-    System.out.println("Average second day month: " + monthStart2SpreadAverage);
-    month15SpreadAverage /= nbMonths15;
-    System.out.println("Average 15 month: " + month15SpreadAverage);
-    month2LastSpreadAverage /= nbMonths2Last;
-    System.out.println("Average 2nd last month: " + month2LastSpreadAverage);
-    monthLastSpreadAverage /= nbMonthsLast;
-    System.out.println("Average last month: " + monthLastSpreadAverage);
-    monthOtherSpreadAverage /= nbDaysOther;
-    System.out.println("Average other: " + monthOtherSpreadAverage);
-    monthAllSpreadAverage /= nbDaysAll;
-    System.out.println("Average all: " + monthAllSpreadAverage);
   }
 
 }
@@ -29,6 +29,8 @@ import com.opengamma.strata.product.capfloor.ResolvedIborCapFloorLeg;
 import com.opengamma.strata.product.common.PayReceive;
 import com.opengamma.strata.product.swap.IborRateCalculation;
 
+import marc.henrard.analysis.dataset.DataSetRegistry;
+import marc.henrard.analysis.dataset.LazyDataSet;
 import marc.henrard.analysis.dataset.MulticurveStandardEurDataSet;
 import marc.henrard.analysis.dataset.RationalParametersDataSet;
 import marc.henrard.murisq.basics.data.export.ExportUtils;
@@ -58,11 +60,13 @@ public class RationalTwoFactorCapFloorImpliedVolatilityAnalysis {
   private static final SingleCurrencyModelCapFloorLegPricer PRICER_LEG_S_EX =
       new SingleCurrencyModelCapFloorLegPricer(PRICER_CAPLET_S_EX);
 
-  public static final ImmutableRatesProvider MULTICURVE =
-      MulticurveStandardEurDataSet.multicurve(VALUATION_DATE, REF_DATA);
+  public static final LazyDataSet<ImmutableRatesProvider> MULTICURVE =
+      MulticurveStandardEurDataSet.lazyMulticurve(VALUATION_DATE);
 
-  public static final RationalTwoFactorHWShapePlusCstParameters RATIONAL2 =
-      RationalParametersDataSet.twoFactorHWShaped(VALUATION_TIME, VALUATION_ZONE, MULTICURVE.discountFactors(EUR));
+  public static final LazyDataSet<RationalTwoFactorHWShapePlusCstParameters> RATIONAL2 = DataSetRegistry.lazy(
+      "RationalTwoFactorHWShaped-" + VALUATION_DATE.toString(),
+      () -> RationalParametersDataSet
+          .twoFactorHWShaped(VALUATION_TIME, VALUATION_ZONE, MULTICURVE.get().discountFactors(EUR)));
 
   /* Descriptions of cap/floor */
   private static final Period[] MATURITIES_PER = new Period[] {
@@ -78,6 +82,8 @@ public class RationalTwoFactorCapFloorImpliedVolatilityAnalysis {
 
   /* Computes the term structure of implied volatilities with the initial set of parameters. */
   public void term_structure_init() throws IOException {
+    ImmutableRatesProvider multicurve = MULTICURVE.get();
+    RationalTwoFactorHWShapePlusCstParameters rational2 = RATIONAL2.get();
     String[] headers = new String[NB_STRIKES + 1];
     headers[0] = "0.0";
     for (int k = 0; k < NB_STRIKES; k++) {
@@ -101,8 +107,8 @@ public class RationalTwoFactorCapFloorImpliedVolatilityAnalysis {
             .paymentSchedule(paySchedule)
             .payReceive(PayReceive.PAY).build();
         ResolvedIborCapFloorLeg resolvedLeg = leg.resolve(REF_DATA);
-        pv[i][k + 1] = PRICER_LEG_S_EX.presentValue(resolvedLeg, MULTICURVE, RATIONAL2).getAmount();
-        iv[i][k + 1] = PRICER_LEG_S_EX.impliedVolatilityBachelier(resolvedLeg, MULTICURVE, RATIONAL2);
+        pv[i][k + 1] = PRICER_LEG_S_EX.presentValue(resolvedLeg, multicurve, rational2).getAmount();
+        iv[i][k + 1] = PRICER_LEG_S_EX.impliedVolatilityBachelier(resolvedLeg, multicurve, rational2);
       }
     }
     StringBuilder builder = new StringBuilder();
@@ -112,6 +118,8 @@ public class RationalTwoFactorCapFloorImpliedVolatilityAnalysis {
 
   /* Computes the term structure of implied volatilities with one parameter changed. */
   public void term_structure_changes() throws IOException {
+    ImmutableRatesProvider multicurve = MULTICURVE.get();
+    RationalTwoFactorHWShapePlusCstParameters rational2 = RATIONAL2.get();
     int strikeIndex = 3;
     int parameterIndex = 3; // TODO: Parameter changed in this simulation; select of of the parameter set
 //  double[] parametersChanged = {0.75, 0.50, 0.65, 0.85, 1.00}; // A1 - 0
@@ -143,8 +151,8 @@ public class RationalTwoFactorCapFloorImpliedVolatilityAnalysis {
       ResolvedIborCapFloorLeg resolvedLeg = leg.resolve(REF_DATA);
       for (int j = 0; j < nbParamShifts; j++) {
         RationalTwoFactorHWShapePlusCstParameters rationalShift =
-            RATIONAL2.withParameter(parameterIndex, parametersChanged[j]);
-        iv[i][j + 1] = PRICER_LEG_S_EX.impliedVolatilityBachelier(resolvedLeg, MULTICURVE, rationalShift);
+            rational2.withParameter(parameterIndex, parametersChanged[j]);
+        iv[i][j + 1] = PRICER_LEG_S_EX.impliedVolatilityBachelier(resolvedLeg, multicurve, rationalShift);
       }
     }
     StringBuilder builder = new StringBuilder();
@@ -154,6 +162,8 @@ public class RationalTwoFactorCapFloorImpliedVolatilityAnalysis {
 
   /* Computes the smile of implied volatilities with one parameter changed. */
   public void smile_changes() throws IOException {
+    ImmutableRatesProvider multicurve = MULTICURVE.get();
+    RationalTwoFactorHWShapePlusCstParameters rational2 = RATIONAL2.get();
     int maturityIndex = 4;
     int parameterIndex = 7; // TODO: Parameter changed in this simulation; select of of the parameter set
 //    double[] parametersChanged = {0.75, 0.50, 0.65, 0.85, 1.00}; // A1 - 0
@@ -185,8 +195,8 @@ public class RationalTwoFactorCapFloorImpliedVolatilityAnalysis {
       ResolvedIborCapFloorLeg resolvedLeg = leg.resolve(REF_DATA);
       for (int j = 0; j < nbParamShifts; j++) {
         RationalTwoFactorHWShapePlusCstParameters rationalShift =
-            RATIONAL2.withParameter(parameterIndex, parametersChanged[j]);
-        iv[k][j + 1] = PRICER_LEG_S_EX.impliedVolatilityBachelier(resolvedLeg, MULTICURVE, rationalShift);
+            rational2.withParameter(parameterIndex, parametersChanged[j]);
+        iv[k][j + 1] = PRICER_LEG_S_EX.impliedVolatilityBachelier(resolvedLeg, multicurve, rationalShift);
       }
     }
     StringBuilder builder = new StringBuilder();
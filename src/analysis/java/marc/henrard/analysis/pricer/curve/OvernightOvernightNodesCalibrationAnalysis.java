@@ -3,10 +3,10 @@
  */
 package marc.henrard.analysis.pricer.curve;
 
-import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.List;
 
 import org.testng.annotations.Test;
 
@@ -16,7 +16,6 @@ import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.StandardId;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
 import com.opengamma.strata.basics.date.Tenor;
-import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
@@ -34,6 +33,9 @@ import com.opengamma.strata.product.swap.ResolvedSwapTrade;
 import com.opengamma.strata.product.swap.SwapTrade;
 import com.opengamma.strata.product.swap.type.FixedOvernightSwapConventions;
 
+import marc.henrard.analysis.dataset.CurveConfigRegistry;
+import marc.henrard.analysis.dataset.DataSetRegistry;
+import marc.henrard.analysis.dataset.LazyDataSet;
 import marc.henrard.analysis.dataset.MulticurveConfigDataSet;
 import marc.henrard.murisq.basics.data.export.ExcelExportUtil;
 import marc.henrard.murisq.loader.csv.RatesCalibrationCsvLoader2;
@@ -53,47 +55,28 @@ public class OvernightOvernightNodesCalibrationAnalysis {
 
   public static final String MARKET_QUOTES_FILE = "MARKET-DATA-2019-06-12.csv";
   public static final String GROUP_EFFR = "USD-DSCONOISEFFR";
-  public static final ImmutableRatesProvider MULTICURVE_EFFR = MulticurveConfigDataSet
-      .multicurve(VALUATION_DATE, 
-          MARKET_QUOTES_FILE, 
-          GROUP_EFFR,
-          REF_DATA);
+  public static final LazyDataSet<ImmutableRatesProvider> MULTICURVE_EFFR = DataSetRegistry.lazy(
+      "OvernightOvernightNodes-" + GROUP_EFFR,
+      () -> MulticurveConfigDataSet.multicurve(VALUATION_DATE, MARKET_QUOTES_FILE, GROUP_EFFR, REF_DATA));
   public static final String GROUP_SOFR_BS = "USD-DSCONOISSOFR-ONBSEFFR";
-  public static final ImmutableRatesProvider MULTICURVE_SOFR_BS;
-  private static final String PATH_CONFIG = "src/analysis/resources/curve-config/";
+  public static final LazyDataSet<ImmutableRatesProvider> MULTICURVE_SOFR_BS = DataSetRegistry.lazy(
+      "OvernightOvernightNodes-" + GROUP_SOFR_BS,
+      OvernightOvernightNodesCalibrationAnalysis::multicurveSofrBs);
   private static final String PATH_QUOTES = "src/analysis/resources/quotes/";
-  private static final String GROUP_STR = "-group";
-  private static final String SETTINGS_STR = "-settings";
-  private static final String NODES_STR = "-nodes";
   private static final RatesCurveCalibrator CALIBRATOR = RatesCurveCalibrator.standard();
-  static { // Local version required to incorporate Overnight/Overnight nodes
+
+  // Local version required to incorporate Overnight/Overnight nodes
+  private static ImmutableRatesProvider multicurveSofrBs() {
     /* Search for the config and load */
-    String folderPathConfig = PATH_CONFIG + GROUP_SOFR_BS;
-    String group = null;
-    String settings = null;
-    String nodes = null;
-    File folder = new File(folderPathConfig);
-    ArgChecker.isTrue(folder.isDirectory(), "config " + folderPathConfig + " need to be a directory");
-    File[] files = folder.listFiles();
-    for (int i = 0; i < files.length; i++) {
-      if (files[i].getName().contains(GROUP_STR)) {
-        group = folderPathConfig + "/" + files[i].getName();
-      }
-      if (files[i].getName().contains(SETTINGS_STR)) {
-        settings = folderPathConfig + "/" + files[i].getName();
-      }
-      if (files[i].getName().contains(NODES_STR)) {
-        nodes = folderPathConfig + "/" + files[i].getName();
-      }
-    }
+    List<ResourceLocator> files = CurveConfigRegistry.standard().resources(GROUP_SOFR_BS);
     ImmutableMap<CurveGroupName, RatesCurveGroupDefinition> defns = RatesCalibrationCsvLoader2
-        .load(ResourceLocator.of(group), ResourceLocator.of(settings), ResourceLocator.of(nodes));
+        .load(files.get(0), files.get(1), files.get(2));
     RatesCurveGroupDefinition curveGroupDefinition = defns.entrySet().iterator().next().getValue();
     /* Load market data and calibrates */
     String filePathQuotes = PATH_QUOTES + MARKET_QUOTES_FILE;
     MarketData marketData = MarketData
         .of(VALUATION_DATE, QuotesCsvLoader.load(VALUATION_DATE, ResourceLocator.of(filePathQuotes)));
-    MULTICURVE_SOFR_BS = CALIBRATOR.calibrate(curveGroupDefinition, marketData, REF_DATA);
+    return CALIBRATOR.calibrate(curveGroupDefinition, marketData, REF_DATA);
   }
 
   /* Swap */
@@ -124,12 +107,13 @@ public class OvernightOvernightNodesCalibrationAnalysis {
    * @throws IOException
    */
   public void delta_effr() throws IOException {
+    ImmutableRatesProvider multicurve = MULTICURVE_EFFR.get();
     ResolvedSwapTrade swap = TRADE_EFFR.resolve(REF_DATA);
-    PointSensitivities pts = PRICER_SWAP.presentValueSensitivity(swap, MULTICURVE_EFFR);
-    CurrencyParameterSensitivities ps = MULTICURVE_EFFR.parameterSensitivity(pts);
-    CurrencyParameterSensitivities mq = MQC.sensitivity(ps, MULTICURVE_EFFR);
-    MultiCurrencyAmount pv = PRICER_SWAP.presentValue(swap, MULTICURVE_EFFR);
-    double parRate = PRICER_SWAP.parRate(swap, MULTICURVE_EFFR);
+    PointSensitivities pts = PRICER_SWAP.presentValueSensitivity(swap, multicurve);
+    CurrencyParameterSensitivities ps = multicurve.parameterSensitivity(pts);
+    CurrencyParameterSensitivities mq = MQC.sensitivity(ps, multicurve);
+    MultiCurrencyAmount pv = PRICER_SWAP.presentValue(swap, multicurve);
+    double parRate = PRICER_SWAP.parRate(swap, multicurve);
     ExcelExportUtil.export(ImmutableList.of(TRADE_EFFR.getId().get().toString()), 
         ImmutableList.of(parRate), ImmutableList.of(pv), 
         mq.multipliedBy(BP1), OUTPUT_FOLDER + "delta-effr.xlsx");
@@ -142,12 +126,13 @@ public class OvernightOvernightNodesCalibrationAnalysis {
    * @throws IOException
    */
   public void delta_sofr_bs_effr() throws IOException {
+    ImmutableRatesProvider multicurve = MULTICURVE_SOFR_BS.get();
     ResolvedSwapTrade swap = TRADE_EFFR.resolve(REF_DATA);
-    PointSensitivities pts = PRICER_SWAP.presentValueSensitivity(swap, MULTICURVE_SOFR_BS);
-    CurrencyParameterSensitivities ps = MULTICURVE_SOFR_BS.parameterSensitivity(pts);
-    CurrencyParameterSensitivities mq = MQC.sensitivity(ps, MULTICURVE_SOFR_BS);
-    MultiCurrencyAmount pv = PRICER_SWAP.presentValue(swap, MULTICURVE_SOFR_BS);
-    double parRate = PRICER_SWAP.parRate(swap, MULTICURVE_SOFR_BS);
+    PointSensitivities pts = PRICER_SWAP.presentValueSensitivity(swap, multicurve);
+    CurrencyParameterSensitivities ps = multicurve.parameterSensitivity(pts);
+    CurrencyParameterSensitivities mq = MQC.sensitivity(ps, multicurve);
+    MultiCurrencyAmount pv = PRICER_SWAP.presentValue(swap, multicurve);
+    double parRate = PRICER_SWAP.parRate(swap, multicurve);
     ExcelExportUtil.export(ImmutableList.of(TRADE_EFFR.getId().get().toString()), 
         ImmutableList.of(parRate), ImmutableList.of(pv), 
         mq.multipliedBy(BP1), OUTPUT_FOLDER + "delta-sofr-bs-effr.xlsx");
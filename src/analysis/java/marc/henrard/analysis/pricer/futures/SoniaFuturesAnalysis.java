@@ -26,6 +26,7 @@ import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantPara
 import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 import com.opengamma.strata.product.SecurityId;
 
+import marc.henrard.analysis.dataset.LazyDataSet;
 import marc.henrard.analysis.dataset.MulticurveStandardGbpDataSet;
 import marc.henrard.murisq.pricer.indexfutures.HullWhiteOneFactorCompoundedOvernightFuturesProductPricer;
 import marc.henrard.murisq.product.futures.CompoundedOvernightFutures;
@@ -47,8 +48,8 @@ public class SoniaFuturesAnalysis {
   private static final LocalTime VALUATION_TIME = LocalTime.of(11, 0);
   private static final ZoneId VALUATION_ZONE = ZoneId.of("Europe/London");
 
-  public static final ImmutableRatesProvider MULTICURVE =
-      MulticurveStandardGbpDataSet.multicurve(VALUATION_DATE, REF_DATA);
+  public static final LazyDataSet<ImmutableRatesProvider> MULTICURVE =
+      MulticurveStandardGbpDataSet.lazyMulticurve(VALUATION_DATE);
   
   private static final double MEAN_REVERSION = 0.03;
   private static final DoubleArray VOLATILITY = DoubleArray.of(0.0065);
@@ -64,6 +65,7 @@ public class SoniaFuturesAnalysis {
   private static final double NOTIONAL = 500_000;
 
   public void convexityAdjustment() {
+    ImmutableRatesProvider multicurve = MULTICURVE.get();
     int nbContracts = 25;
     List<LocalDate> immDates = new ArrayList<>();
     for (int i = 0; i <= nbContracts; i++) {
@@ -82,14 +84,14 @@ public class SoniaFuturesAnalysis {
           .endAccrualDate(te)
           .index(GBP_SONIA).build();
       CompoundedOvernightFuturesResolved onFuturesResolved = onFutures.resolve(REF_DATA);
-      List<Double> gammas = PRICER_FUT.convexityAdjustmentGammas(onFuturesResolved, MULTICURVE, HW_PROVIDER);
+      List<Double> gammas = PRICER_FUT.convexityAdjustmentGammas(onFuturesResolved, multicurve, HW_PROVIDER);
       double productGamma = 1.0;
       for (int i = 0; i < gammas.size(); i++) {
         productGamma *= gammas.get(i);
       }
       double delta = onFuturesResolved.getAccrualFactor();
-      double PcTs = MULTICURVE.discountFactor(GBP, onFuturesResolved.getStartAccrualDate());
-      double PcTe = MULTICURVE.discountFactor(GBP, onFuturesResolved.getEndAccrualDate());
+      double PcTs = multicurve.discountFactor(GBP, onFuturesResolved.getStartAccrualDate());
+      double PcTe = multicurve.discountFactor(GBP, onFuturesResolved.getEndAccrualDate());
       double adj0 = PcTs/PcTe * (gammas.get(0) - 1) / delta;
       System.out.print(ts.toString() + "," + adj0);
       double adjT = PcTs/PcTe * (productGamma - 1) / delta;
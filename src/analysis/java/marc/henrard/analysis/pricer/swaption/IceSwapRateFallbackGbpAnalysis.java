@@ -26,7 +26,6 @@ import com.opengamma.strata.basics.date.Tenor;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.CurveName;
 import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
@@ -48,6 +47,7 @@ import com.opengamma.strata.product.swaption.PhysicalSwaptionSettlement;
 import com.opengamma.strata.product.swaption.ResolvedSwaption;
 import com.opengamma.strata.product.swaption.Swaption;
 
+import marc.henrard.analysis.dataset.CurveConfigRegistry;
 import marc.henrard.analysis.dataset.SabrSwaptionDataSet;
 import marc.henrard.murisq.basics.data.export.ExcelExportUtil;
 
@@ -60,6 +60,7 @@ import marc.henrard.murisq.basics.data.export.ExcelExportUtil;
  */
 public class IceSwapRateFallbackGbpAnalysis {
 
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
   private static final LocalDate VALUATION_DATE = LocalDate.of(2020, 10, 28);
 
   private static final String INTERPOLATOR = "zrlinear"; // "zrlinear"; "zrncs"; 
@@ -80,8 +81,8 @@ public class IceSwapRateFallbackGbpAnalysis {
           + "/" + CURVE_GROUP_NAME_ON_I_STR + "-settings-" + INTERPOLATOR + ".csv");
   private static final ResourceLocator NODES_ON_I_FILE = ResourceLocator.of(
       PATH_CONFIG + CURVE_GROUP_NAME_ON_I_STR + "/" + CURVE_GROUP_NAME_ON_I_STR + "-nodes.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEFINITION_ON_I = RatesCalibrationCsvLoader
-      .load(GROUPS_ON_I_FILE, SETTINGS_ON_I_FILE, NODES_ON_I_FILE).get(CURVE_GROUP_ON_I_NAME);
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_ON_I = REGISTRY
+      .definition(CURVE_GROUP_ON_I_NAME, GROUPS_ON_I_FILE, SETTINGS_ON_I_FILE, NODES_ON_I_FILE);
 
   private static final String FILE_QUOTES = 
       PATH_QUOTES + "MARKET-DATA-" + VALUATION_DATE.toString() + "-STD.csv"; // Synthetic data
@@ -28,7 +28,6 @@ import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.collect.tuple.Triple;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.CurveName;
 import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
@@ -50,6 +49,7 @@ import com.opengamma.strata.product.swaption.PhysicalSwaptionSettlement;
 import com.opengamma.strata.product.swaption.ResolvedSwaption;
 import com.opengamma.strata.product.swaption.Swaption;
 
+import marc.henrard.analysis.dataset.CurveConfigRegistry;
 import marc.henrard.analysis.dataset.SabrSwaptionDataSet;
 import marc.henrard.murisq.basics.data.export.ExcelExportUtil;
 import marc.henrard.murisq.pricer.swaption.Sabr2DiscountingSwaptionPhysicalProductPricer;
@@ -62,6 +62,7 @@ import marc.henrard.murisq.pricer.swaption.Sabr2DiscountingSwaptionPhysicalProdu
  */
 public class Swaption2DiscountingEurAnalysis {
 
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
   private static final LocalDate VALUATION_DATE = LocalDate.of(2020, 10, 28);
 
   private static final String INTERPOLATOR = "zrlinear"; // "zrlinear"; "zrncs"; 
@@ -82,8 +83,8 @@ public class Swaption2DiscountingEurAnalysis {
           + "/" + CURVE_GROUP_NAME_ESTR_E6_STR + "-settings-" + INTERPOLATOR + ".csv");
   private static final ResourceLocator NODES_ESTR_E6_FILE = ResourceLocator.of(
       PATH_CONFIG + CURVE_GROUP_NAME_ESTR_E6_STR + "/" + CURVE_GROUP_NAME_ESTR_E6_STR + "-nodes.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEFINITION_ESTR_E6 = RatesCalibrationCsvLoader
-      .load(GROUPS_ESTR_E6_FILE, SETTINGS_ESTR_E6_FILE, NODES_ESTR_E6_FILE).get(CURVE_GROUP_ESTR_E6_NAME);
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_ESTR_E6 = REGISTRY
+      .definition(CURVE_GROUP_ESTR_E6_NAME, GROUPS_ESTR_E6_FILE, SETTINGS_ESTR_E6_FILE, NODES_ESTR_E6_FILE);
 
   private static final String CURVE_GROUP_NAME_EONIA_E6_STR = "EUR-DSCEONIAOIS-E6MIRS";
   private static final CurveGroupName CURVE_GROUP_EONIA_E6_NAME = CurveGroupName.of(CURVE_GROUP_NAME_EONIA_E6_STR);
@@ -94,8 +95,8 @@ public class Swaption2DiscountingEurAnalysis {
           + "/" + CURVE_GROUP_NAME_EONIA_E6_STR + "-settings-" + INTERPOLATOR + ".csv");
   private static final ResourceLocator NODES_EONIA_E6_FILE = ResourceLocator.of(
       PATH_CONFIG + CURVE_GROUP_NAME_EONIA_E6_STR + "/" + CURVE_GROUP_NAME_EONIA_E6_STR + "-nodes.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEFINITION_EONIA_E6 = RatesCalibrationCsvLoader
-      .load(GROUPS_EONIA_E6_FILE, SETTINGS_EONIA_E6_FILE, NODES_EONIA_E6_FILE).get(CURVE_GROUP_EONIA_E6_NAME);
+  private static final RatesCurveGroupDefinition GROUP_DEFINITION_EONIA_E6 = REGISTRY
+      .definition(CURVE_GROUP_EONIA_E6_NAME, GROUPS_EONIA_E6_FILE, SETTINGS_EONIA_E6_FILE, NODES_EONIA_E6_FILE);
 
   private static final String FILE_QUOTES = 
       PATH_QUOTES + "MARKET-DATA-" + VALUATION_DATE.toString() + "-STD.csv";
@@ -22,7 +22,6 @@ import com.opengamma.strata.collect.array.Matrix;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.loader.csv.QuotesCsvLoader;
-import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
 import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.CurveName;
 import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
@@ -38,6 +37,7 @@ import com.opengamma.strata.product.common.BuySell;
 import com.opengamma.strata.product.swap.ResolvedSwapTrade;
 import com.opengamma.strata.product.swap.type.FixedIborSwapConventions;
 
+import marc.henrard.analysis.dataset.CurveConfigRegistry;
 import marc.henrard.murisq.basics.data.export.ExcelExportUtil;
 import marc.henrard.murisq.product.swap.type.OvernightOvernightSwapConventions;
 
@@ -48,6 +48,7 @@ import marc.henrard.murisq.product.swap.type.OvernightOvernightSwapConventions;
  */
 public class SofrPaiTransitionSensitivityAnalysis {
   
+  private static final CurveConfigRegistry REGISTRY = CurveConfigRegistry.standard();
   private static final ReferenceData REF_DATA = ReferenceData.standard();
   private static final LocalDate VALUATION_DATE = LocalDate.of(2019, 10, 4);
   private static final RatesCurveCalibrator CALIBRATOR = RatesCurveCalibrator.standard();
@@ -64,10 +65,10 @@ public class SofrPaiTransitionSensitivityAnalysis {
       ResourceLocator.of(PATH_CONFIG_FF + "USD-DSCFFOIS-L3MIRS-nodes.csv");
   private static final ResourceLocator FILE_NODES_FF_LCH =
       ResourceLocator.of(PATH_CONFIG_FF + "USD-DSCFFOIS-L3MIRS-nodes-lch.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEF_FF = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_FF, FILE_SETTINGS_FF, FILE_NODES_FF).get(GROUP_NAME_FF);
-  private static final RatesCurveGroupDefinition GROUP_DEF_FF_LCH = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_FF, FILE_SETTINGS_FF, FILE_NODES_FF_LCH).get(GROUP_NAME_FF);
+  private static final RatesCurveGroupDefinition GROUP_DEF_FF = REGISTRY
+      .definition(GROUP_NAME_FF, FILE_GROUP_FF, FILE_SETTINGS_FF, FILE_NODES_FF);
+  private static final RatesCurveGroupDefinition GROUP_DEF_FF_LCH = REGISTRY
+      .definition(GROUP_NAME_FF, FILE_GROUP_FF, FILE_SETTINGS_FF, FILE_NODES_FF_LCH);
   
   private static final String PATH_CONFIG_SO = "src/analysis/resources/curve-config/USD-DSCSOOIS-FFOIS-L3MIRS/";
   private static final CurveGroupName GROUP_NAME_SO = CurveGroupName.of("USD-DSCSOOIS-FFOIS-L3MIRS");
@@ -79,10 +80,10 @@ public class SofrPaiTransitionSensitivityAnalysis {
       ResourceLocator.of(PATH_CONFIG_SO + "USD-DSCSOOIS-FFOIS-L3MIRS-nodes.csv");
   private static final ResourceLocator FILE_NODES_SO_LCH =
       ResourceLocator.of(PATH_CONFIG_SO + "USD-DSCSOOIS-FFOIS-L3MIRS-nodes-lch.csv");
-  private static final RatesCurveGroupDefinition GROUP_DEF_SO = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_SO, FILE_SETTINGS_SO, FILE_NODES_SO).get(GROUP_NAME_SO);
-  private static final RatesCurveGroupDefinition GROUP_DEF_SO_LCH = RatesCalibrationCsvLoader
-      .load(FILE_GROUP_SO, FILE_SETTINGS_SO, FILE_NODES_SO_LCH).get(GROUP_NAME_SO);
+  private static final RatesCurveGroupDefinition GROUP_DEF_SO = REGISTRY
+      .definition(GROUP_NAME_SO, FILE_GROUP_SO, FILE_SETTINGS_SO, FILE_NODES_SO);
+  private static final RatesCurveGroupDefinition GROUP_DEF_SO_LCH = REGISTRY
+      .definition(GROUP_NAME_SO, FILE_GROUP_SO, FILE_SETTINGS_SO, FILE_NODES_SO_LCH);
   
   private static final String FILE_QUOTES = 
       "src/analysis/resources/quotes/MARKET-DATA-" + VALUATION_DATE.toString() + ".csv";
@@ -50,7 +50,6 @@ public class FrtbImaginaryCapitalAnalysis {
 
 	private static final ReferenceData REF_DATA = ReferenceData.standard();
 	private static final LocalDate VALUATION_DATE = MulticurveEur20151120DataSet.VALUATION_DATE;
-	private static final ImmutableRatesProvider MULTICURVE = MulticurveEur20151120DataSet.MULTICURVE_FRTB;
 	public static final CurveName[] CURVE_NAMES = MulticurveEur20151120DataSet.CURVE_NAMES;
 
 	private static final DiscountingSwapProductPricer PRICER_SWAP = DiscountingSwapProductPricer.DEFAULT;
@@ -81,21 +80,11 @@ public class FrtbImaginaryCapitalAnalysis {
 			Period.ofYears(15) };
 	private static final int NB_POSITIONS = TENORS_POSITION.length;
 	private static final double[] NOTIONALS_POSITION = new double[] { -400_000_000, 150_000_000, -20_000_000 };
-	private static final ResolvedSwap[] POSITIONS = new ResolvedSwap[NB_POSITIONS];
-	static {
-		for (int i = 0; i < NB_POSITIONS; i++) {
-			POSITIONS[i] = EUR_FIXED_1Y_EONIA_OIS.createTrade(VALUATION_DATE, Tenor.of(TENORS_POSITION[i]),
-					(NOTIONALS_POSITION[i] > 0) ? BuySell.BUY : BuySell.SELL, Math.abs(NOTIONALS_POSITION[i]), 0.0,
-					REF_DATA).getProduct().resolve(REF_DATA);
-			double parRate = PRICER_SWAP.parRate(POSITIONS[i], MULTICURVE);
-			POSITIONS[i] = EUR_FIXED_1Y_EONIA_OIS.createTrade(VALUATION_DATE, Tenor.of(TENORS_POSITION[i]),
-					(NOTIONALS_POSITION[i] > 0) ? BuySell.BUY : BuySell.SELL, Math.abs(NOTIONALS_POSITION[i]), parRate,
-					REF_DATA).getProduct().resolve(REF_DATA);
-		}
-	}
 
 	@SuppressWarnings("unused")
 	public void sensitivity() {
+		ImmutableRatesProvider multicurve = MulticurveEur20151120DataSet.MULTICURVE_FRTB.get();
+		ResolvedSwap[] positions = positions(multicurve);
 		CurveName oisCurveName = null;
 		for (CurveName c : CURVE_NAMES) {
 			if (c.toString().contains("OIS")) {
@@ -104,10 +93,10 @@ public class FrtbImaginaryCapitalAnalysis {
 		}
 		PointSensitivityBuilder pts = PointSensitivityBuilder.none();
 		for (int i = 0; i < NB_POSITIONS; i++) {
-			pts = pts.combinedWith(PRICER_SWAP.presentValueSensitivity(POSITIONS[i], MULTICURVE));
+			pts = pts.combinedWith(PRICER_SWAP.presentValueSensitivity(positions[i], multicurve));
 		}
-		CurrencyParameterSensitivities ps = MULTICURVE.parameterSensitivity(pts.build());
-		CurrencyParameterSensitivities mqs = MQSC.sensitivity(ps, MULTICURVE);
+		CurrencyParameterSensitivities ps = multicurve.parameterSensitivity(pts.build());
+		CurrencyParameterSensitivities mqs = MQSC.sensitivity(ps, multicurve);
 		CurrencyParameterSensitivity mqsOis = mqs.getSensitivity(oisCurveName, EUR);
 		DoubleArray sensi = mqsOis.getSensitivity();
 		DoubleArray ws = DoubleArray.of(NB_VERTICES, i -> sensi.get(i) * RISK_WEIGHTS.get(i));
@@ -116,6 +105,21 @@ public class FrtbImaginaryCapitalAnalysis {
 		Optional<Double> frtbCapital = frtb(frtbCaptial2);
 	}
 
+	/* The positions, swaps at the par rate of the multi-curve. */
+	private static ResolvedSwap[] positions(ImmutableRatesProvider multicurve) {
+		ResolvedSwap[] positions = new ResolvedSwap[NB_POSITIONS];
+		for (int i = 0; i < NB_POSITIONS; i++) {
+			positions[i] = EUR_FIXED_1Y_EONIA_OIS.createTrade(VALUATION_DATE, Tenor.of(TENORS_POSITION[i]),
+					(NOTIONALS_POSITION[i] > 0) ? BuySell.BUY : BuySell.SELL, Math.abs(NOTIONALS_POSITION[i]), 0.0,
+					REF_DATA).getProduct().resolve(REF_DATA);
+			double parRate = PRICER_SWAP.parRate(positions[i], multicurve);
+			positions[i] = EUR_FIXED_1Y_EONIA_OIS.createTrade(VALUATION_DATE, Tenor.of(TENORS_POSITION[i]),
+					(NOTIONALS_POSITION[i] > 0) ? BuySell.BUY : BuySell.SELL, Math.abs(NOTIONALS_POSITION[i]), parRate,
+					REF_DATA).getProduct().resolve(REF_DATA);
+		}
+		return positions;
+	}
+
 	Optional<Double> frtb(double capital2) {
 		if (capital2 >= 0.0d) {
 			return Optional.of(Math.sqrt(capital2));
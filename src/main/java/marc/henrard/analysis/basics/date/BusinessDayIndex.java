@@ -0,0 +1,289 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.basics.date;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Index of the business days of a holiday calendar on a range of dates.
+ * <p>
+ * The business days are numbered by ordinal, from 0 for the first business day of the range. The calendar days are
+ * stored in a bitset, one bit by day, with the number of business days before each 64-day word. The ordinal of a
+ * date (rank) is one bit count in a word; the date of an ordinal (select) is read in the array of business days.
+ * The next and previous business days, the shift by a number of business days and the count of business days
+ * between two dates are O(1), instead of a day-by-day walk on the calendar.
+ * <p>
+ * The results are the same as the ones of {@link HolidayCalendar} for the dates in the range. Using a date, or
+ * obtaining a result, outside the range is an error.
+ *
+ * @author Marc Henrard
+ */
+public final class BusinessDayIndex {
+
+  /** The name of the calendar. */
+  private final String name;
+  /** The first day of the range, as epoch-day, inclusive. */
+  private final int startEpochDay;
+  /** The last day of the range, as epoch-day, exclusive. */
+  private final int endEpochDay;
+  /** The bitset of the business days, bit set for a business day. */
+  private final long[] words;
+  /** The number of business days before each word. */
+  private final int[] wordRanks;
+  /** The business days, as epoch-days, by ordinal. */
+  private final int[] businessDays;
+
+  private BusinessDayIndex(
+      String name,
+      int startEpochDay,
+      int endEpochDay,
+      long[] words,
+      int[] wordRanks,
+      int[] businessDays) {
+
+    this.name = name;
+    this.startEpochDay = startEpochDay;
+    this.endEpochDay = endEpochDay;
+    this.words = words;
+    this.wordRanks = wordRanks;
+    this.businessDays = businessDays;
+  }
+
+  /**
+   * Creates the index of a calendar on a range of dates.
+   *
+   * @param calendar  the holiday calendar
+   * @param startDate  the start of the range, inclusive
+   * @param endDate  the end of the range, exclusive
+   * @return the index
+   */
+  public static BusinessDayIndex of(HolidayCalendar calendar, LocalDate startDate, LocalDate endDate) {
+    ArgChecker.notNull(calendar, "calendar");
+    ArgChecker.inOrderNotEqual(startDate, endDate, "startDate", "endDate");
+    int startEpochDay = Math.toIntExact(startDate.toEpochDay());
+    int endEpochDay = Math.toIntExact(endDate.toEpochDay());
+    int nbDays = endEpochDay - startEpochDay;
+    int nbWords = (nbDays + 63) >>> 6;
+    long[] words = new long[nbWords];
+    int[] wordRanks = new int[nbWords];
+    int[] businessDays = new int[nbDays];
+    int nbBusinessDays = 0;
+    LocalDate date = startDate;
+    for (int loopday = 0; loopday < nbDays; loopday++) {
+      if ((loopday & 63) == 0) {
+        wordRanks[loopday >>> 6] = nbBusinessDays;
+      }
+      if (calendar.isBusinessDay(date)) {
+        words[loopday >>> 6] |= 1L << (loopday & 63);
+        businessDays[nbBusinessDays++] = startEpochDay + loopday;
+      }
+      date = date.plusDays(1);
+    }
+    int[] businessDaysTrimmed = new int[nbBusinessDays];
+    System.arraycopy(businessDays, 0, businessDaysTrimmed, 0, nbBusinessDays);
+    return new BusinessDayIndex(
+        calendar.getName(), startEpochDay, endEpochDay, words, wordRanks, businessDaysTrimmed);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the name of the calendar.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the start of the range, inclusive.
+   *
+   * @return the date
+   */
+  public LocalDate getStartDate() {
+    return LocalDate.ofEpochDay(startEpochDay);
+  }
+
+  /**
+   * Returns the end of the range, exclusive.
+   *
+   * @return the date
+   */
+  public LocalDate getEndDate() {
+    return LocalDate.ofEpochDay(endEpochDay);
+  }
+
+  /**
+   * Returns the number of business days in the range.
+   *
+   * @return the number of business days
+   */
+  public int size() {
+    return businessDays.length;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Checks if a date is a business day.
+   *
+   * @param date  the date
+   * @return true if the date is a business day
+   */
+  public boolean isBusinessDay(LocalDate date) {
+    int day = day(date);
+    return day < endEpochDay - startEpochDay && (words[day >>> 6] & (1L << (day & 63))) != 0;
+  }
+
+  /**
+   * Returns the ordinal of a business day.
+   *
+   * @param date  the date, which must be a business day
+   * @return the ordinal
+   */
+  public int ordinal(LocalDate date) {
+    ArgChecker.isTrue(isBusinessDay(date), "{} is not a business day of {}", date, name);
+    return rank(day(date));
+  }
+
+  /**
+   * Returns the business day of an ordinal.
+   *
+   * @param ordinal  the ordinal
+   * @return the date
+   */
+  public LocalDate date(int ordinal) {
+    return LocalDate.ofEpochDay(select(ordinal));
+  }
+
+  /**
+   * Returns the business day of an ordinal, as epoch-day.
+   *
+   * @param ordinal  the ordinal
+   * @return the epoch-day
+   */
+  public int epochDay(int ordinal) {
+    return select(ordinal);
+  }
+
+  /**
+   * Returns the next business day, strictly after the date.
+   *
+   * @param date  the date
+   * @return the next business day
+   */
+  public LocalDate next(LocalDate date) {
+    return date(rank(day(date) + 1));
+  }
+
+  /**
+   * Returns the date if it is a business day, the next business day otherwise.
+   *
+   * @param date  the date
+   * @return the business day
+   */
+  public LocalDate nextOrSame(LocalDate date) {
+    return date(rank(day(date)));
+  }
+
+  /**
+   * Returns the previous business day, strictly before the date.
+   *
+   * @param date  the date
+   * @return the previous business day
+   */
+  public LocalDate previous(LocalDate date) {
+    return date(rank(day(date)) - 1);
+  }
+
+  /**
+   * Returns the date if it is a business day, the previous business day otherwise.
+   *
+   * @param date  the date
+   * @return the business day
+   */
+  public LocalDate previousOrSame(LocalDate date) {
+    return date(rank(day(date) + 1) - 1);
+  }
+
+  /**
+   * Shifts a date by a number of business days, as in {@link HolidayCalendar#shift(LocalDate, int)}.
+   * <p>
+   * A positive amount is a number of times the next business day, a negative amount a number of times the previous
+   * business day. A zero amount returns the date, even if it is not a business day.
+   *
+   * @param date  the date
+   * @param amount  the number of business days
+   * @return the shifted date
+   */
+  public LocalDate shift(LocalDate date, int amount) {
+    if (amount > 0) {
+      return date(rank(day(date) + 1) + amount - 1);
+    }
+    if (amount < 0) {
+      return date(rank(day(date)) + amount);
+    }
+    return date;
+  }
+
+  /**
+   * Returns the number of business days from a start date (inclusive) to an end date (exclusive).
+   *
+   * @param startDate  the start date, inclusive
+   * @param endDate  the end date, exclusive
+   * @return the number of business days
+   */
+  public int daysBetween(LocalDate startDate, LocalDate endDate) {
+    ArgChecker.inOrderOrEqual(startDate, endDate, "startDate", "endDate");
+    return rank(day(endDate)) - rank(day(startDate));
+  }
+
+  /**
+   * Returns the business days from a start date (inclusive) to an end date (exclusive).
+   *
+   * @param startDate  the start date, inclusive
+   * @param endDate  the end date, exclusive
+   * @return the business days
+   */
+  public List<LocalDate> businessDays(LocalDate startDate, LocalDate endDate) {
+    ArgChecker.inOrderOrEqual(startDate, endDate, "startDate", "endDate");
+    int first = rank(day(startDate));
+    int last = rank(day(endDate));
+    List<LocalDate> dates = new ArrayList<>(last - first);
+    for (int loopordinal = first; loopordinal < last; loopordinal++) {
+      dates.add(LocalDate.ofEpochDay(businessDays[loopordinal]));
+    }
+    return dates;
+  }
+
+  //-------------------------------------------------------------------------
+  /* The position of the date in the range; the end of the range is accepted. */
+  private int day(LocalDate date) {
+    long epochDay = date.toEpochDay();
+    ArgChecker.isTrue(startEpochDay <= epochDay && epochDay <= endEpochDay,
+        "{} outside the range of the business day index {}", date, name);
+    return (int) (epochDay - startEpochDay);
+  }
+
+  /* The number of business days strictly before the day at the position. */
+  private int rank(int day) {
+    int word = day >>> 6;
+    if (word == words.length) {
+      return businessDays.length;
+    }
+    return wordRanks[word] + Long.bitCount(words[word] & ((1L << (day & 63)) - 1));
+  }
+
+  /* The epoch-day of the business day of the ordinal. */
+  private int select(int ordinal) {
+    ArgChecker.isTrue(0 <= ordinal && ordinal < businessDays.length,
+        "business day outside the range of the business day index {}", name);
+    return businessDays[ordinal];
+  }
+
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.basics.date;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.HolidayCalendarId;
+import com.opengamma.strata.basics.date.HolidayCalendarIds;
+
+/**
+ * Business day indices of the standard holiday calendars.
+ * <p>
+ * The indices cover the dates from 1990 to 2100 and are created from the standard reference data. Each index is
+ * created once, on first use, and the same instance is returned afterwards.
+ *
+ * @author Marc Henrard
+ */
+public final class BusinessDayIndices {
+
+  /** The start of the range of the indices, inclusive. */
+  private static final LocalDate START_DATE = LocalDate.of(1990, 1, 1);
+  /** The end of the range of the indices, exclusive. */
+  private static final LocalDate END_DATE = LocalDate.of(2100, 1, 1);
+  /** Cache of the indices. */
+  private static final Map<HolidayCalendarId, BusinessDayIndex> INDICES = new ConcurrentHashMap<>();
+
+  /** The index of the USGS calendar, US government securities, used by SOFR. */
+  public static final BusinessDayIndex USGS = of(HolidayCalendarIds.USGS);
+  /** The index of the USNY calendar, New York, used by EFFR. */
+  public static final BusinessDayIndex USNY = of(HolidayCalendarIds.USNY);
+  /** The index of the GBLO calendar, London, used by SONIA and the LIBOR fixings. */
+  public static final BusinessDayIndex GBLO = of(HolidayCalendarIds.GBLO);
+  /** The index of the EUTA calendar, TARGET, used by ESTR and EURIBOR. */
+  public static final BusinessDayIndex EUTA = of(HolidayCalendarIds.EUTA);
+  /** The index of the CHZU calendar, Zurich, used by SARON. */
+  public static final BusinessDayIndex CHZU = of(HolidayCalendarIds.CHZU);
+
+  /** Private constructor. */
+  private BusinessDayIndices() {
+  }
+
+  /**
+   * Returns the business day index of a calendar.
+   *
+   * @param calendarId  the identifier of the calendar in the standard reference data
+   * @return the index
+   */
+  public static BusinessDayIndex of(HolidayCalendarId calendarId) {
+    return INDICES.computeIfAbsent(calendarId,
+        id -> BusinessDayIndex.of(id.resolve(ReferenceData.standard()), START_DATE, END_DATE));
+  }
+
+}
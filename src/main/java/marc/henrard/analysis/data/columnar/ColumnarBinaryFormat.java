@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.data.columnar;
+
+/**
+ * Description of the columnar binary format for time series with a common date column.
+ * <p>
+ * All the numbers are little-endian. The file is composed of
+ * <ul>
+ * <li>the header: magic number (int), version (int), number of rows (int), number of value columns (int),
+ *   offset of the date column (long);
+ * <li>the index: for each value column, the name length in bytes (int), the name in UTF-8 and the offset of
+ *   the column (long);
+ * <li>the date column, as epoch-days (int), starting on a multiple of 8 bytes;
+ * <li>the value columns (double), each one contiguous and starting on a multiple of 8 bytes.
+ * </ul>
+ * The missing values are represented by NaN. The columns are aligned so that the file can be memory-mapped and
+ * read directly as int and double buffers.
+ *
+ * @author Marc Henrard
+ */
+final class ColumnarBinaryFormat {
+
+  /** The magic number at the start of the files: "MHCB". */
+  static final int MAGIC = 0x4D484342;
+  /** The version of the format. */
+  static final int VERSION = 1;
+  /** The size of the header in bytes. */
+  static final int HEADER_SIZE = 24;
+
+  /** Private constructor. */
+  private ColumnarBinaryFormat() {
+  }
+
+  /**
+   * Returns the position rounded up to the next multiple of 8.
+   *
+   * @param position  the position
+   * @return the aligned position
+   */
+  static long align8(long position) {
+    return (position + 7L) & ~7L;
+  }
+
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.data.columnar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+
+/**
+ * Reads files in the columnar binary format described in {@link ColumnarBinaryFormat}.
+ * <p>
+ * The file is memory-mapped; the values are read directly from the mapped buffer, without parsing.
+ * Only the pages of the columns effectively read are loaded.
+ * The format is limited to files of less than 2GB.
+ *
+ * @author Marc Henrard
+ */
+public final class ColumnarBinaryReader {
+
+  /** The number of rows. */
+  private final int nbRows;
+  /** The column names, in the file order. */
+  private final ImmutableList<String> columnNames;
+  /** The dates, as epoch-days. */
+  private final IntBuffer dates;
+  /** The value columns, by name. */
+  private final Map<String, DoubleBuffer> columns;
+
+  private ColumnarBinaryReader(
+      int nbRows,
+      ImmutableList<String> columnNames,
+      IntBuffer dates,
+      Map<String, DoubleBuffer> columns) {
+
+    this.nbRows = nbRows;
+    this.columnNames = columnNames;
+    this.dates = dates;
+    this.columns = columns;
+  }
+
+  /**
+   * Opens a file and maps it in memory.
+   *
+   * @param fileName  the file name
+   * @return the reader
+   * @throws IOException  in case of reading problem or if the file is not a valid columnar binary file
+   */
+  public static ColumnarBinaryReader of(String fileName) throws IOException {
+    MappedByteBuffer mapped;
+    long fileSize;
+    try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+      fileSize = channel.size();
+      if (fileSize < ColumnarBinaryFormat.HEADER_SIZE) {
+        throw new IOException("Not a columnar binary file: " + fileName);
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+    }
+    ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt(0) != ColumnarBinaryFormat.MAGIC) {
+      throw new IOException("Not a columnar binary file: " + fileName);
+    }
+    int version = buffer.getInt(4);
+    if (version != ColumnarBinaryFormat.VERSION) {
+      throw new IOException("Unsupported columnar binary version " + version + ": " + fileName);
+    }
+    int nbRows = buffer.getInt(8);
+    int nbColumns = buffer.getInt(12);
+    long dateOffset = buffer.getLong(16);
+    if (nbRows < 0 || nbColumns < 0 || !inFile(dateOffset, (long) Integer.BYTES * nbRows, fileSize)) {
+      throw new IOException("Truncated columnar binary file: " + fileName);
+    }
+    int position = ColumnarBinaryFormat.HEADER_SIZE;
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    Map<String, DoubleBuffer> columns = new LinkedHashMap<>();
+    for (int loopcol = 0; loopcol < nbColumns; loopcol++) {
+      if (!inFile(position, Integer.BYTES, fileSize)) {
+        throw new IOException("Truncated columnar binary file: " + fileName);
+      }
+      int nameLength = buffer.getInt(position);
+      if (nameLength < 0 || !inFile(position, (long) Integer.BYTES + nameLength + Long.BYTES, fileSize)) {
+        throw new IOException("Truncated columnar binary file: " + fileName);
+      }
+      byte[] nameBytes = new byte[nameLength];
+      for (int i = 0; i < nameLength; i++) {
+        nameBytes[i] = buffer.get(position + Integer.BYTES + i);
+      }
+      String name = new String(nameBytes, StandardCharsets.UTF_8);
+      long columnOffset = buffer.getLong(position + Integer.BYTES + nameLength);
+      position += Integer.BYTES + nameLength + Long.BYTES;
+      if (!inFile(columnOffset, (long) Double.BYTES * nbRows, fileSize)) {
+        throw new IOException("Truncated columnar binary file: " + fileName);
+      }
+      if (columns.containsKey(name)) {
+        throw new IOException("Duplicate column " + name + " in columnar binary file: " + fileName);
+      }
+      names.add(name);
+      columns.put(name, slice(buffer, (int) columnOffset, Double.BYTES * nbRows).asDoubleBuffer());
+    }
+    IntBuffer dates = slice(buffer, (int) dateOffset, Integer.BYTES * nbRows).asIntBuffer();
+    return new ColumnarBinaryReader(nbRows, names.build(), dates, columns);
+  }
+
+  /* Checks that the bytes from the offset are in the file. */
+  private static boolean inFile(long offset, long length, long fileSize) {
+    return offset >= 0 && offset + length <= fileSize;
+  }
+
+  /* Slice of the buffer, keeping the byte order. */
+  private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+    ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(offset);
+    duplicate.limit(offset + length);
+    return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the number of rows.
+   *
+   * @return the number of rows
+   */
+  public int getNbRows() {
+    return nbRows;
+  }
+
+  /**
+   * Returns the names of the value columns.
+   *
+   * @return the names
+   */
+  public ImmutableList<String> getColumnNames() {
+    return columnNames;
+  }
+
+  /**
+   * Returns the date of a row, as epoch-day.
+   *
+   * @param row  the row
+   * @return the epoch-day
+   */
+  public int getEpochDay(int row) {
+    return dates.get(row);
+  }
+
+  /**
+   * Returns the dates of all the rows, as epoch-days.
+   *
+   * @return the epoch-days
+   */
+  public int[] getEpochDays() {
+    int[] result = new int[nbRows];
+    dates.duplicate().get(result);
+    return result;
+  }
+
+  /**
+   * Returns one value.
+   *
+   * @param columnName  the column name
+   * @param row  the row
+   * @return the value, NaN if missing
+   */
+  public double getValue(String columnName, int row) {
+    return column(columnName).get(row);
+  }
+
+  /**
+   * Returns a copy of the values of one column.
+   *
+   * @param columnName  the column name
+   * @return the values
+   */
+  public double[] getColumn(String columnName) {
+    double[] result = new double[nbRows];
+    column(columnName).duplicate().get(result);
+    return result;
+  }
+
+  /**
+   * Returns the values of one column of a cube.
+   *
+   * @param curveName  the curve name
+   * @param scenario  the scenario number
+   * @return the values
+   */
+  public double[] getCubeColumn(String curveName, int scenario) {
+    return getColumn(ColumnarBinaryWriter.cubeColumnName(curveName, scenario));
+  }
+
+  /**
+   * Returns one column as a time series. The missing (NaN) values are not included.
+   *
+   * @param columnName  the column name
+   * @return the time series
+   */
+  public LocalDateDoubleTimeSeries getTimeSeries(String columnName) {
+    DoubleBuffer values = column(columnName);
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    for (int looprow = 0; looprow < nbRows; looprow++) {
+      double value = values.get(looprow);
+      if (!Double.isNaN(value)) {
+        builder.put(LocalDate.ofEpochDay(dates.get(looprow)), value);
+      }
+    }
+    return builder.build();
+  }
+
+  private DoubleBuffer column(String columnName) {
+    DoubleBuffer column = columns.get(columnName);
+    ArgChecker.isTrue(column != null, "column {} not in the file", columnName);
+    return column;
+  }
+
+}
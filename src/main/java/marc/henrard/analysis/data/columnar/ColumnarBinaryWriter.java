@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.data.columnar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+
+/**
+ * Writes time series in the columnar binary format described in {@link ColumnarBinaryFormat}.
+ * <p>
+ * This is the binary alternative to the csv exports, for large numbers of curves and scenarios.
+ * The results can be loaded back without text parsing with {@link ColumnarBinaryReader}.
+ *
+ * @author Marc Henrard
+ */
+public final class ColumnarBinaryWriter {
+
+  /** The size of the write buffer. */
+  private static final int BUFFER_SIZE = 1 << 16;
+  /** The separator between curve name and scenario number in the cube column names. */
+  public static final String CUBE_SEPARATOR = "#";
+
+  /** Private constructor. */
+  private ColumnarBinaryWriter() {
+  }
+
+  /**
+   * Writes columns of values with a common date column.
+   *
+   * @param epochDays  the dates, as epoch-days
+   * @param columnNames  the names of the value columns
+   * @param columns  the value columns, each with the same length as the dates
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void write(
+      int[] epochDays,
+      List<String> columnNames,
+      List<double[]> columns,
+      String exportFileName) throws IOException {
+
+    int nbRows = epochDays.length;
+    int nbColumns = columnNames.size();
+    ArgChecker.isTrue(columns.size() == nbColumns, "one name required for each column");
+    for (double[] column : columns) {
+      ArgChecker.isTrue(column.length == nbRows, "columns must have the same length as the dates");
+    }
+    /* Header and index */
+    byte[][] names = new byte[nbColumns][];
+    long indexSize = 0;
+    for (int loopcol = 0; loopcol < nbColumns; loopcol++) {
+      names[loopcol] = columnNames.get(loopcol).getBytes(StandardCharsets.UTF_8);
+      indexSize += Integer.BYTES + names[loopcol].length + Long.BYTES;
+    }
+    long dateOffset = ColumnarBinaryFormat.align8(ColumnarBinaryFormat.HEADER_SIZE + indexSize);
+    long firstColumnOffset = ColumnarBinaryFormat.align8(dateOffset + (long) Integer.BYTES * nbRows);
+    ByteBuffer head = ByteBuffer.allocate(Math.toIntExact(dateOffset)).order(ByteOrder.LITTLE_ENDIAN);
+    head.putInt(ColumnarBinaryFormat.MAGIC);
+    head.putInt(ColumnarBinaryFormat.VERSION);
+    head.putInt(nbRows);
+    head.putInt(nbColumns);
+    head.putLong(dateOffset);
+    for (int loopcol = 0; loopcol < nbColumns; loopcol++) {
+      head.putInt(names[loopcol].length);
+      head.put(names[loopcol]);
+      head.putLong(firstColumnOffset + (long) Double.BYTES * nbRows * loopcol);
+    }
+    head.flip();
+    try (FileChannel channel = FileChannel.open(Paths.get(exportFileName),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeFully(channel, head, 0);
+      /* Data */
+      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      long position = dateOffset;
+      for (int looprow = 0; looprow < nbRows; looprow++) {
+        if (buffer.remaining() < Integer.BYTES) {
+          position = flush(channel, buffer, position);
+        }
+        buffer.putInt(epochDays[looprow]);
+      }
+      position = flush(channel, buffer, position);
+      position = firstColumnOffset;
+      for (int loopcol = 0; loopcol < nbColumns; loopcol++) {
+        double[] column = columns.get(loopcol);
+        for (int looprow = 0; looprow < nbRows; looprow++) {
+          if (buffer.remaining() < Double.BYTES) {
+            position = flush(channel, buffer, position);
+          }
+          buffer.putDouble(column[looprow]);
+        }
+      }
+      flush(channel, buffer, position);
+    }
+  }
+
+  /**
+   * Writes time series, aligned on the union of their dates. The missing values are NaN.
+   *
+   * @param names  the names of the time series
+   * @param timeSeries  the time series
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void write(
+      List<String> names,
+      List<LocalDateDoubleTimeSeries> timeSeries,
+      String exportFileName) throws IOException {
+
+    SortedSet<LocalDate> dates = new TreeSet<>();
+    for (LocalDateDoubleTimeSeries ts : timeSeries) {
+      dates.addAll(ts.dates().collect(Collectors.toList()));
+    }
+    int[] epochDays = dates.stream().mapToInt(date -> Math.toIntExact(date.toEpochDay())).toArray();
+    List<double[]> columns = new ArrayList<>(timeSeries.size());
+    for (LocalDateDoubleTimeSeries ts : timeSeries) {
+      double[] column = new double[epochDays.length];
+      int looprow = 0;
+      for (LocalDate date : dates) {
+        column[looprow++] = ts.get(date).orElse(Double.NaN);
+      }
+      columns.add(column);
+    }
+    write(epochDays, names, columns, exportFileName);
+  }
+
+  /**
+   * Writes a cube of values by curve, date and scenario.
+   * <p>
+   * There is one column by curve and scenario, named with the curve name, {@link #CUBE_SEPARATOR} and the
+   * scenario number. The columns are ordered by curve, then by scenario.
+   *
+   * @param epochDays  the dates, as epoch-days
+   * @param curveNames  the curve names
+   * @param values  the values, by curve, scenario and date
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void writeCube(
+      int[] epochDays,
+      List<String> curveNames,
+      double[][][] values,
+      String exportFileName) throws IOException {
+
+    ArgChecker.isTrue(values.length == curveNames.size(), "one name required for each curve");
+    List<String> columnNames = new ArrayList<>();
+    List<double[]> columns = new ArrayList<>();
+    for (int loopcurve = 0; loopcurve < values.length; loopcurve++) {
+      for (int loopsc = 0; loopsc < values[loopcurve].length; loopsc++) {
+        columnNames.add(cubeColumnName(curveNames.get(loopcurve), loopsc));
+        columns.add(values[loopcurve][loopsc]);
+      }
+    }
+    write(epochDays, columnNames, columns, exportFileName);
+  }
+
+  /**
+   * Returns the column name used in the cubes for a curve and a scenario.
+   *
+   * @param curveName  the curve name
+   * @param scenario  the scenario number
+   * @return the column name
+   */
+  public static String cubeColumnName(String curveName, int scenario) {
+    return curveName + CUBE_SEPARATOR + scenario;
+  }
+
+  private static long flush(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    buffer.flip();
+    long newPosition = writeFully(channel, buffer, position);
+    buffer.clear();
+    return newPosition;
+  }
+
+  private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    long currentPosition = position;
+    while (buffer.hasRemaining()) {
+      currentPosition += channel.write(buffer, currentPosition);
+    }
+    return currentPosition;
+  }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.data.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Collection;
+
+import marc.henrard.analysis.market.fixing.CompoundedRateSeries;
+import marc.henrard.analysis.market.fixing.CompoundedRateSpecification;
+
+/**
+ * Export of overnight compounded rate series in csv files.
+ * <p>
+ * Each series is exported in two files in the folder, named by default after the series:
+ * "name.csv" with the time series in the layout of {@code ExportUtils.exportTimeSeries} and "name-dates.csv"
+ * with the IBOR fixing date, the compounding period and the rate on each row. The reference column contains the
+ * reference of the series, see {@link CompoundedRateSpecification#getReference()}.
+ * The files are written through buffered streams, without building the file content in memory.
+ *
+ * @author Marc Henrard
+ */
+public final class CompoundedRateCsvExport {
+
+  /** The header of the file with the dates. */
+  private static final String HEADER_DATES = "Reference, FixingDate, EffectiveDate, MaturityDate, Value\n";
+
+  /** Private constructor. */
+  private CompoundedRateCsvExport() {
+  }
+
+  /**
+   * Exports all the series in a folder.
+   *
+   * @param series  the series
+   * @param folder  the folder of the export files
+   * @throws IOException  in case of export problem
+   */
+  public static void export(Collection<CompoundedRateSeries> series, String folder) throws IOException {
+    for (CompoundedRateSeries s : series) {
+      export(s, folder);
+    }
+  }
+
+  /**
+   * Exports one series in a folder, in files named after the series.
+   *
+   * @param series  the series
+   * @param folder  the folder of the export files
+   * @throws IOException  in case of export problem
+   */
+  public static void export(CompoundedRateSeries series, String folder) throws IOException {
+    export(series, folder, series.getName());
+  }
+
+  /**
+   * Exports one series in a folder, in files with a given name.
+   *
+   * @param series  the series
+   * @param folder  the folder of the export files
+   * @param fileName  the name of the files, without the "-dates" suffix and the extension
+   * @throws IOException  in case of export problem
+   */
+  public static void export(CompoundedRateSeries series, String folder, String fileName) throws IOException {
+    String reference = series.getSpecification().getReference();
+    try (TimeSeriesCsvStreamWriter writer =
+        TimeSeriesCsvStreamWriter.of(reference, folder + "/" + fileName + ".csv")) {
+      for (int looprate = 0; looprate < series.size(); looprate++) {
+        writer.write(series.getFixingDate(looprate), series.getRate(looprate));
+      }
+    }
+    try (Writer writer = Files.newBufferedWriter(Paths.get(folder, fileName + "-dates.csv"), StandardCharsets.UTF_8)) {
+      writer.write(HEADER_DATES);
+      StringBuilder row = new StringBuilder(128);
+      for (int looprate = 0; looprate < series.size(); looprate++) {
+        row.setLength(0);
+        row.append(reference)
+            .append(',').append(LocalDate.ofEpochDay(series.getFixingDate(looprate)))
+            .append(',').append(LocalDate.ofEpochDay(series.getStartDate(looprate)))
+            .append(',').append(LocalDate.ofEpochDay(series.getEndDate(looprate)))
+            .append(',').append(series.getRate(looprate))
+            .append('\n');
+        writer.append(row);
+      }
+    }
+  }
+
+}
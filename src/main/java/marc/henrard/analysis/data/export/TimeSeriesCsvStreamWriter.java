@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.data.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Streaming writer for one time series in the csv layout used by {@code ExportUtils.exportTimeSeries}.
+ * <p>
+ * Each (date, value) row is formatted in a reusable buffer and written to a buffered file channel
+ * as soon as it is produced; the full series is never held in memory.
+ * The dates are formatted digit by digit and the values through a reused {@link StringBuilder},
+ * which produces the same text as {@link Double#toString(double)} without creating a string per row.
+ *
+ * @author Marc Henrard
+ */
+public final class TimeSeriesCsvStreamWriter implements Closeable {
+
+  /** The header of the csv file, same as the one of the non-streaming export. */
+  private static final byte[] HEADER = "Reference, Date, Value\n".getBytes(StandardCharsets.US_ASCII);
+  /** The default size of the write buffer. */
+  private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+  /** Maximum length of a row, excluding the reference. Date (10), value (max 24) and separators. */
+  private static final int MAX_ROW_LENGTH = 40;
+
+  /** The channel to the export file. */
+  private final FileChannel channel;
+  /** The write buffer. */
+  private final ByteBuffer buffer;
+  /** The time series reference, written at the start of each row. */
+  private final byte[] reference;
+  /** The reusable builder for the double formatting. */
+  private final StringBuilder valueBuilder = new StringBuilder(32);
+
+  /**
+   * Opens a writer for the given series name and file. Any existing file is overwritten.
+   * The header is written immediately.
+   *
+   * @param timeSeriesName  the name of the time series, written in the first column
+   * @param exportFileName  the name of the export file
+   * @return the writer
+   * @throws IOException  in case of export problem
+   */
+  public static TimeSeriesCsvStreamWriter of(String timeSeriesName, String exportFileName) throws IOException {
+    return new TimeSeriesCsvStreamWriter(timeSeriesName, exportFileName, DEFAULT_BUFFER_SIZE);
+  }
+
+  private TimeSeriesCsvStreamWriter(
+      String timeSeriesName,
+      String exportFileName,
+      int bufferSize) throws IOException {
+
+    this.reference = (timeSeriesName + ",").getBytes(StandardCharsets.US_ASCII);
+    this.buffer = ByteBuffer.allocate(Math.max(bufferSize, reference.length + MAX_ROW_LENGTH));
+    this.channel = FileChannel.open(Paths.get(exportFileName),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    buffer.put(HEADER);
+  }
+
+  /**
+   * Writes one row of the time series.
+   *
+   * @param date  the date
+   * @param value  the value
+   * @throws IOException  in case of export problem
+   */
+  public void write(LocalDate date, double value) throws IOException {
+    startRow();
+    putDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    endRow(value);
+  }
+
+  /**
+   * Writes one row of the time series, the date being given as an epoch-day.
+   * <p>
+   * The conversion of the epoch-day to year, month and day does not create any object.
+   *
+   * @param epochDay  the date, as epoch-day
+   * @param value  the value
+   * @throws IOException  in case of export problem
+   */
+  public void write(long epochDay, double value) throws IOException {
+    startRow();
+    // Civil from days algorithm; eras of 400 years starting on 1 March
+    long z = epochDay + 719_468L;
+    long era = Math.floorDiv(z, 146_097L);
+    long dayOfEra = z - era * 146_097L;
+    long yearOfEra = (dayOfEra - dayOfEra / 1_460L + dayOfEra / 36_524L - dayOfEra / 146_096L) / 365L;
+    long dayOfYear = dayOfEra - (365L * yearOfEra + yearOfEra / 4L - yearOfEra / 100L);
+    long monthShifted = (5L * dayOfYear + 2L) / 153L;
+    int day = (int) (dayOfYear - (153L * monthShifted + 2L) / 5L + 1L);
+    int month = (int) (monthShifted < 10L ? monthShifted + 3L : monthShifted - 9L);
+    int year = (int) (yearOfEra + era * 400L + (month <= 2 ? 1L : 0L));
+    putDate(year, month, day);
+    endRow(value);
+  }
+
+  private void startRow() throws IOException {
+    if (buffer.remaining() < reference.length + MAX_ROW_LENGTH) {
+      flushBuffer();
+    }
+    buffer.put(reference);
+  }
+
+  private void endRow(double value) {
+    buffer.put((byte) ',');
+    valueBuilder.setLength(0);
+    valueBuilder.append(value);
+    for (int i = 0; i < valueBuilder.length(); i++) {
+      buffer.put((byte) valueBuilder.charAt(i));
+    }
+    buffer.put((byte) '\n');
+  }
+
+  /* Writes the date in ISO format (yyyy-MM-dd) */
+  private void putDate(int year, int month, int day) {
+    if (year < 0 || year > 9999) { // Non standard years, use the default format
+      byte[] dateBytes = LocalDate.of(year, month, day).toString().getBytes(StandardCharsets.US_ASCII);
+      buffer.put(dateBytes);
+      return;
+    }
+    putDigits(year, 4);
+    buffer.put((byte) '-');
+    putDigits(month, 2);
+    buffer.put((byte) '-');
+    putDigits(day, 2);
+  }
+
+  /* Writes a positive integer with a fixed number of digits, left padded with 0. */
+  private void putDigits(int value, int nbDigits) {
+    int position = buffer.position();
+    int remainder = value;
+    for (int i = nbDigits - 1; i >= 0; i--) {
+      buffer.put(position + i, (byte) ('0' + remainder % 10));
+      remainder /= 10;
+    }
+    buffer.position(position + nbDigits);
+  }
+
+  private void flushBuffer() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Writes the remaining buffered rows and closes the file.
+   *
+   * @throws IOException  in case of export problem
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flushBuffer();
+    } finally {
+      channel.close();
+    }
+  }
+
+}
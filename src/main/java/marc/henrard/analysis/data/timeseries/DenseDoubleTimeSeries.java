@@ -0,0 +1,365 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.data.timeseries;
+
+import java.nio.DoubleBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+
+/**
+ * Time series of doubles stored densely by calendar day.
+ * <p>
+ * The series covers a range of calendar days, from a start date (inclusive) to an end date (exclusive). The value
+ * of a day is stored at the position of its epoch-day offset from the start date; a missing value is NaN. Reading
+ * the value of a date is O(1), without binary search nor {@code OptionalDouble}.
+ * <p>
+ * The values are in a {@link DoubleBuffer}, on the heap or memory-mapped from a file, see {@link FixingStore}.
+ * The sub-series are views sharing the values of the original series. The instances are immutable.
+ * Conversion to and from {@link LocalDateDoubleTimeSeries} is provided for use at the edges of the analyses.
+ *
+ * @author Marc Henrard
+ */
+public final class DenseDoubleTimeSeries {
+
+  /** The empty series. */
+  private static final DenseDoubleTimeSeries EMPTY = new DenseDoubleTimeSeries(0, DoubleBuffer.allocate(0), 0, 0);
+
+  /** The epoch-day of the first day of the range. */
+  private final int startEpochDay;
+  /** The values, by calendar day, NaN when missing; possibly shared with other series. */
+  private final DoubleBuffer values;
+  /** The position in the values of the first day of the range. */
+  private final int offset;
+  /** The number of calendar days in the range. */
+  private final int length;
+
+  private DenseDoubleTimeSeries(int startEpochDay, DoubleBuffer values, int offset, int length) {
+    this.startEpochDay = startEpochDay;
+    this.values = values;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * Returns the empty series.
+   *
+   * @return the series
+   */
+  public static DenseDoubleTimeSeries empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Creates a series from the values of consecutive calendar days.
+   * <p>
+   * The values are copied; NaN values are missing.
+   *
+   * @param startDate  the date of the first value
+   * @param values  the values, by calendar day
+   * @return the series
+   */
+  public static DenseDoubleTimeSeries of(LocalDate startDate, double[] values) {
+    ArgChecker.notNull(startDate, "startDate");
+    return new DenseDoubleTimeSeries(
+        Math.toIntExact(startDate.toEpochDay()), DoubleBuffer.wrap(values.clone()), 0, values.length);
+  }
+
+  /**
+   * Creates a series on the values of a buffer, from its position to its limit.
+   * <p>
+   * The values are not copied: the series is a view on the buffer, which must not be modified afterwards.
+   * NaN values are missing.
+   *
+   * @param startDate  the date of the value at the position of the buffer
+   * @param values  the values, by calendar day
+   * @return the series
+   */
+  public static DenseDoubleTimeSeries of(LocalDate startDate, DoubleBuffer values) {
+    ArgChecker.notNull(startDate, "startDate");
+    DoubleBuffer view = values.slice();
+    return new DenseDoubleTimeSeries(Math.toIntExact(startDate.toEpochDay()), view, 0, view.capacity());
+  }
+
+  /**
+   * Creates a series from a Strata time series.
+   * <p>
+   * The range is from the earliest date to the latest date of the time series. The values must not be NaN.
+   *
+   * @param series  the time series
+   * @return the series
+   */
+  public static DenseDoubleTimeSeries of(LocalDateDoubleTimeSeries series) {
+    if (series.isEmpty()) {
+      return EMPTY;
+    }
+    int startEpochDay = Math.toIntExact(series.getEarliestDate().toEpochDay());
+    int length = Math.toIntExact(series.getLatestDate().toEpochDay()) - startEpochDay + 1;
+    double[] values = new double[length];
+    Arrays.fill(values, Double.NaN);
+    series.forEach((date, value) -> {
+      ArgChecker.isFalse(Double.isNaN(value), "value on {} must not be NaN", date);
+      values[Math.toIntExact(date.toEpochDay()) - startEpochDay] = value;
+    });
+    return new DenseDoubleTimeSeries(startEpochDay, DoubleBuffer.wrap(values), 0, length);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the start date of the range, inclusive.
+   *
+   * @return the date
+   */
+  public LocalDate getStartDate() {
+    return LocalDate.ofEpochDay(startEpochDay);
+  }
+
+  /**
+   * Returns the end date of the range, exclusive.
+   *
+   * @return the date
+   */
+  public LocalDate getEndDate() {
+    return LocalDate.ofEpochDay(startEpochDay + length);
+  }
+
+  /**
+   * Returns the number of calendar days in the range.
+   *
+   * @return the number of days
+   */
+  public int size() {
+    return length;
+  }
+
+  /**
+   * Returns the number of values present.
+   *
+   * @return the number of values
+   */
+  public int countPresent() {
+    int count = 0;
+    for (int loopday = offset; loopday < offset + length; loopday++) {
+      if (!Double.isNaN(values.get(loopday))) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the value on a date, NaN if missing or outside the range.
+   *
+   * @param date  the date
+   * @return the value
+   */
+  public double get(LocalDate date) {
+    return get(Math.toIntExact(date.toEpochDay()));
+  }
+
+  /**
+   * Returns the value on a date, given as epoch-day, NaN if missing or outside the range.
+   *
+   * @param epochDay  the date, as epoch-day
+   * @return the value
+   */
+  public double get(int epochDay) {
+    int position = epochDay - startEpochDay;
+    return (position >= 0 && position < length) ? values.get(offset + position) : Double.NaN;
+  }
+
+  /**
+   * Checks if a value is present on a date.
+   *
+   * @param date  the date
+   * @return true if the value is present
+   */
+  public boolean containsDate(LocalDate date) {
+    return !Double.isNaN(get(date));
+  }
+
+  /**
+   * Returns the sub-series from a start date (inclusive) to an end date (exclusive).
+   * <p>
+   * The range is restricted to the range of this series. The sub-series is a view sharing the values of this series.
+   *
+   * @param startDate  the start date, inclusive
+   * @param endDate  the end date, exclusive
+   * @return the sub-series
+   */
+  public DenseDoubleTimeSeries subSeries(LocalDate startDate, LocalDate endDate) {
+    ArgChecker.inOrderOrEqual(startDate, endDate, "startDate", "endDate");
+    int start = Math.max(Math.toIntExact(startDate.toEpochDay()), startEpochDay);
+    int end = Math.min(Math.toIntExact(endDate.toEpochDay()), startEpochDay + length);
+    if (start >= end) {
+      return EMPTY;
+    }
+    return new DenseDoubleTimeSeries(start, values, offset + start - startEpochDay, end - start);
+  }
+
+  /**
+   * Combines this series with another one, on the dates where both values are present.
+   * <p>
+   * The range is the intersection of the ranges, the equivalent of
+   * {@link LocalDateDoubleTimeSeries#intersection(LocalDateDoubleTimeSeries, DoubleBinaryOperator)}.
+   *
+   * @param other  the other series
+   * @param operator  the operator applied to the value of this series and the value of the other
+   * @return the combined series
+   */
+  public DenseDoubleTimeSeries combine(DenseDoubleTimeSeries other, DoubleBinaryOperator operator) {
+    int start = Math.max(startEpochDay, other.startEpochDay);
+    int end = Math.min(startEpochDay + length, other.startEpochDay + other.length);
+    if (start >= end) {
+      return EMPTY;
+    }
+    double[] combined = new double[end - start];
+    for (int loopday = 0; loopday < combined.length; loopday++) {
+      double value = values.get(offset + start - startEpochDay + loopday);
+      double otherValue = other.values.get(other.offset + start - other.startEpochDay + loopday);
+      combined[loopday] = (Double.isNaN(value) || Double.isNaN(otherValue))
+          ? Double.NaN
+          : operator.applyAsDouble(value, otherValue);
+    }
+    return new DenseDoubleTimeSeries(start, DoubleBuffer.wrap(combined), 0, combined.length);
+  }
+
+  /**
+   * Returns the values present, in increasing date order.
+   *
+   * @return the values
+   */
+  public double[] presentValues() {
+    double[] present = new double[countPresent()];
+    int position = 0;
+    for (int loopday = offset; loopday < offset + length; loopday++) {
+      double value = values.get(loopday);
+      if (!Double.isNaN(value)) {
+        present[position++] = value;
+      }
+    }
+    return present;
+  }
+
+  /**
+   * Converts the series to a Strata time series, with the values present.
+   *
+   * @return the time series
+   */
+  public LocalDateDoubleTimeSeries toTimeSeries() {
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    for (int loopday = 0; loopday < length; loopday++) {
+      double value = values.get(offset + loopday);
+      if (!Double.isNaN(value)) {
+        builder.put(LocalDate.ofEpochDay(startEpochDay + loopday), value);
+      }
+    }
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Aligns several series on the dates where all of them have a value.
+   * <p>
+   * This is a k-way merge-join on the sorted dates. As the series are dense, the join advances all the series
+   * together on the intersection of the ranges and each step is O(k).
+   *
+   * @param series  the series
+   * @return the aligned values
+   */
+  public static Alignment align(List<DenseDoubleTimeSeries> series) {
+    int nbSeries = series.size();
+    ArgChecker.isTrue(nbSeries > 0, "series must not be empty");
+    int start = Integer.MIN_VALUE;
+    int end = Integer.MAX_VALUE;
+    for (DenseDoubleTimeSeries ts : series) {
+      start = Math.max(start, ts.startEpochDay);
+      end = Math.min(end, ts.startEpochDay + ts.length);
+    }
+    int nbDays = Math.max(end - start, 0);
+    int[] dates = new int[nbDays];
+    double[][] aligned = new double[nbSeries][nbDays];
+    int nbDates = 0;
+    for (int loopday = 0; loopday < nbDays; loopday++) {
+      int epochDay = start + loopday;
+      boolean present = true;
+      for (int loopseries = 0; loopseries < nbSeries && present; loopseries++) {
+        DenseDoubleTimeSeries ts = series.get(loopseries);
+        double value = ts.values.get(ts.offset + epochDay - ts.startEpochDay);
+        present = !Double.isNaN(value);
+        aligned[loopseries][nbDates] = value;
+      }
+      if (present) {
+        dates[nbDates++] = epochDay;
+      }
+    }
+    return new Alignment(dates, aligned, nbDates);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Values of several series on the dates where all of them have a value.
+   */
+  public static final class Alignment {
+
+    /** The dates, as epoch-days, in increasing order. */
+    private final int[] dates;
+    /** The values, by series and date. */
+    private final double[][] values;
+    /** The number of dates. */
+    private final int size;
+
+    private Alignment(int[] dates, double[][] values, int size) {
+      this.dates = dates;
+      this.values = values;
+      this.size = size;
+    }
+
+    /**
+     * Returns the number of dates.
+     *
+     * @return the size
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Returns a date, as epoch-day.
+     *
+     * @param position  the position of the date
+     * @return the date
+     */
+    public int getDate(int position) {
+      return dates[position];
+    }
+
+    /**
+     * Returns the value of a series on a date.
+     *
+     * @param series  the index of the series
+     * @param position  the position of the date
+     * @return the value
+     */
+    public double get(int series, int position) {
+      return values[series][position];
+    }
+
+    /**
+     * Returns the values of a series on all the dates.
+     *
+     * @param series  the index of the series
+     * @return the values
+     */
+    public double[] getValues(int series) {
+      return Arrays.copyOf(values[series], size);
+    }
+  }
+
+}
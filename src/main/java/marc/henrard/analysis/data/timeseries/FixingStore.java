@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.data.timeseries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.opengamma.strata.basics.index.Index;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+
+/**
+ * Fixings of one index, memory-mapped from a file in the format described in {@link FixingStoreFormat}.
+ * <p>
+ * The file is memory-mapped and the series is a {@link DenseDoubleTimeSeries} view on the mapped values: loading
+ * does not parse nor allocate anything by fixing, and only the pages effectively read are loaded. The conversion to
+ * {@link LocalDateDoubleTimeSeries} is available for the code using the Strata type.
+ * The files are created by {@link FixingStoreWriter}. The format is limited to files of less than 2GB.
+ *
+ * @author Marc Henrard
+ */
+public final class FixingStore {
+
+  /** The name of the index. */
+  private final String name;
+  /** The fixings, as a view on the mapped file. */
+  private final DenseDoubleTimeSeries series;
+
+  private FixingStore(String name, DenseDoubleTimeSeries series) {
+    this.name = name;
+    this.series = series;
+  }
+
+  /**
+   * Opens a fixing file and maps it in memory.
+   * <p>
+   * The header is checked: a file with another magic number or version, or shorter than the values it declares,
+   * is rejected.
+   *
+   * @param fileName  the file name
+   * @return the store
+   * @throws IOException  in case of reading problem or invalid file
+   */
+  public static FixingStore of(String fileName) throws IOException {
+    MappedByteBuffer mapped;
+    long fileSize;
+    try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+      fileSize = channel.size();
+      if (fileSize < FixingStoreFormat.HEADER_SIZE + Integer.BYTES) {
+        throw new IOException("Not a fixing store file: " + fileName);
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+    }
+    ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt(0) != FixingStoreFormat.MAGIC) {
+      throw new IOException("Not a fixing store file: " + fileName);
+    }
+    int version = buffer.getInt(4);
+    if (version != FixingStoreFormat.VERSION) {
+      throw new IOException("Unsupported fixing store version " + version + ": " + fileName);
+    }
+    int startEpochDay = buffer.getInt(8);
+    int nbDays = buffer.getInt(12);
+    long valuesOffset = buffer.getLong(16);
+    int nameLength = buffer.getInt(FixingStoreFormat.HEADER_SIZE);
+    if (nbDays < 0 || nameLength < 0 ||
+        valuesOffset < FixingStoreFormat.HEADER_SIZE + Integer.BYTES + (long) nameLength ||
+        fileSize < valuesOffset + (long) Double.BYTES * nbDays) {
+      throw new IOException("Truncated fixing store file: " + fileName);
+    }
+    byte[] nameBytes = new byte[nameLength];
+    ByteBuffer nameBuffer = buffer.duplicate();
+    nameBuffer.position(FixingStoreFormat.HEADER_SIZE + Integer.BYTES);
+    nameBuffer.get(nameBytes);
+    ByteBuffer values = buffer.duplicate();
+    values.position((int) valuesOffset);
+    values.limit((int) (valuesOffset + (long) Double.BYTES * nbDays));
+    DenseDoubleTimeSeries series = DenseDoubleTimeSeries.of(
+        LocalDate.ofEpochDay(startEpochDay), values.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer());
+    return new FixingStore(new String(nameBytes, StandardCharsets.UTF_8), series);
+  }
+
+  /**
+   * Loads several fixing files, as the csv loader does.
+   * <p>
+   * The series are converted to {@link LocalDateDoubleTimeSeries}, by index quote identifier.
+   *
+   * @param fileNames  the file names
+   * @return the time series, by identifier
+   * @throws IOException  in case of reading problem
+   */
+  public static Map<ObservableId, LocalDateDoubleTimeSeries> load(List<String> fileNames) throws IOException {
+    Map<ObservableId, LocalDateDoubleTimeSeries> result = new LinkedHashMap<>();
+    for (String fileName : fileNames) {
+      FixingStore store = of(fileName);
+      result.put(store.getId(), store.timeSeries());
+    }
+    return result;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the name of the index.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the identifier of the fixings of the index.
+   *
+   * @return the identifier
+   */
+  public IndexQuoteId getId() {
+    return IndexQuoteId.of(Index.of(name));
+  }
+
+  /**
+   * Returns the fixings, as a view on the mapped file.
+   *
+   * @return the series
+   */
+  public DenseDoubleTimeSeries series() {
+    return series;
+  }
+
+  /**
+   * Returns the fixings as a Strata time series.
+   *
+   * @return the time series
+   */
+  public LocalDateDoubleTimeSeries timeSeries() {
+    return series.toTimeSeries();
+  }
+
+}
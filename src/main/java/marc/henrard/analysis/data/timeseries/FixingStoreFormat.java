@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.data.timeseries;
+
+/**
+ * Description of the binary format of the fixing store, one file by index.
+ * <p>
+ * All the numbers are little-endian. The file is composed of
+ * <ul>
+ * <li>the header: magic number (int), version (int), start date as epoch-day (int), number of calendar days (int),
+ *   offset of the values (long);
+ * <li>the name of the index: length in bytes (int) and name in UTF-8;
+ * <li>the values (double), one for each calendar day from the start date, NaN when there is no fixing, starting on
+ *   a multiple of 8 bytes.
+ * </ul>
+ * The values are dense by calendar day, so that the file can be memory-mapped and read directly as a double buffer,
+ * without parsing.
+ *
+ * @author Marc Henrard
+ */
+final class FixingStoreFormat {
+
+  /** The magic number at the start of the files: "MHFX". */
+  static final int MAGIC = 0x4D484658;
+  /** The version of the format. */
+  static final int VERSION = 1;
+  /** The size of the header in bytes. */
+  static final int HEADER_SIZE = 24;
+  /** The extension of the files. */
+  static final String EXTENSION = ".bin";
+
+  /** Private constructor. */
+  private FixingStoreFormat() {
+  }
+
+  /**
+   * Returns the position rounded up to the next multiple of 8.
+   *
+   * @param position  the position
+   * @return the aligned position
+   */
+  static long align8(long position) {
+    return (position + 7L) & ~7L;
+  }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.data.timeseries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+
+/**
+ * Writes fixings in the binary format described in {@link FixingStoreFormat}, one file by index.
+ * <p>
+ * This is the converter from the csv fixing files, loaded once with the csv loader, to the files read
+ * without parsing by {@link FixingStore}.
+ *
+ * @author Marc Henrard
+ */
+public final class FixingStoreWriter {
+
+  /** Private constructor. */
+  private FixingStoreWriter() {
+  }
+
+  /**
+   * Writes the fixings of one index.
+   *
+   * @param name  the name of the index
+   * @param fixings  the fixings
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void write(String name, LocalDateDoubleTimeSeries fixings, String exportFileName)
+      throws IOException {
+
+    ArgChecker.isFalse(fixings.isEmpty(), "fixings of {} must not be empty", name);
+    DenseDoubleTimeSeries series = DenseDoubleTimeSeries.of(fixings);
+    int startEpochDay = Math.toIntExact(series.getStartDate().toEpochDay());
+    int nbDays = series.size();
+    byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    long valuesOffset = FixingStoreFormat.align8(FixingStoreFormat.HEADER_SIZE + Integer.BYTES + nameBytes.length);
+    ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(valuesOffset + (long) Double.BYTES * nbDays))
+        .order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(FixingStoreFormat.MAGIC);
+    buffer.putInt(FixingStoreFormat.VERSION);
+    buffer.putInt(startEpochDay);
+    buffer.putInt(nbDays);
+    buffer.putLong(valuesOffset);
+    buffer.putInt(nameBytes.length);
+    buffer.put(nameBytes);
+    buffer.position(Math.toIntExact(valuesOffset));
+    for (int loopday = 0; loopday < nbDays; loopday++) {
+      buffer.putDouble(series.get(startEpochDay + loopday));
+    }
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(Paths.get(exportFileName),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Writes the fixings of several indices, each one in a file named after the index in a folder.
+   * <p>
+   * Only the fixings of indices, with an {@link IndexQuoteId}, are written.
+   *
+   * @param fixings  the fixings, by identifier
+   * @param exportFolder  the folder of the export files
+   * @return the names of the files written
+   * @throws IOException  in case of export problem
+   */
+  public static List<String> write(Map<ObservableId, LocalDateDoubleTimeSeries> fixings, String exportFolder)
+      throws IOException {
+
+    List<String> fileNames = new ArrayList<>();
+    for (Entry<ObservableId, LocalDateDoubleTimeSeries> entry : fixings.entrySet()) {
+      if (entry.getKey() instanceof IndexQuoteId) {
+        String name = ((IndexQuoteId) entry.getKey()).getIndex().getName();
+        String fileName = Paths.get(exportFolder, name + FixingStoreFormat.EXTENSION).toString();
+        write(name, entry.getValue(), fileName);
+        fileNames.add(fileName);
+      }
+    }
+    return fileNames;
+  }
+
+}
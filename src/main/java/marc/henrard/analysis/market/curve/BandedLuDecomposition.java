@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.util.Optional;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * LU decomposition without pivoting of a square matrix with a narrow upper band, A = LU.
+ * <p>
+ * The calibration Jacobians are lower triangular except for a few superdiagonals, when an instrument depends on
+ * the nodes following its own through a payment lag or an index tenor longer than the node step. Each row is
+ * stored from its first non-zero element to the last superdiagonal of the band. The decomposition does not create
+ * elements outside of this profile: L has the rows profile below the diagonal and U the band above it. The
+ * number of operations is proportional to the size of the profile times the number of superdiagonals, instead of
+ * the cube of the size for the dense decomposition.
+ * <p>
+ * Without pivoting, the decomposition is only used when the pivots are not negligible with respect to their rows.
+ *
+ * @author Marc Henrard
+ */
+final class BandedLuDecomposition implements MatrixDecomposition {
+
+  /** The minimal ratio between a pivot and the largest element of its row in the matrix. */
+  private static final double PIVOT_TOLERANCE = 1.0E-10;
+
+  /** The number of superdiagonals. */
+  private final int upperBandwidth;
+  /** The first column stored for each row. */
+  private final int[] firstColumns;
+  /** The factors, by row from the first column, L below the diagonal (unit diagonal not stored) and U above. */
+  private final double[][] lu;
+
+  private BandedLuDecomposition(int upperBandwidth, int[] firstColumns, double[][] lu) {
+    this.upperBandwidth = upperBandwidth;
+    this.firstColumns = firstColumns;
+    this.lu = lu;
+  }
+
+  /**
+   * Decomposes a matrix.
+   * <p>
+   * The result is empty when the matrix is not banded, the number of superdiagonals being at least half the size,
+   * or when a pivot is negligible. The matrix is not modified.
+   *
+   * @param matrix  the matrix, by rows
+   * @return the decomposition, empty if the matrix cannot be decomposed in banded form
+   */
+  static Optional<BandedLuDecomposition> of(double[][] matrix) {
+    int n = matrix.length;
+    int upperBandwidth = 0;
+    int[] firstColumns = new int[n];
+    for (int looprow = 0; looprow < n; looprow++) {
+      ArgChecker.isTrue(matrix[looprow].length == n, "matrix must be square");
+      firstColumns[looprow] = looprow;
+      for (int loopcol = 0; loopcol < n; loopcol++) {
+        if (matrix[looprow][loopcol] != 0.0d) {
+          firstColumns[looprow] = Math.min(firstColumns[looprow], loopcol);
+          upperBandwidth = Math.max(upperBandwidth, loopcol - looprow);
+        }
+      }
+    }
+    if (2 * upperBandwidth >= n && upperBandwidth > 0) {
+      return Optional.empty();
+    }
+    double[][] lu = new double[n][];
+    for (int looprow = 0; looprow < n; looprow++) {
+      int first = firstColumns[looprow];
+      int last = Math.min(looprow + upperBandwidth, n - 1);
+      double[] row = new double[last - first + 1];
+      System.arraycopy(matrix[looprow], first, row, 0, row.length);
+      double rowMax = 0.0d;
+      for (int loopcol = 0; loopcol < row.length; loopcol++) {
+        rowMax = Math.max(rowMax, Math.abs(row[loopcol]));
+      }
+      for (int loopcol = first; loopcol < looprow; loopcol++) { // eliminates with the previous rows of U
+        double[] pivotRow = lu[loopcol];
+        int pivotFirst = firstColumns[loopcol];
+        double factor = row[loopcol - first] / pivotRow[loopcol - pivotFirst];
+        row[loopcol - first] = factor;
+        if (factor != 0.0d) {
+          int pivotLast = pivotFirst + pivotRow.length - 1;
+          for (int loopcol2 = loopcol + 1; loopcol2 <= pivotLast; loopcol2++) {
+            row[loopcol2 - first] -= factor * pivotRow[loopcol2 - pivotFirst];
+          }
+        }
+      }
+      if (!(Math.abs(row[looprow - first]) > PIVOT_TOLERANCE * rowMax)) {
+        return Optional.empty();
+      }
+      lu[looprow] = row;
+    }
+    return Optional.of(new BandedLuDecomposition(upperBandwidth, firstColumns, lu));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the number of superdiagonals.
+   *
+   * @return the number of superdiagonals
+   */
+  int getUpperBandwidth() {
+    return upperBandwidth;
+  }
+
+  @Override
+  public boolean isBanded() {
+    return true;
+  }
+
+  @Override
+  public double[] solve(double[] b) {
+    int n = lu.length;
+    ArgChecker.isTrue(b.length == n, "right hand side must have size {}", n);
+    double[] x = new double[n];
+    for (int looprow = 0; looprow < n; looprow++) { // L y = b
+      int first = firstColumns[looprow];
+      double sum = b[looprow];
+      for (int loopcol = first; loopcol < looprow; loopcol++) {
+        sum -= lu[looprow][loopcol - first] * x[loopcol];
+      }
+      x[looprow] = sum;
+    }
+    for (int looprow = n - 1; looprow >= 0; looprow--) { // U x = y
+      int first = firstColumns[looprow];
+      double sum = x[looprow];
+      for (int loopcol = looprow + 1; loopcol < first + lu[looprow].length; loopcol++) {
+        sum -= lu[looprow][loopcol - first] * x[loopcol];
+      }
+      x[looprow] = sum / lu[looprow][looprow - first];
+    }
+    return x;
+  }
+
+  @Override
+  public double[] solveTransposed(double[] b) {
+    int n = lu.length;
+    ArgChecker.isTrue(b.length == n, "right hand side must have size {}", n);
+    double[] x = b.clone();
+    for (int looprow = 0; looprow < n; looprow++) { // U^T y = b, by columns of U^T
+      int first = firstColumns[looprow];
+      x[looprow] /= lu[looprow][looprow - first];
+      for (int loopcol = looprow + 1; loopcol < first + lu[looprow].length; loopcol++) {
+        x[loopcol] -= lu[looprow][loopcol - first] * x[looprow];
+      }
+    }
+    for (int looprow = n - 1; looprow >= 0; looprow--) { // L^T x = y, by columns of L^T
+      int first = firstColumns[looprow];
+      for (int loopcol = first; loopcol < looprow; loopcol++) {
+        x[loopcol] -= lu[looprow][loopcol - first] * x[looprow];
+      }
+    }
+    return x;
+  }
+
+}
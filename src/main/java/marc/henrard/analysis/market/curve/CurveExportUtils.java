@@ -5,27 +5,52 @@ package marc.henrard.analysis.market.curve;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.opengamma.strata.basics.ReferenceData;
-import com.opengamma.strata.basics.date.HolidayCalendar;
 import com.opengamma.strata.basics.index.IborIndex;
 import com.opengamma.strata.basics.index.IborIndexObservation;
 import com.opengamma.strata.basics.index.OvernightIndex;
 import com.opengamma.strata.basics.index.OvernightIndexObservation;
 import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
 import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+import com.opengamma.strata.pricer.rate.IborIndexRates;
 import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 import com.opengamma.strata.pricer.rate.OvernightIndexRates;
 
+import marc.henrard.analysis.data.columnar.ColumnarBinaryWriter;
+import marc.henrard.analysis.data.export.TimeSeriesCsvStreamWriter;
 import marc.henrard.murisq.basics.data.export.ExportUtils;
 
 /**
  * Utilities to export visualization of curves.
- * 
+ * <p>
+ * The forward rates are computed on {@link ObservationGrid}, all at once with {@link ForwardRatesBatchUtils}.
+ * The grids used by the versions with an index and a number of rates are cached by index, start date and
+ * number of rates; they are computed only once for all the curves with the same valuation date. The cache is
+ * bounded, the least recently used grids are evicted; callers exporting on many valuation dates can also build
+ * the grids and use the versions with a grid.
+ * <p>
+ * The streaming versions of the exports write each (date, rate) row to the file as it is computed,
+ * without building the intermediary time series and file content. The csv layout is the same.
+ * <p>
+ * The columnar versions export many curves or scenarios on the same grid in the binary format of
+ * {@link ColumnarBinaryWriter}.
+ *
  * @author Marc Henrard
  */
 public class CurveExportUtils {
-  
+
+  /** The maximum number of observation grids in the cache. */
+  private static final int MAX_GRIDS = 64;
+  /** Cache of the observation grids, the least recently used evicted first. */
+  private static final Cache<List<Object>, ObservationGrid<?>> GRIDS =
+      CacheBuilder.newBuilder().maximumSize(MAX_GRIDS).build();
+
   public static void exportOvernightCurve(
       OvernightIndexRates overnightRates,
       OvernightIndex index,
@@ -33,24 +58,40 @@ public class CurveExportUtils {
       ReferenceData refData,
       String timeSeriesName,
       String exportFileName) throws IOException {
-    
-    LocalDate currentDate = overnightRates.getValuationDate();
-    HolidayCalendar calendar = refData.getValue(index.getFixingCalendar());
+
+    ObservationGrid<OvernightIndexObservation> grid =
+        overnightGrid(index, overnightRates.getValuationDate(), nbFwdRates, refData);
+    exportOvernightCurve(overnightRates, grid, timeSeriesName, exportFileName);
+  }
+
+  /**
+   * Export the daily forward rate associated to an overnight index on a given grid.
+   *
+   * @param overnightRates  the overnight rates
+   * @param grid  the grid of overnight observations
+   * @param timeSeriesName  the name of the time series to export
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportOvernightCurve(
+      OvernightIndexRates overnightRates,
+      ObservationGrid<OvernightIndexObservation> grid,
+      String timeSeriesName,
+      String exportFileName) throws IOException {
+
+    double[] rates = ForwardRatesBatchUtils.overnightForwards(overnightRates, grid);
     LocalDateDoubleTimeSeriesBuilder builderOn = LocalDateDoubleTimeSeries.builder();
-    for (int loopdate = 0; loopdate < nbFwdRates; loopdate++) {
-      OvernightIndexObservation obs = OvernightIndexObservation.of(index, currentDate, refData);
-      double rate = overnightRates.rate(obs);
-      builderOn.put(currentDate, rate);
-      currentDate = calendar.next(currentDate);
+    for (int loopdate = 0; loopdate < grid.size(); loopdate++) {
+      builderOn.put(grid.getDate(loopdate), rates[loopdate]);
     }
     StringBuilder fileContent = new StringBuilder();
     ExportUtils.exportTimeSeries(timeSeriesName, builderOn.build(), fileContent);
     ExportUtils.exportString(fileContent.toString(), exportFileName);
   }
-  
+
   /**
    * Export the daily forward rate associated to an overnight index.
-   * 
+   *
    * @param multicurve  the multi-curve containing the overnight curve
    * @param index  the overnight index
    * @param nbFwdRates  the number of forward rates to export
@@ -70,10 +111,10 @@ public class CurveExportUtils {
     OvernightIndexRates overnightRates = multicurve.overnightIndexRates(index);
     exportOvernightCurve(overnightRates, index, nbFwdRates, refData, timeSeriesName, exportFileName);
   }
-  
+
   /**
    * Export the daily forward rate associated to an overnight index.
-   * 
+   *
    * @param multicurve  the multi-curve containing the overnight curve
    * @param index  the overnight index
    * @param nbFwdRates  the number of forward rates to export
@@ -90,16 +131,34 @@ public class CurveExportUtils {
       ReferenceData refData,
       String timeSeriesName,
       String exportFileName) throws IOException {
-    
-    LocalDate currentDate = multicurve.getValuationDate();
-    HolidayCalendar calendar = refData.getValue(indexOvernight.getFixingCalendar());
+
+    ObservationGrid<OvernightIndexObservation> grid =
+        overnightOnIborPeriodsGrid(indexOvernight, indexIbor, multicurve.getValuationDate(), nbFwdRates, refData);
+    exportOvernightCurveOnIborPeriods(
+        multicurve.overnightIndexRates(indexOvernight), grid, timeSeriesName, exportFileName);
+  }
+
+  /**
+   * Export the overnight compounded forward rates on the periods of a grid.
+   * <p>
+   * The grid is typically the one of the overnight index on the Ibor periods.
+   *
+   * @param overnightRates  the overnight rates
+   * @param grid  the grid of overnight observations and period end dates
+   * @param timeSeriesName  the name of the time series to export
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportOvernightCurveOnIborPeriods(
+      OvernightIndexRates overnightRates,
+      ObservationGrid<OvernightIndexObservation> grid,
+      String timeSeriesName,
+      String exportFileName) throws IOException {
+
+    double[] rates = ForwardRatesBatchUtils.overnightPeriodForwards(overnightRates, grid);
     LocalDateDoubleTimeSeriesBuilder builderOn = LocalDateDoubleTimeSeries.builder();
-    for (int loopdate = 0; loopdate < nbFwdRates; loopdate++) {
-      IborIndexObservation obsIbor = IborIndexObservation.of(indexIbor, currentDate, refData);
-      OvernightIndexObservation obsOn = OvernightIndexObservation.of(indexOvernight, obsIbor.getEffectiveDate(), refData);
-      double rate = multicurve.overnightIndexRates(indexOvernight).periodRate(obsOn, obsIbor.getMaturityDate());
-      builderOn.put(currentDate, rate);
-      currentDate = calendar.next(currentDate);
+    for (int loopdate = 0; loopdate < grid.size(); loopdate++) {
+      builderOn.put(grid.getDate(loopdate), rates[loopdate]);
     }
     StringBuilder fileContent = new StringBuilder();
     ExportUtils.exportTimeSeries(timeSeriesName, builderOn.build(), fileContent);
@@ -108,7 +167,7 @@ public class CurveExportUtils {
 
   /**
    * Export the daily forward rate associated to an Ibor index.
-   * 
+   *
    * @param multicurve  the multi-curve containing the overnight curve
    * @param index  the Ibor index
    * @param nbFwdRates  the number of forward rates to export
@@ -124,19 +183,360 @@ public class CurveExportUtils {
       ReferenceData refData,
       String timeSeriesName,
       String exportFileName) throws IOException {
-    
-    LocalDate currentDate = multicurve.getValuationDate();
-    HolidayCalendar calendar = refData.getValue(index.getFixingCalendar());
+
+    ObservationGrid<IborIndexObservation> grid =
+        iborGrid(index, multicurve.getValuationDate(), nbFwdRates, refData);
+    exportIborCurve(multicurve.iborIndexRates(index), grid, timeSeriesName, exportFileName);
+  }
+
+  /**
+   * Export the daily forward rate associated to an Ibor index on a given grid.
+   *
+   * @param iborRates  the Ibor rates
+   * @param grid  the grid of Ibor observations
+   * @param timeSeriesName  the name of the time series to export
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportIborCurve(
+      IborIndexRates iborRates,
+      ObservationGrid<IborIndexObservation> grid,
+      String timeSeriesName,
+      String exportFileName) throws IOException {
+
+    double[] rates = ForwardRatesBatchUtils.iborForwards(iborRates, grid);
     LocalDateDoubleTimeSeriesBuilder builderOn = LocalDateDoubleTimeSeries.builder();
-    for (int loopdate = 0; loopdate < nbFwdRates; loopdate++) {
-      IborIndexObservation obs = IborIndexObservation.of(index, currentDate, refData);
-      double rate = multicurve.iborIndexRates(index).rate(obs);
-      builderOn.put(currentDate, rate);
-      currentDate = calendar.next(currentDate);
+    for (int loopdate = 0; loopdate < grid.size(); loopdate++) {
+      builderOn.put(grid.getDate(loopdate), rates[loopdate]);
     }
     StringBuilder fileContent = new StringBuilder();
     ExportUtils.exportTimeSeries(timeSeriesName, builderOn.build(), fileContent);
     ExportUtils.exportString(fileContent.toString(), exportFileName);
   }
 
+  /**
+   * Export the daily forward rate associated to an overnight index.
+   * <p>
+   * Streaming version: the rows are written to the file as they are computed.
+   *
+   * @param overnightRates  the overnight rates
+   * @param index  the overnight index
+   * @param nbFwdRates  the number of forward rates to export
+   * @param refData  the reference data
+   * @param timeSeriesName  the name of the time series to export
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportOvernightCurveStreaming(
+      OvernightIndexRates overnightRates,
+      OvernightIndex index,
+      int nbFwdRates,
+      ReferenceData refData,
+      String timeSeriesName,
+      String exportFileName) throws IOException {
+
+    ObservationGrid<OvernightIndexObservation> grid =
+        overnightGrid(index, overnightRates.getValuationDate(), nbFwdRates, refData);
+    exportOvernightCurveStreaming(overnightRates, grid, timeSeriesName, exportFileName);
+  }
+
+  /**
+   * Export the daily forward rate associated to an overnight index on a given grid.
+   * <p>
+   * Streaming version: the rows are written to the file as they are computed.
+   *
+   * @param overnightRates  the overnight rates
+   * @param grid  the grid of overnight observations
+   * @param timeSeriesName  the name of the time series to export
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportOvernightCurveStreaming(
+      OvernightIndexRates overnightRates,
+      ObservationGrid<OvernightIndexObservation> grid,
+      String timeSeriesName,
+      String exportFileName) throws IOException {
+
+    double[] rates = ForwardRatesBatchUtils.overnightForwards(overnightRates, grid);
+    try (TimeSeriesCsvStreamWriter writer = TimeSeriesCsvStreamWriter.of(timeSeriesName, exportFileName)) {
+      for (int loopdate = 0; loopdate < grid.size(); loopdate++) {
+        writer.write(grid.getDateEpochDay(loopdate), rates[loopdate]);
+      }
+    }
+  }
+
+  /**
+   * Export the daily forward rate associated to an overnight index.
+   * <p>
+   * Streaming version: the rows are written to the file as they are computed.
+   *
+   * @param multicurve  the multi-curve containing the overnight curve
+   * @param index  the overnight index
+   * @param nbFwdRates  the number of forward rates to export
+   * @param refData  the reference data
+   * @param timeSeriesName  the name of the time series to export
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportOvernightCurveStreaming(
+      ImmutableRatesProvider multicurve,
+      OvernightIndex index,
+      int nbFwdRates,
+      ReferenceData refData,
+      String timeSeriesName,
+      String exportFileName) throws IOException {
+
+    OvernightIndexRates overnightRates = multicurve.overnightIndexRates(index);
+    exportOvernightCurveStreaming(overnightRates, index, nbFwdRates, refData, timeSeriesName, exportFileName);
+  }
+
+  /**
+   * Export the overnight compounded forward rates on the periods of an Ibor index.
+   * <p>
+   * Streaming version: the rows are written to the file as they are computed.
+   *
+   * @param multicurve  the multi-curve containing the overnight curve
+   * @param indexOvernight  the overnight index
+   * @param indexIbor  the Ibor index
+   * @param nbFwdRates  the number of forward rates to export
+   * @param refData  the reference data
+   * @param timeSeriesName  the name of the time series to export
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportOvernightCurveOnIborPeriodsStreaming(
+      ImmutableRatesProvider multicurve,
+      OvernightIndex indexOvernight,
+      IborIndex indexIbor,
+      int nbFwdRates,
+      ReferenceData refData,
+      String timeSeriesName,
+      String exportFileName) throws IOException {
+
+    ObservationGrid<OvernightIndexObservation> grid =
+        overnightOnIborPeriodsGrid(indexOvernight, indexIbor, multicurve.getValuationDate(), nbFwdRates, refData);
+    exportOvernightCurveOnIborPeriodsStreaming(
+        multicurve.overnightIndexRates(indexOvernight), grid, timeSeriesName, exportFileName);
+  }
+
+  /**
+   * Export the overnight compounded forward rates on the periods of a grid.
+   * <p>
+   * Streaming version: the rows are written to the file as they are computed.
+   *
+   * @param overnightRates  the overnight rates
+   * @param grid  the grid of overnight observations and period end dates
+   * @param timeSeriesName  the name of the time series to export
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportOvernightCurveOnIborPeriodsStreaming(
+      OvernightIndexRates overnightRates,
+      ObservationGrid<OvernightIndexObservation> grid,
+      String timeSeriesName,
+      String exportFileName) throws IOException {
+
+    double[] rates = ForwardRatesBatchUtils.overnightPeriodForwards(overnightRates, grid);
+    try (TimeSeriesCsvStreamWriter writer = TimeSeriesCsvStreamWriter.of(timeSeriesName, exportFileName)) {
+      for (int loopdate = 0; loopdate < grid.size(); loopdate++) {
+        writer.write(grid.getDateEpochDay(loopdate), rates[loopdate]);
+      }
+    }
+  }
+
+  /**
+   * Export the daily forward rate associated to an Ibor index.
+   * <p>
+   * Streaming version: the rows are written to the file as they are computed.
+   *
+   * @param multicurve  the multi-curve containing the Ibor curve
+   * @param index  the Ibor index
+   * @param nbFwdRates  the number of forward rates to export
+   * @param refData  the reference data
+   * @param timeSeriesName  the name of the time series to export
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportIborCurveStreaming(
+      ImmutableRatesProvider multicurve,
+      IborIndex index,
+      int nbFwdRates,
+      ReferenceData refData,
+      String timeSeriesName,
+      String exportFileName) throws IOException {
+
+    ObservationGrid<IborIndexObservation> grid =
+        iborGrid(index, multicurve.getValuationDate(), nbFwdRates, refData);
+    exportIborCurveStreaming(multicurve.iborIndexRates(index), grid, timeSeriesName, exportFileName);
+  }
+
+  /**
+   * Export the daily forward rate associated to an Ibor index on a given grid.
+   * <p>
+   * Streaming version: the rows are written to the file as they are computed.
+   *
+   * @param iborRates  the Ibor rates
+   * @param grid  the grid of Ibor observations
+   * @param timeSeriesName  the name of the time series to export
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportIborCurveStreaming(
+      IborIndexRates iborRates,
+      ObservationGrid<IborIndexObservation> grid,
+      String timeSeriesName,
+      String exportFileName) throws IOException {
+
+    double[] rates = ForwardRatesBatchUtils.iborForwards(iborRates, grid);
+    try (TimeSeriesCsvStreamWriter writer = TimeSeriesCsvStreamWriter.of(timeSeriesName, exportFileName)) {
+      for (int loopdate = 0; loopdate < grid.size(); loopdate++) {
+        writer.write(grid.getDateEpochDay(loopdate), rates[loopdate]);
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Export the daily forward rates of several overnight curves on the same grid in the columnar binary format.
+   * <p>
+   * The curves are typically the scenarios of one curve; there is one column by curve.
+   *
+   * @param overnightRates  the overnight rates, one for each curve
+   * @param grid  the grid of overnight observations
+   * @param curveNames  the names of the curves
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportOvernightCurvesColumnar(
+      List<OvernightIndexRates> overnightRates,
+      ObservationGrid<OvernightIndexObservation> grid,
+      List<String> curveNames,
+      String exportFileName) throws IOException {
+
+    List<double[]> columns = overnightRates.parallelStream()
+        .map(rates -> ForwardRatesBatchUtils.overnightForwards(rates, grid))
+        .collect(Collectors.toList());
+    ColumnarBinaryWriter.write(gridEpochDays(grid), curveNames, columns, exportFileName);
+  }
+
+  /**
+   * Export the daily forward rates of a cube of overnight curves by curve and scenario in the columnar binary
+   * format. See {@link ColumnarBinaryWriter#writeCube(int[], List, double[][][], String)} for the column names.
+   *
+   * @param overnightRates  the overnight rates, by curve and scenario
+   * @param grid  the grid of overnight observations
+   * @param curveNames  the names of the curves
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportOvernightCubeColumnar(
+      List<List<OvernightIndexRates>> overnightRates,
+      ObservationGrid<OvernightIndexObservation> grid,
+      List<String> curveNames,
+      String exportFileName) throws IOException {
+
+    double[][][] values = new double[overnightRates.size()][][];
+    for (int loopcurve = 0; loopcurve < overnightRates.size(); loopcurve++) {
+      values[loopcurve] = overnightRates.get(loopcurve).parallelStream()
+          .map(rates -> ForwardRatesBatchUtils.overnightForwards(rates, grid))
+          .toArray(double[][]::new);
+    }
+    ColumnarBinaryWriter.writeCube(gridEpochDays(grid), curveNames, values, exportFileName);
+  }
+
+  /**
+   * Export the forward rates of several Ibor curves on the same grid in the columnar binary format.
+   *
+   * @param iborRates  the Ibor rates, one for each curve
+   * @param grid  the grid of Ibor observations
+   * @param curveNames  the names of the curves
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public static void exportIborCurvesColumnar(
+      List<IborIndexRates> iborRates,
+      ObservationGrid<IborIndexObservation> grid,
+      List<String> curveNames,
+      String exportFileName) throws IOException {
+
+    List<double[]> columns = iborRates.parallelStream()
+        .map(rates -> ForwardRatesBatchUtils.iborForwards(rates, grid))
+        .collect(Collectors.toList());
+    ColumnarBinaryWriter.write(gridEpochDays(grid), curveNames, columns, exportFileName);
+  }
+
+  private static int[] gridEpochDays(ObservationGrid<?> grid) {
+    int[] epochDays = new int[grid.size()];
+    for (int loopdate = 0; loopdate < grid.size(); loopdate++) {
+      epochDays[loopdate] = grid.getDateEpochDay(loopdate);
+    }
+    return epochDays;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the grid of overnight observations, from the cache if available.
+   *
+   * @param index  the overnight index
+   * @param startDate  the first fixing date
+   * @param nbDates  the number of fixing dates
+   * @param refData  the reference data
+   * @return the grid
+   */
+  @SuppressWarnings("unchecked")
+  public static ObservationGrid<OvernightIndexObservation> overnightGrid(
+      OvernightIndex index,
+      LocalDate startDate,
+      int nbDates,
+      ReferenceData refData) {
+
+    List<Object> key = Arrays.asList("ON", index, startDate, nbDates, refData);
+    return (ObservationGrid<OvernightIndexObservation>) GRIDS.asMap().computeIfAbsent(key,
+        k -> ObservationGrid.ofOvernight(index, startDate, nbDates, refData));
+  }
+
+  /**
+   * Returns the grid of Ibor observations, from the cache if available.
+   *
+   * @param index  the Ibor index
+   * @param startDate  the first fixing date
+   * @param nbDates  the number of fixing dates
+   * @param refData  the reference data
+   * @return the grid
+   */
+  @SuppressWarnings("unchecked")
+  public static ObservationGrid<IborIndexObservation> iborGrid(
+      IborIndex index,
+      LocalDate startDate,
+      int nbDates,
+      ReferenceData refData) {
+
+    List<Object> key = Arrays.asList("IBOR", index, startDate, nbDates, refData);
+    return (ObservationGrid<IborIndexObservation>) GRIDS.asMap().computeIfAbsent(key,
+        k -> ObservationGrid.ofIbor(index, startDate, nbDates, refData));
+  }
+
+  /**
+   * Returns the grid of overnight observations on Ibor periods, from the cache if available.
+   *
+   * @param indexOvernight  the overnight index
+   * @param indexIbor  the Ibor index
+   * @param startDate  the first fixing date
+   * @param nbDates  the number of fixing dates
+   * @param refData  the reference data
+   * @return the grid
+   */
+  @SuppressWarnings("unchecked")
+  public static ObservationGrid<OvernightIndexObservation> overnightOnIborPeriodsGrid(
+      OvernightIndex indexOvernight,
+      IborIndex indexIbor,
+      LocalDate startDate,
+      int nbDates,
+      ReferenceData refData) {
+
+    List<Object> key = Arrays.asList("ON-IBOR", indexOvernight, indexIbor, startDate, nbDates, refData);
+    return (ObservationGrid<OvernightIndexObservation>) GRIDS.asMap().computeIfAbsent(key,
+        k -> ObservationGrid.ofOvernightOnIborPeriods(indexOvernight, indexIbor, startDate, nbDates, refData));
+  }
+
 }
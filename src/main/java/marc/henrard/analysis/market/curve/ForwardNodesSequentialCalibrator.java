@@ -0,0 +1,294 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.index.Index;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Guavate;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.tuple.Pair;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveDefinition;
+import com.opengamma.strata.market.curve.CurveMetadata;
+import com.opengamma.strata.market.curve.CurveParameterSize;
+import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
+import com.opengamma.strata.market.curve.RatesCurveGroupEntry;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+import com.opengamma.strata.market.param.ParameterMetadata;
+import com.opengamma.strata.pricer.curve.CalibrationMeasures;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProviderBuilder;
+import com.opengamma.strata.product.ResolvedTrade;
+
+/**
+ * Node by node calibration of curves with a lower triangular Jacobian.
+ * <p>
+ * When the calibration instruments of a curve are non-overlapping forward swaps, like the ones generated by
+ * {@link ForwardRatesCurveGroupDefinitions}, and the node dates are the swaps end dates, each instrument depends
+ * only on the nodes up to its own. When the curves are calibrated in the group order, the discounting curve first,
+ * the Jacobian is block lower triangular. Each node is then calibrated with a one-dimensional root finding,
+ * the previous nodes being fixed. The Jacobian is stored in a sparse lower triangular form and the market quote
+ * sensitivities are computed by back substitution, without dense matrix inversion.
+ * <p>
+ * The instruments are measured with the par spread. The nodes in each curve must be in increasing date order.
+ * <p>
+ * An instrument can also depend on the next nodes, through a payment lag or an IBOR index with a tenor longer than
+ * the node step, like EURIBOR 6M on a 3 months grid. The node by node calibration then leaves residual par spreads
+ * on the instruments of the curve; they are removed by Newton iterations on all the nodes of the curve, starting
+ * from the node by node solution. The curve Jacobian is then lower triangular with a few superdiagonals; it is
+ * decomposed in banded form and the decomposition is reused by the next iterations as long as the residuals
+ * decrease quickly. The Jacobian of the group is also solved in banded form, see {@link LowerTriangularJacobian}.
+ * No iteration is done when the node by node residuals are within the tolerance.
+ *
+ * @author Marc Henrard
+ */
+public final class ForwardNodesSequentialCalibrator {
+
+  /** The default tolerance on the par spread. */
+  private static final double DEFAULT_TOLERANCE = 1.0E-9;
+  /** The default maximum number of iterations for each node. */
+  private static final int DEFAULT_MAX_ITERATIONS = 100;
+  /** The default calibrator. */
+  public static final ForwardNodesSequentialCalibrator DEFAULT =
+      new ForwardNodesSequentialCalibrator(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+  /** The measures used for the calibration. */
+  private static final CalibrationMeasures MEASURES = CalibrationMeasures.PAR_SPREAD;
+
+  /** The tolerance on the par spread. */
+  private final double tolerance;
+  /** The maximum number of iterations for each node. */
+  private final int maxIterations;
+
+  /**
+   * Creates an instance.
+   *
+   * @param tolerance  the tolerance on the par spread
+   * @param maxIterations  the maximum number of iterations for each node
+   * @return the calibrator
+   */
+  public static ForwardNodesSequentialCalibrator of(double tolerance, int maxIterations) {
+    ArgChecker.notNegativeOrZero(tolerance, "tolerance");
+    ArgChecker.notNegativeOrZero(maxIterations, "maxIterations");
+    return new ForwardNodesSequentialCalibrator(tolerance, maxIterations);
+  }
+
+  private ForwardNodesSequentialCalibrator(double tolerance, int maxIterations) {
+    this.tolerance = tolerance;
+    this.maxIterations = maxIterations;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calibrates the curves of the group.
+   *
+   * @param groupDefinition  the curve group definition
+   * @param marketData  the market data with the quotes of the nodes
+   * @param refData  the reference data
+   * @return the calibrated multi-curve
+   */
+  public ImmutableRatesProvider calibrate(
+      RatesCurveGroupDefinition groupDefinition,
+      MarketData marketData,
+      ReferenceData refData) {
+
+    return calibrateWithJacobian(groupDefinition, marketData, refData).getFirst();
+  }
+
+  /**
+   * Calibrates the curves of the group and computes the sparse Jacobian.
+   *
+   * @param groupDefinition  the curve group definition
+   * @param marketData  the market data with the quotes of the nodes
+   * @param refData  the reference data
+   * @return the calibrated multi-curve and the Jacobian of the quotes with respect to the parameters
+   */
+  public Pair<ImmutableRatesProvider, LowerTriangularJacobian> calibrateWithJacobian(
+      RatesCurveGroupDefinition groupDefinition,
+      MarketData marketData,
+      ReferenceData refData) {
+
+    LocalDate valuationDate = marketData.getValuationDate();
+    RatesCurveGroupDefinition group = groupDefinition.filtered(valuationDate, refData);
+    ImmutableList<CurveDefinition> definitions = group.getCurveDefinitions();
+    List<CurveParameterSize> order = definitions.stream()
+        .map(CurveDefinition::toCurveParameterSize)
+        .collect(Guavate.toImmutableList());
+    Map<Index, LocalDateDoubleTimeSeries> timeSeries = new HashMap<>();
+    for (RatesCurveGroupEntry entry : group.getEntries()) {
+      for (Index index : entry.getIndices()) {
+        timeSeries.put(index, marketData.getTimeSeries(IndexQuoteId.of(index)));
+      }
+    }
+    List<Curve> curves = new ArrayList<>();
+    List<List<ParameterMetadata>> parameterMetadata = new ArrayList<>();
+    List<List<ResolvedTrade>> trades = new ArrayList<>();
+    for (CurveDefinition definition : definitions) {
+      ArgChecker.isTrue(group.findEntry(definition.getName()).isPresent(),
+          "no entry for curve {}", definition.getName());
+      CurveMetadata metadata = definition.metadata(valuationDate, refData);
+      List<ResolvedTrade> curveTrades = definition.getNodes().stream()
+          .map(node -> node.resolvedTrade(1d, marketData, refData))
+          .collect(Guavate.toImmutableList());
+      double[] parameters =
+          definition.initialGuess(marketData).stream().mapToDouble(Double::doubleValue).toArray();
+      for (int loopnode = 0; loopnode < parameters.length; loopnode++) {
+        if (loopnode > 0) { // Start from the previous node value
+          parameters[loopnode] = parameters[loopnode - 1];
+        }
+        parameters[loopnode] = calibrateNode(
+            definition, metadata, curves, group, parameters, loopnode, curveTrades.get(loopnode),
+            order, valuationDate, timeSeries);
+      }
+      parameters = calibrateCurve(
+          definition, metadata, curves, group, parameters, curveTrades, order, valuationDate, timeSeries);
+      Curve curve = definition.curve(valuationDate, metadata, DoubleArray.copyOf(parameters));
+      curves.add(curve);
+      List<ParameterMetadata> curveParameterMetadata = new ArrayList<>();
+      for (int loopnode = 0; loopnode < curve.getParameterCount(); loopnode++) {
+        curveParameterMetadata.add(curve.getParameterMetadata(loopnode));
+      }
+      parameterMetadata.add(curveParameterMetadata);
+      trades.add(curveTrades);
+    }
+    ImmutableRatesProvider multicurve = provider(valuationDate, timeSeries, group, definitions, curves);
+    List<DoubleArray> rows = new ArrayList<>();
+    for (List<ResolvedTrade> curveTrades : trades) {
+      for (ResolvedTrade trade : curveTrades) {
+        rows.add(MEASURES.derivative(trade, multicurve, order));
+      }
+    }
+    return Pair.of(multicurve, LowerTriangularJacobian.ofRows(order, parameterMetadata, rows));
+  }
+
+  /* Newton algorithm on one node; the following nodes of the same curve move with the node. */
+  private double calibrateNode(
+      CurveDefinition definition,
+      CurveMetadata metadata,
+      List<Curve> previousCurves,
+      RatesCurveGroupDefinition group,
+      double[] parameters,
+      int node,
+      ResolvedTrade trade,
+      List<CurveParameterSize> order,
+      LocalDate valuationDate,
+      Map<Index, LocalDateDoubleTimeSeries> timeSeries) {
+
+    int start = curveStart(order, previousCurves.size());
+    List<CurveDefinition> definitions = group.getCurveDefinitions().subList(0, previousCurves.size() + 1);
+    double[] current = parameters.clone();
+    for (int loopiter = 0; loopiter < maxIterations; loopiter++) {
+      List<Curve> curves = new ArrayList<>(previousCurves);
+      curves.add(definition.curve(valuationDate, metadata, DoubleArray.copyOf(current)));
+      ImmutableRatesProvider multicurve = provider(valuationDate, timeSeries, group, definitions, curves);
+      double value = MEASURES.value(trade, multicurve);
+      if (Math.abs(value) < tolerance) {
+        return current[node];
+      }
+      DoubleArray derivative = MEASURES.derivative(trade, multicurve, order);
+      double derivativeNode = 0.0d;
+      for (int loopnext = node; loopnext < current.length; loopnext++) {
+        derivativeNode += derivative.get(start + loopnext);
+      }
+      ArgChecker.isTrue(derivativeNode != 0.0d, "node {} of curve {} has no impact on its instrument",
+          node, definition.getName());
+      double step = value / derivativeNode;
+      for (int loopnext = node; loopnext < current.length; loopnext++) {
+        current[loopnext] -= step;
+      }
+    }
+    throw new IllegalStateException(
+        "Calibration of node " + node + " of curve " + definition.getName() + " did not converge");
+  }
+
+  /* Newton algorithm on all the nodes of the curve; no iteration when the node by node solution is calibrated.
+   * The decomposition of the derivatives is reused while the residuals are at least halved at each iteration. */
+  private double[] calibrateCurve(
+      CurveDefinition definition,
+      CurveMetadata metadata,
+      List<Curve> previousCurves,
+      RatesCurveGroupDefinition group,
+      double[] parameters,
+      List<ResolvedTrade> trades,
+      List<CurveParameterSize> order,
+      LocalDate valuationDate,
+      Map<Index, LocalDateDoubleTimeSeries> timeSeries) {
+
+    int start = curveStart(order, previousCurves.size());
+    int nbNodes = parameters.length;
+    List<CurveDefinition> definitions = group.getCurveDefinitions().subList(0, previousCurves.size() + 1);
+    double[] current = parameters.clone();
+    MatrixDecomposition decomposition = null;
+    double previousMaxValue = Double.POSITIVE_INFINITY;
+    for (int loopiter = 0; loopiter < maxIterations; loopiter++) {
+      List<Curve> curves = new ArrayList<>(previousCurves);
+      curves.add(definition.curve(valuationDate, metadata, DoubleArray.copyOf(current)));
+      ImmutableRatesProvider multicurve = provider(valuationDate, timeSeries, group, definitions, curves);
+      double[] values = new double[nbNodes];
+      double maxValue = 0.0d;
+      for (int loopnode = 0; loopnode < nbNodes; loopnode++) {
+        values[loopnode] = MEASURES.value(trades.get(loopnode), multicurve);
+        maxValue = Math.max(maxValue, Math.abs(values[loopnode]));
+      }
+      if (maxValue < tolerance) {
+        return current;
+      }
+      if (decomposition == null || maxValue > 0.5d * previousMaxValue) {
+        double[][] derivatives = new double[nbNodes][];
+        for (int loopnode = 0; loopnode < nbNodes; loopnode++) {
+          derivatives[loopnode] = MEASURES.derivative(trades.get(loopnode), multicurve, order)
+              .subArray(start, start + nbNodes).toArray();
+        }
+        decomposition = MatrixDecomposition.of(derivatives);
+      }
+      previousMaxValue = maxValue;
+      double[] step = decomposition.solve(values);
+      for (int loopnode = 0; loopnode < nbNodes; loopnode++) {
+        current[loopnode] -= step[loopnode];
+      }
+    }
+    throw new IllegalStateException("Calibration of curve " + definition.getName() + " did not converge");
+  }
+
+  /* The position of the first parameter of a curve in the order. */
+  private static int curveStart(List<CurveParameterSize> order, int curvePosition) {
+    int start = 0;
+    for (int loopcurve = 0; loopcurve < curvePosition; loopcurve++) {
+      start += order.get(loopcurve).getParameterCount();
+    }
+    return start;
+  }
+
+  /* The multi-curve with the given curves, in the group order. */
+  private static ImmutableRatesProvider provider(
+      LocalDate valuationDate,
+      Map<Index, LocalDateDoubleTimeSeries> timeSeries,
+      RatesCurveGroupDefinition group,
+      List<CurveDefinition> definitions,
+      List<Curve> curves) {
+
+    ImmutableRatesProviderBuilder builder = ImmutableRatesProvider.builder(valuationDate).timeSeries(timeSeries);
+    for (int loopcurve = 0; loopcurve < curves.size(); loopcurve++) {
+      RatesCurveGroupEntry entry = group.findEntry(definitions.get(loopcurve).getName()).get();
+      for (Currency currency : entry.getDiscountCurrencies()) {
+        builder.discountCurve(currency, curves.get(loopcurve));
+      }
+      for (Index index : entry.getIndices()) {
+        builder.indexCurve(index, curves.get(loopcurve));
+      }
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,290 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+import com.opengamma.strata.basics.date.DayCount;
+import com.opengamma.strata.basics.date.DayCounts;
+import com.opengamma.strata.basics.index.IborIndexObservation;
+import com.opengamma.strata.basics.index.OvernightIndexObservation;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
+import com.opengamma.strata.market.curve.interpolator.CurveInterpolator;
+import com.opengamma.strata.market.curve.interpolator.CurveInterpolators;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.SimpleDiscountFactors;
+import com.opengamma.strata.pricer.ZeroRateDiscountFactors;
+import com.opengamma.strata.pricer.rate.DiscountIborIndexRates;
+import com.opengamma.strata.pricer.rate.DiscountOvernightIndexRates;
+import com.opengamma.strata.pricer.rate.IborIndexRates;
+import com.opengamma.strata.pricer.rate.OvernightIndexRates;
+
+/**
+ * Utilities to compute all the forward rates of an {@link ObservationGrid} in one pass.
+ * <p>
+ * The discount factors are computed only once for each distinct date of the grid periods, in increasing date order.
+ * For interpolated nodal curves with linear or log-linear interpolators, the interpolation uses a cursor that
+ * moves monotonically through the nodes; the cost is linear in the number of dates and nodes, without
+ * binary search for each date. For other curves, each discount factor is computed by the curve itself.
+ * <p>
+ * The forward rates are the same as the one computed by the rates providers, up to rounding. The observations
+ * with fixing date on or before the valuation date, which may require a fixing, and the rates providers
+ * not based on discount factors are computed observation by observation.
+ *
+ * @author Marc Henrard
+ */
+public final class ForwardRatesBatchUtils {
+
+  /** Private constructor. */
+  private ForwardRatesBatchUtils() {
+  }
+
+  /**
+   * Computes the overnight forward rates for all the observations of a grid.
+   *
+   * @param overnightRates  the overnight rates
+   * @param grid  the grid of overnight observations
+   * @return the forward rates, in the grid order
+   */
+  public static double[] overnightForwards(
+      OvernightIndexRates overnightRates,
+      ObservationGrid<OvernightIndexObservation> grid) {
+
+    DiscountFactors discountFactors = (overnightRates instanceof DiscountOvernightIndexRates)
+        ? ((DiscountOvernightIndexRates) overnightRates).getDiscountFactors()
+        : null;
+    LocalDate valuationDate = overnightRates.getValuationDate();
+    return forwards(grid, discountFactors,
+        i -> !grid.getObservation(i).getFixingDate().isAfter(valuationDate),
+        i -> overnightRates.rate(grid.getObservation(i)));
+  }
+
+  /**
+   * Computes the overnight compounded forward rates on the periods of a grid.
+   * <p>
+   * The grid is typically the one of the overnight index on the Ibor periods.
+   *
+   * @param overnightRates  the overnight rates
+   * @param grid  the grid of overnight observations and period end dates
+   * @return the forward rates, in the grid order
+   */
+  public static double[] overnightPeriodForwards(
+      OvernightIndexRates overnightRates,
+      ObservationGrid<OvernightIndexObservation> grid) {
+
+    DiscountFactors discountFactors = (overnightRates instanceof DiscountOvernightIndexRates)
+        ? ((DiscountOvernightIndexRates) overnightRates).getDiscountFactors()
+        : null;
+    LocalDate valuationDate = overnightRates.getValuationDate();
+    return forwards(grid, discountFactors,
+        i -> !grid.getObservation(i).getFixingDate().isAfter(valuationDate),
+        i -> overnightRates.periodRate(grid.getObservation(i), LocalDate.ofEpochDay(grid.getMaturityEpochDay(i))));
+  }
+
+  /**
+   * Computes the Ibor forward rates for all the observations of a grid.
+   *
+   * @param iborRates  the Ibor rates
+   * @param grid  the grid of Ibor observations
+   * @return the forward rates, in the grid order
+   */
+  public static double[] iborForwards(
+      IborIndexRates iborRates,
+      ObservationGrid<IborIndexObservation> grid) {
+
+    DiscountFactors discountFactors = (iborRates instanceof DiscountIborIndexRates)
+        ? ((DiscountIborIndexRates) iborRates).getDiscountFactors()
+        : null;
+    LocalDate valuationDate = iborRates.getValuationDate();
+    return forwards(grid, discountFactors,
+        i -> !grid.getObservation(i).getFixingDate().isAfter(valuationDate),
+        i -> iborRates.rate(grid.getObservation(i)));
+  }
+
+  /**
+   * Computes the discount factors for a set of dates.
+   * <p>
+   * The dates are provided as epoch-days and must be sorted in increasing order.
+   *
+   * @param discountFactors  the discount factors
+   * @param sortedEpochDays  the dates, as sorted epoch-days
+   * @return the discount factors, in the dates order
+   */
+  public static double[] discountFactors(DiscountFactors discountFactors, int[] sortedEpochDays) {
+    int nbDates = sortedEpochDays.length;
+    double[] result = new double[nbDates];
+    if (discountFactors instanceof ZeroRateDiscountFactors) {
+      ZeroRateDiscountFactors zrDiscountFactors = (ZeroRateDiscountFactors) discountFactors;
+      double[] times = relativeYearFractions(
+          zrDiscountFactors.getDayCount(), zrDiscountFactors.getValuationDate(), sortedEpochDays);
+      double[] zeroRates = curveValues(zrDiscountFactors.getCurve(), times);
+      for (int loopdate = 0; loopdate < nbDates; loopdate++) {
+        result[loopdate] = Math.exp(-times[loopdate] * zeroRates[loopdate]);
+      }
+      return result;
+    }
+    if (discountFactors instanceof SimpleDiscountFactors) {
+      SimpleDiscountFactors simpleDiscountFactors = (SimpleDiscountFactors) discountFactors;
+      double[] times = relativeYearFractions(
+          simpleDiscountFactors.getDayCount(), simpleDiscountFactors.getValuationDate(), sortedEpochDays);
+      return curveValues(simpleDiscountFactors.getCurve(), times);
+    }
+    for (int loopdate = 0; loopdate < nbDates; loopdate++) {
+      result[loopdate] = discountFactors.discountFactor(LocalDate.ofEpochDay(sortedEpochDays[loopdate]));
+    }
+    return result;
+  }
+
+  //-------------------------------------------------------------------------
+  /* Forward rates on the grid periods; observation by observation up to the valuation date, then from the sweep. */
+  private static double[] forwards(
+      ObservationGrid<?> grid,
+      DiscountFactors discountFactors,
+      IntPredicate isFixingOnOrBeforeValuation,
+      IntToDoubleFunction pointRate) {
+
+    int nbDates = grid.size();
+    double[] forwards = new double[nbDates];
+    int firstForward = 0;
+    while (firstForward < nbDates && isFixingOnOrBeforeValuation.test(firstForward)) {
+      forwards[firstForward] = pointRate.applyAsDouble(firstForward);
+      firstForward++;
+    }
+    if (discountFactors == null) {
+      for (int loopdate = firstForward; loopdate < nbDates; loopdate++) {
+        forwards[loopdate] = pointRate.applyAsDouble(loopdate);
+      }
+      return forwards;
+    }
+    int nbForwards = nbDates - firstForward;
+    int[] starts = new int[nbForwards];
+    int[] ends = new int[nbForwards];
+    for (int loopfwd = 0; loopfwd < nbForwards; loopfwd++) {
+      starts[loopfwd] = grid.getEffectiveEpochDay(firstForward + loopfwd);
+      ends[loopfwd] = grid.getMaturityEpochDay(firstForward + loopfwd);
+    }
+    int[] startPositions = new int[nbForwards];
+    int[] endPositions = new int[nbForwards];
+    int[] dates = mergeDates(starts, ends, startPositions, endPositions);
+    double[] dfs = discountFactors(discountFactors, dates);
+    for (int loopfwd = 0; loopfwd < nbForwards; loopfwd++) {
+      forwards[firstForward + loopfwd] =
+          (dfs[startPositions[loopfwd]] / dfs[endPositions[loopfwd]] - 1.0d) /
+              grid.getYearFraction(firstForward + loopfwd);
+    }
+    return forwards;
+  }
+
+  /* Distinct dates of the two arrays, sorted, and the position of each original date in the result. */
+  private static int[] mergeDates(int[] dates1, int[] dates2, int[] positions1, int[] positions2) {
+    if (!isSorted(dates1) || !isSorted(dates2)) { // Not expected for grids, general approach
+      int[] all = new int[dates1.length + dates2.length];
+      System.arraycopy(dates1, 0, all, 0, dates1.length);
+      System.arraycopy(dates2, 0, all, dates1.length, dates2.length);
+      int[] unique = Arrays.stream(all).sorted().distinct().toArray();
+      for (int i = 0; i < dates1.length; i++) {
+        positions1[i] = Arrays.binarySearch(unique, dates1[i]);
+      }
+      for (int i = 0; i < dates2.length; i++) {
+        positions2[i] = Arrays.binarySearch(unique, dates2[i]);
+      }
+      return unique;
+    }
+    int[] merged = new int[dates1.length + dates2.length];
+    int nbMerged = 0;
+    int i1 = 0;
+    int i2 = 0;
+    while (i1 < dates1.length || i2 < dates2.length) {
+      int next = (i2 == dates2.length || (i1 < dates1.length && dates1[i1] <= dates2[i2])) ? dates1[i1] : dates2[i2];
+      if (nbMerged == 0 || merged[nbMerged - 1] != next) {
+        merged[nbMerged++] = next;
+      }
+      while (i1 < dates1.length && dates1[i1] == next) {
+        positions1[i1++] = nbMerged - 1;
+      }
+      while (i2 < dates2.length && dates2[i2] == next) {
+        positions2[i2++] = nbMerged - 1;
+      }
+    }
+    return Arrays.copyOf(merged, nbMerged);
+  }
+
+  private static boolean isSorted(int[] values) {
+    for (int i = 1; i < values.length; i++) {
+      if (values[i] < values[i - 1]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /* Year fractions from the valuation date. ACT/365F and ACT/360 directly from the epoch-days. */
+  private static double[] relativeYearFractions(DayCount dayCount, LocalDate valuationDate, int[] epochDays) {
+    long valuationEpochDay = valuationDate.toEpochDay();
+    double[] times = new double[epochDays.length];
+    if (dayCount.equals(DayCounts.ACT_365F) || dayCount.equals(DayCounts.ACT_360)) {
+      double daysInYear = dayCount.equals(DayCounts.ACT_365F) ? 365d : 360d;
+      for (int i = 0; i < epochDays.length; i++) {
+        times[i] = (epochDays[i] - valuationEpochDay) / daysInYear;
+      }
+      return times;
+    }
+    for (int i = 0; i < epochDays.length; i++) {
+      times[i] = dayCount.relativeYearFraction(valuationDate, LocalDate.ofEpochDay(epochDays[i]));
+    }
+    return times;
+  }
+
+  /* Curve values on sorted x-values. Monotone cursor for linear and log-linear nodal curves. */
+  private static double[] curveValues(Curve curve, double[] sortedX) {
+    int nbX = sortedX.length;
+    double[] values = new double[nbX];
+    if (curve instanceof InterpolatedNodalCurve) {
+      InterpolatedNodalCurve nodalCurve = (InterpolatedNodalCurve) curve;
+      CurveInterpolator interpolator = nodalCurve.getInterpolator();
+      boolean isLinear = interpolator.equals(CurveInterpolators.LINEAR);
+      boolean isLogLinear = interpolator.equals(CurveInterpolators.LOG_LINEAR);
+      double[] xNodes = nodalCurve.getXValues().toArrayUnsafe();
+      double[] yNodes = nodalCurve.getYValues().toArrayUnsafe();
+      int nbNodes = xNodes.length;
+      if ((isLinear || isLogLinear) && nbNodes >= 2) {
+        double[] yInterp = yNodes;
+        if (isLogLinear) {
+          yInterp = new double[nbNodes];
+          for (int i = 0; i < nbNodes; i++) {
+            yInterp[i] = Math.log(yNodes[i]);
+          }
+        }
+        int lower = 0;
+        for (int loopx = 0; loopx < nbX; loopx++) {
+          double x = sortedX[loopx];
+          if (x < xNodes[0] || x > xNodes[nbNodes - 1]) { // extrapolation
+            values[loopx] = curve.yValue(x);
+            continue;
+          }
+          if (x == xNodes[nbNodes - 1]) {
+            values[loopx] = yNodes[nbNodes - 1];
+            continue;
+          }
+          while (lower < nbNodes - 2 && xNodes[lower + 1] <= x) {
+            lower++;
+          }
+          double w = (xNodes[lower + 1] - x) / (xNodes[lower + 1] - xNodes[lower]);
+          double y = w * yInterp[lower] + (1.0d - w) * yInterp[lower + 1];
+          values[loopx] = isLogLinear ? Math.exp(y) : y;
+        }
+        return values;
+      }
+    }
+    for (int loopx = 0; loopx < nbX; loopx++) {
+      values[loopx] = curve.yValue(sortedX[loopx]);
+    }
+    return values;
+  }
+
+}
@@ -15,6 +15,7 @@ import com.opengamma.strata.basics.date.DayCounts;
 import com.opengamma.strata.basics.date.Tenor;
 import com.opengamma.strata.basics.index.IborIndex;
 import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.market.ValueType;
 import com.opengamma.strata.market.curve.CurveDefinition;
 import com.opengamma.strata.market.curve.CurveGroupName;
@@ -77,16 +78,39 @@ public class ForwardRatesCurveGroupDefinitions {
       OvernightIndex onIndex,
       List<IborIndex> iborIndices) {
     
+    return createForwardCurveDefinition(Period.ofYears(step), Period.ofYears(maxYear), onIndex, iborIndices);
+  }
+
+  /**
+   * Create the forward nodes curve definitions for one Overnight index and a set of IBOR indices.
+   * <p>
+   * The step and maximum period are in months and years; sub-annual steps, like 1 or 3 months, are accepted.
+   * The nodes are generated as long as the end of the forward period is before or on the maximum period.
+   * <p>
+   * For dense grids, the curves can be calibrated node by node with {@link ForwardNodesSequentialCalibrator}.
+   * 
+   * @param step  the length of the forward periods
+   * @param maxPeriod  the maximum period for the nodes
+   * @param onIndex  the overnight index
+   * @param iborIndices  the IBOR indices
+   * @return the group definition
+   */
+  public static RatesCurveGroupDefinition createForwardCurveDefinition(
+      Period step,
+      Period maxPeriod,
+      OvernightIndex onIndex,
+      List<IborIndex> iborIndices) {
+    
     RatesCurveGroupDefinitionBuilder groupDef = RatesCurveGroupDefinition.builder();
     groupDef.name(CurveGroupName.of(onIndex.getCurrency() + "-DSCONOIS-IBORIRS"));
     groupDef.computeJacobian(true);
     
-    RatesCurveGroupDefinition ois = createOisCurveDefinition(onIndex, step, maxYear);
+    RatesCurveGroupDefinition ois = createOisCurveDefinition(onIndex, step, maxPeriod);
     CurveDefinition oisCurveDef = 
         ois.findCurveDefinition(ois.findDiscountCurveName(onIndex.getCurrency()).get()).get();
     groupDef.addCurve(oisCurveDef,onIndex.getCurrency(), onIndex);
     for(IborIndex iborIndex : iborIndices) {
-      RatesCurveGroupDefinition irs = createIrsCurveDefinition(iborIndex, step, maxYear);
+      RatesCurveGroupDefinition irs = createIrsCurveDefinition(iborIndex, step, maxPeriod);
       CurveDefinition irsCurveDef = 
           irs.findCurveDefinition(irs.findForwardCurveName(iborIndex).get()).get();
       groupDef.addForwardCurve(irsCurveDef, iborIndex);
@@ -101,6 +125,22 @@ public class ForwardRatesCurveGroupDefinitions {
    * @return the curve definition
    */
   public static RatesCurveGroupDefinition createOisCurveDefinition(OvernightIndex index, int step, int maxYear) {
+    return createOisCurveDefinition(index, Period.ofYears(step), Period.ofYears(maxYear));
+  }
+
+  /**
+   * Generates the forward curve and discounting group definition for the specified overnight index.
+   *
+   * @param index  the index to generate
+   * @param step  the length of the forward periods
+   * @param maxPeriod  the maximum period for the nodes
+   * @return the curve definition
+   */
+  public static RatesCurveGroupDefinition createOisCurveDefinition(
+      OvernightIndex index,
+      Period step,
+      Period maxPeriod) {
+
     Currency currency = index.getCurrency();
     CurveGroupName groupName = CurveGroupName.of(currency + "-DSC");
     CurveName curveName = CurveName.of(currency + "-DSCON-OIS");
@@ -110,20 +150,17 @@ public class ForwardRatesCurveGroupDefinitions {
         .indices(index)
         .build();
     List<CurveNode> nodes = new ArrayList<>();
-    int currentYear = 0;
-    while (currentYear + step <= maxYear) {
-      nodes.add(createOisNode(currentYear, step, index));
-      currentYear += step;
+    for (Period start : forwardStarts(step, maxPeriod)) {
+      nodes.add(createOisNode(start, step, index));
     }
     CurveDefinition curveDefinition = createIrCurveDefinition(curveName, nodes);
     return RatesCurveGroupDefinition.of(groupName, ImmutableList.of(curveEntry), ImmutableList.of(curveDefinition));
   }
 
-  private static CurveNode createOisNode(int startYear, int step, OvernightIndex index) {
+  private static CurveNode createOisNode(Period start, Period step, OvernightIndex index) {
     FixedOvernightSwapConvention convention = SwapConventionUtils.findFixedOvrnightSwapConvention(index)
         .orElseThrow(() -> new IllegalArgumentException("No FixedIbnorSwapConvention defined for " + index));
-    Period start = Period.ofYears(startYear);
-    Tenor tenor = Tenor.of(Period.ofYears(step));
+    Tenor tenor = Tenor.of(step);
     FixedOvernightSwapTemplate template = FixedOvernightSwapTemplate.of(start, tenor, convention);
     QuoteId quoteId = TickerUtils.ois(index, start, tenor);
     return FixedOvernightSwapCurveNode.builder()
@@ -140,6 +177,22 @@ public class ForwardRatesCurveGroupDefinitions {
    * @return the curve definition
    */
   public static RatesCurveGroupDefinition createIrsCurveDefinition(IborIndex index, int step, int maxYear) {
+    return createIrsCurveDefinition(index, Period.ofYears(step), Period.ofYears(maxYear));
+  }
+
+  /**
+   * Generates the forward curve group definition for the specified Ibor index.
+   *
+   * @param index  the index to generate
+   * @param step  the length of the forward periods
+   * @param maxPeriod  the maximum period for the nodes
+   * @return the curve definition
+   */
+  public static RatesCurveGroupDefinition createIrsCurveDefinition(
+      IborIndex index,
+      Period step,
+      Period maxPeriod) {
+
     CurveGroupName groupName = CurveGroupName.of(index.getCurrency() + "-IRS");
     CurveName curveName =
         CurveName.of(index.toString() + "-IRS");
@@ -148,20 +201,17 @@ public class ForwardRatesCurveGroupDefinitions {
         .indices(index)
         .build();
     List<CurveNode> nodes = new ArrayList<>();
-    int currentYear = 0;
-    while (currentYear + step <= maxYear) {
-      nodes.add(createIrsNode(currentYear, step, index));
-      currentYear += step;
+    for (Period start : forwardStarts(step, maxPeriod)) {
+      nodes.add(createIrsNode(start, step, index));
     }
     CurveDefinition curveDefinition = createIrCurveDefinition(curveName, nodes);
     return RatesCurveGroupDefinition.of(groupName, ImmutableList.of(curveEntry), ImmutableList.of(curveDefinition));
   }
 
-  private static CurveNode createIrsNode(int startYear, int step, IborIndex index) {
+  private static CurveNode createIrsNode(Period start, Period step, IborIndex index) {
     FixedIborSwapConvention convention = SwapConventionUtils.findFixedIborSwapConvention(index)
         .orElseThrow(() -> new IllegalArgumentException("No FixedIbnorSwapConvention defined for " + index));
-    Period start = Period.ofYears(startYear);
-    Tenor tenor = Tenor.of(Period.ofYears(step));
+    Tenor tenor = Tenor.of(step);
     FixedIborSwapTemplate template = FixedIborSwapTemplate.of(start, tenor, convention);
     QuoteId quoteId = TickerUtils.irs(index, start, tenor);
     return FixedIborSwapCurveNode.builder()
@@ -171,6 +221,27 @@ public class ForwardRatesCurveGroupDefinitions {
         .build();
   }
   
+  /**
+   * The start periods of the forward periods, from 0 by step, as long as the period end is before or on the 
+   * maximum period. The start periods are normalized in years and months.
+   * 
+   * @param step  the length of the forward periods
+   * @param maxPeriod  the maximum period for the nodes
+   * @return the start periods
+   */
+  private static List<Period> forwardStarts(Period step, Period maxPeriod) {
+    ArgChecker.isTrue(step.getDays() == 0 && step.toTotalMonths() > 0, 
+        "step must be a positive number of months or years, found {}", step);
+    ArgChecker.isTrue(maxPeriod.getDays() == 0, "maximum period must be in months or years, found {}", maxPeriod);
+    long stepMonths = step.toTotalMonths();
+    long maxMonths = maxPeriod.toTotalMonths();
+    List<Period> starts = new ArrayList<>();
+    for (long startMonths = 0; startMonths + stepMonths <= maxMonths; startMonths += stepMonths) {
+      starts.add(Period.ofMonths(Math.toIntExact(startMonths)).normalized());
+    }
+    return starts;
+  }
+  
   /**
    * Create a generic curve definition from nodes with linear interpolation on zero rates.
    * 
@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveDefinition;
+import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
+import com.opengamma.strata.pricer.curve.RatesCurveCalibrator;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+
+/**
+ * Calibration of a curve group on a history of dates.
+ * <p>
+ * The dates are split in chunks of consecutive dates, calibrated in parallel on a fork-join pool. Within a chunk,
+ * the dates are calibrated in order and the root finding for each date starts from the node values calibrated
+ * on the previous date. On calm days, the previous values are close to the solution and only one or two
+ * iterations are required. The first date of each chunk starts from the standard initial guess.
+ * <p>
+ * The result does not depend on the chunk size or on the pool, up to the calibration tolerance.
+ *
+ * @author Marc Henrard
+ */
+public final class HistoricalCurveCalibrator {
+
+  /** The default number of dates in each chunk. */
+  private static final int DEFAULT_CHUNK_SIZE = 20;
+  /** The default calibrator, using the common pool. */
+  public static final HistoricalCurveCalibrator DEFAULT =
+      new HistoricalCurveCalibrator(RatesCurveCalibrator.standard(), DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+
+  /** The calibrator used for each date. */
+  private final RatesCurveCalibrator calibrator;
+  /** The maximum number of dates in each chunk. */
+  private final int chunkSize;
+  /** The pool on which the chunks are calibrated. */
+  private final ForkJoinPool pool;
+
+  private HistoricalCurveCalibrator(RatesCurveCalibrator calibrator, int chunkSize, ForkJoinPool pool) {
+    this.calibrator = calibrator;
+    this.chunkSize = chunkSize;
+    this.pool = pool;
+  }
+
+  /**
+   * Creates an instance using the common pool.
+   *
+   * @param calibrator  the calibrator used for each date
+   * @param chunkSize  the maximum number of dates in each chunk
+   * @return the calibrator
+   */
+  public static HistoricalCurveCalibrator of(RatesCurveCalibrator calibrator, int chunkSize) {
+    return of(calibrator, chunkSize, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param calibrator  the calibrator used for each date
+   * @param chunkSize  the maximum number of dates in each chunk
+   * @param pool  the pool on which the chunks are calibrated
+   * @return the calibrator
+   */
+  public static HistoricalCurveCalibrator of(RatesCurveCalibrator calibrator, int chunkSize, ForkJoinPool pool) {
+    ArgChecker.notNull(calibrator, "calibrator");
+    ArgChecker.notNegativeOrZero(chunkSize, "chunkSize");
+    ArgChecker.notNull(pool, "pool");
+    return new HistoricalCurveCalibrator(calibrator, chunkSize, pool);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calibrates the curve group on all the business days of a range.
+   *
+   * @param groupDefinition  the curve group definition
+   * @param startDate  the first date, inclusive
+   * @param endDate  the last date, inclusive
+   * @param calendar  the calendar for the business days
+   * @param quotes  the source of market data, by date; the valuation date of the market data must be the date
+   * @param refData  the reference data
+   * @return the calibrated multi-curves, by date
+   */
+  public ImmutableSortedMap<LocalDate, ImmutableRatesProvider> calibrate(
+      RatesCurveGroupDefinition groupDefinition,
+      LocalDate startDate,
+      LocalDate endDate,
+      HolidayCalendar calendar,
+      Function<LocalDate, MarketData> quotes,
+      ReferenceData refData) {
+
+    ArgChecker.inOrderOrEqual(startDate, endDate, "startDate", "endDate");
+    List<LocalDate> dates = new ArrayList<>();
+    for (LocalDate date = calendar.nextOrSame(startDate); !date.isAfter(endDate); date = calendar.next(date)) {
+      dates.add(date);
+    }
+    return calibrate(groupDefinition, dates, quotes, refData);
+  }
+
+  /**
+   * Calibrates the curve group on a list of dates.
+   *
+   * @param groupDefinition  the curve group definition
+   * @param dates  the dates, in increasing order
+   * @param quotes  the source of market data, by date; the valuation date of the market data must be the date
+   * @param refData  the reference data
+   * @return the calibrated multi-curves, by date
+   */
+  public ImmutableSortedMap<LocalDate, ImmutableRatesProvider> calibrate(
+      RatesCurveGroupDefinition groupDefinition,
+      List<LocalDate> dates,
+      Function<LocalDate, MarketData> quotes,
+      ReferenceData refData) {
+
+    for (int loopdate = 1; loopdate < dates.size(); loopdate++) {
+      ArgChecker.isTrue(dates.get(loopdate - 1).isBefore(dates.get(loopdate)), "dates must be increasing");
+    }
+    ImmutableRatesProvider[] multicurves = new ImmutableRatesProvider[dates.size()];
+    pool.invoke(new ChunkTask(groupDefinition, ImmutableList.copyOf(dates), quotes, refData, multicurves,
+        0, dates.size()));
+    ImmutableSortedMap.Builder<LocalDate, ImmutableRatesProvider> result = ImmutableSortedMap.naturalOrder();
+    for (int loopdate = 0; loopdate < multicurves.length; loopdate++) {
+      result.put(dates.get(loopdate), multicurves[loopdate]);
+    }
+    return result.build();
+  }
+
+  /**
+   * Calibrates the curve group on one date, starting from the node values of a previous calibration.
+   * <p>
+   * The nodes of the previous calibration are matched by label. The nodes without previous value, and the curves
+   * not in the previous calibration, use the standard initial guess.
+   *
+   * @param groupDefinition  the curve group definition
+   * @param marketData  the market data
+   * @param previous  the multi-curve calibrated on a previous date with the same group definition, if any
+   * @param refData  the reference data
+   * @return the calibrated multi-curve
+   */
+  public ImmutableRatesProvider calibrate(
+      RatesCurveGroupDefinition groupDefinition,
+      MarketData marketData,
+      Optional<ImmutableRatesProvider> previous,
+      ReferenceData refData) {
+
+    if (!previous.isPresent()) {
+      return calibrator.calibrate(groupDefinition, marketData, refData);
+    }
+    List<CurveDefinition> definitions = new ArrayList<>();
+    for (CurveDefinition definition : groupDefinition.getCurveDefinitions()) {
+      Optional<Curve> previousCurve = previous.get().findData(definition.getName());
+      definitions.add(previousCurve.isPresent() ?
+          WarmStartCurveDefinition.of(definition, previousCurve.get()) :
+          definition);
+    }
+    return calibrator.calibrate(groupDefinition.withNewCurveDefinitions(definitions), marketData, refData);
+  }
+
+  //-------------------------------------------------------------------------
+  /* Calibrates the dates between start (inclusive) and end (exclusive), splitting in chunks. */
+  private final class ChunkTask extends RecursiveTask<Void> {
+    private static final long serialVersionUID = 1L;
+
+    private final RatesCurveGroupDefinition groupDefinition;
+    private final List<LocalDate> dates;
+    private final Function<LocalDate, MarketData> quotes;
+    private final ReferenceData refData;
+    private final ImmutableRatesProvider[] multicurves;
+    private final int start;
+    private final int end;
+
+    private ChunkTask(
+        RatesCurveGroupDefinition groupDefinition,
+        List<LocalDate> dates,
+        Function<LocalDate, MarketData> quotes,
+        ReferenceData refData,
+        ImmutableRatesProvider[] multicurves,
+        int start,
+        int end) {
+
+      this.groupDefinition = groupDefinition;
+      this.dates = dates;
+      this.quotes = quotes;
+      this.refData = refData;
+      this.multicurves = multicurves;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected Void compute() {
+      if (end - start <= chunkSize) {
+        Optional<ImmutableRatesProvider> previous = Optional.empty();
+        for (int loopdate = start; loopdate < end; loopdate++) {
+          MarketData marketData = quotes.apply(dates.get(loopdate));
+          multicurves[loopdate] = calibrate(groupDefinition, marketData, previous, refData);
+          previous = Optional.of(multicurves[loopdate]);
+        }
+        return null;
+      }
+      int nbChunks = (end - start + chunkSize - 1) / chunkSize;
+      int middle = start + (nbChunks / 2) * chunkSize; // split on chunk boundaries
+      invokeAll(
+          new ChunkTask(groupDefinition, dates, quotes, refData, multicurves, start, middle),
+          new ChunkTask(groupDefinition, dates, quotes, refData, multicurves, middle, end));
+      return null;
+    }
+  }
+
+}
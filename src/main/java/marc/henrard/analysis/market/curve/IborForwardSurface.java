@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.IborIndexObservation;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Guavate;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.rate.DiscountIborIndexRates;
+import com.opengamma.strata.pricer.rate.IborIndexRates;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+
+import marc.henrard.murisq.basics.data.export.ExportUtils;
+
+/**
+ * Forward rates of a set of Ibor indices on a shared grid of fixing dates.
+ * <p>
+ * The fixing dates are the valuation date and the following business days in the combined fixing calendars
+ * of the indices. The indices are grouped by forward curve; for each group, the discount factors are computed
+ * once on all the distinct start and end dates of all the tenors of the group, in one sweep. The groups are
+ * computed in parallel.
+ *
+ * @author Marc Henrard
+ */
+public final class IborForwardSurface {
+
+  /** The Ibor indices. */
+  private final ImmutableList<IborIndex> indices;
+  /** The fixing dates. */
+  private final ImmutableList<LocalDate> fixingDates;
+  /** The forward rates, by index and fixing date. */
+  private final double[][] forwards;
+
+  private IborForwardSurface(
+      ImmutableList<IborIndex> indices,
+      ImmutableList<LocalDate> fixingDates,
+      double[][] forwards) {
+
+    this.indices = indices;
+    this.fixingDates = fixingDates;
+    this.forwards = forwards;
+  }
+
+  /**
+   * Computes the forward rates surface.
+   *
+   * @param multicurve  the multi-curve containing the Ibor curves
+   * @param indices  the Ibor indices
+   * @param nbFixingDates  the number of fixing dates
+   * @param refData  the reference data
+   * @return the surface
+   */
+  public static IborForwardSurface of(
+      ImmutableRatesProvider multicurve,
+      List<IborIndex> indices,
+      int nbFixingDates,
+      ReferenceData refData) {
+
+    ArgChecker.notEmpty(indices, "indices");
+    ArgChecker.notNegative(nbFixingDates, "nbFixingDates");
+    HolidayCalendar calendar = indices.stream()
+        .map(index -> refData.getValue(index.getFixingCalendar()))
+        .reduce(HolidayCalendar::combinedWith).get();
+    List<LocalDate> dates = new ArrayList<>(nbFixingDates);
+    LocalDate currentDate = multicurve.getValuationDate();
+    for (int loopdate = 0; loopdate < nbFixingDates; loopdate++) {
+      dates.add(currentDate);
+      currentDate = calendar.next(currentDate);
+    }
+    ImmutableList<LocalDate> fixingDates = ImmutableList.copyOf(dates);
+    ImmutableList<ObservationGrid<IborIndexObservation>> grids = indices.parallelStream()
+        .map(index -> ObservationGrid.ofIbor(index, fixingDates, refData))
+        .collect(Guavate.toImmutableList());
+    /* Group by forward curve */
+    int nbIndices = indices.size();
+    List<IborIndexRates> rates = new ArrayList<>(nbIndices);
+    Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+    for (int loopindex = 0; loopindex < nbIndices; loopindex++) {
+      IborIndexRates indexRates = multicurve.iborIndexRates(indices.get(loopindex));
+      rates.add(indexRates);
+      Object key = (indexRates instanceof DiscountIborIndexRates)
+          ? ((DiscountIborIndexRates) indexRates).getDiscountFactors()
+          : indices.get(loopindex);
+      groups.computeIfAbsent(key, k -> new ArrayList<>()).add(loopindex);
+    }
+    double[][] forwards = new double[nbIndices][];
+    groups.values().parallelStream().forEach(group -> {
+      IborIndexRates groupRates = rates.get(group.get(0));
+      DiscountFactors discountFactors = (groupRates instanceof DiscountIborIndexRates)
+          ? ((DiscountIborIndexRates) groupRates).getDiscountFactors()
+          : null;
+      forwardsGroup(group, rates, grids, discountFactors, forwards);
+    });
+    return new IborForwardSurface(ImmutableList.copyOf(indices), fixingDates, forwards);
+  }
+
+  /* Computes the forwards for a group of indices sharing the same discount factors. */
+  private static void forwardsGroup(
+      List<Integer> group,
+      List<IborIndexRates> rates,
+      List<ObservationGrid<IborIndexObservation>> grids,
+      DiscountFactors discountFactors,
+      double[][] forwards) {
+
+    /* Historical fixings and non-discount curves */
+    int[] firstForward = new int[group.size()];
+    for (int loopgroup = 0; loopgroup < group.size(); loopgroup++) {
+      int position = group.get(loopgroup);
+      IborIndexRates indexRates = rates.get(position);
+      ObservationGrid<IborIndexObservation> grid = grids.get(position);
+      forwards[position] = new double[grid.size()];
+      LocalDate valuationDate = indexRates.getValuationDate();
+      int loopdate = 0;
+      while (loopdate < grid.size() &&
+          (discountFactors == null || !grid.getObservation(loopdate).getFixingDate().isAfter(valuationDate))) {
+        forwards[position][loopdate] = indexRates.rate(grid.getObservation(loopdate));
+        loopdate++;
+      }
+      firstForward[loopgroup] = loopdate;
+    }
+    if (discountFactors == null) {
+      return;
+    }
+    /* All the distinct dates of the group, ranked on a dense epoch-day range */
+    int minDate = Integer.MAX_VALUE;
+    int maxDate = Integer.MIN_VALUE;
+    for (int loopgroup = 0; loopgroup < group.size(); loopgroup++) {
+      ObservationGrid<IborIndexObservation> grid = grids.get(group.get(loopgroup));
+      for (int loopdate = firstForward[loopgroup]; loopdate < grid.size(); loopdate++) {
+        minDate = Math.min(minDate, grid.getEffectiveEpochDay(loopdate));
+        maxDate = Math.max(maxDate, grid.getMaturityEpochDay(loopdate));
+      }
+    }
+    if (minDate > maxDate) { // no forward
+      return;
+    }
+    int[] ranks = new int[maxDate - minDate + 1];
+    for (int loopgroup = 0; loopgroup < group.size(); loopgroup++) {
+      ObservationGrid<IborIndexObservation> grid = grids.get(group.get(loopgroup));
+      for (int loopdate = firstForward[loopgroup]; loopdate < grid.size(); loopdate++) {
+        ranks[grid.getEffectiveEpochDay(loopdate) - minDate] = 1;
+        ranks[grid.getMaturityEpochDay(loopdate) - minDate] = 1;
+      }
+    }
+    int nbDistinct = 0;
+    for (int i = 0; i < ranks.length; i++) {
+      nbDistinct += ranks[i];
+    }
+    int[] dates = new int[nbDistinct];
+    int rank = 0;
+    for (int i = 0; i < ranks.length; i++) {
+      if (ranks[i] == 1) {
+        dates[rank] = minDate + i;
+        ranks[i] = rank++;
+      }
+    }
+    double[] dfs = ForwardRatesBatchUtils.discountFactors(discountFactors, dates);
+    /* Forwards */
+    for (int loopgroup = 0; loopgroup < group.size(); loopgroup++) {
+      int position = group.get(loopgroup);
+      ObservationGrid<IborIndexObservation> grid = grids.get(position);
+      for (int loopdate = firstForward[loopgroup]; loopdate < grid.size(); loopdate++) {
+        double dfStart = dfs[ranks[grid.getEffectiveEpochDay(loopdate) - minDate]];
+        double dfEnd = dfs[ranks[grid.getMaturityEpochDay(loopdate) - minDate]];
+        forwards[position][loopdate] = (dfStart / dfEnd - 1.0d) / grid.getYearFraction(loopdate);
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the Ibor indices.
+   *
+   * @return the indices
+   */
+  public ImmutableList<IborIndex> getIndices() {
+    return indices;
+  }
+
+  /**
+   * Returns the fixing dates.
+   *
+   * @return the dates
+   */
+  public ImmutableList<LocalDate> getFixingDates() {
+    return fixingDates;
+  }
+
+  /**
+   * Returns the forward rates for one index, in the fixing dates order.
+   *
+   * @param index  the index
+   * @return the forward rates
+   */
+  public DoubleArray getForwards(IborIndex index) {
+    int position = indices.indexOf(index);
+    ArgChecker.isTrue(position >= 0, "index {} not in the surface", index);
+    return DoubleArray.copyOf(forwards[position]);
+  }
+
+  /**
+   * Export the forward rates in a csv file with one column by index.
+   *
+   * @param exportFileName  the name of the export file
+   * @throws IOException  in case of export problem
+   */
+  public void export(String exportFileName) throws IOException {
+    StringBuilder fileContent = new StringBuilder();
+    fileContent.append("Date");
+    for (IborIndex index : indices) {
+      fileContent.append(", ").append(index.toString());
+    }
+    fileContent.append('\n');
+    for (int loopdate = 0; loopdate < fixingDates.size(); loopdate++) {
+      fileContent.append(fixingDates.get(loopdate).toString());
+      for (int loopindex = 0; loopindex < indices.size(); loopindex++) {
+        fileContent.append(',').append(forwards[loopindex][loopdate]);
+      }
+      fileContent.append('\n');
+    }
+    ExportUtils.exportString(fileContent.toString(), exportFileName);
+  }
+
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Guavate;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.curve.CurveParameterSize;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
+import com.opengamma.strata.market.param.ParameterMetadata;
+
+/**
+ * Sparse Jacobian of the calibration instruments market quotes with respect to the curve parameters, usually
+ * lower triangular.
+ * <p>
+ * The rows are the instruments and the columns the parameters, both in the curve order. The non-zero elements of
+ * each row are stored in compressed rows, in increasing column order. When the matrix is lower triangular, the
+ * market quote sensitivities are computed by back substitution on the transposed matrix, in a number of operations
+ * proportional to the number of non-zero elements; the inverse matrix, which is dense, is never computed.
+ * <p>
+ * When an instrument depends on a later parameter, for example through a payment lag or an IBOR index with a tenor
+ * longer than the node step, the matrix is not triangular but has a few superdiagonals. The system is then solved
+ * with a banded LU decomposition, see {@link BandedLuDecomposition}, computed once when the Jacobian is created.
+ * Only the matrices which are not banded use a dense LU decomposition.
+ *
+ * @author Marc Henrard
+ */
+public final class LowerTriangularJacobian {
+
+  /** The curve order. */
+  private final ImmutableList<CurveParameterSize> order;
+  /** The parameters metadata, by curve. */
+  private final ImmutableList<ImmutableList<ParameterMetadata>> parameterMetadata;
+  /** The start of each row in the columns and values arrays. The last element is the number of elements. */
+  private final int[] rowStarts;
+  /** The column of each non-zero element. */
+  private final int[] columns;
+  /** The value of each non-zero element. */
+  private final double[] values;
+  /** The decomposition, null when the matrix is lower triangular. */
+  private final MatrixDecomposition decomposition;
+
+  private LowerTriangularJacobian(
+      ImmutableList<CurveParameterSize> order,
+      ImmutableList<ImmutableList<ParameterMetadata>> parameterMetadata,
+      int[] rowStarts,
+      int[] columns,
+      double[] values,
+      MatrixDecomposition decomposition) {
+
+    this.order = order;
+    this.parameterMetadata = parameterMetadata;
+    this.rowStarts = rowStarts;
+    this.columns = columns;
+    this.values = values;
+    this.decomposition = decomposition;
+  }
+
+  /**
+   * Creates the Jacobian from its dense rows.
+   * <p>
+   * Only the non-zero elements are stored. When the rows are lower triangular, the diagonal elements must be
+   * non-zero; otherwise the matrix must be invertible and is decomposed, in banded form when possible.
+   *
+   * @param order  the curve order
+   * @param parameterMetadata  the parameters metadata, by curve
+   * @param rows  the rows, derivatives of each market quote with respect to all the parameters
+   * @return the Jacobian
+   */
+  public static LowerTriangularJacobian ofRows(
+      List<CurveParameterSize> order,
+      List<? extends List<? extends ParameterMetadata>> parameterMetadata,
+      List<DoubleArray> rows) {
+
+    int nbParameters = order.stream().mapToInt(CurveParameterSize::getParameterCount).sum();
+    ArgChecker.isTrue(rows.size() == nbParameters, "Jacobian must be square");
+    ArgChecker.isTrue(parameterMetadata.size() == order.size(), "one metadata list required for each curve");
+    int[] rowStarts = new int[nbParameters + 1];
+    List<Integer> columnList = new ArrayList<>();
+    List<Double> valueList = new ArrayList<>();
+    boolean lowerTriangular = true;
+    for (int looprow = 0; looprow < nbParameters; looprow++) {
+      DoubleArray row = rows.get(looprow);
+      ArgChecker.isTrue(row.size() == nbParameters, "Jacobian must be square");
+      rowStarts[looprow] = columnList.size();
+      for (int loopcol = 0; loopcol < nbParameters; loopcol++) {
+        if (row.get(loopcol) != 0.0d) {
+          columnList.add(loopcol);
+          valueList.add(row.get(loopcol));
+          lowerTriangular &= loopcol <= looprow;
+        }
+      }
+      lowerTriangular &= row.get(looprow) != 0.0d;
+    }
+    rowStarts[nbParameters] = columnList.size();
+    MatrixDecomposition decomposition = null;
+    if (!lowerTriangular) {
+      double[][] matrix = new double[nbParameters][];
+      for (int looprow = 0; looprow < nbParameters; looprow++) {
+        matrix[looprow] = rows.get(looprow).toArray();
+      }
+      decomposition = MatrixDecomposition.of(matrix);
+    }
+    return new LowerTriangularJacobian(
+        ImmutableList.copyOf(order),
+        parameterMetadata.stream()
+            .map(metadata -> ImmutableList.<ParameterMetadata>copyOf(metadata))
+            .collect(Guavate.toImmutableList()),
+        rowStarts,
+        columnList.stream().mapToInt(Integer::intValue).toArray(),
+        valueList.stream().mapToDouble(Double::doubleValue).toArray(),
+        decomposition);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the curve order.
+   *
+   * @return the order
+   */
+  public ImmutableList<CurveParameterSize> getOrder() {
+    return order;
+  }
+
+  /**
+   * Returns the number of rows, which is also the number of parameters.
+   *
+   * @return the size
+   */
+  public int size() {
+    return rowStarts.length - 1;
+  }
+
+  /**
+   * Checks if the matrix is lower triangular, in which case the system is solved by back substitution.
+   *
+   * @return true if lower triangular
+   */
+  public boolean isLowerTriangular() {
+    return decomposition == null;
+  }
+
+  /**
+   * Checks if the system is solved without dense decomposition, the matrix being lower triangular or banded.
+   *
+   * @return true if lower triangular or banded
+   */
+  public boolean isBanded() {
+    return decomposition == null || decomposition.isBanded();
+  }
+
+  /**
+   * Returns the number of non-zero elements.
+   *
+   * @return the number of elements
+   */
+  public int nbNonZero() {
+    return values.length;
+  }
+
+  /**
+   * Returns one element of the Jacobian.
+   *
+   * @param row  the row, the instrument
+   * @param column  the column, the parameter
+   * @return the element
+   */
+  public double get(int row, int column) {
+    for (int loopelement = rowStarts[row]; loopelement < rowStarts[row + 1]; loopelement++) {
+      if (columns[loopelement] == column) {
+        return values[loopelement];
+      }
+    }
+    return 0.0d;
+  }
+
+  /**
+   * Solves the transposed system.
+   * <p>
+   * Returns x such that J^T x = b. When b is the sensitivity to the parameters, x is the sensitivity to the
+   * market quotes.
+   *
+   * @param b  the right hand side, with one element for each parameter
+   * @return the solution
+   */
+  public double[] solveTransposed(double[] b) {
+    int n = size();
+    ArgChecker.isTrue(b.length == n, "right hand side must have size {}", n);
+    if (decomposition != null) {
+      return decomposition.solveTransposed(b);
+    }
+    double[] x = b.clone();
+    for (int looprow = n - 1; looprow >= 0; looprow--) {
+      int diagonal = rowStarts[looprow + 1] - 1;
+      x[looprow] /= values[diagonal];
+      for (int loopelement = rowStarts[looprow]; loopelement < diagonal; loopelement++) {
+        x[columns[loopelement]] -= values[loopelement] * x[looprow];
+      }
+    }
+    return x;
+  }
+
+  /**
+   * Computes the market quote sensitivities from the parameter sensitivities.
+   * <p>
+   * The parameter sensitivities must be to the curves of the Jacobian order only.
+   *
+   * @param parameterSensitivities  the parameter sensitivities
+   * @return the market quote sensitivities
+   */
+  public CurrencyParameterSensitivities marketQuoteSensitivity(
+      CurrencyParameterSensitivities parameterSensitivities) {
+
+    List<Currency> currencies = new ArrayList<>();
+    for (CurrencyParameterSensitivity sensitivity : parameterSensitivities.getSensitivities()) {
+      ArgChecker.isTrue(curvePosition(sensitivity) >= 0,
+          "curve {} not in the Jacobian order", sensitivity.getMarketDataName());
+      if (!currencies.contains(sensitivity.getCurrency())) {
+        currencies.add(sensitivity.getCurrency());
+      }
+    }
+    List<CurrencyParameterSensitivity> result = new ArrayList<>();
+    for (Currency currency : currencies) {
+      double[] b = new double[size()];
+      for (CurrencyParameterSensitivity sensitivity : parameterSensitivities.getSensitivities()) {
+        if (sensitivity.getCurrency().equals(currency)) {
+          int start = curveStart(curvePosition(sensitivity));
+          DoubleArray sensitivityArray = sensitivity.getSensitivity();
+          for (int loopparam = 0; loopparam < sensitivityArray.size(); loopparam++) {
+            b[start + loopparam] += sensitivityArray.get(loopparam);
+          }
+        }
+      }
+      double[] x = solveTransposed(b);
+      for (int loopcurve = 0; loopcurve < order.size(); loopcurve++) {
+        int start = curveStart(loopcurve);
+        int nbParameters = order.get(loopcurve).getParameterCount();
+        result.add(CurrencyParameterSensitivity.of(
+            order.get(loopcurve).getName(),
+            parameterMetadata.get(loopcurve),
+            currency,
+            DoubleArray.copyOf(x, start, start + nbParameters)));
+      }
+    }
+    return CurrencyParameterSensitivities.of(result);
+  }
+
+  private int curvePosition(CurrencyParameterSensitivity sensitivity) {
+    for (int loopcurve = 0; loopcurve < order.size(); loopcurve++) {
+      if (order.get(loopcurve).getName().equals(sensitivity.getMarketDataName())) {
+        return loopcurve;
+      }
+    }
+    return -1;
+  }
+
+  private int curveStart(int curvePosition) {
+    int start = 0;
+    for (int loopcurve = 0; loopcurve < curvePosition; loopcurve++) {
+      start += order.get(loopcurve).getParameterCount();
+    }
+    return start;
+  }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * LU decomposition with partial pivoting of a dense square matrix, PA = LU.
+ * <p>
+ * Used when the calibration Jacobian is neither lower triangular nor banded, see {@link BandedLuDecomposition}.
+ *
+ * @author Marc Henrard
+ */
+final class LuDecomposition implements MatrixDecomposition {
+
+  /** The factors, L below the diagonal (unit diagonal not stored) and U on and above the diagonal. */
+  private final double[][] lu;
+  /** The row of the original matrix for each row of the factors. */
+  private final int[] permutation;
+
+  private LuDecomposition(double[][] lu, int[] permutation) {
+    this.lu = lu;
+    this.permutation = permutation;
+  }
+
+  /**
+   * Decomposes a matrix.
+   * <p>
+   * The matrix is not modified.
+   *
+   * @param matrix  the matrix, by rows
+   * @return the decomposition
+   */
+  static LuDecomposition of(double[][] matrix) {
+    int n = matrix.length;
+    double[][] lu = new double[n][];
+    int[] permutation = new int[n];
+    for (int looprow = 0; looprow < n; looprow++) {
+      ArgChecker.isTrue(matrix[looprow].length == n, "matrix must be square");
+      lu[looprow] = matrix[looprow].clone();
+      permutation[looprow] = looprow;
+    }
+    for (int loopcol = 0; loopcol < n; loopcol++) {
+      int pivot = loopcol;
+      for (int looprow = loopcol + 1; looprow < n; looprow++) {
+        if (Math.abs(lu[looprow][loopcol]) > Math.abs(lu[pivot][loopcol])) {
+          pivot = looprow;
+        }
+      }
+      ArgChecker.isTrue(lu[pivot][loopcol] != 0.0d, "matrix singular at column {}", loopcol);
+      if (pivot != loopcol) {
+        double[] row = lu[pivot];
+        lu[pivot] = lu[loopcol];
+        lu[loopcol] = row;
+        int index = permutation[pivot];
+        permutation[pivot] = permutation[loopcol];
+        permutation[loopcol] = index;
+      }
+      double diagonal = lu[loopcol][loopcol];
+      for (int looprow = loopcol + 1; looprow < n; looprow++) {
+        double factor = lu[looprow][loopcol] / diagonal;
+        lu[looprow][loopcol] = factor;
+        if (factor != 0.0d) {
+          for (int loopcol2 = loopcol + 1; loopcol2 < n; loopcol2++) {
+            lu[looprow][loopcol2] -= factor * lu[loopcol][loopcol2];
+          }
+        }
+      }
+    }
+    return new LuDecomposition(lu, permutation);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean isBanded() {
+    return false;
+  }
+
+  @Override
+  public double[] solve(double[] b) {
+    int n = lu.length;
+    ArgChecker.isTrue(b.length == n, "right hand side must have size {}", n);
+    double[] x = new double[n];
+    for (int looprow = 0; looprow < n; looprow++) { // L y = P b
+      double sum = b[permutation[looprow]];
+      for (int loopcol = 0; loopcol < looprow; loopcol++) {
+        sum -= lu[looprow][loopcol] * x[loopcol];
+      }
+      x[looprow] = sum;
+    }
+    for (int looprow = n - 1; looprow >= 0; looprow--) { // U x = y
+      double sum = x[looprow];
+      for (int loopcol = looprow + 1; loopcol < n; loopcol++) {
+        sum -= lu[looprow][loopcol] * x[loopcol];
+      }
+      x[looprow] = sum / lu[looprow][looprow];
+    }
+    return x;
+  }
+
+  @Override
+  public double[] solveTransposed(double[] b) {
+    int n = lu.length;
+    ArgChecker.isTrue(b.length == n, "right hand side must have size {}", n);
+    double[] z = b.clone();
+    for (int looprow = 0; looprow < n; looprow++) { // U^T y = b
+      double sum = z[looprow];
+      for (int loopcol = 0; loopcol < looprow; loopcol++) {
+        sum -= lu[loopcol][looprow] * z[loopcol];
+      }
+      z[looprow] = sum / lu[looprow][looprow];
+    }
+    for (int looprow = n - 1; looprow >= 0; looprow--) { // L^T z = y
+      double sum = z[looprow];
+      for (int loopcol = looprow + 1; loopcol < n; loopcol++) {
+        sum -= lu[loopcol][looprow] * z[loopcol];
+      }
+      z[looprow] = sum;
+    }
+    double[] x = new double[n];
+    for (int looprow = 0; looprow < n; looprow++) { // P x = z
+      x[permutation[looprow]] = z[looprow];
+    }
+    return x;
+  }
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.util.Optional;
+
+/**
+ * Decomposition of a square matrix used to solve the linear systems of the calibration.
+ *
+ * @author Marc Henrard
+ */
+interface MatrixDecomposition {
+
+  /**
+   * Decomposes a matrix, in banded form when possible.
+   * <p>
+   * The banded decomposition is used when the matrix has a narrow upper band, see {@link BandedLuDecomposition};
+   * otherwise the dense decomposition with partial pivoting is used. The matrix is not modified.
+   *
+   * @param matrix  the matrix, by rows
+   * @return the decomposition
+   */
+  static MatrixDecomposition of(double[][] matrix) {
+    Optional<BandedLuDecomposition> banded = BandedLuDecomposition.of(matrix);
+    if (banded.isPresent()) {
+      return banded.get();
+    }
+    return LuDecomposition.of(matrix);
+  }
+
+  /**
+   * Checks if the decomposition is in banded form.
+   *
+   * @return true if banded
+   */
+  boolean isBanded();
+
+  /**
+   * Solves A x = b.
+   *
+   * @param b  the right hand side
+   * @return the solution
+   */
+  double[] solve(double[] b);
+
+  /**
+   * Solves A^T x = b.
+   *
+   * @param b  the right hand side
+   * @return the solution
+   */
+  double[] solveTransposed(double[] b);
+
+}
@@ -0,0 +1,281 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.IborIndexObservation;
+import com.opengamma.strata.basics.index.IndexObservation;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.basics.index.OvernightIndexObservation;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Grid of index observations on consecutive business days.
+ * <p>
+ * The grid is described by an index, a start date and a number of dates. The dates of the grid are the start date
+ * and the following business days in the fixing calendar of the index. For each grid date, the period is
+ * described by its effective and maturity dates, stored as epoch-days, and its year fraction.
+ * The observations, used by the rates providers, are created once and stored with the grid.
+ * <p>
+ * The grid is immutable and does not depend on any curve; it can be computed once and reused for
+ * the export of all the curves with the same valuation date.
+ *
+ * @param <T>  the type of observation
+ * @author Marc Henrard
+ */
+public final class ObservationGrid<T extends IndexObservation> {
+
+  /** The grid dates, as epoch-days. Those are the fixing dates, except for overnight on Ibor periods. */
+  private final int[] fixingEpochDays;
+  /** The period effective dates, as epoch-days. */
+  private final int[] effectiveEpochDays;
+  /** The period maturity dates, as epoch-days. */
+  private final int[] maturityEpochDays;
+  /** The period year fractions. */
+  private final double[] yearFractions;
+  /** The observations, one for each grid date. */
+  private final ImmutableList<T> observations;
+
+  private ObservationGrid(
+      int[] fixingEpochDays,
+      int[] effectiveEpochDays,
+      int[] maturityEpochDays,
+      double[] yearFractions,
+      ImmutableList<T> observations) {
+
+    this.fixingEpochDays = fixingEpochDays;
+    this.effectiveEpochDays = effectiveEpochDays;
+    this.maturityEpochDays = maturityEpochDays;
+    this.yearFractions = yearFractions;
+    this.observations = observations;
+  }
+
+  /**
+   * Creates the grid of overnight observations.
+   *
+   * @param index  the overnight index
+   * @param startDate  the first fixing date
+   * @param nbDates  the number of fixing dates
+   * @param refData  the reference data
+   * @return the grid
+   */
+  public static ObservationGrid<OvernightIndexObservation> ofOvernight(
+      OvernightIndex index,
+      LocalDate startDate,
+      int nbDates,
+      ReferenceData refData) {
+
+    ArgChecker.notNegative(nbDates, "nbDates");
+    HolidayCalendar calendar = refData.getValue(index.getFixingCalendar());
+    int[] fixing = new int[nbDates];
+    int[] effective = new int[nbDates];
+    int[] maturity = new int[nbDates];
+    double[] yearFractions = new double[nbDates];
+    ImmutableList.Builder<OvernightIndexObservation> observations = ImmutableList.builder();
+    LocalDate currentDate = startDate;
+    for (int loopdate = 0; loopdate < nbDates; loopdate++) {
+      OvernightIndexObservation obs = OvernightIndexObservation.of(index, currentDate, refData);
+      fixing[loopdate] = toEpochDay(currentDate);
+      effective[loopdate] = toEpochDay(obs.getEffectiveDate());
+      maturity[loopdate] = toEpochDay(obs.getMaturityDate());
+      yearFractions[loopdate] = obs.getYearFraction();
+      observations.add(obs);
+      currentDate = calendar.next(currentDate);
+    }
+    return new ObservationGrid<>(fixing, effective, maturity, yearFractions, observations.build());
+  }
+
+  /**
+   * Creates the grid of Ibor observations.
+   *
+   * @param index  the Ibor index
+   * @param startDate  the first fixing date
+   * @param nbDates  the number of fixing dates
+   * @param refData  the reference data
+   * @return the grid
+   */
+  public static ObservationGrid<IborIndexObservation> ofIbor(
+      IborIndex index,
+      LocalDate startDate,
+      int nbDates,
+      ReferenceData refData) {
+
+    ArgChecker.notNegative(nbDates, "nbDates");
+    HolidayCalendar calendar = refData.getValue(index.getFixingCalendar());
+    List<LocalDate> fixingDates = new ArrayList<>(nbDates);
+    LocalDate currentDate = startDate;
+    for (int loopdate = 0; loopdate < nbDates; loopdate++) {
+      fixingDates.add(currentDate);
+      currentDate = calendar.next(currentDate);
+    }
+    return ofIbor(index, fixingDates, refData);
+  }
+
+  /**
+   * Creates the grid of Ibor observations for a given list of fixing dates.
+   * <p>
+   * This is used to compute several indices on the same fixing dates.
+   *
+   * @param index  the Ibor index
+   * @param fixingDates  the fixing dates, in increasing order
+   * @param refData  the reference data
+   * @return the grid
+   */
+  public static ObservationGrid<IborIndexObservation> ofIbor(
+      IborIndex index,
+      List<LocalDate> fixingDates,
+      ReferenceData refData) {
+
+    int nbDates = fixingDates.size();
+    int[] fixing = new int[nbDates];
+    int[] effective = new int[nbDates];
+    int[] maturity = new int[nbDates];
+    double[] yearFractions = new double[nbDates];
+    ImmutableList.Builder<IborIndexObservation> observations = ImmutableList.builder();
+    for (int loopdate = 0; loopdate < nbDates; loopdate++) {
+      IborIndexObservation obs = IborIndexObservation.of(index, fixingDates.get(loopdate), refData);
+      fixing[loopdate] = toEpochDay(fixingDates.get(loopdate));
+      effective[loopdate] = toEpochDay(obs.getEffectiveDate());
+      maturity[loopdate] = toEpochDay(obs.getMaturityDate());
+      yearFractions[loopdate] = obs.getYearFraction();
+      observations.add(obs);
+    }
+    return new ObservationGrid<>(fixing, effective, maturity, yearFractions, observations.build());
+  }
+
+  /**
+   * Creates the grid of overnight compounded periods on the periods of an Ibor index.
+   * <p>
+   * The grid dates are the Ibor fixing dates, on the overnight fixing calendar. The observations are
+   * the overnight observations on the Ibor effective dates; the periods end on the Ibor maturity dates and
+   * their year fractions are in the overnight index day count.
+   *
+   * @param indexOvernight  the overnight index
+   * @param indexIbor  the Ibor index
+   * @param startDate  the first Ibor fixing date
+   * @param nbDates  the number of fixing dates
+   * @param refData  the reference data
+   * @return the grid
+   */
+  public static ObservationGrid<OvernightIndexObservation> ofOvernightOnIborPeriods(
+      OvernightIndex indexOvernight,
+      IborIndex indexIbor,
+      LocalDate startDate,
+      int nbDates,
+      ReferenceData refData) {
+
+    ArgChecker.notNegative(nbDates, "nbDates");
+    HolidayCalendar calendar = refData.getValue(indexOvernight.getFixingCalendar());
+    int[] fixing = new int[nbDates];
+    int[] effective = new int[nbDates];
+    int[] maturity = new int[nbDates];
+    double[] yearFractions = new double[nbDates];
+    ImmutableList.Builder<OvernightIndexObservation> observations = ImmutableList.builder();
+    LocalDate currentDate = startDate;
+    for (int loopdate = 0; loopdate < nbDates; loopdate++) {
+      IborIndexObservation obsIbor = IborIndexObservation.of(indexIbor, currentDate, refData);
+      OvernightIndexObservation obsOn =
+          OvernightIndexObservation.of(indexOvernight, obsIbor.getEffectiveDate(), refData);
+      fixing[loopdate] = toEpochDay(currentDate);
+      effective[loopdate] = toEpochDay(obsOn.getEffectiveDate());
+      maturity[loopdate] = toEpochDay(obsIbor.getMaturityDate());
+      yearFractions[loopdate] =
+          indexOvernight.getDayCount().yearFraction(obsOn.getEffectiveDate(), obsIbor.getMaturityDate());
+      observations.add(obsOn);
+      currentDate = calendar.next(currentDate);
+    }
+    return new ObservationGrid<>(fixing, effective, maturity, yearFractions, observations.build());
+  }
+
+  private static int toEpochDay(LocalDate date) {
+    return Math.toIntExact(date.toEpochDay());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the number of dates in the grid.
+   *
+   * @return the size
+   */
+  public int size() {
+    return fixingEpochDays.length;
+  }
+
+  /**
+   * Returns the grid date at a given position.
+   *
+   * @param i  the position
+   * @return the date
+   */
+  public LocalDate getDate(int i) {
+    return LocalDate.ofEpochDay(fixingEpochDays[i]);
+  }
+
+  /**
+   * Returns the grid date at a given position, as epoch-day.
+   *
+   * @param i  the position
+   * @return the epoch-day
+   */
+  public int getDateEpochDay(int i) {
+    return fixingEpochDays[i];
+  }
+
+  /**
+   * Returns the period effective date at a given position, as epoch-day.
+   *
+   * @param i  the position
+   * @return the epoch-day
+   */
+  public int getEffectiveEpochDay(int i) {
+    return effectiveEpochDays[i];
+  }
+
+  /**
+   * Returns the period maturity date at a given position, as epoch-day.
+   *
+   * @param i  the position
+   * @return the epoch-day
+   */
+  public int getMaturityEpochDay(int i) {
+    return maturityEpochDays[i];
+  }
+
+  /**
+   * Returns the period year fraction at a given position.
+   *
+   * @param i  the position
+   * @return the year fraction
+   */
+  public double getYearFraction(int i) {
+    return yearFractions[i];
+  }
+
+  /**
+   * Returns the observation at a given position.
+   *
+   * @param i  the position
+   * @return the observation
+   */
+  public T getObservation(int i) {
+    return observations.get(i);
+  }
+
+  /**
+   * Returns the observations.
+   *
+   * @return the observations
+   */
+  public ImmutableList<T> getObservations() {
+    return observations;
+  }
+
+}
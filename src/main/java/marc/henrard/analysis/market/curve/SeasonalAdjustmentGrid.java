@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.date.DayCount;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.curve.CurveMetadata;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.Curves;
+import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
+import com.opengamma.strata.market.curve.interpolator.CurveExtrapolators;
+import com.opengamma.strata.market.curve.interpolator.CurveInterpolators;
+
+/**
+ * Date grid of the intra-month seasonal adjustment curves.
+ * <p>
+ * The calendar walk and the year fractions depend only on the calibration date, the calendar, the day count and
+ * the number of months. They are computed once in the grid; the discount factors for each set of jump levels
+ * (1st, 2nd, 15th and last day of the month) are then obtained by simple arithmetic on primitive arrays.
+ * All the curves created by the grid share the same x-values.
+ *
+ * @author Marc Henrard
+ */
+public final class SeasonalAdjustmentGrid {
+
+  /** The number of jump levels: 1st, 2nd, 15th and last day of the month. */
+  public static final int NB_JUMPS = 4;
+  /** The curve name used for the adjustment curves. */
+  private static final CurveName CURVE_NAME = CurveName.of("FixedCurve");
+
+  /** The x-values of the curves, the year fractions between the calibration date and the grid dates. */
+  private final DoubleArray xValues;
+  /** The start of the factors applied after each point. The last element is the number of factors. */
+  private final int[] factorStarts;
+  /** For each factor, the jump level used, between 0 and 3. */
+  private final int[] factorJumps;
+  /** For each factor, the year fraction of the jump period. */
+  private final double[] factorYearFractions;
+  /** The curve metadata. */
+  private final CurveMetadata metadata;
+
+  private SeasonalAdjustmentGrid(
+      DoubleArray xValues,
+      int[] factorStarts,
+      int[] factorJumps,
+      double[] factorYearFractions,
+      CurveMetadata metadata) {
+
+    this.xValues = xValues;
+    this.factorStarts = factorStarts;
+    this.factorJumps = factorJumps;
+    this.factorYearFractions = factorYearFractions;
+    this.metadata = metadata;
+  }
+
+  /**
+   * Creates the grid.
+   * <p>
+   * The dates are the same as in {@link SeasonalAdjustmentUtils#seasonalityAdjustment}.
+   *
+   * @param calibrationDate  the calibration date
+   * @param calendar  the relevant calendar for the non-good business days
+   * @param dayCount  the day count used for the curve x-values and the jump periods
+   * @param nbMonths  the number of months for which the adjustment curve should be computed
+   * @return the grid
+   */
+  public static SeasonalAdjustmentGrid of(
+      LocalDate calibrationDate,
+      HolidayCalendar calendar,
+      DayCount dayCount,
+      int nbMonths) {
+
+    ArgChecker.notNegative(nbMonths, "nbMonths");
+    int maxPoints = 6 * nbMonths;
+    double[] xValues = new double[maxPoints];
+    int[] factorStarts = new int[maxPoints + 1];
+    int[] factorJumps = new int[maxPoints];
+    double[] factorYearFractions = new double[maxPoints];
+    int nbPoints = 0;
+    int nbFactors = 0;
+    LocalDate current1stMonth = calendar.nextOrSame(calibrationDate.withDayOfMonth(1));
+    for (int loopmonth = 0; loopmonth < nbMonths; loopmonth++) {
+      LocalDate current2ndMonth = calendar.next(current1stMonth);
+      if (!current1stMonth.isBefore(calibrationDate)) {
+        factorStarts[nbPoints] = nbFactors;
+        xValues[nbPoints++] = dayCount.relativeYearFraction(calibrationDate, current1stMonth);
+        factorJumps[nbFactors] = 0;
+        factorYearFractions[nbFactors++] = dayCount.relativeYearFraction(current1stMonth, current2ndMonth);
+      }
+      LocalDate current3rdMonth = calendar.next(current2ndMonth);
+      if (!current2ndMonth.isBefore(calibrationDate)) {
+        factorStarts[nbPoints] = nbFactors;
+        xValues[nbPoints++] = dayCount.relativeYearFraction(calibrationDate, current2ndMonth);
+        factorJumps[nbFactors] = 1;
+        factorYearFractions[nbFactors++] = dayCount.relativeYearFraction(current2ndMonth, current3rdMonth);
+        factorStarts[nbPoints] = nbFactors;
+        xValues[nbPoints++] = dayCount.relativeYearFraction(calibrationDate, current3rdMonth);
+      }
+      LocalDate current15thMonth = calendar.nextOrSame(current1stMonth.withDayOfMonth(15));
+      LocalDate current16thMonth = calendar.next(current15thMonth);
+      if (!current2ndMonth.isBefore(calibrationDate)) {
+        factorStarts[nbPoints] = nbFactors;
+        xValues[nbPoints++] = dayCount.relativeYearFraction(calibrationDate, current15thMonth);
+        factorJumps[nbFactors] = 2;
+        factorYearFractions[nbFactors++] = dayCount.relativeYearFraction(current15thMonth, current16thMonth);
+        factorStarts[nbPoints] = nbFactors;
+        xValues[nbPoints++] = dayCount.relativeYearFraction(calibrationDate, current16thMonth);
+      }
+      LocalDate currentLastMonth =
+          calendar.previousOrSame(current1stMonth.plusMonths(1).withDayOfMonth(1).minusDays(1));
+      factorStarts[nbPoints] = nbFactors;
+      xValues[nbPoints++] = dayCount.relativeYearFraction(calibrationDate, currentLastMonth);
+      current1stMonth = calendar.nextOrSame(current1stMonth.plusMonths(1).withDayOfMonth(1));
+      factorJumps[nbFactors] = 3;
+      factorYearFractions[nbFactors++] = dayCount.relativeYearFraction(currentLastMonth, current1stMonth);
+    }
+    factorStarts[nbPoints] = nbFactors;
+    int[] starts = new int[nbPoints + 1];
+    System.arraycopy(factorStarts, 0, starts, 0, nbPoints + 1);
+    int[] jumps = new int[nbFactors];
+    System.arraycopy(factorJumps, 0, jumps, 0, nbFactors);
+    double[] yearFractions = new double[nbFactors];
+    System.arraycopy(factorYearFractions, 0, yearFractions, 0, nbFactors);
+    return new SeasonalAdjustmentGrid(
+        DoubleArray.copyOf(xValues, 0, nbPoints), starts, jumps, yearFractions,
+        Curves.discountFactors(CURVE_NAME, dayCount));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the number of points in the grid.
+   *
+   * @return the number of points
+   */
+  public int size() {
+    return xValues.size();
+  }
+
+  /**
+   * Returns the x-values, shared by all the curves of the grid.
+   *
+   * @return the x-values
+   */
+  public DoubleArray getXValues() {
+    return xValues;
+  }
+
+  /**
+   * Computes the discount factors adjustments on the grid for one set of jump levels.
+   *
+   * @param adjustments  the 1st, 2nd, 15th and last day of the month adjustments
+   * @return the discount factors, one for each point
+   */
+  public double[] discountFactors(double[] adjustments) {
+    ArgChecker.isTrue(adjustments.length == NB_JUMPS, "adjustments must have {} elements", NB_JUMPS);
+    int nbPoints = size();
+    double[] result = new double[nbPoints];
+    double currentDiscountFactor = 1.0;
+    for (int looppoint = 0; looppoint < nbPoints; looppoint++) {
+      result[looppoint] = currentDiscountFactor;
+      for (int loopfactor = factorStarts[looppoint]; loopfactor < factorStarts[looppoint + 1]; loopfactor++) {
+        currentDiscountFactor *= 1.0d /
+            (1.0d + factorYearFractions[loopfactor] * adjustments[factorJumps[loopfactor]]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Computes the discount factors adjustments on the grid for many sets of jump levels.
+   *
+   * @param adjustments  the adjustments by scenario; for each scenario the 1st, 2nd, 15th and last day of
+   *   the month adjustments
+   * @return the discount factors, by scenario and point
+   */
+  public double[][] discountFactors(double[][] adjustments) {
+    double[][] result = new double[adjustments.length][];
+    for (int loopsc = 0; loopsc < adjustments.length; loopsc++) {
+      result[loopsc] = discountFactors(adjustments[loopsc]);
+    }
+    return result;
+  }
+
+  /**
+   * Generates the curve with intra-month seasonal adjustments for one set of jump levels.
+   *
+   * @param adjustments  DoubleArray with 1st, 2nd, 15th and last day of the month adjustments
+   * @return the discount factors adjustment curve
+   */
+  public InterpolatedNodalCurve curve(DoubleArray adjustments) {
+    return curveFromDiscountFactors(discountFactors(adjustments.toArrayUnsafe()));
+  }
+
+  /**
+   * Generates the curves with intra-month seasonal adjustments for many sets of jump levels.
+   * <p>
+   * The curves share the same x-values.
+   *
+   * @param adjustments  the adjustments by scenario; for each scenario the 1st, 2nd, 15th and last day of
+   *   the month adjustments
+   * @return the discount factors adjustment curves, one for each scenario
+   */
+  public List<InterpolatedNodalCurve> curves(double[][] adjustments) {
+    ImmutableList.Builder<InterpolatedNodalCurve> curves = ImmutableList.builder();
+    for (int loopsc = 0; loopsc < adjustments.length; loopsc++) {
+      curves.add(curveFromDiscountFactors(discountFactors(adjustments[loopsc])));
+    }
+    return curves.build();
+  }
+
+  private InterpolatedNodalCurve curveFromDiscountFactors(double[] discountFactors) {
+    return InterpolatedNodalCurve.of(metadata,
+        xValues, DoubleArray.ofUnsafe(discountFactors),
+        CurveInterpolators.LINEAR, CurveExtrapolators.FLAT, CurveExtrapolators.FLAT);
+  }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.curve;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.market.ValueType;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveDefinition;
+import com.opengamma.strata.market.curve.CurveMetadata;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.CurveNode;
+
+/**
+ * Curve definition with initial guesses taken from a previous calibration.
+ * <p>
+ * The guesses are stored by node label. A node without guess uses the initial guess of the node.
+ * All the other methods are delegated to the underlying definition; the guesses survive the filtering of the nodes.
+ *
+ * @author Marc Henrard
+ */
+final class WarmStartCurveDefinition implements CurveDefinition {
+
+  /** The underlying definition. */
+  private final CurveDefinition underlying;
+  /** The initial guesses, by node label. */
+  private final ImmutableMap<String, Double> guesses;
+
+  private WarmStartCurveDefinition(CurveDefinition underlying, ImmutableMap<String, Double> guesses) {
+    this.underlying = underlying;
+    this.guesses = guesses;
+  }
+
+  /**
+   * Creates a definition with the parameters of a curve as initial guesses.
+   * <p>
+   * The curve parameters are matched to the nodes by their label.
+   *
+   * @param underlying  the underlying definition
+   * @param previous  the curve calibrated previously with the same definition
+   * @return the definition
+   */
+  static WarmStartCurveDefinition of(CurveDefinition underlying, Curve previous) {
+    CurveDefinition unwrapped = (underlying instanceof WarmStartCurveDefinition) ?
+        ((WarmStartCurveDefinition) underlying).underlying :
+        underlying;
+    Map<String, Double> guesses = new HashMap<>();
+    for (int loopparam = 0; loopparam < previous.getParameterCount(); loopparam++) {
+      guesses.put(previous.getParameterMetadata(loopparam).getLabel(), previous.getParameter(loopparam));
+    }
+    return new WarmStartCurveDefinition(unwrapped, ImmutableMap.copyOf(guesses));
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public CurveName getName() {
+    return underlying.getName();
+  }
+
+  @Override
+  public int getParameterCount() {
+    return underlying.getParameterCount();
+  }
+
+  @Override
+  public ValueType getYValueType() {
+    return underlying.getYValueType();
+  }
+
+  @Override
+  public ImmutableList<CurveNode> getNodes() {
+    return underlying.getNodes();
+  }
+
+  @Override
+  public CurveDefinition filtered(LocalDate valuationDate, ReferenceData refData) {
+    return new WarmStartCurveDefinition(underlying.filtered(valuationDate, refData), guesses);
+  }
+
+  @Override
+  public CurveMetadata metadata(LocalDate valuationDate, ReferenceData refData) {
+    return underlying.metadata(valuationDate, refData);
+  }
+
+  @Override
+  public Curve curve(LocalDate valuationDate, CurveMetadata metadata, DoubleArray parameters) {
+    return underlying.curve(valuationDate, metadata, parameters);
+  }
+
+  @Override
+  public ImmutableList<Double> initialGuess(MarketData marketData) {
+    ImmutableList.Builder<Double> result = ImmutableList.builder();
+    for (CurveNode node : underlying.getNodes()) {
+      Double guess = guesses.get(node.getLabel());
+      result.add((guess != null) ? guess : node.initialGuess(marketData, underlying.getYValueType()));
+    }
+    return result.build();
+  }
+
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.fixing;
+
+import static com.opengamma.strata.basics.date.BusinessDayConventions.MODIFIED_FOLLOWING;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.IborIndexObservation;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+
+/**
+ * Computation of several time series of overnight compounded rates in one pass.
+ * <p>
+ * The specifications can mix overnight indices, IBOR tenors and compounding conventions. The compounding indices,
+ * see {@link OvernightCompoundingIndex}, are built once for each overnight index and lookback, then each series is
+ * computed with one division (plus the locked-out days) by IBOR fixing date. The indices and the series are
+ * computed in parallel on a fork-join pool.
+ * <p>
+ * The series contain the IBOR fixing dates of the requested range for which the compounding period is in the range
+ * of the overnight fixings. A fixing missing inside that range is an error.
+ *
+ * @author Marc Henrard
+ */
+public final class CompoundedRatePipeline {
+
+  /** The reference data. */
+  private final ReferenceData refData;
+  /** The pool on which the computations are run. */
+  private final ForkJoinPool pool;
+
+  private CompoundedRatePipeline(ReferenceData refData, ForkJoinPool pool) {
+    this.refData = refData;
+    this.pool = pool;
+  }
+
+  /**
+   * Creates an instance using the common pool.
+   *
+   * @param refData  the reference data
+   * @return the pipeline
+   */
+  public static CompoundedRatePipeline of(ReferenceData refData) {
+    return of(refData, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param refData  the reference data
+   * @param pool  the pool on which the computations are run
+   * @return the pipeline
+   */
+  public static CompoundedRatePipeline of(ReferenceData refData, ForkJoinPool pool) {
+    ArgChecker.notNull(refData, "refData");
+    ArgChecker.notNull(pool, "pool");
+    return new CompoundedRatePipeline(refData, pool);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the compounded rate series for all the specifications.
+   * <p>
+   * The fixings are the time series by {@link IndexQuoteId}, as loaded by {@code FixingSeriesCsvLoader}.
+   *
+   * @param fixings  the overnight fixings, by identifier
+   * @param specifications  the specifications of the series
+   * @param startDate  the first IBOR fixing date, inclusive
+   * @param endDate  the last IBOR fixing date, inclusive
+   * @return the series, by specification in the order of the specifications
+   */
+  public ImmutableMap<CompoundedRateSpecification, CompoundedRateSeries> compute(
+      Map<ObservableId, LocalDateDoubleTimeSeries> fixings,
+      List<CompoundedRateSpecification> specifications,
+      LocalDate startDate,
+      LocalDate endDate) {
+
+    ArgChecker.inOrderOrEqual(startDate, endDate, "startDate", "endDate");
+    Map<List<Object>, OvernightCompoundingIndex> indices = new ConcurrentHashMap<>();
+    Map<CompoundedRateSpecification, CompoundedRateSeries> series = new ConcurrentHashMap<>();
+    pool.submit(() -> {
+      specifications.stream()
+          .map(this::indexKey)
+          .distinct()
+          .parallel()
+          .forEach(key -> indices.put(key, compoundingIndex(key, fixings)));
+      specifications.parallelStream()
+          .forEach(spec -> series.put(spec, compute(spec, indices.get(indexKey(spec)), startDate, endDate)));
+    }).join();
+    Map<CompoundedRateSpecification, CompoundedRateSeries> result = new LinkedHashMap<>();
+    for (CompoundedRateSpecification spec : specifications) {
+      result.put(spec, series.get(spec));
+    }
+    return ImmutableMap.copyOf(result);
+  }
+
+  /**
+   * Computes the compounded rate series for one specification using a compounding index.
+   * <p>
+   * The compounding index must be on the overnight index of the specification, with the lookback of the
+   * specification for the {@link CompoundingConvention#LOOKBACK} convention and without lookback otherwise.
+   *
+   * @param specification  the specification of the series
+   * @param compoundingIndex  the compounding index
+   * @param startDate  the first IBOR fixing date, inclusive
+   * @param endDate  the last IBOR fixing date, inclusive
+   * @return the series
+   */
+  public CompoundedRateSeries compute(
+      CompoundedRateSpecification specification,
+      OvernightCompoundingIndex compoundingIndex,
+      LocalDate startDate,
+      LocalDate endDate) {
+
+    ArgChecker.isTrue(compoundingIndex.getIndex().equals(specification.getOvernightIndex()),
+        "compounding index must be on {}", specification.getOvernightIndex());
+    ArgChecker.isTrue(compoundingIndex.getLookbackDays() == lookbackDays(specification),
+        "compounding index lookback must be {}", lookbackDays(specification));
+    IborIndex iborIndex = specification.getIborIndex();
+    HolidayCalendar iborCalendar = refData.getValue(iborIndex.getFixingCalendar());
+    HolidayCalendar onCalendar = refData.getValue(specification.getOvernightIndex().getFixingCalendar());
+    int maxSize = Math.toIntExact(endDate.toEpochDay() - startDate.toEpochDay()) + 1;
+    int[] fixingDates = new int[maxSize];
+    int[] startDates = new int[maxSize];
+    int[] endDates = new int[maxSize];
+    double[] rates = new double[maxSize];
+    int nbRates = 0;
+    for (LocalDate fixingDate = iborCalendar.nextOrSame(startDate); !fixingDate.isAfter(endDate);
+        fixingDate = iborCalendar.next(fixingDate)) {
+      IborIndexObservation iborObs = IborIndexObservation.of(iborIndex, fixingDate, refData);
+      LocalDate start;
+      LocalDate end;
+      switch (specification.getConvention()) {
+        case OBSERVATION_SHIFT:
+          start = onCalendar.shift(iborObs.getEffectiveDate(), -specification.getDays());
+          end = MODIFIED_FOLLOWING.adjust(start.plus(iborIndex.getTenor()), onCalendar);
+          break;
+        case FIXING_SHIFT:
+          start = onCalendar.shift(fixingDate, -specification.getDays());
+          end = MODIFIED_FOLLOWING.adjust(start.plus(iborIndex.getTenor()), onCalendar);
+          break;
+        case FORWARD_PERIOD:
+          start = onCalendar.nextOrSame(iborObs.getEffectiveDate());
+          end = MODIFIED_FOLLOWING.adjust(start.plus(iborIndex.getTenor()), onCalendar);
+          break;
+        default:
+          start = onCalendar.previousOrSame(iborObs.getEffectiveDate());
+          end = onCalendar.previousOrSame(iborObs.getMaturityDate());
+      }
+      if (!end.isAfter(start) || !compoundingIndex.covers(start, end)) {
+        continue;
+      }
+      fixingDates[nbRates] = Math.toIntExact(fixingDate.toEpochDay());
+      startDates[nbRates] = Math.toIntExact(start.toEpochDay());
+      endDates[nbRates] = Math.toIntExact(end.toEpochDay());
+      rates[nbRates] = (specification.getConvention() == CompoundingConvention.LOCKOUT) ?
+          compoundingIndex.compoundedInArrears(start, end, specification.getDays()) :
+          compoundingIndex.compoundedInArrears(start, end);
+      nbRates++;
+    }
+    return new CompoundedRateSeries(
+        specification,
+        Arrays.copyOf(fixingDates, nbRates),
+        Arrays.copyOf(startDates, nbRates),
+        Arrays.copyOf(endDates, nbRates),
+        Arrays.copyOf(rates, nbRates));
+  }
+
+  //-------------------------------------------------------------------------
+  /* The key of the compounding index used by a specification: overnight index and lookback. */
+  private List<Object> indexKey(CompoundedRateSpecification specification) {
+    return Arrays.asList(specification.getOvernightIndex(), lookbackDays(specification));
+  }
+
+  private static int lookbackDays(CompoundedRateSpecification specification) {
+    return (specification.getConvention() == CompoundingConvention.LOOKBACK) ? specification.getDays() : 0;
+  }
+
+  private OvernightCompoundingIndex compoundingIndex(
+      List<Object> key,
+      Map<ObservableId, LocalDateDoubleTimeSeries> fixings) {
+
+    OvernightIndex index = (OvernightIndex) key.get(0);
+    LocalDateDoubleTimeSeries ts = fixings.get(IndexQuoteId.of(index));
+    ArgChecker.isTrue(ts != null, "no fixings for {}", index);
+    return OvernightCompoundingIndex.of(index, ts, (Integer) key.get(1), refData);
+  }
+
+}
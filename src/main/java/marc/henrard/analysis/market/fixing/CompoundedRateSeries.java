@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.fixing;
+
+import java.time.LocalDate;
+
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+
+/**
+ * Time series of overnight compounded rates, with the periods on which they are computed.
+ * <p>
+ * The dates are stored as epoch-days, by IBOR fixing date in increasing order.
+ *
+ * @author Marc Henrard
+ */
+public final class CompoundedRateSeries {
+
+  /** The specification of the series. */
+  private final CompoundedRateSpecification specification;
+  /** The IBOR fixing dates, as epoch-days. */
+  private final int[] fixingDates;
+  /** The start dates of the compounding periods, as epoch-days. */
+  private final int[] startDates;
+  /** The end dates of the compounding periods, as epoch-days. */
+  private final int[] endDates;
+  /** The compounded rates. */
+  private final double[] rates;
+
+  CompoundedRateSeries(
+      CompoundedRateSpecification specification,
+      int[] fixingDates,
+      int[] startDates,
+      int[] endDates,
+      double[] rates) {
+
+    this.specification = specification;
+    this.fixingDates = fixingDates;
+    this.startDates = startDates;
+    this.endDates = endDates;
+    this.rates = rates;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the specification of the series.
+   *
+   * @return the specification
+   */
+  public CompoundedRateSpecification getSpecification() {
+    return specification;
+  }
+
+  /**
+   * Returns the name of the series.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return specification.getName();
+  }
+
+  /**
+   * Returns the number of rates.
+   *
+   * @return the size
+   */
+  public int size() {
+    return rates.length;
+  }
+
+  /**
+   * Returns the IBOR fixing date, as epoch-day.
+   *
+   * @param position  the position in the series
+   * @return the date
+   */
+  public int getFixingDate(int position) {
+    return fixingDates[position];
+  }
+
+  /**
+   * Returns the start date of the compounding period, as epoch-day.
+   *
+   * @param position  the position in the series
+   * @return the date
+   */
+  public int getStartDate(int position) {
+    return startDates[position];
+  }
+
+  /**
+   * Returns the end date of the compounding period, as epoch-day.
+   *
+   * @param position  the position in the series
+   * @return the date
+   */
+  public int getEndDate(int position) {
+    return endDates[position];
+  }
+
+  /**
+   * Returns the compounded rate.
+   *
+   * @param position  the position in the series
+   * @return the rate
+   */
+  public double getRate(int position) {
+    return rates[position];
+  }
+
+  /**
+   * Returns the rates as a time series by IBOR fixing date.
+   *
+   * @return the time series
+   */
+  public LocalDateDoubleTimeSeries toTimeSeries() {
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    for (int looprate = 0; looprate < rates.length; looprate++) {
+      builder.put(LocalDate.ofEpochDay(fixingDates[looprate]), rates[looprate]);
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.fixing;
+
+import java.util.Objects;
+
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Specification of a time series of overnight compounded rates associated to the fixings of an IBOR index.
+ * <p>
+ * The IBOR index provides the tenor, the fixing dates and the periods. The convention describes how the overnight
+ * rates are compounded on the period.
+ *
+ * @author Marc Henrard
+ */
+public final class CompoundedRateSpecification {
+
+  /** The overnight index. */
+  private final OvernightIndex overnightIndex;
+  /** The IBOR index. */
+  private final IborIndex iborIndex;
+  /** The compounding convention. */
+  private final CompoundingConvention convention;
+  /** The number of overnight business days of shift, lookback or lockout. 0 for the other conventions. */
+  private final int days;
+
+  private CompoundedRateSpecification(
+      OvernightIndex overnightIndex,
+      IborIndex iborIndex,
+      CompoundingConvention convention,
+      int days) {
+
+    this.overnightIndex = overnightIndex;
+    this.iborIndex = iborIndex;
+    this.convention = convention;
+    this.days = days;
+  }
+
+  /**
+   * Creates a specification for a convention without number of days.
+   *
+   * @param overnightIndex  the overnight index
+   * @param iborIndex  the IBOR index
+   * @param convention  the compounding convention
+   * @return the specification
+   */
+  public static CompoundedRateSpecification of(
+      OvernightIndex overnightIndex,
+      IborIndex iborIndex,
+      CompoundingConvention convention) {
+
+    ArgChecker.isFalse(convention.hasDays(), "convention {} requires a number of days", convention);
+    return of(overnightIndex, iborIndex, convention, 0);
+  }
+
+  /**
+   * Creates a specification.
+   *
+   * @param overnightIndex  the overnight index
+   * @param iborIndex  the IBOR index
+   * @param convention  the compounding convention
+   * @param days  the number of overnight business days of shift, lookback or lockout
+   * @return the specification
+   */
+  public static CompoundedRateSpecification of(
+      OvernightIndex overnightIndex,
+      IborIndex iborIndex,
+      CompoundingConvention convention,
+      int days) {
+
+    ArgChecker.notNull(overnightIndex, "overnightIndex");
+    ArgChecker.notNull(iborIndex, "iborIndex");
+    ArgChecker.notNull(convention, "convention");
+    ArgChecker.notNegative(days, "days");
+    ArgChecker.isTrue(convention.hasDays() || days == 0, "convention {} does not use a number of days", convention);
+    return new CompoundedRateSpecification(overnightIndex, iborIndex, convention, days);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the overnight index.
+   *
+   * @return the index
+   */
+  public OvernightIndex getOvernightIndex() {
+    return overnightIndex;
+  }
+
+  /**
+   * Returns the IBOR index.
+   *
+   * @return the index
+   */
+  public IborIndex getIborIndex() {
+    return iborIndex;
+  }
+
+  /**
+   * Returns the compounding convention.
+   *
+   * @return the convention
+   */
+  public CompoundingConvention getConvention() {
+    return convention;
+  }
+
+  /**
+   * Returns the number of overnight business days of shift, lookback or lockout.
+   *
+   * @return the number of days
+   */
+  public int getDays() {
+    return days;
+  }
+
+  /**
+   * Returns the name of the time series, like "USD-SOFRCMP-3M" or "USD-SOFRCMP-OFFSET2-3M".
+   * <p>
+   * The name identifies the specification and is the default export file name.
+   *
+   * @return the name
+   */
+  public String getName() {
+    String daysCode = convention.hasDays() ? days + "-" : "";
+    return overnightIndex.toString() + convention.getCode() + daysCode + iborIndex.getTenor().toString();
+  }
+
+  /**
+   * Returns the reference of the time series, used in the exported files.
+   * <p>
+   * The series with a shifted period, used for the fallback spread, have the name of the compounded index,
+   * like "USD-SOFRCMP-3M", as in {@code ComplementIborIndices}. The other series have the reference equal to the name.
+   *
+   * @return the reference
+   */
+  public String getReference() {
+    if (convention == CompoundingConvention.OBSERVATION_SHIFT || convention == CompoundingConvention.FIXING_SHIFT) {
+      return overnightIndex.toString() + CompoundingConvention.IN_ARREARS.getCode() + iborIndex.getTenor().toString();
+    }
+    return getName();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof CompoundedRateSpecification)) {
+      return false;
+    }
+    CompoundedRateSpecification other = (CompoundedRateSpecification) obj;
+    return overnightIndex.equals(other.overnightIndex) &&
+        iborIndex.equals(other.iborIndex) &&
+        convention == other.convention &&
+        days == other.days;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(overnightIndex, iborIndex, convention, days);
+  }
+
+  @Override
+  public String toString() {
+    return getName();
+  }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.fixing;
+
+/**
+ * Conventions for the overnight compounded rates associated to an IBOR period.
+ * <p>
+ * The IBOR period is the period between the effective and the maturity dates of the IBOR fixing.
+ * The number of days of the conventions with a shift, a lookback or a lockout is a parameter of
+ * {@link CompoundedRateSpecification}.
+ *
+ * @author Marc Henrard
+ */
+public enum CompoundingConvention {
+
+  /**
+   * Compounded in arrears on the IBOR period. The IBOR dates are adjusted to the overnight calendar with the
+   * preceding convention.
+   */
+  IN_ARREARS("CMP-"),
+  /**
+   * Compounded in arrears on the period of the IBOR tenor starting a number of overnight business days before the
+   * IBOR effective date. This is the period used for the ISDA historical spread adjustment.
+   */
+  OBSERVATION_SHIFT("CMP-OFFSET"),
+  /**
+   * Compounded in arrears on the period of the IBOR tenor starting a number of overnight business days before the
+   * IBOR fixing date, rolled on the overnight calendar. This is the period of the historical USD and EUR series.
+   */
+  FIXING_SHIFT("CMP-FIXOFFSET"),
+  /**
+   * Compounded on the IBOR period, each accrual day using the fixing a number of overnight business days before.
+   */
+  LOOKBACK("CMP-LOOKBACK"),
+  /**
+   * Compounded on the IBOR period, the last days of the period using the fixing a number of overnight business days
+   * before the end.
+   */
+  LOCKOUT("CMP-LOCKOUT"),
+  /**
+   * Compounded in arrears on the forward period of the IBOR tenor starting on the IBOR effective date, rolled on the
+   * overnight calendar, i.e. the period of the overnight swap starting on that date.
+   */
+  FORWARD_PERIOD("FWDCMP-");
+
+  /** The code used in the names of the time series. */
+  private final String code;
+
+  private CompoundingConvention(String code) {
+    this.code = code;
+  }
+
+  /**
+   * Returns the code used in the names of the time series.
+   * <p>
+   * The conventions with a number of days add the number of days and a dash after the code.
+   *
+   * @return the code
+   */
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * Returns true if the convention uses a number of days.
+   *
+   * @return true if a number of days is used
+   */
+  public boolean hasDays() {
+    return this != IN_ARREARS && this != FORWARD_PERIOD;
+  }
+
+}
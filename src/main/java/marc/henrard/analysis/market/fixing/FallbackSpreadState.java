@@ -0,0 +1,605 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.fixing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+
+import marc.henrard.analysis.statistics.RunningStatistics;
+import marc.henrard.analysis.statistics.SortedDoubleWindow;
+
+/**
+ * State of the computation of a fallback spread, updated incrementally with new fixings and persisted between
+ * updates.
+ * <p>
+ * The spread on an IBOR fixing date is the IBOR fixing minus the overnight rate compounded on the IBOR period,
+ * see {@link CompoundedRateSpecification}. For each new spread, the state produces the median of the spreads in
+ * the lookback period before the date, like the ISDA fallback spread adjustment, and the expanding-window means and
+ * medians from the statistics start dates, each one on the spreads strictly before the date.
+ * <p>
+ * The first update, on an empty state, ingests the full history. The following updates ingest only the fixings
+ * after the last ones already ingested, compute the compounded rates that the new overnight fixings complete and
+ * update the statistics with the new spreads; the cost depends on the number of new fixings, not on the length of
+ * the history. The IBOR fixings waiting for their compounded rate are kept in the state.
+ * <p>
+ * The state is persisted in a compact binary file. All the numbers are little-endian. The file is composed of the
+ * magic number (int), the version (int), the overnight index, IBOR index and convention names and the number of
+ * days of the specification, the lookback period, the statistics start dates, the last ingested fixing dates, then
+ * the overnight fixings still required, the pending IBOR fixings, the compounded rates and the spreads, each one as
+ * a number of values (int), the dates as epoch-days (int) and the values (double), and the position of the first
+ * spread of the lookback window (int). The strings are a length in bytes (int) followed by the string in UTF-8.
+ * Only the spreads in the lookback window and after the first statistics start date are kept; the median window and
+ * the expanding statistics are rebuilt from them when the file is read.
+ *
+ * @author Marc Henrard
+ */
+public final class FallbackSpreadState {
+
+  /** The magic number at the start of the files: "MHFS". */
+  private static final int MAGIC = 0x4D484653;
+  /** The version of the format. */
+  private static final int VERSION = 1;
+  /** The overnight fixings kept before the first pending IBOR fixing, for the shift and lookback conventions. */
+  private static final Period OVERNIGHT_MARGIN = Period.ofMonths(1);
+  /** The watermark of a state without fixing. */
+  private static final int NO_DATE = Integer.MIN_VALUE;
+
+  /** The specification of the compounded rates. */
+  private final CompoundedRateSpecification specification;
+  /** The lookback period of the median. */
+  private final Period lookback;
+  /** The start dates of the expanding-window statistics, as epoch-days. */
+  private final int[] startDates;
+  /** The last overnight fixing date ingested, as epoch-day. */
+  private int lastOvernightDate;
+  /** The last IBOR fixing date ingested, as epoch-day. */
+  private int lastIborDate;
+  /** The overnight fixings required for the pending IBOR fixings. */
+  private final Column overnightFixings;
+  /** The IBOR fixings without compounded rate yet. */
+  private final Column pendingIborFixings;
+  /** The compounded rates, by IBOR fixing date. */
+  private final Column compoundedRates;
+  /** The spreads, by IBOR fixing date. */
+  private final Column spreads;
+  /** The position in the spreads of the first value in the lookback window. */
+  private int windowFirst;
+  /** The spreads in the lookback window. */
+  private final SortedDoubleWindow window;
+  /** The expanding-window statistics, by start date. */
+  private final RunningStatistics[] expanding;
+
+  private FallbackSpreadState(
+      CompoundedRateSpecification specification,
+      Period lookback,
+      int[] startDates,
+      int lastOvernightDate,
+      int lastIborDate,
+      Column overnightFixings,
+      Column pendingIborFixings,
+      Column compoundedRates,
+      Column spreads,
+      int windowFirst) {
+
+    this.specification = specification;
+    this.lookback = lookback;
+    this.startDates = startDates;
+    this.lastOvernightDate = lastOvernightDate;
+    this.lastIborDate = lastIborDate;
+    this.overnightFixings = overnightFixings;
+    this.pendingIborFixings = pendingIborFixings;
+    this.compoundedRates = compoundedRates;
+    this.spreads = spreads;
+    this.windowFirst = windowFirst;
+    this.window = SortedDoubleWindow.of(Arrays.copyOfRange(spreads.values, windowFirst, spreads.size));
+    this.expanding = new RunningStatistics[startDates.length];
+    for (int loopstart = 0; loopstart < startDates.length; loopstart++) {
+      expanding[loopstart] = RunningStatistics.create();
+      for (int loopspread = 0; loopspread < spreads.size; loopspread++) {
+        if (spreads.dates[loopspread] >= startDates[loopstart]) {
+          expanding[loopstart].add(spreads.values[loopspread]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates an empty state.
+   *
+   * @param specification  the specification of the compounded rates
+   * @param lookback  the lookback period of the median
+   * @param statisticsStartDates  the start dates of the expanding-window statistics
+   * @return the state
+   */
+  public static FallbackSpreadState of(
+      CompoundedRateSpecification specification,
+      Period lookback,
+      List<LocalDate> statisticsStartDates) {
+
+    ArgChecker.notNull(specification, "specification");
+    ArgChecker.isFalse(lookback.isNegative() || lookback.isZero(), "lookback must be positive");
+    int[] startDates = statisticsStartDates.stream()
+        .mapToInt(date -> Math.toIntExact(date.toEpochDay()))
+        .toArray();
+    return new FallbackSpreadState(specification, lookback, startDates, NO_DATE, NO_DATE,
+        Column.empty(), Column.empty(), Column.empty(), Column.empty(), 0);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the specification of the compounded rates.
+   *
+   * @return the specification
+   */
+  public CompoundedRateSpecification getSpecification() {
+    return specification;
+  }
+
+  /**
+   * Returns the lookback period of the median.
+   *
+   * @return the period
+   */
+  public Period getLookback() {
+    return lookback;
+  }
+
+  /**
+   * Returns the date of the last overnight fixing ingested, empty if none.
+   * <p>
+   * The next update uses only the overnight fixings after this date.
+   *
+   * @return the date
+   */
+  public Optional<LocalDate> getLastOvernightFixingDate() {
+    return (lastOvernightDate == NO_DATE) ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(lastOvernightDate));
+  }
+
+  /**
+   * Returns the date of the last IBOR fixing ingested, empty if none.
+   * <p>
+   * The next update uses only the IBOR fixings after this date.
+   *
+   * @return the date
+   */
+  public Optional<LocalDate> getLastIborFixingDate() {
+    return (lastIborDate == NO_DATE) ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(lastIborDate));
+  }
+
+  /**
+   * Returns the number of IBOR fixings waiting for their compounded rate.
+   *
+   * @return the number of fixings
+   */
+  public int getPendingIborFixingCount() {
+    return pendingIborFixings.size;
+  }
+
+  /**
+   * Returns the spreads kept in the state, by IBOR fixing date.
+   *
+   * @return the spreads
+   */
+  public LocalDateDoubleTimeSeries spreads() {
+    return spreads.toTimeSeries();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Updates the state with new fixings.
+   * <p>
+   * Only the fixings after the last ingested ones are used; the time series can be the full history or only the
+   * new days.
+   *
+   * @param overnightFixings  the overnight fixings
+   * @param iborFixings  the IBOR fixings
+   * @param refData  the reference data
+   * @return the new spreads and statistics
+   */
+  public Update update(
+      LocalDateDoubleTimeSeries overnightFixings,
+      LocalDateDoubleTimeSeries iborFixings,
+      ReferenceData refData) {
+
+    overnightFixings.forEach((date, value) -> {
+      int epochDay = Math.toIntExact(date.toEpochDay());
+      if (epochDay > lastOvernightDate) {
+        this.overnightFixings.add(epochDay, value);
+        lastOvernightDate = epochDay;
+      }
+    });
+    iborFixings.forEach((date, value) -> {
+      int epochDay = Math.toIntExact(date.toEpochDay());
+      if (epochDay > lastIborDate) {
+        pendingIborFixings.add(epochDay, value);
+        lastIborDate = epochDay;
+      }
+    });
+    if (this.overnightFixings.size == 0 || pendingIborFixings.size == 0) {
+      return Update.empty(startDates.length);
+    }
+    /* Compounded rates on the pending IBOR fixing dates covered by the overnight fixings */
+    OvernightIndex overnightIndex = specification.getOvernightIndex();
+    CompoundedRateSeries rates = CompoundedRatePipeline.of(refData)
+        .compute(
+            ImmutableMap.of(IndexQuoteId.of(overnightIndex), this.overnightFixings.toTimeSeries()),
+            ImmutableList.of(specification),
+            LocalDate.ofEpochDay(pendingIborFixings.dates[0]),
+            LocalDate.ofEpochDay(pendingIborFixings.dates[pendingIborFixings.size - 1]))
+        .get(specification);
+    int maxSize = pendingIborFixings.size;
+    Update update = new Update(maxSize, startDates.length);
+    int lastComputed = NO_DATE;
+    int looprate = 0;
+    for (int looppending = 0; looppending < pendingIborFixings.size; looppending++) {
+      int fixingDate = pendingIborFixings.dates[looppending];
+      while (looprate < rates.size() && rates.getFixingDate(looprate) < fixingDate) {
+        looprate++;
+      }
+      if (looprate < rates.size() && rates.getFixingDate(looprate) == fixingDate) {
+        double rate = rates.getRate(looprate);
+        addSpread(fixingDate, rate, pendingIborFixings.values[looppending] - rate, update);
+        lastComputed = fixingDate;
+      }
+    }
+    /* Pending fixings: after the last computed one; the earlier ones are never covered */
+    pendingIborFixings.removeFirst(pendingIborFixings.firstIndexAfter(lastComputed));
+    int anchor = (pendingIborFixings.size > 0) ? pendingIborFixings.dates[0] : lastIborDate;
+    int firstOvernight = Math.toIntExact(LocalDate.ofEpochDay(anchor).minus(OVERNIGHT_MARGIN).toEpochDay());
+    this.overnightFixings.removeFirst(this.overnightFixings.firstIndexAfter(firstOvernight - 1));
+    /* Spreads: lookback window and expanding statistics */
+    int firstKept = windowFirst;
+    for (int startDate : startDates) {
+      firstKept = Math.min(firstKept, spreads.firstIndexAfter(startDate - 1));
+    }
+    spreads.removeFirst(firstKept);
+    compoundedRates.removeFirst(firstKept);
+    windowFirst -= firstKept;
+    return update;
+  }
+
+  /* Adds a spread: statistics before the spread, then the spread in the window and the statistics. */
+  private void addSpread(int fixingDate, double rate, double spread, Update update) {
+    int windowStart = Math.toIntExact(LocalDate.ofEpochDay(fixingDate).minus(lookback).toEpochDay());
+    while (windowFirst < spreads.size && spreads.dates[windowFirst] < windowStart) {
+      window.remove(spreads.values[windowFirst++]);
+    }
+    int position = update.size++;
+    update.fixingDates[position] = fixingDate;
+    update.compoundedRates[position] = rate;
+    update.spreads[position] = spread;
+    update.lookbackMedians[position] = (window.size() > 0) ? window.median() : Double.NaN;
+    for (int loopstart = 0; loopstart < startDates.length; loopstart++) {
+      RunningStatistics stat = expanding[loopstart];
+      boolean started = fixingDate >= startDates[loopstart];
+      update.means[loopstart][position] = (started && stat.size() > 0) ? stat.mean() : Double.NaN;
+      update.medians[loopstart][position] = (started && stat.size() > 0) ? stat.median() : Double.NaN;
+      if (started) {
+        stat.add(spread);
+      }
+    }
+    compoundedRates.add(fixingDate, rate);
+    spreads.add(fixingDate, spread);
+    window.add(spread);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Writes the state to a file.
+   * <p>
+   * The state is written in a temporary file in the same folder, then moved atomically to the file. A failure
+   * during the write leaves the previous state file unchanged.
+   *
+   * @param fileName  the file name
+   * @throws IOException  in case of export problem
+   */
+  public void write(String fileName) throws IOException {
+    byte[][] names = {
+        specification.getOvernightIndex().getName().getBytes(StandardCharsets.UTF_8),
+        specification.getIborIndex().getName().getBytes(StandardCharsets.UTF_8),
+        specification.getConvention().name().getBytes(StandardCharsets.UTF_8),
+        lookback.toString().getBytes(StandardCharsets.UTF_8)};
+    int size = 2 * Integer.BYTES;
+    for (byte[] name : names) {
+      size += Integer.BYTES + name.length;
+    }
+    size += Integer.BYTES + Integer.BYTES * (1 + startDates.length) + 2 * Integer.BYTES;
+    size += overnightFixings.byteSize() + pendingIborFixings.byteSize() + compoundedRates.byteSize() +
+        spreads.byteSize() + Integer.BYTES;
+    ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+    for (int loopname = 0; loopname < 3; loopname++) {
+      putString(buffer, names[loopname]);
+    }
+    buffer.putInt(specification.getDays());
+    putString(buffer, names[3]);
+    buffer.putInt(startDates.length);
+    for (int startDate : startDates) {
+      buffer.putInt(startDate);
+    }
+    buffer.putInt(lastOvernightDate);
+    buffer.putInt(lastIborDate);
+    overnightFixings.write(buffer);
+    pendingIborFixings.write(buffer);
+    compoundedRates.write(buffer);
+    spreads.write(buffer);
+    buffer.putInt(windowFirst);
+    buffer.flip();
+    Path file = Paths.get(fileName).toAbsolutePath();
+    Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(true);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Reads a state from a file.
+   *
+   * @param fileName  the file name
+   * @return the state
+   * @throws IOException  in case of read problem
+   */
+  public static FallbackSpreadState read(String fileName) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(fileName))).order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not a fallback spread state file: " + fileName);
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported fallback spread state version " + version + ": " + fileName);
+    }
+    OvernightIndex overnightIndex = OvernightIndex.of(getString(buffer));
+    IborIndex iborIndex = IborIndex.of(getString(buffer));
+    CompoundingConvention convention = CompoundingConvention.valueOf(getString(buffer));
+    int days = buffer.getInt();
+    Period lookback = Period.parse(getString(buffer));
+    int[] startDates = new int[buffer.getInt()];
+    for (int loopstart = 0; loopstart < startDates.length; loopstart++) {
+      startDates[loopstart] = buffer.getInt();
+    }
+    int lastOvernightDate = buffer.getInt();
+    int lastIborDate = buffer.getInt();
+    Column overnightFixings = Column.read(buffer);
+    Column pendingIborFixings = Column.read(buffer);
+    Column compoundedRates = Column.read(buffer);
+    Column spreads = Column.read(buffer);
+    int windowFirst = buffer.getInt();
+    return new FallbackSpreadState(
+        CompoundedRateSpecification.of(overnightIndex, iborIndex, convention, days),
+        lookback,
+        startDates,
+        lastOvernightDate,
+        lastIborDate,
+        overnightFixings,
+        pendingIborFixings,
+        compoundedRates,
+        spreads,
+        windowFirst);
+  }
+
+  private static void putString(ByteBuffer buffer, byte[] bytes) {
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  //-------------------------------------------------------------------------
+  /* Growable column of values by date, as epoch-day, in increasing date order. */
+  private static final class Column {
+
+    private int[] dates;
+    private double[] values;
+    private int size;
+
+    private Column(int[] dates, double[] values) {
+      this.dates = dates;
+      this.values = values;
+      this.size = dates.length;
+    }
+
+    static Column empty() {
+      return new Column(new int[0], new double[0]);
+    }
+
+    void add(int date, double value) {
+      if (size == dates.length) {
+        int capacity = Math.max(16, 2 * size);
+        dates = Arrays.copyOf(dates, capacity);
+        values = Arrays.copyOf(values, capacity);
+      }
+      dates[size] = date;
+      values[size] = value;
+      size++;
+    }
+
+    /* The position of the first date strictly after the given one. */
+    int firstIndexAfter(int date) {
+      int position = Arrays.binarySearch(dates, 0, size, date);
+      return (position >= 0) ? position + 1 : -position - 1;
+    }
+
+    void removeFirst(int count) {
+      System.arraycopy(dates, count, dates, 0, size - count);
+      System.arraycopy(values, count, values, 0, size - count);
+      size -= count;
+    }
+
+    LocalDateDoubleTimeSeries toTimeSeries() {
+      LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+      for (int loopdate = 0; loopdate < size; loopdate++) {
+        builder.put(LocalDate.ofEpochDay(dates[loopdate]), values[loopdate]);
+      }
+      return builder.build();
+    }
+
+    int byteSize() {
+      return Integer.BYTES + size * (Integer.BYTES + Double.BYTES);
+    }
+
+    void write(ByteBuffer buffer) {
+      buffer.putInt(size);
+      for (int loopdate = 0; loopdate < size; loopdate++) {
+        buffer.putInt(dates[loopdate]);
+      }
+      for (int loopdate = 0; loopdate < size; loopdate++) {
+        buffer.putDouble(values[loopdate]);
+      }
+    }
+
+    static Column read(ByteBuffer buffer) {
+      int size = buffer.getInt();
+      int[] dates = new int[size];
+      double[] values = new double[size];
+      buffer.asIntBuffer().get(dates);
+      buffer.position(buffer.position() + size * Integer.BYTES);
+      buffer.asDoubleBuffer().get(values);
+      buffer.position(buffer.position() + size * Double.BYTES);
+      return new Column(dates, values);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The spreads and statistics produced by an update, by IBOR fixing date.
+   */
+  public static final class Update {
+
+    /** The number of new spreads. */
+    private int size;
+    /** The IBOR fixing dates, as epoch-days. */
+    private final int[] fixingDates;
+    /** The compounded rates. */
+    private final double[] compoundedRates;
+    /** The spreads. */
+    private final double[] spreads;
+    /** The medians on the lookback period before the dates. */
+    private final double[] lookbackMedians;
+    /** The expanding-window means, by statistics start date. */
+    private final double[][] means;
+    /** The expanding-window medians, by statistics start date. */
+    private final double[][] medians;
+
+    private Update(int maxSize, int nbStarts) {
+      this.fixingDates = new int[maxSize];
+      this.compoundedRates = new double[maxSize];
+      this.spreads = new double[maxSize];
+      this.lookbackMedians = new double[maxSize];
+      this.means = new double[nbStarts][maxSize];
+      this.medians = new double[nbStarts][maxSize];
+    }
+
+    static Update empty(int nbStarts) {
+      return new Update(0, nbStarts);
+    }
+
+    /**
+     * Returns the number of new spreads.
+     *
+     * @return the size
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Returns the IBOR fixing date.
+     *
+     * @param position  the position in the update
+     * @return the date
+     */
+    public LocalDate getFixingDate(int position) {
+      return LocalDate.ofEpochDay(fixingDates[position]);
+    }
+
+    /**
+     * Returns the compounded rate.
+     *
+     * @param position  the position in the update
+     * @return the rate
+     */
+    public double getCompoundedRate(int position) {
+      return compoundedRates[position];
+    }
+
+    /**
+     * Returns the spread, IBOR fixing minus compounded rate.
+     *
+     * @param position  the position in the update
+     * @return the spread
+     */
+    public double getSpread(int position) {
+      return spreads[position];
+    }
+
+    /**
+     * Returns the median of the spreads in the lookback period before the date, NaN if there is none.
+     *
+     * @param position  the position in the update
+     * @return the median
+     */
+    public double getLookbackMedian(int position) {
+      return lookbackMedians[position];
+    }
+
+    /**
+     * Returns the mean of the spreads from a statistics start date to the date, NaN if there is none.
+     *
+     * @param start  the index of the statistics start date
+     * @param position  the position in the update
+     * @return the mean
+     */
+    public double getMean(int start, int position) {
+      return means[start][position];
+    }
+
+    /**
+     * Returns the median of the spreads from a statistics start date to the date, NaN if there is none.
+     *
+     * @param start  the index of the statistics start date
+     * @param position  the position in the update
+     * @return the median
+     */
+    public double getMedian(int start, int position) {
+      return medians[start][position];
+    }
+  }
+
+}
@@ -0,0 +1,302 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.fixing;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.OptionalDouble;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.product.rate.OvernightCompoundedRateComputation;
+
+/**
+ * Compounding index of an overnight benchmark, for the computation of compounded-in-arrears rates in constant time.
+ * <p>
+ * The fixing dates are the good business days of the fixing calendar of the index, from the first fixing of the
+ * time series to the day after the last fixing. Each fixing date has an ordinal, its position in that list.
+ * The index stores, for each ordinal k, the product of the factors (1 + delta * r) of the fixings with ordinal
+ * strictly below k, where delta is the accrual factor between the effective and the maturity date of the fixing.
+ * <p>
+ * The composition factor on the fixings between two ordinals is the ratio of the two cumulative products.
+ * The compounded rates are the same as the ones obtained by a direct composition, like in
+ * {@code FallbackUtils.compoundedInArrears}, up to the rounding of the division.
+ * <p>
+ * The fixings missing in the time series are recorded; a computation on a period with missing fixings fails.
+ * <p>
+ * The index can be built with a lookback: the factor of each accrual day uses the accrual factor of the day and the
+ * fixing of the business day a number of days before. A lockout, where the last fixings of the period are replaced
+ * by the fixing a number of days before the end, is computed with the cumulative product up to the lockout and
+ * the few locked-out days.
+ *
+ * @author Marc Henrard
+ */
+public final class OvernightCompoundingIndex {
+
+  /** The overnight index. */
+  private final OvernightIndex index;
+  /** The number of business days of lookback. */
+  private final int lookbackDays;
+  /** The reference data, used to compute the fixing dates from the effective dates. */
+  private final ReferenceData refData;
+  /** The fixing dates, as epoch-days, by ordinal. The last date is the day after the last fixing. */
+  private final int[] fixingEpochDays;
+  /** The cumulative products of the composition factors, for the fixings strictly before each ordinal. */
+  private final double[] cumulativeFactors;
+  /** The cumulative number of missing fixings, strictly before each ordinal. */
+  private final int[] cumulativeMissing;
+  /** The accrual factors, by ordinal. */
+  private final double[] accrualFactors;
+  /** The fixings, by ordinal. NaN for the missing fixings. */
+  private final double[] fixings;
+
+  private OvernightCompoundingIndex(
+      OvernightIndex index,
+      int lookbackDays,
+      ReferenceData refData,
+      int[] fixingEpochDays,
+      double[] cumulativeFactors,
+      int[] cumulativeMissing,
+      double[] accrualFactors,
+      double[] fixings) {
+
+    this.index = index;
+    this.lookbackDays = lookbackDays;
+    this.refData = refData;
+    this.fixingEpochDays = fixingEpochDays;
+    this.cumulativeFactors = cumulativeFactors;
+    this.cumulativeMissing = cumulativeMissing;
+    this.accrualFactors = accrualFactors;
+    this.fixings = fixings;
+  }
+
+  /**
+   * Creates the compounding index from the time series of fixings.
+   * <p>
+   * The index is built in one pass over the business days of the time series.
+   *
+   * @param index  the overnight index
+   * @param fixings  the time series of fixings, by fixing date
+   * @param refData  the reference data
+   * @return the compounding index
+   */
+  public static OvernightCompoundingIndex of(
+      OvernightIndex index,
+      LocalDateDoubleTimeSeries fixings,
+      ReferenceData refData) {
+
+    return of(index, fixings, 0, refData);
+  }
+
+  /**
+   * Creates the compounding index with a lookback from the time series of fixings.
+   * <p>
+   * The factor of the accrual day with ordinal k is (1 + delta_k * r_(k-lookback)). The first accrual days, without
+   * fixing in the lookback, are considered as missing.
+   *
+   * @param index  the overnight index
+   * @param fixings  the time series of fixings, by fixing date
+   * @param lookbackDays  the number of business days of lookback
+   * @param refData  the reference data
+   * @return the compounding index
+   */
+  public static OvernightCompoundingIndex of(
+      OvernightIndex index,
+      LocalDateDoubleTimeSeries fixings,
+      int lookbackDays,
+      ReferenceData refData) {
+
+    ArgChecker.isFalse(fixings.isEmpty(), "fixings must not be empty");
+    ArgChecker.notNegative(lookbackDays, "lookbackDays");
+    HolidayCalendar calendar = refData.getValue(index.getFixingCalendar());
+    LocalDate firstFixing = calendar.nextOrSame(fixings.getEarliestDate());
+    LocalDate lastFixing = fixings.getLatestDate();
+    int maxSize = Math.toIntExact(lastFixing.toEpochDay() - firstFixing.toEpochDay()) + 2;
+    int[] epochDays = new int[maxSize];
+    double[] cumulativeFactors = new double[maxSize];
+    int[] cumulativeMissing = new int[maxSize];
+    double[] accrualFactors = new double[maxSize];
+    double[] fixingValues = new double[maxSize];
+    cumulativeFactors[0] = 1.0d;
+    int nbFixings = 0;
+    LocalDate currentFixing = firstFixing;
+    while (!currentFixing.isAfter(lastFixing)) {
+      LocalDate effectiveDate = index.calculateEffectiveFromFixing(currentFixing, refData);
+      LocalDate maturityDate = index.calculateMaturityFromEffective(effectiveDate, refData);
+      OptionalDouble fixing = fixings.get(currentFixing);
+      epochDays[nbFixings] = Math.toIntExact(currentFixing.toEpochDay());
+      accrualFactors[nbFixings] = index.getDayCount().yearFraction(effectiveDate, maturityDate);
+      fixingValues[nbFixings] = fixing.isPresent() ? fixing.getAsDouble() : Double.NaN;
+      double rate = (nbFixings >= lookbackDays) ? fixingValues[nbFixings - lookbackDays] : Double.NaN;
+      if (Double.isNaN(rate)) {
+        cumulativeFactors[nbFixings + 1] = cumulativeFactors[nbFixings];
+        cumulativeMissing[nbFixings + 1] = cumulativeMissing[nbFixings] + 1;
+      } else {
+        cumulativeFactors[nbFixings + 1] = cumulativeFactors[nbFixings] * (1.0d + accrualFactors[nbFixings] * rate);
+        cumulativeMissing[nbFixings + 1] = cumulativeMissing[nbFixings];
+      }
+      nbFixings++;
+      currentFixing = calendar.next(currentFixing);
+    }
+    epochDays[nbFixings] = Math.toIntExact(currentFixing.toEpochDay());
+    return new OvernightCompoundingIndex(
+        index,
+        lookbackDays,
+        refData,
+        Arrays.copyOf(epochDays, nbFixings + 1),
+        Arrays.copyOf(cumulativeFactors, nbFixings + 1),
+        Arrays.copyOf(cumulativeMissing, nbFixings + 1),
+        Arrays.copyOf(accrualFactors, nbFixings),
+        Arrays.copyOf(fixingValues, nbFixings));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the overnight index.
+   *
+   * @return the index
+   */
+  public OvernightIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the number of business days of lookback.
+   *
+   * @return the lookback
+   */
+  public int getLookbackDays() {
+    return lookbackDays;
+  }
+
+  /**
+   * Returns the number of fixing dates covered, i.e. the number of ordinals with a composition factor.
+   *
+   * @return the number of fixing dates
+   */
+  public int size() {
+    return fixingEpochDays.length - 1;
+  }
+
+  /**
+   * Returns the ordinal of a fixing date.
+   * <p>
+   * The day after the last fixing has the ordinal {@link #size()}.
+   *
+   * @param fixingDate  the fixing date
+   * @return the ordinal, -1 if the date is not a fixing date covered by the index
+   */
+  public int ordinal(LocalDate fixingDate) {
+    int position = Arrays.binarySearch(fixingEpochDays, Math.toIntExact(fixingDate.toEpochDay()));
+    return (position < 0) ? -1 : position;
+  }
+
+  /**
+   * Returns the fixing date of an ordinal.
+   *
+   * @param ordinal  the ordinal, between 0 and {@link #size()}
+   * @return the fixing date
+   */
+  public LocalDate fixingDate(int ordinal) {
+    return LocalDate.ofEpochDay(fixingEpochDays[ordinal]);
+  }
+
+  /**
+   * Returns the composition factor of the fixings with ordinal between start (inclusive) and end (exclusive).
+   *
+   * @param startOrdinal  the first ordinal, inclusive
+   * @param endOrdinal  the last ordinal, exclusive
+   * @return the composition factor, product of (1 + delta * r)
+   */
+  public double compositionFactor(int startOrdinal, int endOrdinal) {
+    ArgChecker.isTrue(0 <= startOrdinal && startOrdinal <= endOrdinal && endOrdinal < fixingEpochDays.length,
+        "ordinals must be in order and between 0 and {}", size());
+    ArgChecker.isTrue(cumulativeMissing[endOrdinal] == cumulativeMissing[startOrdinal],
+        "fixing missing between {} and {}", fixingDate(startOrdinal), fixingDate(endOrdinal));
+    return cumulativeFactors[endOrdinal] / cumulativeFactors[startOrdinal];
+  }
+
+  /**
+   * Returns the rate compounded in arrears between two effective dates.
+   * <p>
+   * The fixings used are the ones with an effective date on or after the start date and before the end date.
+   * The rate is the composition factor minus one, divided by the accrual factor between the two dates.
+   *
+   * @param startDate  the start date, the effective date of the first fixing
+   * @param endDate  the end date, the effective date of the first fixing not used
+   * @return the compounded rate
+   */
+  public double compoundedInArrears(LocalDate startDate, LocalDate endDate) {
+    int startOrdinal = ordinal(index.calculateFixingFromEffective(startDate, refData));
+    int endOrdinal = ordinal(index.calculateFixingFromEffective(endDate, refData));
+    ArgChecker.isTrue(startOrdinal >= 0, "start date {} not covered by the fixings", startDate);
+    ArgChecker.isTrue(endOrdinal >= 0, "end date {} not covered by the fixings", endDate);
+    double accrualFactor = index.getDayCount().yearFraction(startDate, endDate);
+    return (compositionFactor(startOrdinal, endOrdinal) - 1.0d) / accrualFactor;
+  }
+
+  /**
+   * Checks if the period between two effective dates is in the range of the index.
+   * <p>
+   * The period is in the range if the fixing dates of the start and end dates have an ordinal and the start is
+   * after the lookback of the first fixing. The fixings in the period may still be missing.
+   *
+   * @param startDate  the start date
+   * @param endDate  the end date
+   * @return true if the period is in the range
+   */
+  public boolean covers(LocalDate startDate, LocalDate endDate) {
+    int startOrdinal = ordinal(index.calculateFixingFromEffective(startDate, refData));
+    int endOrdinal = ordinal(index.calculateFixingFromEffective(endDate, refData));
+    return startOrdinal >= lookbackDays && endOrdinal >= startOrdinal;
+  }
+
+  /**
+   * Returns the rate compounded in arrears between two effective dates with a lockout.
+   * <p>
+   * The last lockout days of the period use the rate of the day before the lockout, i.e. the rate known
+   * lockout days before the end of the period.
+   *
+   * @param startDate  the start date, the effective date of the first fixing
+   * @param endDate  the end date, the effective date of the first fixing not used
+   * @param lockoutDays  the number of business days of lockout
+   * @return the compounded rate
+   */
+  public double compoundedInArrears(LocalDate startDate, LocalDate endDate, int lockoutDays) {
+    int startOrdinal = ordinal(index.calculateFixingFromEffective(startDate, refData));
+    int endOrdinal = ordinal(index.calculateFixingFromEffective(endDate, refData));
+    ArgChecker.isTrue(startOrdinal >= 0, "start date {} not covered by the fixings", startDate);
+    ArgChecker.isTrue(endOrdinal >= 0, "end date {} not covered by the fixings", endDate);
+    int lockoutOrdinal = endOrdinal - lockoutDays;
+    ArgChecker.isTrue(lockoutOrdinal > startOrdinal, "lockout longer than the period {} - {}", startDate, endDate);
+    double compositionFactor = compositionFactor(startOrdinal, lockoutOrdinal);
+    ArgChecker.isTrue(lockoutOrdinal - 1 - lookbackDays >= 0,
+        "lockout fixing before the first fixing for period {} - {}", startDate, endDate);
+    double lockoutRate = fixings[lockoutOrdinal - 1 - lookbackDays];
+    ArgChecker.isFalse(Double.isNaN(lockoutRate), "lockout fixing missing for period {} - {}", startDate, endDate);
+    for (int loopday = lockoutOrdinal; loopday < endOrdinal; loopday++) {
+      compositionFactor *= 1.0d + accrualFactors[loopday] * lockoutRate;
+    }
+    double accrualFactor = index.getDayCount().yearFraction(startDate, endDate);
+    return (compositionFactor - 1.0d) / accrualFactor;
+  }
+
+  /**
+   * Returns the rate compounded in arrears for an overnight compounded computation.
+   * <p>
+   * The computation must be on the index of the compounding index. Only the start and end dates of the computation
+   * are used.
+   *
+   * @param computation  the overnight compounded computation
+   * @return the compounded rate
+   */
+  public double compoundedInArrears(OvernightCompoundedRateComputation computation) {
+    ArgChecker.isTrue(computation.getIndex().equals(index), "computation must be on {}", index);
+    return compoundedInArrears(computation.getStartDate(), computation.getEndDate());
+  }
+
+}
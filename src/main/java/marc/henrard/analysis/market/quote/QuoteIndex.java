@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.quote;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.market.curve.CurveDefinition;
+import com.opengamma.strata.market.curve.CurveNode;
+import com.opengamma.strata.market.curve.RatesCurveGroupDefinition;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * Dense layout of a set of quotes.
+ * <p>
+ * Each quote is associated to a slot in a {@code double[]}. The layout is computed once, typically from the nodes
+ * of a curve group definition, and shared by all the quote vectors and scenarios using it.
+ *
+ * @author Marc Henrard
+ */
+public final class QuoteIndex {
+
+  /** The quote identifiers, in the slot order. */
+  private final ImmutableList<QuoteId> quoteIds;
+  /** The slot of each quote. */
+  private final Map<QuoteId, Integer> slots;
+
+  private QuoteIndex(ImmutableList<QuoteId> quoteIds) {
+    this.quoteIds = quoteIds;
+    this.slots = new HashMap<>();
+    for (int loopslot = 0; loopslot < quoteIds.size(); loopslot++) {
+      slots.put(quoteIds.get(loopslot), loopslot);
+    }
+  }
+
+  /**
+   * Creates the layout from a list of quote identifiers.
+   *
+   * @param quoteIds  the quote identifiers, without duplicates
+   * @return the layout
+   */
+  public static QuoteIndex of(List<QuoteId> quoteIds) {
+    ArgChecker.isTrue(new LinkedHashSet<>(quoteIds).size() == quoteIds.size(), "quote identifiers must be unique");
+    return new QuoteIndex(ImmutableList.copyOf(quoteIds));
+  }
+
+  /**
+   * Creates the layout for the quotes required by the nodes of a curve group definition.
+   * <p>
+   * The slots are in the order of the curves and of the nodes in each curve.
+   *
+   * @param groupDefinition  the curve group definition
+   * @return the layout
+   */
+  public static QuoteIndex of(RatesCurveGroupDefinition groupDefinition) {
+    Set<QuoteId> quoteIds = new LinkedHashSet<>();
+    for (CurveDefinition curveDefinition : groupDefinition.getCurveDefinitions()) {
+      for (CurveNode node : curveDefinition.getNodes()) {
+        for (MarketDataId<?> id : node.requirements()) {
+          if (id instanceof QuoteId) {
+            quoteIds.add((QuoteId) id);
+          }
+        }
+      }
+    }
+    return new QuoteIndex(ImmutableList.copyOf(quoteIds));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the number of quotes.
+   *
+   * @return the size
+   */
+  public int size() {
+    return quoteIds.size();
+  }
+
+  /**
+   * Returns the quote identifiers, in the slot order.
+   *
+   * @return the identifiers
+   */
+  public ImmutableList<QuoteId> getQuoteIds() {
+    return quoteIds;
+  }
+
+  /**
+   * Returns the slot of a quote.
+   *
+   * @param quoteId  the quote identifier
+   * @return the slot, -1 if the quote is not in the layout
+   */
+  public int slot(QuoteId quoteId) {
+    Integer slot = slots.get(quoteId);
+    return (slot == null) ? -1 : slot;
+  }
+
+  /**
+   * Loads the quotes from market data into a new array.
+   *
+   * @param marketData  the market data
+   * @return the quotes, in the slot order
+   */
+  public double[] values(MarketData marketData) {
+    double[] values = new double[quoteIds.size()];
+    for (int loopslot = 0; loopslot < values.length; loopslot++) {
+      values[loopslot] = marketData.getValue(quoteIds.get(loopslot));
+    }
+    return values;
+  }
+
+  /**
+   * Creates the market data view on quotes loaded from market data.
+   * <p>
+   * The other market data, like time series, are taken from the base market data.
+   *
+   * @param marketData  the market data, with the quotes and the other market data
+   * @return the view
+   */
+  public QuoteVectorMarketData marketData(MarketData marketData) {
+    return QuoteVectorMarketData.of(this, values(marketData), marketData);
+  }
+
+}
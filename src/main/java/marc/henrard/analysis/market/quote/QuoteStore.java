@@ -0,0 +1,295 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.quote;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+import com.opengamma.strata.data.FieldName;
+import com.opengamma.strata.data.ObservableSource;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * Multi-date quote store, memory-mapped from a file in the format described in {@link QuoteStoreFormat}.
+ * <p>
+ * The store is a ticker dictionary and a date x ticker matrix of values with a presence bitmap. The file is
+ * memory-mapped and the values are read directly from the mapped buffer; only the pages effectively read are
+ * loaded. The market data for one date is a view on the store, see {@link #marketData(LocalDate)}.
+ * The store is immutable and can be shared between threads. The format is limited to files of less than 2GB.
+ *
+ * @author Marc Henrard
+ */
+public final class QuoteStore {
+
+  /** The tickers, in the slot order. */
+  private final ImmutableList<QuoteId> tickers;
+  /** The slot of each ticker. */
+  private final Map<QuoteId, Integer> slots;
+  /** The dates, as epoch-days, in increasing order. */
+  private final IntBuffer dates;
+  /** The presence bitmap, by date. */
+  private final LongBuffer bitmap;
+  /** The values, by date. */
+  private final DoubleBuffer values;
+  /** The number of dates. */
+  private final int nbDates;
+  /** The number of bitmap words for each date. */
+  private final int nbWords;
+
+  private QuoteStore(
+      ImmutableList<QuoteId> tickers,
+      int nbDates,
+      IntBuffer dates,
+      LongBuffer bitmap,
+      DoubleBuffer values) {
+
+    this.tickers = tickers;
+    this.slots = new HashMap<>();
+    for (int loopslot = 0; loopslot < tickers.size(); loopslot++) {
+      slots.put(tickers.get(loopslot), loopslot);
+    }
+    this.nbDates = nbDates;
+    this.dates = dates;
+    this.bitmap = bitmap;
+    this.values = values;
+    this.nbWords = QuoteStoreFormat.nbWords(tickers.size());
+  }
+
+  /**
+   * Opens a store file and maps it in memory.
+   *
+   * @param fileName  the file name
+   * @return the store
+   * @throws IOException  in case of reading problem or if the file is not a valid quote store file
+   */
+  public static QuoteStore of(String fileName) throws IOException {
+    MappedByteBuffer mapped;
+    long fileSize;
+    try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+      fileSize = channel.size();
+      if (fileSize < QuoteStoreFormat.HEADER_SIZE) {
+        throw new IOException("Not a quote store file: " + fileName);
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+    }
+    ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt(0) != QuoteStoreFormat.MAGIC) {
+      throw new IOException("Not a quote store file: " + fileName);
+    }
+    int version = buffer.getInt(4);
+    if (version != QuoteStoreFormat.VERSION) {
+      throw new IOException("Unsupported quote store version " + version + ": " + fileName);
+    }
+    int nbDates = buffer.getInt(8);
+    int nbTickers = buffer.getInt(12);
+    long datesOffset = buffer.getLong(16);
+    long bitmapOffset = buffer.getLong(24);
+    long valuesOffset = buffer.getLong(32);
+    int nbWords = QuoteStoreFormat.nbWords(nbTickers);
+    if (nbDates < 0 || nbTickers < 0 || datesOffset < QuoteStoreFormat.HEADER_SIZE ||
+        !inFile(datesOffset, (long) Integer.BYTES * nbDates, fileSize) ||
+        !inFile(bitmapOffset, (long) Long.BYTES * nbWords * nbDates, fileSize) ||
+        !inFile(valuesOffset, (long) Double.BYTES * nbTickers * nbDates, fileSize)) {
+      throw new IOException("Truncated quote store file: " + fileName);
+    }
+    ByteBuffer dictionary =
+        slice(buffer, QuoteStoreFormat.HEADER_SIZE, (int) datesOffset - QuoteStoreFormat.HEADER_SIZE);
+    ImmutableList.Builder<QuoteId> tickers = ImmutableList.builder();
+    for (int loopticker = 0; loopticker < nbTickers; loopticker++) {
+      String scheme = readString(dictionary, fileName);
+      String value = readString(dictionary, fileName);
+      String field = readString(dictionary, fileName);
+      String source = readString(dictionary, fileName);
+      tickers.add(QuoteId.of(StandardId.of(scheme, value), FieldName.of(field), ObservableSource.of(source)));
+    }
+    return new QuoteStore(
+        tickers.build(),
+        nbDates,
+        slice(buffer, (int) datesOffset, Integer.BYTES * nbDates).asIntBuffer(),
+        slice(buffer, (int) bitmapOffset, Long.BYTES * nbWords * nbDates).asLongBuffer(),
+        slice(buffer, (int) valuesOffset, Double.BYTES * nbTickers * nbDates).asDoubleBuffer());
+  }
+
+  /* Checks that the bytes from the offset are in the file. */
+  private static boolean inFile(long offset, long length, long fileSize) {
+    return offset >= 0 && offset + length <= fileSize;
+  }
+
+  /* Slice of the buffer, keeping the byte order. */
+  private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+    ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(offset);
+    duplicate.limit(offset + length);
+    return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /* Reads a string stored as length and UTF-8 bytes, moving the position of the buffer. */
+  private static String readString(ByteBuffer buffer, String fileName) throws IOException {
+    if (buffer.remaining() < Integer.BYTES) {
+      throw new IOException("Truncated quote store file: " + fileName);
+    }
+    int length = buffer.getInt();
+    if (length < 0 || buffer.remaining() < length) {
+      throw new IOException("Truncated quote store file: " + fileName);
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the number of dates.
+   *
+   * @return the number of dates
+   */
+  public int getNbDates() {
+    return nbDates;
+  }
+
+  /**
+   * Returns the tickers, in the slot order.
+   *
+   * @return the tickers
+   */
+  public ImmutableList<QuoteId> getTickers() {
+    return tickers;
+  }
+
+  /**
+   * Returns the date of a row.
+   *
+   * @param row  the row
+   * @return the date
+   */
+  public LocalDate getDate(int row) {
+    return LocalDate.ofEpochDay(dates.get(row));
+  }
+
+  /**
+   * Returns the row of a date.
+   *
+   * @param date  the date
+   * @return the row, -1 if the date is not in the store
+   */
+  public int row(LocalDate date) {
+    long epochDay = date.toEpochDay();
+    int low = 0;
+    int high = nbDates - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int middleDay = dates.get(middle);
+      if (middleDay < epochDay) {
+        low = middle + 1;
+      } else if (middleDay > epochDay) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the slot of a ticker.
+   *
+   * @param ticker  the ticker
+   * @return the slot, -1 if the ticker is not in the store
+   */
+  public int slot(QuoteId ticker) {
+    Integer slot = slots.get(ticker);
+    return (slot == null) ? -1 : slot;
+  }
+
+  /**
+   * Returns true if the quote of a ticker is present on a date.
+   *
+   * @param row  the row of the date
+   * @param slot  the slot of the ticker
+   * @return true if present
+   */
+  public boolean isPresent(int row, int slot) {
+    long word = bitmap.get(row * nbWords + slot / Long.SIZE);
+    return (word & (1L << (slot % Long.SIZE))) != 0;
+  }
+
+  /**
+   * Returns the value of a ticker on a date. The value is NaN if the quote is not present.
+   *
+   * @param row  the row of the date
+   * @param slot  the slot of the ticker
+   * @return the value
+   */
+  public double getValue(int row, int slot) {
+    return values.get(row * tickers.size() + slot);
+  }
+
+  /**
+   * Returns the number of quotes present on a date.
+   *
+   * @param row  the row of the date
+   * @return the number of quotes
+   */
+  public int nbPresent(int row) {
+    int count = 0;
+    for (int loopword = 0; loopword < nbWords; loopword++) {
+      count += Long.bitCount(bitmap.get(row * nbWords + loopword));
+    }
+    return count;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the market data view on the quotes of a date.
+   * <p>
+   * The view reads the values from the mapped store; nothing is copied. The view contains only quotes; the fixings
+   * can be added with {@code MarketData.combinedWith}.
+   *
+   * @param date  the date
+   * @return the market data
+   */
+  public QuoteStoreMarketData marketData(LocalDate date) {
+    int row = row(date);
+    ArgChecker.isTrue(row >= 0, "date {} not in the quote store", date);
+    return new QuoteStoreMarketData(this, row, date);
+  }
+
+  /**
+   * Returns the time series of a ticker over all the dates where it is present.
+   *
+   * @param ticker  the ticker
+   * @return the time series, empty if the ticker is not in the store
+   */
+  public LocalDateDoubleTimeSeries timeSeries(QuoteId ticker) {
+    int slot = slot(ticker);
+    if (slot < 0) {
+      return LocalDateDoubleTimeSeries.empty();
+    }
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    for (int looprow = 0; looprow < nbDates; looprow++) {
+      if (isPresent(looprow, slot)) {
+        builder.put(getDate(looprow), getValue(looprow, slot));
+      }
+    }
+    return builder.build();
+  }
+
+}
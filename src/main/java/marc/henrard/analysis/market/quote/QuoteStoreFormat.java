@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.quote;
+
+/**
+ * Description of the binary format of the multi-date quote store.
+ * <p>
+ * All the numbers are little-endian. The file is composed of
+ * <ul>
+ * <li>the header: magic number (int), version (int), number of dates (int), number of tickers (int),
+ *   offset of the dates (long), offset of the presence bitmap (long), offset of the values (long);
+ * <li>the ticker dictionary: for each ticker, the scheme, the value, the field name and the observable source,
+ *   each one as a length in bytes (int) followed by the string in UTF-8;
+ * <li>the dates, as epoch-days (int), in increasing order, starting on a multiple of 8 bytes;
+ * <li>the presence bitmap: for each date, {@code (nbTickers + 63) / 64} words (long), bit {@code j % 64} of word
+ *   {@code j / 64} being set if the quote of ticker {@code j} is present on the date;
+ * <li>the values (double), date by date; for each date, one value for each ticker, NaN when absent.
+ * </ul>
+ * The quotes of a date are contiguous, so that the view on one date reads only a few pages of the mapped file.
+ *
+ * @author Marc Henrard
+ */
+final class QuoteStoreFormat {
+
+  /** The magic number at the start of the files: "MHQS". */
+  static final int MAGIC = 0x4D485153;
+  /** The version of the format. */
+  static final int VERSION = 1;
+  /** The size of the header in bytes. */
+  static final int HEADER_SIZE = 40;
+
+  /** Private constructor. */
+  private QuoteStoreFormat() {
+  }
+
+  /**
+   * Returns the number of bitmap words for each date.
+   *
+   * @param nbTickers  the number of tickers
+   * @return the number of words
+   */
+  static int nbWords(int nbTickers) {
+    return (nbTickers + Long.SIZE - 1) / Long.SIZE;
+  }
+
+  /**
+   * Returns the position rounded up to the next multiple of 8.
+   *
+   * @param position  the position
+   * @return the aligned position
+   */
+  static long align8(long position) {
+    return (position + 7L) & ~7L;
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.quote;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.MarketDataName;
+import com.opengamma.strata.data.MarketDataNotFoundException;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * Market data view on the quotes of one date of a {@link QuoteStore}.
+ * <p>
+ * The quotes are read from the mapped store on request; nothing is copied. The view contains only the quotes;
+ * it has no time series.
+ *
+ * @author Marc Henrard
+ */
+public final class QuoteStoreMarketData implements MarketData {
+
+  /** The store. */
+  private final QuoteStore store;
+  /** The row of the date in the store. */
+  private final int row;
+  /** The valuation date. */
+  private final LocalDate valuationDate;
+
+  QuoteStoreMarketData(QuoteStore store, int row, LocalDate valuationDate) {
+    this.store = store;
+    this.row = row;
+    this.valuationDate = valuationDate;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDate getValuationDate() {
+    return valuationDate;
+  }
+
+  @Override
+  public boolean containsValue(MarketDataId<?> id) {
+    return slot(id) >= 0;
+  }
+
+  @Override
+  public <T> T getValue(MarketDataId<T> id) {
+    return findValue(id).orElseThrow(() -> new MarketDataNotFoundException(
+        "Market data not found for identifier '" + id + "' on " + valuationDate));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Optional<T> findValue(MarketDataId<T> id) {
+    int slot = slot(id);
+    if (slot < 0) {
+      return Optional.empty();
+    }
+    return Optional.of((T) Double.valueOf(store.getValue(row, slot)));
+  }
+
+  @Override
+  public Set<MarketDataId<?>> getIds() {
+    Set<MarketDataId<?>> ids = new HashSet<>();
+    for (int loopslot = 0; loopslot < store.getTickers().size(); loopslot++) {
+      if (store.isPresent(row, loopslot)) {
+        ids.add(store.getTickers().get(loopslot));
+      }
+    }
+    return ids;
+  }
+
+  @Override
+  public <T> Set<MarketDataId<T>> findIds(MarketDataName<T> name) {
+    return ImmutableSet.of();
+  }
+
+  @Override
+  public Set<ObservableId> getTimeSeriesIds() {
+    return ImmutableSet.of();
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries getTimeSeries(ObservableId id) {
+    return LocalDateDoubleTimeSeries.empty();
+  }
+
+  /* The slot of the identifier if it is a quote present on the date, -1 otherwise. */
+  private int slot(MarketDataId<?> id) {
+    if (!(id instanceof QuoteId)) {
+      return -1;
+    }
+    int slot = store.slot((QuoteId) id);
+    return (slot >= 0 && store.isPresent(row, slot)) ? slot : -1;
+  }
+
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.quote;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.io.ResourceLocator;
+import com.opengamma.strata.loader.csv.QuotesCsvLoader;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * Converts quotes files into the multi-date quote store described in {@link QuoteStoreFormat}.
+ * <p>
+ * The conversion is done once; the store is then opened with {@link QuoteStore} without text parsing.
+ * The quote identifiers are numbered in the order in which they are first seen. The quotes of a date present
+ * in several files are merged, the last file taking precedence. The store is written in a temporary file then
+ * moved, so that an existing store is replaced only by a complete one.
+ *
+ * @author Marc Henrard
+ */
+public final class QuoteStoreWriter {
+
+  /** The prefix of the market data files converted by {@link #convertFolder(String, String)}. */
+  public static final String MARKET_DATA_PREFIX = "MARKET-DATA-";
+  /** The size of the write buffer. */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** Private constructor. */
+  private QuoteStoreWriter() {
+  }
+
+  /**
+   * Converts all the market data files of a folder, i.e. the csv files starting with {@link #MARKET_DATA_PREFIX}.
+   * <p>
+   * The files are converted in the order of their names.
+   *
+   * @param folder  the folder with the market data files
+   * @param storeFileName  the name of the store file
+   * @throws IOException  in case of reading or writing problem
+   */
+  public static void convertFolder(String folder, String storeFileName) throws IOException {
+    convertFolder(folder, MARKET_DATA_PREFIX, storeFileName);
+  }
+
+  /**
+   * Converts all the quotes files of a folder starting with a prefix, i.e. the csv files starting with the prefix.
+   * <p>
+   * The files are converted in the order of their names.
+   *
+   * @param folder  the folder with the quotes files
+   * @param prefix  the prefix of the file names
+   * @param storeFileName  the name of the store file
+   * @throws IOException  in case of reading or writing problem
+   */
+  public static void convertFolder(String folder, String prefix, String storeFileName) throws IOException {
+    List<ResourceLocator> resources = new ArrayList<>();
+    for (File file : files(folder, prefix)) {
+      resources.add(ResourceLocator.ofFile(file));
+    }
+    convert(resources, storeFileName);
+  }
+
+  /**
+   * Returns the quotes files of a folder starting with a prefix, in the order of their names.
+   *
+   * @param folder  the folder with the quotes files
+   * @param prefix  the prefix of the file names
+   * @return the files
+   */
+  public static List<File> files(String folder, String prefix) {
+    File[] files = new File(folder)
+        .listFiles(f -> f.isFile() && f.getName().startsWith(prefix) && f.getName().endsWith(".csv"));
+    ArgChecker.isTrue(files != null, "{} need to be a directory", folder);
+    Arrays.sort(files);
+    return Arrays.asList(files);
+  }
+
+  /**
+   * Converts quotes files in the Strata csv format.
+   * <p>
+   * The files are loaded one by one; the quote identifiers are shared by all the dates and only the values are
+   * kept for each date.
+   *
+   * @param resources  the quotes files
+   * @param storeFileName  the name of the store file
+   * @throws IOException  in case of reading or writing problem
+   */
+  public static void convert(Collection<ResourceLocator> resources, String storeFileName) throws IOException {
+    Rows rows = new Rows();
+    for (ResourceLocator resource : resources) {
+      Map<LocalDate, ? extends Map<QuoteId, Double>> quotes =
+          QuotesCsvLoader.load(date -> true, ImmutableList.of(resource));
+      for (Map.Entry<LocalDate, ? extends Map<QuoteId, Double>> entry : quotes.entrySet()) {
+        rows.add(entry.getKey(), entry.getValue());
+      }
+    }
+    rows.write(storeFileName);
+  }
+
+  /**
+   * Writes quotes by date.
+   *
+   * @param quotes  the quotes, by date
+   * @param storeFileName  the name of the store file
+   * @throws IOException  in case of writing problem
+   */
+  public static void write(Map<LocalDate, ? extends Map<QuoteId, Double>> quotes, String storeFileName)
+      throws IOException {
+
+    Rows rows = new Rows();
+    for (Map.Entry<LocalDate, ? extends Map<QuoteId, Double>> entry : quotes.entrySet()) {
+      rows.add(entry.getKey(), entry.getValue());
+    }
+    rows.write(storeFileName);
+  }
+
+  //-------------------------------------------------------------------------
+  /* Compact representation of the quotes: ticker dictionary and, by date, the slots and values. */
+  private static final class Rows {
+    private final List<QuoteId> tickers = new ArrayList<>();
+    private final Map<QuoteId, Integer> slots = new HashMap<>();
+    private final TreeMap<LocalDate, Map<Integer, Double>> rows = new TreeMap<>();
+
+    private void add(LocalDate date, Map<QuoteId, Double> quotes) {
+      Map<Integer, Double> row = rows.computeIfAbsent(date, d -> new HashMap<>());
+      for (Map.Entry<QuoteId, Double> quote : quotes.entrySet()) {
+        Integer slot = slots.computeIfAbsent(quote.getKey(), id -> {
+          tickers.add(id);
+          return tickers.size() - 1;
+        });
+        row.put(slot, quote.getValue());
+      }
+    }
+
+    private void write(String storeFileName) throws IOException {
+      int nbDates = rows.size();
+      int nbTickers = tickers.size();
+      int nbWords = QuoteStoreFormat.nbWords(nbTickers);
+      /* Header and dictionary */
+      List<byte[]> strings = new ArrayList<>();
+      long dictionarySize = 0;
+      for (QuoteId ticker : tickers) {
+        for (String str : new String[] {ticker.getStandardId().getScheme(), ticker.getStandardId().getValue(),
+            ticker.getFieldName().getName(), ticker.getObservableSource().getName()}) {
+          byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+          strings.add(bytes);
+          dictionarySize += Integer.BYTES + bytes.length;
+        }
+      }
+      long datesOffset = QuoteStoreFormat.align8(QuoteStoreFormat.HEADER_SIZE + dictionarySize);
+      long bitmapOffset = QuoteStoreFormat.align8(datesOffset + (long) Integer.BYTES * nbDates);
+      long valuesOffset = bitmapOffset + (long) Long.BYTES * nbWords * nbDates;
+      long size = valuesOffset + (long) Double.BYTES * nbTickers * nbDates;
+      ArgChecker.isTrue(size <= Integer.MAX_VALUE, "quote store limited to 2GB");
+      ByteBuffer head = ByteBuffer.allocate(Math.toIntExact(datesOffset)).order(ByteOrder.LITTLE_ENDIAN);
+      head.putInt(QuoteStoreFormat.MAGIC);
+      head.putInt(QuoteStoreFormat.VERSION);
+      head.putInt(nbDates);
+      head.putInt(nbTickers);
+      head.putLong(datesOffset);
+      head.putLong(bitmapOffset);
+      head.putLong(valuesOffset);
+      for (byte[] bytes : strings) {
+        head.putInt(bytes.length);
+        head.put(bytes);
+      }
+      head.flip();
+      Path file = Paths.get(storeFileName).toAbsolutePath();
+      Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+      try {
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+          writeFully(channel, head, 0);
+          ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+          /* Dates */
+          long position = datesOffset;
+          for (LocalDate date : rows.keySet()) {
+            if (buffer.remaining() < Integer.BYTES) {
+              position = flush(channel, buffer, position);
+            }
+            buffer.putInt(Math.toIntExact(date.toEpochDay()));
+          }
+          flush(channel, buffer, position);
+          /* Bitmap */
+          position = bitmapOffset;
+          long[] words = new long[nbWords];
+          for (Map<Integer, Double> row : rows.values()) {
+            Arrays.fill(words, 0L);
+            for (Integer slot : row.keySet()) {
+              words[slot / Long.SIZE] |= 1L << (slot % Long.SIZE);
+            }
+            for (int loopword = 0; loopword < nbWords; loopword++) {
+              if (buffer.remaining() < Long.BYTES) {
+                position = flush(channel, buffer, position);
+              }
+              buffer.putLong(words[loopword]);
+            }
+          }
+          flush(channel, buffer, position);
+          /* Values */
+          position = valuesOffset;
+          double[] values = new double[nbTickers];
+          for (Map<Integer, Double> row : rows.values()) {
+            Arrays.fill(values, Double.NaN);
+            for (Map.Entry<Integer, Double> quote : row.entrySet()) {
+              values[quote.getKey()] = quote.getValue();
+            }
+            for (int loopticker = 0; loopticker < nbTickers; loopticker++) {
+              if (buffer.remaining() < Double.BYTES) {
+                position = flush(channel, buffer, position);
+              }
+              buffer.putDouble(values[loopticker]);
+            }
+          }
+          flush(channel, buffer, position);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    }
+  }
+
+  private static long flush(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    buffer.flip();
+    long newPosition = writeFully(channel, buffer, position);
+    buffer.clear();
+    return newPosition;
+  }
+
+  private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    long currentPosition = position;
+    while (buffer.hasRemaining()) {
+      currentPosition += channel.write(buffer, currentPosition);
+    }
+    return currentPosition;
+  }
+
+}
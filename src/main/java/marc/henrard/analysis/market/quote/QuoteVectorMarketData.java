@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.market.quote;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.MarketDataName;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * Market data view in which the quotes of a {@link QuoteIndex} are backed by a {@code double[]}.
+ * <p>
+ * The quotes of the layout are read directly from the array; all the other market data are delegated to
+ * the base market data. The array is not copied: bumping a quote is an array write, visible by the view,
+ * and no map is rebuilt. The view must not be modified while it is used in a calibration or pricing.
+ * For parallel scenarios, use one array and one view by scenario, with {@link #withValues(double[])}.
+ *
+ * @author Marc Henrard
+ */
+public final class QuoteVectorMarketData implements MarketData {
+
+  /** The layout of the quotes. */
+  private final QuoteIndex quoteIndex;
+  /** The quotes, in the layout order. */
+  private final double[] values;
+  /** The base market data, for the other data. */
+  private final MarketData base;
+
+  private QuoteVectorMarketData(QuoteIndex quoteIndex, double[] values, MarketData base) {
+    this.quoteIndex = quoteIndex;
+    this.values = values;
+    this.base = base;
+  }
+
+  /**
+   * Creates the view.
+   *
+   * @param quoteIndex  the layout of the quotes
+   * @param values  the quotes, in the layout order; the array is used directly, not copied
+   * @param base  the base market data, for the other data
+   * @return the view
+   */
+  public static QuoteVectorMarketData of(QuoteIndex quoteIndex, double[] values, MarketData base) {
+    ArgChecker.isTrue(values.length == quoteIndex.size(), "values must have size {}", quoteIndex.size());
+    return new QuoteVectorMarketData(quoteIndex, values, base);
+  }
+
+  /**
+   * Returns a view with the same layout and base market data, backed by another array.
+   *
+   * @param values  the quotes, in the layout order; the array is used directly, not copied
+   * @return the view
+   */
+  public QuoteVectorMarketData withValues(double[] values) {
+    return of(quoteIndex, values, base);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the layout of the quotes.
+   *
+   * @return the layout
+   */
+  public QuoteIndex getQuoteIndex() {
+    return quoteIndex;
+  }
+
+  /**
+   * Returns the array backing the quotes. Changes in the array are visible in the view.
+   *
+   * @return the array
+   */
+  public double[] getValuesUnsafe() {
+    return values;
+  }
+
+  /**
+   * Sets the quote in a slot.
+   *
+   * @param slot  the slot
+   * @param value  the new quote
+   */
+  public void setValue(int slot, double value) {
+    values[slot] = value;
+  }
+
+  /**
+   * Adds a shift to the quote in a slot.
+   *
+   * @param slot  the slot
+   * @param shift  the shift
+   */
+  public void shiftValue(int slot, double shift) {
+    values[slot] += shift;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDate getValuationDate() {
+    return base.getValuationDate();
+  }
+
+  @Override
+  public boolean containsValue(MarketDataId<?> id) {
+    return slot(id) >= 0 || base.containsValue(id);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T getValue(MarketDataId<T> id) {
+    int slot = slot(id);
+    if (slot >= 0) {
+      return (T) Double.valueOf(values[slot]);
+    }
+    return base.getValue(id);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Optional<T> findValue(MarketDataId<T> id) {
+    int slot = slot(id);
+    if (slot >= 0) {
+      return Optional.of((T) Double.valueOf(values[slot]));
+    }
+    return base.findValue(id);
+  }
+
+  @Override
+  public Set<MarketDataId<?>> getIds() {
+    Set<MarketDataId<?>> ids = new HashSet<>(base.getIds());
+    ids.addAll(quoteIndex.getQuoteIds());
+    return ids;
+  }
+
+  @Override
+  public <T> Set<MarketDataId<T>> findIds(MarketDataName<T> name) {
+    return base.findIds(name);
+  }
+
+  @Override
+  public Set<ObservableId> getTimeSeriesIds() {
+    return base.getTimeSeriesIds();
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries getTimeSeries(ObservableId id) {
+    return base.getTimeSeries(id);
+  }
+
+  private int slot(MarketDataId<?> id) {
+    return (id instanceof QuoteId) ? quoteIndex.slot((QuoteId) id) : -1;
+  }
+
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.statistics;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+
+/**
+ * Monte Carlo simulation of the sliding-window median of a series at future horizon dates, like the ISDA fallback
+ * spread adjustment at a possible announcement date.
+ * <p>
+ * The future values of the series are simulated by block bootstrap: blocks of consecutive historical daily changes,
+ * with a random start, are added to the last historical value. The median on a horizon date is the median of the
+ * historical and simulated values from the horizon date minus the lookback period (inclusive) to the horizon date
+ * (exclusive). The historical values of the first window are the same for all the paths: they are sorted once in a
+ * {@link SortedDoubleWindow}, which is copied at the start of each path. On each path, only the simulated values are
+ * added and the values leaving the window removed while the window slides over the horizon dates.
+ * <p>
+ * The paths are simulated in parallel on a fork-join pool. The paths are grouped in tasks of a fixed number of
+ * paths and each task has its own {@link SplittableRandom}, split from the seed in the order of the tasks.
+ * The results depend only on the seed, not on the number of threads or the order of execution.
+ *
+ * @author Marc Henrard
+ */
+public final class BootstrapMedianSimulation {
+
+  /** The number of paths by task, each task having its own random stream. */
+  private static final int NB_PATHS_BY_TASK = 64;
+
+  /** The number of paths. */
+  private final int nbPaths;
+  /** The number of consecutive daily changes in a bootstrap block. */
+  private final int blockSize;
+  /** The seed of the random streams. */
+  private final long seed;
+  /** The pool on which the paths are simulated. */
+  private final ForkJoinPool pool;
+
+  private BootstrapMedianSimulation(int nbPaths, int blockSize, long seed, ForkJoinPool pool) {
+    this.nbPaths = nbPaths;
+    this.blockSize = blockSize;
+    this.seed = seed;
+    this.pool = pool;
+  }
+
+  /**
+   * Creates an instance using the common pool.
+   *
+   * @param nbPaths  the number of paths
+   * @param blockSize  the number of consecutive daily changes in a bootstrap block
+   * @param seed  the seed of the random streams
+   * @return the simulation
+   */
+  public static BootstrapMedianSimulation of(int nbPaths, int blockSize, long seed) {
+    return of(nbPaths, blockSize, seed, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param nbPaths  the number of paths
+   * @param blockSize  the number of consecutive daily changes in a bootstrap block
+   * @param seed  the seed of the random streams
+   * @param pool  the pool on which the paths are simulated
+   * @return the simulation
+   */
+  public static BootstrapMedianSimulation of(int nbPaths, int blockSize, long seed, ForkJoinPool pool) {
+    ArgChecker.notNegativeOrZero(nbPaths, "nbPaths");
+    ArgChecker.notNegativeOrZero(blockSize, "blockSize");
+    ArgChecker.notNull(pool, "pool");
+    return new BootstrapMedianSimulation(nbPaths, blockSize, seed, pool);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Simulates the medians on the horizon dates.
+   * <p>
+   * The simulated values are on the future dates, which must be after the last date of the history. The daily
+   * changes are the differences between consecutive values of the calibration series.
+   *
+   * @param history  the historical series, the start of the paths
+   * @param calibration  the series from which the daily changes are bootstrapped
+   * @param lookback  the lookback period of the median window
+   * @param futureDates  the dates of the simulated values, in increasing order
+   * @param horizonDates  the dates of the medians, in increasing order
+   * @return the simulated medians
+   */
+  public Result simulate(
+      LocalDateDoubleTimeSeries history,
+      LocalDateDoubleTimeSeries calibration,
+      Period lookback,
+      List<LocalDate> futureDates,
+      List<LocalDate> horizonDates) {
+
+    ArgChecker.isFalse(history.isEmpty(), "history must not be empty");
+    int nbHorizons = horizonDates.size();
+    ArgChecker.isTrue(nbHorizons > 0, "horizonDates must not be empty");
+    for (int loophorizon = 1; loophorizon < nbHorizons; loophorizon++) {
+      ArgChecker.inOrderNotEqual(
+          horizonDates.get(loophorizon - 1), horizonDates.get(loophorizon), "horizonDates", "horizonDates");
+    }
+    double[] calibrationValues = calibration.values().toArray();
+    int nbChanges = calibrationValues.length - 1;
+    ArgChecker.isTrue(nbChanges >= blockSize, "calibration must contain at least {} daily changes", blockSize);
+    double[] changes = new double[nbChanges];
+    for (int loopchange = 0; loopchange < nbChanges; loopchange++) {
+      changes[loopchange] = calibrationValues[loopchange + 1] - calibrationValues[loopchange];
+    }
+    /* Dates of the windows: history from the first window start, then future dates */
+    LocalDate firstWindowStart = horizonDates.get(0).minus(lookback);
+    LocalDateDoubleTimeSeries historyWindow = history.subSeries(firstWindowStart, history.getLatestDate().plusDays(1));
+    double[] historyValues = historyWindow.values().toArray();
+    int nbHistory = historyValues.length;
+    int nbFuture = futureDates.size();
+    int[] dates = new int[nbHistory + nbFuture];
+    int loopdate = 0;
+    for (LocalDate date : historyWindow.dates().toArray(LocalDate[]::new)) {
+      dates[loopdate++] = Math.toIntExact(date.toEpochDay());
+    }
+    LocalDate previous = history.getLatestDate();
+    for (LocalDate date : futureDates) {
+      ArgChecker.inOrderNotEqual(previous, date, "futureDates", "futureDates");
+      dates[loopdate++] = Math.toIntExact(date.toEpochDay());
+      previous = date;
+    }
+    int[] horizons = new int[nbHorizons];
+    int[] windowStarts = new int[nbHorizons];
+    for (int loophorizon = 0; loophorizon < nbHorizons; loophorizon++) {
+      horizons[loophorizon] = Math.toIntExact(horizonDates.get(loophorizon).toEpochDay());
+      windowStarts[loophorizon] = Math.toIntExact(horizonDates.get(loophorizon).minus(lookback).toEpochDay());
+    }
+    /* Historical values of the first window, common to all paths */
+    int firstHistory = firstOnOrAfter(dates, 0, nbHistory, windowStarts[0]);
+    int lastHistory = firstOnOrAfter(dates, firstHistory, nbHistory, horizons[0]);
+    SortedDoubleWindow firstWindowHistory =
+        SortedDoubleWindow.of(Arrays.copyOfRange(historyValues, firstHistory, lastHistory));
+    /* Paths */
+    double start = history.getLatestValue();
+    double[][] medians = new double[nbHorizons][nbPaths];
+    int nbTasks = (nbPaths + NB_PATHS_BY_TASK - 1) / NB_PATHS_BY_TASK;
+    SplittableRandom root = new SplittableRandom(seed);
+    SplittableRandom[] randoms = new SplittableRandom[nbTasks];
+    for (int looptask = 0; looptask < nbTasks; looptask++) {
+      randoms[looptask] = root.split();
+    }
+    pool.submit(() -> IntStream.range(0, nbTasks).parallel().forEach(task -> {
+      double[] values = Arrays.copyOf(historyValues, nbHistory + nbFuture);
+      int lastPath = Math.min(nbPaths, (task + 1) * NB_PATHS_BY_TASK);
+      for (int looppath = task * NB_PATHS_BY_TASK; looppath < lastPath; looppath++) {
+        simulatePath(randoms[task], changes, start, values, nbHistory);
+        SortedDoubleWindow window = firstWindowHistory.copy();
+        int first = firstHistory; // first value in the window
+        int last = lastHistory; // first value after the window
+        for (int loophorizon = 0; loophorizon < nbHorizons; loophorizon++) {
+          while (last < dates.length && dates[last] < horizons[loophorizon]) {
+            window.add(values[last++]);
+          }
+          while (first < last && dates[first] < windowStarts[loophorizon]) {
+            window.remove(values[first++]);
+          }
+          medians[loophorizon][looppath] = window.median();
+        }
+      }
+    })).join();
+    for (int loophorizon = 0; loophorizon < nbHorizons; loophorizon++) {
+      Arrays.sort(medians[loophorizon]);
+    }
+    return new Result(ImmutableList.copyOf(horizonDates), medians);
+  }
+
+  /* The first position between from (inclusive) and to (exclusive) with a date on or after the date, to if none. */
+  private static int firstOnOrAfter(int[] dates, int from, int to, int date) {
+    int position = from;
+    while (position < to && dates[position] < date) {
+      position++;
+    }
+    return position;
+  }
+
+  /* Fills the simulated values, after the historical ones, with blocks of bootstrapped changes. */
+  private void simulatePath(SplittableRandom random, double[] changes, double start, double[] values, int nbHistory) {
+    double value = start;
+    int position = nbHistory;
+    while (position < values.length) {
+      int block = random.nextInt(changes.length - blockSize + 1);
+      for (int loopchange = 0; loopchange < blockSize && position < values.length; loopchange++) {
+        value += changes[block + loopchange];
+        values[position++] = value;
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The simulated medians on the horizon dates.
+   */
+  public static final class Result {
+
+    /** The horizon dates. */
+    private final ImmutableList<LocalDate> horizonDates;
+    /** The medians of the paths, by horizon date, in increasing order. */
+    private final double[][] medians;
+
+    private Result(ImmutableList<LocalDate> horizonDates, double[][] medians) {
+      this.horizonDates = horizonDates;
+      this.medians = medians;
+    }
+
+    /**
+     * Returns the horizon dates.
+     *
+     * @return the dates
+     */
+    public ImmutableList<LocalDate> getHorizonDates() {
+      return horizonDates;
+    }
+
+    /**
+     * Returns the medians of all the paths on a horizon date, in increasing order.
+     *
+     * @param horizon  the index of the horizon date
+     * @return the medians
+     */
+    public double[] getMedians(int horizon) {
+      return medians[horizon].clone();
+    }
+
+    /**
+     * Returns a quantile of the distribution of the median on a horizon date.
+     * <p>
+     * The quantile is linearly interpolated between the closest ranks, as in {@code Quantiles.scale()}.
+     *
+     * @param horizon  the index of the horizon date
+     * @param level  the level of the quantile, between 0 and 1
+     * @return the quantile
+     */
+    public double quantile(int horizon, double level) {
+      ArgChecker.inRangeInclusive(level, 0.0d, 1.0d, "level");
+      double[] sorted = medians[horizon];
+      double position = level * (sorted.length - 1);
+      int lower = (int) Math.floor(position);
+      if (lower == sorted.length - 1) {
+        return sorted[lower];
+      }
+      return sorted[lower] + (position - lower) * (sorted[lower + 1] - sorted[lower]);
+    }
+  }
+
+}
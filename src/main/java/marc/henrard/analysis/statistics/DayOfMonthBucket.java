@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.statistics;
+
+/**
+ * Bucket of business days by their position in the month, for intra-month seasonality.
+ * <p>
+ * The positions are in business days of the calendar of the series. The buckets can overlap: the last business
+ * day of December is in {@link #LAST}, {@link #QUARTER_END} and {@link #YEAR_END}.
+ *
+ * @author Marc Henrard
+ */
+public enum DayOfMonthBucket {
+
+  /** The first business day of the month. */
+  FIRST {
+    @Override
+    boolean contains(int fromStart, int fromEnd, int month, int dayOfMonth, int previousDayOfMonth) {
+      return fromStart == 0;
+    }
+  },
+  /** The second business day of the month. */
+  SECOND {
+    @Override
+    boolean contains(int fromStart, int fromEnd, int month, int dayOfMonth, int previousDayOfMonth) {
+      return fromStart == 1;
+    }
+  },
+  /** The first business day on or after the 15th of the month. */
+  MID_MONTH {
+    @Override
+    boolean contains(int fromStart, int fromEnd, int month, int dayOfMonth, int previousDayOfMonth) {
+      return dayOfMonth >= 15 && previousDayOfMonth < 15;
+    }
+  },
+  /** The second last business day of the month. */
+  SECOND_LAST {
+    @Override
+    boolean contains(int fromStart, int fromEnd, int month, int dayOfMonth, int previousDayOfMonth) {
+      return fromEnd == 1;
+    }
+  },
+  /** The last business day of the month. */
+  LAST {
+    @Override
+    boolean contains(int fromStart, int fromEnd, int month, int dayOfMonth, int previousDayOfMonth) {
+      return fromEnd == 0;
+    }
+  },
+  /** The last business day of March, June, September and December. */
+  QUARTER_END {
+    @Override
+    boolean contains(int fromStart, int fromEnd, int month, int dayOfMonth, int previousDayOfMonth) {
+      return fromEnd == 0 && month % 3 == 0;
+    }
+  },
+  /** The last business day of December. */
+  YEAR_END {
+    @Override
+    boolean contains(int fromStart, int fromEnd, int month, int dayOfMonth, int previousDayOfMonth) {
+      return fromEnd == 0 && month == 12;
+    }
+  },
+  /** The business days in none of the other buckets used in the same statistics, except {@link #ALL}. */
+  OTHER {
+    @Override
+    boolean contains(int fromStart, int fromEnd, int month, int dayOfMonth, int previousDayOfMonth) {
+      return false;
+    }
+  },
+  /** All the business days. */
+  ALL {
+    @Override
+    boolean contains(int fromStart, int fromEnd, int month, int dayOfMonth, int previousDayOfMonth) {
+      return true;
+    }
+  };
+
+  /**
+   * Checks if a business day is in the bucket.
+   * <p>
+   * {@link #OTHER} depends on the other buckets and is never contained directly.
+   *
+   * @param fromStart  the number of business days in the month before the day
+   * @param fromEnd  the number of business days in the month after the day
+   * @param month  the month, from 1 to 12
+   * @param dayOfMonth  the day of the month
+   * @param previousDayOfMonth  the day of the month of the previous business day in the month, 0 for the first
+   * @return true if the day is in the bucket
+   */
+  abstract boolean contains(int fromStart, int fromEnd, int month, int dayOfMonth, int previousDayOfMonth);
+
+}
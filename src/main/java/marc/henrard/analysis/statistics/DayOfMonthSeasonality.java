@@ -0,0 +1,309 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.statistics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.collect.ArgChecker;
+
+import marc.henrard.analysis.basics.date.BusinessDayIndex;
+import marc.henrard.analysis.data.timeseries.DenseDoubleTimeSeries;
+
+/**
+ * Intra-month seasonality statistics of daily series, by bucket of business days in the month.
+ * <p>
+ * The business days of the full months covered by a series are visited once, in order. Each day is classified in
+ * the configured {@link DayOfMonthBucket}s from its position in the month, computed from the ordinals of the
+ * {@link BusinessDayIndex}, and its value is added to the count, mean and variance of each of its buckets. The
+ * accumulators are primitive arrays updated with Welford's algorithm. The days without value are ignored.
+ * <p>
+ * The value used is either the value of the series, typically the spread between two overnight indices, or the
+ * difference between the value and the mean of the values of the same month. The second removes the level of the
+ * rates and is adapted to the seasonality of a single index.
+ * <p>
+ * Several series, each with its own calendar, are processed in parallel on a fork-join pool, one task by series.
+ *
+ * @author Marc Henrard
+ */
+public final class DayOfMonthSeasonality {
+
+  /** The buckets. */
+  private final ImmutableList<DayOfMonthBucket> buckets;
+  /** Whether the values are relative to the mean of their month. */
+  private final boolean relativeToMonthMean;
+  /** The pool on which several series are processed. */
+  private final ForkJoinPool pool;
+
+  private DayOfMonthSeasonality(
+      ImmutableList<DayOfMonthBucket> buckets,
+      boolean relativeToMonthMean,
+      ForkJoinPool pool) {
+
+    this.buckets = buckets;
+    this.relativeToMonthMean = relativeToMonthMean;
+    this.pool = pool;
+  }
+
+  /**
+   * Creates an instance using the common pool.
+   *
+   * @param buckets  the buckets, in the order of the results
+   * @param relativeToMonthMean  whether the values are relative to the mean of their month
+   * @return the statistics engine
+   */
+  public static DayOfMonthSeasonality of(List<DayOfMonthBucket> buckets, boolean relativeToMonthMean) {
+    return of(buckets, relativeToMonthMean, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param buckets  the buckets, in the order of the results
+   * @param relativeToMonthMean  whether the values are relative to the mean of their month
+   * @param pool  the pool on which several series are processed
+   * @return the statistics engine
+   */
+  public static DayOfMonthSeasonality of(
+      List<DayOfMonthBucket> buckets,
+      boolean relativeToMonthMean,
+      ForkJoinPool pool) {
+
+    ArgChecker.notEmpty(buckets, "buckets");
+    ArgChecker.isTrue(ImmutableSet.copyOf(buckets).size() == buckets.size(), "buckets must be distinct");
+    ArgChecker.notNull(pool, "pool");
+    return new DayOfMonthSeasonality(ImmutableList.copyOf(buckets), relativeToMonthMean, pool);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the statistics of several series in parallel.
+   *
+   * @param series  the series
+   * @param calendars  the business days of each series
+   * @return the statistics, in the order of the series
+   */
+  public ImmutableList<Result> compute(List<DenseDoubleTimeSeries> series, List<BusinessDayIndex> calendars) {
+    ArgChecker.isTrue(series.size() == calendars.size(),
+        "number of series ({}) and of calendars ({}) must be equal", series.size(), calendars.size());
+    return pool.submit(() -> IntStream.range(0, series.size()).parallel()
+        .mapToObj(i -> compute(series.get(i), calendars.get(i)))
+        .collect(ImmutableList.toImmutableList())).join();
+  }
+
+  /**
+   * Computes the statistics of a series.
+   * <p>
+   * Only the full months in the range of the series and of the calendar are used. A month is full if the range
+   * contains its first and last business days; the calendar days before the first or after the last business day
+   * are not required.
+   *
+   * @param series  the series
+   * @param calendar  the business days of the series
+   * @return the statistics
+   */
+  public Result compute(DenseDoubleTimeSeries series, BusinessDayIndex calendar) {
+    LocalDate rangeStart = max(series.getStartDate(), calendar.getStartDate());
+    LocalDate rangeEnd = min(series.getEndDate(), calendar.getEndDate());
+    YearMonth firstMonth = YearMonth.from(rangeStart);
+    LocalDate firstMonthStart = firstMonth.atDay(1);
+    if (firstMonthStart.isBefore(calendar.getStartDate()) ||
+        rangeStart.isAfter(calendar.nextOrSame(firstMonthStart))) {
+      firstMonth = firstMonth.plusMonths(1);
+    }
+    YearMonth endMonth = YearMonth.from(rangeEnd);
+    LocalDate nextMonthStart = endMonth.plusMonths(1).atDay(1);
+    if (!nextMonthStart.isAfter(calendar.getEndDate()) && calendar.previous(nextMonthStart).isBefore(rangeEnd)) {
+      endMonth = endMonth.plusMonths(1);
+    }
+    if (!firstMonth.isBefore(endMonth)) {
+      endMonth = firstMonth;
+    }
+    int nbBuckets = buckets.size();
+    int otherBucket = buckets.indexOf(DayOfMonthBucket.OTHER);
+    int[] counts = new int[nbBuckets];
+    double[] means = new double[nbBuckets];
+    double[] sumSquares = new double[nbBuckets];
+    int first = ordinal(calendar, firstMonth.atDay(1));
+    for (YearMonth loopmonth = firstMonth; loopmonth.isBefore(endMonth); loopmonth = loopmonth.plusMonths(1)) {
+      int monthStartEpochDay = Math.toIntExact(loopmonth.atDay(1).toEpochDay());
+      int month = loopmonth.getMonthValue();
+      int last = ordinal(calendar, loopmonth.plusMonths(1).atDay(1));
+      double monthMean = 0.0d;
+      if (relativeToMonthMean) {
+        double sum = 0.0d;
+        int nbValues = 0;
+        for (int loopordinal = first; loopordinal < last; loopordinal++) {
+          double value = series.get(calendar.epochDay(loopordinal));
+          if (!Double.isNaN(value)) {
+            sum += value;
+            nbValues++;
+          }
+        }
+        monthMean = (nbValues == 0) ? 0.0d : sum / nbValues;
+      }
+      int previousDayOfMonth = 0;
+      for (int loopordinal = first; loopordinal < last; loopordinal++) {
+        int epochDay = calendar.epochDay(loopordinal);
+        int dayOfMonth = epochDay - monthStartEpochDay + 1;
+        double value = series.get(epochDay);
+        if (!Double.isNaN(value)) {
+          value -= monthMean;
+          boolean inBucket = false;
+          for (int loopbucket = 0; loopbucket < nbBuckets; loopbucket++) {
+            DayOfMonthBucket bucket = buckets.get(loopbucket);
+            if (bucket.contains(loopordinal - first, last - 1 - loopordinal, month, dayOfMonth, previousDayOfMonth)) {
+              add(loopbucket, value, counts, means, sumSquares);
+              inBucket |= bucket != DayOfMonthBucket.ALL;
+            }
+          }
+          if (!inBucket && otherBucket >= 0) {
+            add(otherBucket, value, counts, means, sumSquares);
+          }
+        }
+        previousDayOfMonth = dayOfMonth;
+      }
+      first = last;
+    }
+    return new Result(buckets, firstMonth.atDay(1), endMonth.atDay(1), counts, means, sumSquares);
+  }
+
+  /* Adds a value to the accumulators of a bucket (Welford). */
+  private static void add(int bucket, double value, int[] counts, double[] means, double[] sumSquares) {
+    counts[bucket]++;
+    double delta = value - means[bucket];
+    means[bucket] += delta / counts[bucket];
+    sumSquares[bucket] += delta * (value - means[bucket]);
+  }
+
+  /* The ordinal of the first business day on or after the date. */
+  private static int ordinal(BusinessDayIndex calendar, LocalDate date) {
+    return calendar.daysBetween(calendar.getStartDate(), date);
+  }
+
+  private static LocalDate max(LocalDate date1, LocalDate date2) {
+    return date1.isAfter(date2) ? date1 : date2;
+  }
+
+  private static LocalDate min(LocalDate date1, LocalDate date2) {
+    return date1.isBefore(date2) ? date1 : date2;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The statistics of a series, by bucket.
+   */
+  public static final class Result {
+
+    /** The buckets. */
+    private final ImmutableList<DayOfMonthBucket> buckets;
+    /** The first day of the first month used. */
+    private final LocalDate startDate;
+    /** The first day after the last month used. */
+    private final LocalDate endDate;
+    /** The number of values, by bucket. */
+    private final int[] counts;
+    /** The means, by bucket. */
+    private final double[] means;
+    /** The sums of squared deviations from the mean, by bucket. */
+    private final double[] sumSquares;
+
+    private Result(
+        ImmutableList<DayOfMonthBucket> buckets,
+        LocalDate startDate,
+        LocalDate endDate,
+        int[] counts,
+        double[] means,
+        double[] sumSquares) {
+
+      this.buckets = buckets;
+      this.startDate = startDate;
+      this.endDate = endDate;
+      this.counts = counts;
+      this.means = means;
+      this.sumSquares = sumSquares;
+    }
+
+    /**
+     * Returns the buckets.
+     *
+     * @return the buckets
+     */
+    public ImmutableList<DayOfMonthBucket> getBuckets() {
+      return buckets;
+    }
+
+    /**
+     * Returns the first day of the first month used.
+     *
+     * @return the date
+     */
+    public LocalDate getStartDate() {
+      return startDate;
+    }
+
+    /**
+     * Returns the first day after the last month used.
+     *
+     * @return the date
+     */
+    public LocalDate getEndDate() {
+      return endDate;
+    }
+
+    /**
+     * Returns the number of values in a bucket.
+     *
+     * @param bucket  the bucket
+     * @return the number of values
+     */
+    public int count(DayOfMonthBucket bucket) {
+      return counts[position(bucket)];
+    }
+
+    /**
+     * Returns the mean of the values in a bucket.
+     *
+     * @param bucket  the bucket
+     * @return the mean, NaN if there is no value
+     */
+    public double mean(DayOfMonthBucket bucket) {
+      int position = position(bucket);
+      return (counts[position] == 0) ? Double.NaN : means[position];
+    }
+
+    /**
+     * Returns the sample variance of the values in a bucket.
+     *
+     * @param bucket  the bucket
+     * @return the variance, NaN if there are less than two values
+     */
+    public double variance(DayOfMonthBucket bucket) {
+      int position = position(bucket);
+      return (counts[position] < 2) ? Double.NaN : sumSquares[position] / (counts[position] - 1);
+    }
+
+    /**
+     * Returns the sample standard deviation of the values in a bucket.
+     *
+     * @param bucket  the bucket
+     * @return the standard deviation, NaN if there are less than two values
+     */
+    public double standardDeviation(DayOfMonthBucket bucket) {
+      return Math.sqrt(variance(bucket));
+    }
+
+    private int position(DayOfMonthBucket bucket) {
+      int position = buckets.indexOf(bucket);
+      ArgChecker.isTrue(position >= 0, "bucket {} not in the statistics", bucket);
+      return position;
+    }
+  }
+
+}
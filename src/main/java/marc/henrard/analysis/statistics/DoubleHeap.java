@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.statistics;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of primitive doubles, used for the running order statistics.
+ * <p>
+ * The heap is a max-heap or a min-heap. The values are stored in an array which grows when needed;
+ * no object is created by value.
+ *
+ * @author Marc Henrard
+ */
+final class DoubleHeap {
+
+  /** The default initial capacity. */
+  private static final int DEFAULT_CAPACITY = 64;
+
+  /** True for a max-heap, false for a min-heap. */
+  private final boolean max;
+  /** The values, in heap order in the first size positions. */
+  private double[] values;
+  /** The number of values. */
+  private int size;
+
+  DoubleHeap(boolean max) {
+    this.max = max;
+    this.values = new double[DEFAULT_CAPACITY];
+  }
+
+  //-------------------------------------------------------------------------
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /* The top value, the maximum for a max-heap and the minimum for a min-heap. */
+  double peek() {
+    return values[0];
+  }
+
+  void push(double value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, 2 * size);
+    }
+    int position = size++;
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (!before(value, values[parent])) {
+        break;
+      }
+      values[position] = values[parent];
+      position = parent;
+    }
+    values[position] = value;
+  }
+
+  double pop() {
+    double top = values[0];
+    double last = values[--size];
+    int position = 0;
+    int half = size >>> 1;
+    while (position < half) {
+      int child = 2 * position + 1;
+      if (child + 1 < size && before(values[child + 1], values[child])) {
+        child++;
+      }
+      if (!before(values[child], last)) {
+        break;
+      }
+      values[position] = values[child];
+      position = child;
+    }
+    values[position] = last;
+    return top;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  /* True if the first value should be closer to the top than the second. */
+  private boolean before(double value1, double value2) {
+    return max ? value1 > value2 : value1 < value2;
+  }
+
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.statistics;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+
+/**
+ * Expanding-window means and medians of a time series, for several window start dates, in one pass.
+ * <p>
+ * For each start date, the window on a date of the series contains the values from the start date (inclusive) to
+ * that date (exclusive), as in {@code series.subSeries(startDate, date)}. The statistics are produced on the dates
+ * of the series after a warm-up period from the start date, before an end date, and when the window contains
+ * more than a minimum number of values.
+ * <p>
+ * The series is read once; each start date has its own {@link RunningStatistics}. The cost is O(n log n) for each
+ * start date, instead of O(n^2 log n) when each window is rebuilt and sorted.
+ *
+ * @author Marc Henrard
+ */
+public final class ExpandingWindowStatistics {
+
+  /** Private constructor. */
+  private ExpandingWindowStatistics() {
+  }
+
+  /**
+   * Computes the expanding-window means and medians for several start dates.
+   *
+   * @param series  the time series
+   * @param startDates  the start dates of the windows
+   * @param warmUp  the period after the start date without statistics
+   * @param endDate  the end date of the statistics, exclusive
+   * @param minSize  the statistics are produced only for windows with more than this number of values
+   * @return the statistics, in the order of the start dates
+   */
+  public static ImmutableList<Result> compute(
+      LocalDateDoubleTimeSeries series,
+      List<LocalDate> startDates,
+      Period warmUp,
+      LocalDate endDate,
+      int minSize) {
+
+    int nbStarts = startDates.size();
+    int nbValues = series.size();
+    LocalDate[] firstOutputDates = new LocalDate[nbStarts];
+    RunningStatistics[] statistics = new RunningStatistics[nbStarts];
+    int[][] dates = new int[nbStarts][nbValues];
+    double[][] means = new double[nbStarts][nbValues];
+    double[][] medians = new double[nbStarts][nbValues];
+    int[] sizes = new int[nbStarts];
+    for (int loopstart = 0; loopstart < nbStarts; loopstart++) {
+      firstOutputDates[loopstart] = startDates.get(loopstart).plus(warmUp);
+      statistics[loopstart] = RunningStatistics.create();
+    }
+    LocalDate[] seriesDates = series.dates().toArray(LocalDate[]::new);
+    double[] seriesValues = series.values().toArray();
+    for (int loopvalue = 0; loopvalue < nbValues; loopvalue++) {
+      LocalDate date = seriesDates[loopvalue];
+      double value = seriesValues[loopvalue];
+      for (int loopstart = 0; loopstart < nbStarts; loopstart++) {
+        RunningStatistics stat = statistics[loopstart];
+        if (!date.isBefore(firstOutputDates[loopstart]) && date.isBefore(endDate) && stat.size() > minSize) {
+          int position = sizes[loopstart]++;
+          dates[loopstart][position] = Math.toIntExact(date.toEpochDay());
+          means[loopstart][position] = stat.mean();
+          medians[loopstart][position] = stat.median();
+        }
+        if (!date.isBefore(startDates.get(loopstart))) {
+          stat.add(value);
+        }
+      }
+    }
+    ImmutableList.Builder<Result> results = ImmutableList.builder();
+    for (int loopstart = 0; loopstart < nbStarts; loopstart++) {
+      int size = sizes[loopstart];
+      results.add(new Result(
+          startDates.get(loopstart),
+          Arrays.copyOf(dates[loopstart], size),
+          Arrays.copyOf(means[loopstart], size),
+          Arrays.copyOf(medians[loopstart], size)));
+    }
+    return results.build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The expanding-window statistics for one start date.
+   */
+  public static final class Result {
+
+    /** The start date of the window. */
+    private final LocalDate startDate;
+    /** The dates of the statistics, as epoch-days. */
+    private final int[] dates;
+    /** The means. */
+    private final double[] means;
+    /** The medians. */
+    private final double[] medians;
+
+    private Result(LocalDate startDate, int[] dates, double[] means, double[] medians) {
+      this.startDate = startDate;
+      this.dates = dates;
+      this.means = means;
+      this.medians = medians;
+    }
+
+    /**
+     * Returns the start date of the window.
+     *
+     * @return the start date
+     */
+    public LocalDate getStartDate() {
+      return startDate;
+    }
+
+    /**
+     * Returns the number of dates with statistics.
+     *
+     * @return the size
+     */
+    public int size() {
+      return dates.length;
+    }
+
+    /**
+     * Returns the means as a time series.
+     * <p>
+     * The dates of the time series are obtained from the dates of the statistics by the date mapping,
+     * e.g. to use the maturity date of a fixing.
+     *
+     * @param dateMapping  the mapping from the date of the statistics to the date of the time series
+     * @return the time series
+     */
+    public LocalDateDoubleTimeSeries means(UnaryOperator<LocalDate> dateMapping) {
+      return timeSeries(means, dateMapping);
+    }
+
+    /**
+     * Returns the medians as a time series.
+     * <p>
+     * The dates of the time series are obtained from the dates of the statistics by the date mapping.
+     *
+     * @param dateMapping  the mapping from the date of the statistics to the date of the time series
+     * @return the time series
+     */
+    public LocalDateDoubleTimeSeries medians(UnaryOperator<LocalDate> dateMapping) {
+      return timeSeries(medians, dateMapping);
+    }
+
+    private LocalDateDoubleTimeSeries timeSeries(double[] values, UnaryOperator<LocalDate> dateMapping) {
+      ArgChecker.notNull(dateMapping, "dateMapping");
+      LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+      for (int loopdate = 0; loopdate < dates.length; loopdate++) {
+        builder.put(dateMapping.apply(LocalDate.ofEpochDay(dates[loopdate])), values[loopdate]);
+      }
+      return builder.build();
+    }
+  }
+
+}
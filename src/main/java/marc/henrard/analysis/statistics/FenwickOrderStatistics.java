@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.statistics;
+
+import java.util.Arrays;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Order statistics of a multiset of values drawn from a known universe, with insertion and removal.
+ * <p>
+ * The universe of possible values is sorted once. The multiset is represented by the count of each value, stored
+ * in a Fenwick (binary indexed) tree over the value ranks. Adding or removing a value and finding the value of a
+ * given rank are O(log m), where m is the number of distinct values in the universe. No sort is done when the
+ * multiset changes, which makes the structure adapted to sliding windows.
+ *
+ * @author Marc Henrard
+ */
+public final class FenwickOrderStatistics {
+
+  /** The distinct values of the universe, in increasing order. */
+  private final double[] universe;
+  /** The Fenwick tree of the counts, 1-based. */
+  private final int[] tree;
+  /** The highest power of two lower than or equal to the universe size. */
+  private final int highestStep;
+  /** The number of values in the multiset. */
+  private int size;
+
+  private FenwickOrderStatistics(double[] universe) {
+    this.universe = universe;
+    this.tree = new int[universe.length + 1];
+    this.highestStep = (universe.length == 0) ? 0 : Integer.highestOneBit(universe.length);
+  }
+
+  /**
+   * Creates an empty multiset for the universe of the given values.
+   * <p>
+   * The values can contain duplicates and are not modified.
+   *
+   * @param values  the values of the universe
+   * @return the order statistics
+   */
+  public static FenwickOrderStatistics of(double[] values) {
+    double[] sorted = values.clone();
+    Arrays.sort(sorted);
+    int nbDistinct = 0;
+    for (int loopvalue = 0; loopvalue < sorted.length; loopvalue++) {
+      ArgChecker.isFalse(Double.isNaN(sorted[loopvalue]), "values must not be NaN");
+      if (nbDistinct == 0 || Double.compare(sorted[loopvalue], sorted[nbDistinct - 1]) != 0) {
+        sorted[nbDistinct++] = sorted[loopvalue];
+      }
+    }
+    return new FenwickOrderStatistics(Arrays.copyOf(sorted, nbDistinct));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds a value to the multiset.
+   *
+   * @param value  the value, which must be in the universe
+   */
+  public void add(double value) {
+    update(rank(value), 1);
+    size++;
+  }
+
+  /**
+   * Removes one occurrence of a value from the multiset.
+   *
+   * @param value  the value, which must be in the multiset
+   */
+  public void remove(double value) {
+    int rank = rank(value);
+    ArgChecker.isTrue(count(rank) > 0, "value {} not in the multiset", value);
+    update(rank, -1);
+    size--;
+  }
+
+  /**
+   * Returns the number of values in the multiset.
+   *
+   * @return the size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the value of a given order in the multiset, in increasing order.
+   *
+   * @param order  the order, between 0 and size-1
+   * @return the value
+   */
+  public double get(int order) {
+    ArgChecker.isTrue(0 <= order && order < size, "order {} must be between 0 and {}", order, size - 1);
+    int position = 0;
+    int remaining = order + 1;
+    for (int step = highestStep; step > 0; step >>>= 1) {
+      int next = position + step;
+      if (next < tree.length && tree[next] < remaining) {
+        position = next;
+        remaining -= tree[next];
+      }
+    }
+    return universe[position];
+  }
+
+  /**
+   * Returns the median of the multiset.
+   * <p>
+   * For an even size, the median is the mid-point of the two middle values, computed as in
+   * {@code Quantiles.median()}.
+   *
+   * @return the median
+   */
+  public double median() {
+    ArgChecker.isTrue(size > 0, "no value");
+    double upper = get(size / 2);
+    if (size % 2 == 1) {
+      return upper;
+    }
+    double lower = get(size / 2 - 1);
+    return lower + (upper - lower) / 2.0d;
+  }
+
+  //-------------------------------------------------------------------------
+  /* The 0-based rank of the value in the universe. */
+  private int rank(double value) {
+    int rank = Arrays.binarySearch(universe, value);
+    ArgChecker.isTrue(rank >= 0, "value {} not in the universe", value);
+    return rank;
+  }
+
+  /* The count of the value of a given rank. */
+  private int count(int rank) {
+    return prefixCount(rank + 1) - prefixCount(rank);
+  }
+
+  /* The number of values with rank strictly below the given one. */
+  private int prefixCount(int rank) {
+    int count = 0;
+    for (int position = rank; position > 0; position -= position & -position) {
+      count += tree[position];
+    }
+    return count;
+  }
+
+  private void update(int rank, int delta) {
+    for (int position = rank + 1; position < tree.length; position += position & -position) {
+      tree[position] += delta;
+    }
+  }
+
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.statistics;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Confidence bands of the future running mean of a series modeled as a random walk.
+ * <p>
+ * A scenario is a past of n values with a given mean and a current value. On the future day d (d = 0, 1, ...),
+ * the running mean includes d+1 new values. With the current value as center, the mean is
+ * (n * mean + (d+1) * current) / (n + d + 1). The random walk increments, with daily standard deviation sigma,
+ * add to the sum a noise of variance sigma^2 * sum_{k=1}^{d+1} k^2. The band of level s adds s standard deviations
+ * of that noise to the center.
+ * <p>
+ * The sum of squares is updated in O(1) by day and is common to all the scenarios; the bands of all the scenarios
+ * and levels are produced in one pass on the days.
+ *
+ * @author Marc Henrard
+ */
+public final class FutureMeanBands {
+
+  /** Private constructor. */
+  private FutureMeanBands() {
+  }
+
+  /**
+   * Computes the bands of the future running mean for several scenarios and sigma levels.
+   * <p>
+   * The level 0 is the center. The levels are typically symmetrical, like {1, 0, -1}.
+   *
+   * @param nbLookback  the number of past values, by scenario
+   * @param pastMeans  the mean of the past values, by scenario
+   * @param currentValues  the current value, by scenario
+   * @param nbDays  the number of future days, by scenario
+   * @param dailyStdDeviation  the daily standard deviation of the random walk
+   * @param sigmaLevels  the levels of the bands, in number of standard deviations
+   * @return the bands, by scenario, level and future day
+   */
+  public static double[][][] compute(
+      int[] nbLookback,
+      double[] pastMeans,
+      double[] currentValues,
+      int[] nbDays,
+      double dailyStdDeviation,
+      double[] sigmaLevels) {
+
+    int nbScenarios = nbLookback.length;
+    ArgChecker.isTrue(pastMeans.length == nbScenarios, "pastMeans must have one value by scenario");
+    ArgChecker.isTrue(currentValues.length == nbScenarios, "currentValues must have one value by scenario");
+    ArgChecker.isTrue(nbDays.length == nbScenarios, "nbDays must have one value by scenario");
+    int nbLevels = sigmaLevels.length;
+    int maxDays = 0;
+    double[][][] bands = new double[nbScenarios][nbLevels][];
+    double[] pastSums = new double[nbScenarios];
+    for (int loopsc = 0; loopsc < nbScenarios; loopsc++) {
+      ArgChecker.notNegative(nbDays[loopsc], "nbDays");
+      maxDays = Math.max(maxDays, nbDays[loopsc]);
+      pastSums[loopsc] = nbLookback[loopsc] * pastMeans[loopsc];
+      for (int looplevel = 0; looplevel < nbLevels; looplevel++) {
+        bands[loopsc][looplevel] = new double[nbDays[loopsc]];
+      }
+    }
+    double sumSquares = 0.0d;
+    for (int loopday = 0; loopday < maxDays; loopday++) {
+      double nbNew = loopday + 1;
+      sumSquares += nbNew * nbNew; // sum_{k=1}^{d+1} k^2
+      double stdDeviationSum = Math.sqrt(sumSquares) * dailyStdDeviation;
+      for (int loopsc = 0; loopsc < nbScenarios; loopsc++) {
+        if (loopday >= nbDays[loopsc]) {
+          continue;
+        }
+        double sum = pastSums[loopsc] + nbNew * currentValues[loopsc];
+        double nbTotal = nbLookback[loopsc] + nbNew;
+        for (int looplevel = 0; looplevel < nbLevels; looplevel++) {
+          bands[loopsc][looplevel][loopday] = (sum + sigmaLevels[looplevel] * stdDeviationSum) / nbTotal;
+        }
+      }
+    }
+    return bands;
+  }
+
+}
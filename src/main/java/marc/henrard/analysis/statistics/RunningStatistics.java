@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.statistics;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Running mean and median of an expanding set of values.
+ * <p>
+ * The values are added one by one. The sum is computed with compensated (Neumaier) summation, which keeps the
+ * rounding error of the mean independent of the number of values. The median is computed with two heaps, the lower
+ * half in a max-heap and the upper half in a min-heap; adding a value is O(log n) and the median is O(1).
+ * <p>
+ * For an even number of values, the median is the mid-point of the two middle values, computed as in
+ * {@code Quantiles.median()}.
+ *
+ * @author Marc Henrard
+ */
+public final class RunningStatistics {
+
+  /** The lower half of the values, with the largest at the top. */
+  private final DoubleHeap lower = new DoubleHeap(true);
+  /** The upper half of the values, with the smallest at the top. */
+  private final DoubleHeap upper = new DoubleHeap(false);
+  /** The sum of the values. */
+  private double sum;
+  /** The compensation of the rounding errors of the sum. */
+  private double compensation;
+
+  /**
+   * Creates an empty instance.
+   *
+   * @return the statistics
+   */
+  public static RunningStatistics create() {
+    return new RunningStatistics();
+  }
+
+  private RunningStatistics() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds a value.
+   *
+   * @param value  the value
+   */
+  public void add(double value) {
+    ArgChecker.isFalse(Double.isNaN(value), "value must not be NaN");
+    double newSum = sum + value;
+    if (Math.abs(sum) >= Math.abs(value)) {
+      compensation += (sum - newSum) + value;
+    } else {
+      compensation += (value - newSum) + sum;
+    }
+    sum = newSum;
+    if (lower.isEmpty() || value <= lower.peek()) {
+      lower.push(value);
+    } else {
+      upper.push(value);
+    }
+    if (lower.size() > upper.size() + 1) {
+      upper.push(lower.pop());
+    } else if (upper.size() > lower.size()) {
+      lower.push(upper.pop());
+    }
+  }
+
+  /**
+   * Returns the number of values.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    return lower.size() + upper.size();
+  }
+
+  /**
+   * Returns the mean of the values.
+   *
+   * @return the mean
+   */
+  public double mean() {
+    ArgChecker.isTrue(size() > 0, "no value");
+    return (sum + compensation) / size();
+  }
+
+  /**
+   * Returns the median of the values.
+   *
+   * @return the median
+   */
+  public double median() {
+    ArgChecker.isTrue(size() > 0, "no value");
+    if (lower.size() > upper.size()) {
+      return lower.peek();
+    }
+    double lowerMiddle = lower.peek();
+    return lowerMiddle + (upper.peek() - lowerMiddle) / 2.0d;
+  }
+
+  /**
+   * Returns the lower middle value, the value of rank (n-1)/2 (rounded down) in increasing order.
+   *
+   * @return the lower middle value
+   */
+  public double lowerMiddle() {
+    ArgChecker.isTrue(size() > 0, "no value");
+    return lower.peek();
+  }
+
+  /**
+   * Returns the upper middle value, the value of rank n/2 (rounded down) in increasing order.
+   *
+   * @return the upper middle value
+   */
+  public double upperMiddle() {
+    ArgChecker.isTrue(size() > 0, "no value");
+    return (lower.size() > upper.size()) ? lower.peek() : upper.peek();
+  }
+
+  /**
+   * Removes all the values.
+   */
+  public void clear() {
+    lower.clear();
+    upper.clear();
+    sum = 0.0d;
+    compensation = 0.0d;
+  }
+
+}
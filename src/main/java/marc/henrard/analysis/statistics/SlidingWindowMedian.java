@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.statistics;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Arrays;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+
+/**
+ * Medians of a time series on a sliding lookback window, like the ISDA fallback spread adjustment.
+ * <p>
+ * The window on a date contains the values from the date minus the lookback period (inclusive) to the date
+ * (exclusive), as in {@code series.subSeries(date.minus(lookback), date)}. The statistics are computed on a first
+ * date and on all the dates of the series after it, up to the last date of the series.
+ * <p>
+ * The window is a {@link FenwickOrderStatistics}: each step adds and evicts the values entering and leaving the
+ * window in O(log n) and the median and the two middle values are read without sorting.
+ *
+ * @author Marc Henrard
+ */
+public final class SlidingWindowMedian {
+
+  /** The dates of the statistics, as epoch-days. */
+  private final int[] dates;
+  /** The number of values in the window. */
+  private final int[] sizes;
+  /** The medians. */
+  private final double[] medians;
+  /** The lower middle values, of order size/2-1. */
+  private final double[] lowerMiddles;
+  /** The upper middle values, of order size/2. */
+  private final double[] upperMiddles;
+
+  private SlidingWindowMedian(
+      int[] dates,
+      int[] sizes,
+      double[] medians,
+      double[] lowerMiddles,
+      double[] upperMiddles) {
+
+    this.dates = dates;
+    this.sizes = sizes;
+    this.medians = medians;
+    this.lowerMiddles = lowerMiddles;
+    this.upperMiddles = upperMiddles;
+  }
+
+  /**
+   * Computes the sliding window medians.
+   * <p>
+   * The windows must contain at least two values.
+   *
+   * @param series  the time series
+   * @param lookback  the lookback period of the window
+   * @param firstDate  the first date of the statistics
+   * @return the statistics
+   */
+  public static SlidingWindowMedian of(LocalDateDoubleTimeSeries series, Period lookback, LocalDate firstDate) {
+    LocalDate[] seriesDates = series.dates().toArray(LocalDate[]::new);
+    double[] seriesValues = series.values().toArray();
+    int nbValues = seriesValues.length;
+    FenwickOrderStatistics window = FenwickOrderStatistics.of(seriesValues);
+    int[] dates = new int[nbValues + 1];
+    int[] sizes = new int[nbValues + 1];
+    double[] medians = new double[nbValues + 1];
+    double[] lowerMiddles = new double[nbValues + 1];
+    double[] upperMiddles = new double[nbValues + 1];
+    int nbDates = 0;
+    int first = 0; // first value in the window
+    int last = 0; // first value after the window
+    int next = 0; // next value of the series to use as date
+    while (next < nbValues && !seriesDates[next].isAfter(firstDate)) {
+      next++;
+    }
+    LocalDate date = (nbValues > 0 && !firstDate.isAfter(seriesDates[nbValues - 1])) ? firstDate : null;
+    while (date != null) {
+      LocalDate startWindow = date.minus(lookback);
+      while (last < nbValues && seriesDates[last].isBefore(date)) {
+        window.add(seriesValues[last++]);
+      }
+      while (first < last && seriesDates[first].isBefore(startWindow)) {
+        window.remove(seriesValues[first++]);
+      }
+      int size = window.size();
+      ArgChecker.isTrue(size >= 2, "window on {} must contain at least two values", date);
+      dates[nbDates] = Math.toIntExact(date.toEpochDay());
+      sizes[nbDates] = size;
+      medians[nbDates] = window.median();
+      lowerMiddles[nbDates] = window.get(size / 2 - 1);
+      upperMiddles[nbDates] = window.get(size / 2);
+      nbDates++;
+      date = (next < nbValues) ? seriesDates[next++] : null;
+    }
+    return new SlidingWindowMedian(
+        Arrays.copyOf(dates, nbDates),
+        Arrays.copyOf(sizes, nbDates),
+        Arrays.copyOf(medians, nbDates),
+        Arrays.copyOf(lowerMiddles, nbDates),
+        Arrays.copyOf(upperMiddles, nbDates));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the number of dates with statistics.
+   *
+   * @return the number of dates
+   */
+  public int size() {
+    return dates.length;
+  }
+
+  /**
+   * Returns the date of the statistics.
+   *
+   * @param position  the position
+   * @return the date
+   */
+  public LocalDate getDate(int position) {
+    return LocalDate.ofEpochDay(dates[position]);
+  }
+
+  /**
+   * Returns the number of values in the window.
+   *
+   * @param position  the position
+   * @return the number of values
+   */
+  public int getWindowSize(int position) {
+    return sizes[position];
+  }
+
+  /**
+   * Returns the median of the window.
+   *
+   * @param position  the position
+   * @return the median
+   */
+  public double getMedian(int position) {
+    return medians[position];
+  }
+
+  /**
+   * Returns the lower middle value of the window, the value of order size/2-1 in increasing order.
+   *
+   * @param position  the position
+   * @return the lower middle value
+   */
+  public double getLowerMiddle(int position) {
+    return lowerMiddles[position];
+  }
+
+  /**
+   * Returns the upper middle value of the window, the value of order size/2 in increasing order.
+   *
+   * @param position  the position
+   * @return the upper middle value
+   */
+  public double getUpperMiddle(int position) {
+    return upperMiddles[position];
+  }
+
+  /**
+   * Returns the medians as a time series.
+   *
+   * @return the time series
+   */
+  public LocalDateDoubleTimeSeries medians() {
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    for (int loopdate = 0; loopdate < dates.length; loopdate++) {
+      builder.put(LocalDate.ofEpochDay(dates[loopdate]), medians[loopdate]);
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2021 - present by Marc Henrard.
+ */
+package marc.henrard.analysis.statistics;
+
+import java.util.Arrays;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Multiset of values kept sorted in a primitive array, with insertion and removal of any value.
+ * <p>
+ * Contrary to {@link FenwickOrderStatistics}, the values do not need to be known in advance, which makes the
+ * structure adapted to windows updated with new data, one value at a time. Adding or removing a value is a binary
+ * search and an array copy, O(n) with a very small constant for windows of a few thousand values; the median is
+ * O(1).
+ *
+ * @author Marc Henrard
+ */
+public final class SortedDoubleWindow {
+
+  /** The initial capacity. */
+  private static final int INITIAL_CAPACITY = 256;
+
+  /** The values, sorted in increasing order in the first size positions. */
+  private double[] values;
+  /** The number of values. */
+  private int size;
+
+  private SortedDoubleWindow(double[] values, int size) {
+    this.values = values;
+    this.size = size;
+  }
+
+  /**
+   * Creates an empty window.
+   *
+   * @return the window
+   */
+  public static SortedDoubleWindow create() {
+    return new SortedDoubleWindow(new double[INITIAL_CAPACITY], 0);
+  }
+
+  /**
+   * Creates a window with initial values.
+   * <p>
+   * The values are copied and sorted once.
+   *
+   * @param values  the values
+   * @return the window
+   */
+  public static SortedDoubleWindow of(double[] values) {
+    for (double value : values) {
+      ArgChecker.isFalse(Double.isNaN(value), "values must not be NaN");
+    }
+    double[] sorted = Arrays.copyOf(values, Math.max(values.length, INITIAL_CAPACITY));
+    Arrays.sort(sorted, 0, values.length);
+    return new SortedDoubleWindow(sorted, values.length);
+  }
+
+  /**
+   * Returns a copy of the window.
+   * <p>
+   * The copy is an array copy, without sort, and is independent of this window.
+   *
+   * @return the copy
+   */
+  public SortedDoubleWindow copy() {
+    return new SortedDoubleWindow(values.clone(), size);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds a value.
+   *
+   * @param value  the value
+   */
+  public void add(double value) {
+    ArgChecker.isFalse(Double.isNaN(value), "value must not be NaN");
+    if (size == values.length) {
+      values = Arrays.copyOf(values, 2 * values.length);
+    }
+    int position = Arrays.binarySearch(values, 0, size, value);
+    if (position < 0) {
+      position = -position - 1;
+    }
+    System.arraycopy(values, position, values, position + 1, size - position);
+    values[position] = value;
+    size++;
+  }
+
+  /**
+   * Removes one occurrence of a value.
+   *
+   * @param value  the value, which must be in the window
+   */
+  public void remove(double value) {
+    int position = Arrays.binarySearch(values, 0, size, value);
+    ArgChecker.isTrue(position >= 0, "value {} not in the window", value);
+    System.arraycopy(values, position + 1, values, position, size - position - 1);
+    size--;
+  }
+
+  /**
+   * Returns the number of values.
+   *
+   * @return the size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the value of a given order, in increasing order.
+   *
+   * @param order  the order, between 0 and size-1
+   * @return the value
+   */
+  public double get(int order) {
+    ArgChecker.isTrue(0 <= order && order < size, "order {} must be between 0 and {}", order, size - 1);
+    return values[order];
+  }
+
+  /**
+   * Returns the median of the values.
+   * <p>
+   * For an even size, the median is the mid-point of the two middle values, computed as in
+   * {@code Quantiles.median()}.
+   *
+   * @return the median
+   */
+  public double median() {
+    ArgChecker.isTrue(size > 0, "no value");
+    double upper = values[size / 2];
+    if (size % 2 == 1) {
+      return upper;
+    }
+    double lower = values[size / 2 - 1];
+    return lower + (upper - lower) / 2.0d;
+  }
+
+}